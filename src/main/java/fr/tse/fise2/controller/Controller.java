@@ -1,15 +1,39 @@
 package fr.tse.fise2.controller;
 
+import fr.tse.fise2.model.AngleMode;
 import fr.tse.fise2.model.CalculationResult;
 import fr.tse.fise2.model.Calculator;
 import fr.tse.fise2.model.CalculatorException;
+import fr.tse.fise2.model.CsvColumnReader;
+import fr.tse.fise2.model.Integrator;
+import fr.tse.fise2.model.Matrix;
+import fr.tse.fise2.model.NumberMode;
+import fr.tse.fise2.model.ResultFormatter;
+import fr.tse.fise2.model.StreamingStatistics;
 import fr.tse.fise2.ui.CalculatorUI;
 import fr.tse.fise2.ui.ScientificCalculatorUI;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.awt.Toolkit;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
+import javax.swing.SwingUtilities;
 
 /**
  * Contrôleur principal de la calculatrice.
@@ -17,10 +41,67 @@ import java.awt.event.KeyEvent;
  */
 public class Controller {
     private final CalculatorUI view;
-    private StringBuilder currentInput;
+    private final InputBuffer currentInput;
+
+    // Grand résultat exact affiché mais pas encore écrit dans la saisie : ses chiffres ne
+    // sont convertis en texte qu'à sa première modification (voir input())
+    private BigInteger pendingExact;
+
+    // Conservé d'un calcul à l'autre pour bénéficier de l'évaluation incrémentale ; n'est
+    // utilisé que sur le thread de calcul, ses réglages y sont donc appliqués eux aussi
+    private final Calculator calculator = new Calculator();
 
     private static final String OPERATORS = "+-x÷";
 
+    // Unité d'angle choisie, lue par le thread de l'aperçu
+    private volatile AngleMode angleMode = AngleMode.DEG;
+
+    // Mode de calcul choisi, lu par le thread de l'aperçu
+    private volatile NumberMode numberMode = NumberMode.FLOAT;
+
+    // Nombre de chiffres significatifs du mode précis, lu par le thread de l'aperçu
+    private volatile int precision = calculator.getPrecision();
+
+    // Bases d'écriture proposées par la touche de base du mode programmeur, et base choisie
+    private static final String[] OUTPUT_BASE_NAMES = {"DEC", "HEX", "BIN", "OCT"};
+    private static final int[] OUTPUT_BASES = {10, 16, 2, 8};
+    private volatile int outputBaseIndex = 0;
+
+    // Au-delà de cette taille, un résultat exact est affiché sans conversion préalable de
+    // tous ses chiffres, et son aperçu est écrit en notation scientifique
+    private static final int LARGE_EXACT_BITS = 200;
+
+    // Au-delà de ce nombre de coefficients, une matrice n'est affichée que par ses dimensions
+    private static final long LARGE_MATRIX_ELEMENTS = 1000;
+
+    // Délai d'inactivité avant le calcul de l'aperçu du résultat
+    private static final long PREVIEW_DELAY_MS = 150;
+
+    // Aperçu du résultat : un seul thread de fond, jamais l'EDT
+    private final ScheduledExecutorService previewExecutor;
+    private final AtomicLong previewGeneration = new AtomicLong();
+    private final Calculator previewCalculator = new Calculator();
+    private ScheduledFuture<?> pendingPreview;
+
+    // Taille maximale d'une puissance exacte dans l'aperçu : la dernière élévation au carré,
+    // qui ne peut pas être interrompue, dure alors au plus quelques dizaines de millisecondes
+    private static final long PREVIEW_EXACT_BITS = 1L << 21;
+
+    // Calculs longs (résolution, intégrale...) : un seul thread de fond, jamais l'EDT ;
+    // la génération écarte le résultat d'un calcul devenu caduc
+    private final ExecutorService calculationExecutor;
+    private final AtomicLong calculationGeneration = new AtomicLong();
+    private Future<?> pendingCalculation;
+
+    // Temps pendant lequel l'EDT attend le résultat de « = » avant de passer en calcul de
+    // fond : une expression courante est ainsi affichée immédiatement, comme un calcul direct
+    private static final long EQUALS_WAIT_MS = 50;
+
+    // Saisies reçues pendant l'évaluation de fond de « = » : elles sont appliquées dans
+    // l'ordre une fois le résultat publié, comme si l'évaluation avait été immédiate
+    private boolean deferringEdits;
+    private final Queue<Runnable> deferredEdits = new ArrayDeque<>();
+
     /**
      * Constructeur du contrôleur.
      * 
@@ -28,7 +109,18 @@ public class Controller {
      */
     public Controller(CalculatorUI view) {
         this.view = view;
-        this.currentInput = new StringBuilder();
+        this.currentInput = new InputBuffer();
+        this.previewExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calculator-preview");
+            thread.setDaemon(true);
+            return thread;
+        });
+        previewCalculator.setMaxExactBits(PREVIEW_EXACT_BITS);
+        this.calculationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calculator-calculation");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
     
     /**
@@ -36,10 +128,36 @@ public class Controller {
      * 
      * @param text Le texte à afficher.
      */
-    private void updateDisplay(String text) {
+    private void updateDisplay(CharSequence text) {
         view.setDisplay(text);
     }
 
+    /**
+     * Retourne l'entrée actuelle à afficher.
+     * L'instantané est transmis sans copie : le champ d'affichage ne lit que les
+     * caractères visibles, même pour une longue expression collée.
+     * 
+     * @return L'instantané de l'expression.
+     */
+    private CharSequence visibleInput() {
+        return input().snapshot();
+    }
+
+    /**
+     * Retourne le tampon de saisie, après y avoir écrit les chiffres du grand résultat exact
+     * en attente, s'il y en a un. Toute lecture ou modification de la saisie passe par ici :
+     * la conversion en texte n'a lieu que si l'utilisateur reprend le résultat.
+     * 
+     * @return Le tampon de saisie.
+     */
+    private InputBuffer input() {
+        if (pendingExact != null) {
+            currentInput.replace(pendingExact.toString());
+            pendingExact = null;
+        }
+        return currentInput;
+    }
+
     /**
      * Met à jour l'affichage de l'expression avec le texte fourni.
      * 
@@ -55,21 +173,28 @@ public class Controller {
      * @param command La commande saisie par l'utilisateur.
      */
     public void handleInput(String command) {
+        if (command.equals("AC")) {
+            handleAC();
+            return;
+        }
+        if (deferWhileEvaluating(() -> handleInput(command))) {
+            return;
+        }
         if (Character.isDigit(command.charAt(0)) || ".".equals(command)) {
             handleNumberInput(command);
         } else if (OPERATORS.contains(command)) {
             handleOperatorInput(command);
         } else {
             switch (command) {
-                case "AC": handleAC(); break;
                 case "←": handleBackspace(); break;
                 case "±": handlePlusMinus(); break;
                 case "%": handlePercent(); break;
-                case "=": handleEquals(); break;
-                case "Sci": handleScientificMode(); break;
-                default: break;
+                case "=": handleEquals(); return;
+                case "Sci": handleScientificMode(); return;
+                default: return;
             }
         }
+        schedulePreview();
     }
 
     /**
@@ -79,26 +204,16 @@ public class Controller {
      */
     private void handleNumberInput(String command) {
         if (command.equals(".")) {
-            String currentExp = currentInput.toString();
-            Pattern pattern = Pattern.compile("[+\\-x÷]?([^+\\-x÷]*)$");
-            Matcher matcher = pattern.matcher(currentExp);
-
-            if (matcher.find()) {
-                String lastOperand = matcher.group(1);
-                if (!lastOperand.contains(".")) {
-                    if (lastOperand.isEmpty() || currentInput.length() == 0) {
-                        currentInput.append("0.");
-                    } else {
-                        currentInput.append(".");
-                    }
-                }
-            } else if (currentInput.length() == 0) {
-                currentInput.append("0.");
+            String lastToken = input().lastToken();
+            if (!isNumeric(lastToken)) {
+                input().append("0.");
+            } else if (!lastToken.contains(".")) {
+                input().append(".");
             }
         } else {
-            currentInput.append(command);
+            input().append(command);
         }
-        updateDisplay(currentInput.toString());
+        updateDisplay(visibleInput());
         view.setACButtonToBackspace();
     }
 
@@ -108,14 +223,12 @@ public class Controller {
      * @param command L'opérateur saisi.
      */
     private void handleOperatorInput(String command) {
-        if (currentInput.length() > 0) {
-            String lastToken = getLastToken();
-
-            if (isOperator(lastToken)) {
-                currentInput.setLength(currentInput.length() - 1);
+        if (input().length() > 0) {
+            if (isOperator(input().lastToken())) {
+                input().removeLastTokens(1);
             }
-            currentInput.append(command);
-            updateDisplay(currentInput.toString());
+            input().append(command);
+            updateDisplay(visibleInput());
         }
     }
 
@@ -123,7 +236,11 @@ public class Controller {
      * Réinitialise l'entrée actuelle et l'affichage.
      */
     private void handleAC() {
-        currentInput.setLength(0);
+        cancelPreview();
+        cancelCalculation();
+        deferredEdits.clear();
+        pendingExact = null;
+        currentInput.clear();
         updateDisplay("0");
         updateExpression("");
         view.setACButtonToAC();
@@ -133,19 +250,18 @@ public class Controller {
      * Supprime le dernier caractère de l'entrée actuelle.
      */
     private void handleBackspace() {
-        if (currentInput.length() > 0) {
-            String lastToken = getLastCompleteToken();
-            int newLength = currentInput.length() - lastToken.length();
+        if (input().length() > 0) {
+            String lastToken = input().lastToken();
 
             if (isNumeric(lastToken) && lastToken.length() > 1) {
-                currentInput.deleteCharAt(currentInput.length() - 1);
+                input().setLength(input().length() - 1);
             } else {
-                currentInput.setLength(newLength);
+                input().removeLastTokens(1);
             }
 
-            updateDisplay(currentInput.length() > 0 ? currentInput.toString() : "0");
+            updateDisplay(input().length() > 0 ? visibleInput() : "0");
 
-            if (currentInput.length() == 0) {
+            if (input().length() == 0) {
                 view.setACButtonToAC();
             }
         }
@@ -155,52 +271,33 @@ public class Controller {
      * Bascule le signe du dernier nombre saisi.
      */
     private void handlePlusMinus() {
-        if (currentInput.length() > 0) {
-            String expression = currentInput.toString();
-
-            // Si l'expression commence par un signe moins
-            if (expression.startsWith("-")) {
-                // Enlever le signe moins
-                currentInput.setLength(0);
-                currentInput.append(expression.substring(1));
-                updateDisplay(currentInput.toString());
+        if (input().length() > 0) {
+            // Si l'expression commence par un signe moins, l'enlever
+            if (input().charAt(0) == '-') {
+                input().deleteFirstChar();
+                updateDisplay(visibleInput());
                 return;
             }
-    
-            // Trouver le dernier opérande, avec ou sans parenthèses
-            Pattern pattern = Pattern.compile("(.*?[+\\-x÷])?(\\(-?\\d+\\.?\\d*\\)|-?\\d+\\.?\\d*)$");
-            Matcher matcher = pattern.matcher(expression);
-    
-            if (matcher.find()) {
-                String prefix = matcher.group(1) != null ? matcher.group(1) : "";
-                String number = matcher.group(2);
-    
-                // Vérifier si le nombre est entre parenthèses
-                boolean isParenthesized = number.startsWith("(") && number.endsWith(")");
-    
-                // Enlever les parenthèses pour faciliter le traitement
-                if (isParenthesized) {
-                    number = number.substring(1, number.length() - 1);
-                }
-    
-                // Basculement du signe
-                if (number.startsWith("-")) {
-                    // Enlever le signe négatif
-                    number = number.substring(1);
-                } else {
-                    // Ajouter le signe négatif
-                    number = "-" + number;
-                }
-    
-                // Réappliquer les parenthèses si nécessaire
-                if (number.startsWith("-")) {
-                    number = "(" + number + ")";
-                }
-    
-                currentInput.setLength(0);
-                currentInput.append(prefix).append(number);
-                updateDisplay(currentInput.toString());
+
+            String lastToken = input().lastToken();
+            if (isNumeric(lastToken) && !lastToken.startsWith("-")) {
+                // Nombre positif : le remplacer par sa forme négative entre parenthèses
+                input().removeLastTokens(1);
+                input().append("(-" + lastToken + ")");
+            } else if (lastToken.equals(")") && "(".equals(input().tokenFromEnd(2))
+                    && isNumeric(input().tokenFromEnd(1))) {
+                // Nombre négatif entre parenthèses : retirer le signe et les parenthèses
+                String number = input().tokenFromEnd(1);
+                input().removeLastTokens(3);
+                input().append(number.startsWith("-") ? number.substring(1) : number);
+            } else if (isNumeric(lastToken)) {
+                // Nombre négatif sans parenthèses
+                input().removeLastTokens(1);
+                input().append(lastToken.substring(1));
+            } else {
+                return;
             }
+            updateDisplay(visibleInput());
         }
     }
 
@@ -208,29 +305,56 @@ public class Controller {
      * Ajoute un pourcentage à l'entrée actuelle.
      */
     private void handlePercent() {
-        if (currentInput.length() > 0) {
-            currentInput.append("%");
-            updateDisplay(currentInput.toString());
+        if (input().length() > 0) {
+            input().append("%");
+            updateDisplay(visibleInput());
         }
     }
 
     /**
-     * Évalue l'expression actuelle et met à jour l'affichage avec le résultat.
+     * Évalue l'expression actuelle sur le thread de calcul, puis met à jour l'affichage avec
+     * le résultat : un produit ou une résolution de grandes matrices peut durer plusieurs
+     * secondes. Un grand résultat exact n'est pas converti en texte : il est affiché chiffre
+     * à chiffre selon ce qui est visible, et conservé tel quel comme saisie en attente.
      */
     private void handleEquals() {
-        if (currentInput.length() > 0) {
-            try {
-                String expression = currentInput.toString();
-                expression = addMissingParentheses(expression);
-                String result = evaluateExpression(expression);
-                updateExpression(expression);
-                updateDisplay(result);
-                currentInput.setLength(0);
-                currentInput.append(result);
+        if (pendingExact != null) {
+            // Résultat déjà affiché et non modifié : le réévaluer le redonnerait à l'identique
+            return;
+        }
+        if (input().length() > 0) {
+            cancelPreview();
+            String expression = addMissingParentheses(input().toString());
+            calculate(() -> calculator.evaluateExpression(expression), EQUALS_WAIT_MS, result -> {
+                BigInteger exact = result.getExactResult();
+                if (exact != null && exact.bitLength() > LARGE_EXACT_BITS) {
+                    // Chiffres convertis à mesure qu'ils deviennent visibles
+                    updateExpression(expression);
+                    view.setDisplay(exact);
+                    currentInput.clear();
+                    pendingExact = exact;
+                    view.setACButtonToAC();
+                    return;
+                }
+                String text = result.getFormattedResult();
+                if (result.getFractionResult() != null) {
+                    // Fraction affichée avec sa valeur décimale
+                    updateExpression(expression + " ≈ " + result.getFormattedDecimal());
+                } else {
+                    updateExpression(expression);
+                }
+                Matrix matrix = result.getMatrixResult();
+                if (matrix != null && isLargeMatrix(matrix)) {
+                    // Trop de coefficients pour l'affichage : l'expression est conservée,
+                    // et la matrice peut être mémorisée par « →A »
+                    updateDisplay(matrixSummary(matrix));
+                    view.setACButtonToAC();
+                    return;
+                }
+                updateDisplay(text);
+                input().replace(text);
                 view.setACButtonToAC();
-            } catch (CalculatorException ex) {
-                updateDisplay("Erreur: " + ex.getMessage());
-            }
+            });
         }
     }
 
@@ -240,36 +364,797 @@ public class Controller {
      * @param command La commande scientifique saisie.
      */
     public void handleScientificInput(String command) {
+        if (deferWhileEvaluating(() -> handleScientificInput(command))) {
+            return;
+        }
+        if (isAngleModeCommand(command)) {
+            handleAngleMode();
+            return;
+        }
+        if (isNumberModeCommand(command)) {
+            handleNumberMode();
+            return;
+        }
+
         // Reset si affichage est "0"
-        if (currentInput.toString().equals("0")) {
-            view.clearCurrentInput();
+        if (input().length() == 1 && input().charAt(0) == '0') {
+            input().clear();
         }
         
         switch (command) {
             case "sin": case "cos": case "tan": 
-            case "asin": case "acos": case "atan":
             case "ln": case "exp":
-                currentInput.append(command).append("(");
+                input().append(command + "(");
+                break;
+            case "asin": case "acos": case "atan":
+                // Le modèle ne reconnaît que arcsin, arccos et arctan
+                input().append("arc" + command.substring(1) + "(");
                 break;
             case "√":
-                currentInput.append("sqrt(");
+                input().append("sqrt(");
                 break;
             case "x²":
-                currentInput.append("^2");
+                input().append("^2");
                 break;
             case "xʸ":
-                currentInput.append("^");
+                input().append("^");
                 break;
             case "n!":
-                currentInput.append("!");
+                input().append("!");
                 break;
-            case "(": case ")": case "π":
-                currentInput.append(command);
+            case "(": case ")": case "π": case "i":
+            case "nCr": case "nPr": case "→":
+                input().append(command);
                 break;
         }
         
-        updateDisplay(currentInput.toString());
+        updateDisplay(visibleInput());
+        view.setACButtonToBackspace();
+        schedulePreview();
+    }
+
+    /**
+     * Vérifie si une commande est la touche d'unité d'angle.
+     * 
+     * @param command La commande à vérifier.
+     * @return true si la commande est DEG, RAD ou GRAD.
+     */
+    private boolean isAngleModeCommand(String command) {
+        switch (command) {
+            case "DEG": case "RAD": case "GRAD":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Passe à l'unité d'angle suivante (DEG, RAD, GRAD) et met à jour la touche.
+     */
+    private void handleAngleMode() {
+        angleMode = angleMode.next();
+        AngleMode selected = angleMode;
+        calculationExecutor.execute(() -> calculator.setAngleMode(selected));
+        if (view instanceof ScientificCalculatorUI) {
+            ((ScientificCalculatorUI) view).setAngleModeKey(angleMode.name());
+        }
+        schedulePreview();
+    }
+
+    /**
+     * Retourne l'unité d'angle des fonctions trigonométriques.
+     * 
+     * @return L'unité d'angle courante.
+     */
+    public AngleMode getAngleMode() {
+        return angleMode;
+    }
+
+    /**
+     * Vérifie si une commande est la touche de mode de calcul.
+     * 
+     * @param command La commande à vérifier.
+     * @return true si la commande est le nom d'un mode de calcul.
+     */
+    private boolean isNumberModeCommand(String command) {
+        for (NumberMode mode : NumberMode.values()) {
+            if (mode.name().equals(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passe au mode de calcul suivant et met à jour la touche.
+     */
+    private void handleNumberMode() {
+        numberMode = numberMode.next();
+        NumberMode selected = numberMode;
+        calculationExecutor.execute(() -> calculator.setNumberMode(selected));
+        currentInput.setTokenPattern(Calculator.tokenPattern(selected));
+        if (view instanceof ScientificCalculatorUI) {
+            ScientificCalculatorUI scientificView = (ScientificCalculatorUI) view;
+            scientificView.setNumberModeKey(numberMode.name());
+            scientificView.setProgrammerMode(numberMode == NumberMode.PROGRAMMER);
+            scientificView.setStatisticsMode(numberMode == NumberMode.STATISTICS);
+            scientificView.setPolynomialMode(numberMode == NumberMode.POLYNOMIAL);
+            scientificView.setPreciseMode(numberMode == NumberMode.PRECISE);
+        }
+        schedulePreview();
+    }
+
+    /**
+     * Change le nombre de chiffres significatifs du mode précis, de 1 à 10000, et l'indique
+     * dans le champ d'expression. Les résultats intermédiaires mémorisés, calculés à
+     * l'ancienne précision, sont oubliés.
+     * 
+     * @param digits Le nombre de chiffres saisi.
+     */
+    public void setPrecision(String digits) {
+        if (deferWhileEvaluating(() -> setPrecision(digits))) {
+            return;
+        }
+        int selected;
+        try {
+            selected = Integer.parseInt(digits.trim());
+        } catch (NumberFormatException ex) {
+            updateDisplay("Erreur: Précision invalide : " + digits);
+            return;
+        }
+        calculate(() -> {
+            calculator.setPrecision(selected);
+            return selected;
+        }, value -> {
+            precision = value;
+            updateExpression("Précision : " + value + " chiffres");
+            schedulePreview();
+        });
+    }
+
+    /**
+     * Retourne le nombre de chiffres significatifs du mode précis.
+     * 
+     * @return La précision en chiffres.
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    /**
+     * Retourne le mode de calcul.
+     * 
+     * @return Le mode de calcul courant.
+     */
+    public NumberMode getNumberMode() {
+        return numberMode;
+    }
+
+    /**
+     * Gère les entrées du clavier programmeur.
+     * 
+     * @param command La commande saisie.
+     */
+    public void handleProgrammerInput(String command) {
+        if (deferWhileEvaluating(() -> handleProgrammerInput(command))) {
+            return;
+        }
+        if (isOutputBaseCommand(command)) {
+            handleOutputBase();
+            return;
+        }
+
+        // Reset si affichage est "0"
+        if (input().length() == 1 && input().charAt(0) == '0') {
+            input().clear();
+        }
+
+        if (command.equals("NOT")) {
+            input().append("NOT(");
+        } else {
+            // Chiffres A à F, préfixes 0x, 0b, 0o et opérateurs bit à bit
+            input().append(command);
+        }
+
+        updateDisplay(visibleInput());
+        view.setACButtonToBackspace();
+        schedulePreview();
+    }
+
+    /**
+     * Gère les entrées du clavier statistiques : nom d'une statistique, ou pct qui
+     * insère « pct( ».
+     * 
+     * @param command La commande saisie.
+     */
+    public void handleStatisticsInput(String command) {
+        if (deferWhileEvaluating(() -> handleStatisticsInput(command))) {
+            return;
+        }
+        if (input().length() == 1 && input().charAt(0) == '0') {
+            input().clear();
+        }
+        input().append(command.equals("pct") ? "pct(" : command);
+        updateDisplay(visibleInput());
+        view.setACButtonToBackspace();
+        schedulePreview();
+    }
+
+    /**
+     * Gère les entrées du clavier polynômes : inconnue X, évaluation @, ou roots et deriv
+     * qui insèrent « roots( » et « deriv( ».
+     * 
+     * @param command La commande saisie.
+     */
+    public void handlePolynomialInput(String command) {
+        if (deferWhileEvaluating(() -> handlePolynomialInput(command))) {
+            return;
+        }
+        if (input().length() == 1 && input().charAt(0) == '0') {
+            input().clear();
+        }
+        input().append(command.equals("roots") || command.equals("deriv") ? command + "(" : command);
+        updateDisplay(visibleInput());
         view.setACButtonToBackspace();
+        schedulePreview();
+    }
+
+    /**
+     * Résout l'équation « expression = 0 » d'inconnue X formée par l'entrée actuelle, à
+     * partir d'une valeur de départ (« 1 ») ou dans un intervalle (« 0;2 ») où l'expression
+     * change de signe. La résolution s'exécute sur le thread de calcul ; la solution
+     * remplace ensuite l'entrée, comme un résultat.
+     * 
+     * @param start La valeur de départ ou les bornes de l'intervalle séparées par « ; ».
+     */
+    public void solveEquation(String start) {
+        if (deferWhileEvaluating(() -> solveEquation(start))) {
+            return;
+        }
+        if (input().length() == 0) {
+            return;
+        }
+        cancelPreview();
+        String expression = addMissingParentheses(input().toString());
+        String[] bounds = start.replace(',', '.').replace(" ", "").split(";");
+        double first;
+        double second;
+        try {
+            first = Double.parseDouble(bounds[0]);
+            second = bounds.length == 2 ? Double.parseDouble(bounds[1]) : Double.NaN;
+        } catch (NumberFormatException ex) {
+            updateDisplay("Erreur: Valeur de départ invalide : " + start);
+            return;
+        }
+        calculate(() -> bounds.length == 2
+                ? calculator.solve(expression, first, second)
+                : calculator.solve(expression, first),
+            result -> {
+                String text = result.getFormattedResult();
+                updateExpression(expression + " = 0");
+                updateDisplay(text);
+                input().replace(text);
+                view.setACButtonToAC();
+            });
+    }
+
+    /**
+     * Intègre l'expression d'inconnue X formée par l'entrée actuelle entre deux bornes
+     * (« 0;1 »), avec une tolérance facultative (« 0;1;1e-6 »). L'intégration s'exécute sur
+     * le thread de calcul ; la valeur remplace ensuite l'entrée, comme un résultat, et
+     * l'erreur estimée et le nombre d'évaluations s'affichent dans le champ d'expression.
+     *
+     * @param bounds Les bornes, puis éventuellement la tolérance, séparées par « ; ».
+     */
+    public void integrateExpression(String bounds) {
+        if (deferWhileEvaluating(() -> integrateExpression(bounds))) {
+            return;
+        }
+        if (input().length() == 0) {
+            return;
+        }
+        cancelPreview();
+        String expression = addMissingParentheses(input().toString());
+        String[] values = bounds.replace(',', '.').replace(" ", "").split(";");
+        double lower;
+        double upper;
+        double tolerance;
+        try {
+            if (values.length != 2 && values.length != 3) {
+                throw new NumberFormatException();
+            }
+            lower = Double.parseDouble(values[0]);
+            upper = Double.parseDouble(values[1]);
+            tolerance = values.length == 3 ? Double.parseDouble(values[2]) : Integrator.DEFAULT_TOLERANCE;
+        } catch (NumberFormatException ex) {
+            updateDisplay("Erreur: Bornes invalides : " + bounds);
+            return;
+        }
+        calculate(() -> calculator.integrate(expression, lower, upper, tolerance),
+            integral -> {
+                String text = ResultFormatter.format(integral.getValue());
+                updateExpression("∫ " + expression + " dX sur [" + values[0] + " ; " + values[1] + "] ± "
+                    + ResultFormatter.format(integral.getErrorEstimate()) + " (" + integral.getEvaluations() + " évaluations)");
+                updateDisplay(text);
+                input().replace(text);
+                view.setACButtonToAC();
+            });
+    }
+
+    /**
+     * Calcule la somme (Σ) ou le produit (Π) du terme d'indice X formé par l'entrée actuelle,
+     * pour X allant du premier au dernier indice (« 1;1000000 »). Le calcul s'exécute sur le
+     * thread de calcul ; le résultat remplace ensuite l'entrée, comme un résultat.
+     *
+     * @param operator « Σ » ou « Π ».
+     * @param range Le premier et le dernier indice séparés par « ; ».
+     */
+    public void computeSeries(String operator, String range) {
+        if (deferWhileEvaluating(() -> computeSeries(operator, range))) {
+            return;
+        }
+        if (input().length() == 0) {
+            return;
+        }
+        cancelPreview();
+        String term = addMissingParentheses(input().toString());
+        String[] bounds = range.replace(" ", "").split(";");
+        long from;
+        long to;
+        try {
+            if (bounds.length != 2) {
+                throw new NumberFormatException();
+            }
+            from = Long.parseLong(bounds[0]);
+            to = Long.parseLong(bounds[1]);
+        } catch (NumberFormatException ex) {
+            updateDisplay("Erreur: Indices invalides : " + range);
+            return;
+        }
+        calculate(() -> operator.equals("Σ")
+                ? calculator.sum(term, from, to)
+                : calculator.product(term, from, to),
+            result -> {
+                String text = result.getFormattedResult();
+                updateExpression(operator + "[X=" + from + ".." + to + "](" + term + ")");
+                updateDisplay(text);
+                input().replace(text);
+                view.setACButtonToAC();
+            });
+    }
+
+    /**
+     * Remplace l'entrée actuelle, expression d'inconnue X, par sa dérivée symbolique
+     * simplifiée. Le texte de la dérivée peut ensuite être résolu, intégré ou dérivé à nouveau.
+     */
+    public void differentiateExpression() {
+        if (deferWhileEvaluating(() -> differentiateExpression())) {
+            return;
+        }
+        if (input().length() == 0) {
+            return;
+        }
+        cancelPreview();
+        String expression = addMissingParentheses(input().toString());
+        calculate(() -> calculator.differentiate(expression).toString(), text -> {
+            updateExpression("d/dX(" + expression + ")");
+            updateDisplay(text);
+            input().replace(text);
+            view.setACButtonToBackspace();
+        });
+    }
+
+    /**
+     * Trace le graphe de l'entrée actuelle, expression d'inconnue X, dans la fenêtre graphe
+     * de l'interface scientifique. L'entrée est conservée pour pouvoir être modifiée et retracée.
+     */
+    public void plotExpression() {
+        if (deferWhileEvaluating(() -> plotExpression())) {
+            return;
+        }
+        if (input().length() == 0) {
+            return;
+        }
+        cancelPreview();
+        String expression = addMissingParentheses(input().toString());
+        calculate(() -> calculator.compile(expression), f -> {
+            updateExpression("y = " + expression);
+            if (view instanceof ScientificCalculatorUI) {
+                ((ScientificCalculatorUI) view).showGraph(f);
+            }
+        });
+    }
+
+    /**
+     * Calcul confié au thread de calcul.
+     *
+     * @param <T> Le type du résultat.
+     */
+    @FunctionalInterface
+    private interface Calculation<T> {
+        T compute() throws CalculatorException;
+    }
+
+    /**
+     * Exécute un calcul sur le thread de calcul, puis publie son résultat sur l'EDT. Le champ
+     * d'expression indique le calcul en cours ; une erreur s'affiche comme une erreur de calcul.
+     * Le calcul précédent, s'il n'est pas terminé, est abandonné : un nouveau calcul, une
+     * nouvelle saisie ou AC interrompent le thread de calcul, et un résultat arrivé
+     * entre-temps n'est pas publié.
+     *
+     * @param calculation Le calcul, qui peut utiliser le calculateur principal.
+     * @param publisher La publication du résultat, exécutée sur l'EDT.
+     * @param <T> Le type du résultat.
+     */
+    private <T> void calculate(Calculation<T> calculation, Consumer<T> publisher) {
+        calculate(calculation, 0, publisher);
+    }
+
+    /**
+     * Exécute un calcul sur le thread de calcul, en attendant son résultat sur l'EDT pendant
+     * au plus le délai donné : un calcul rapide est publié immédiatement, sans passer par la
+     * mention du calcul en cours. Au-delà, les saisies reçues avant la publication du
+     * résultat sont mises en attente au lieu d'abandonner le calcul.
+     *
+     * @param calculation Le calcul, qui peut utiliser le calculateur principal.
+     * @param waitMillis Le délai d'attente sur l'EDT, en millisecondes (0 pour ne pas attendre).
+     * @param publisher La publication du résultat, exécutée sur l'EDT.
+     * @param <T> Le type du résultat.
+     */
+    private <T> void calculate(Calculation<T> calculation, long waitMillis, Consumer<T> publisher) {
+        cancelCalculation();
+        long generation = calculationGeneration.get();
+        Future<T> future = calculationExecutor.submit(() -> {
+            try {
+                T result = calculation.compute();
+                SwingUtilities.invokeLater(() -> publish(generation, () -> publisher.accept(result)));
+                return result;
+            } catch (CalculatorException | RuntimeException ex) {
+                SwingUtilities.invokeLater(() -> publish(generation, () -> showCalculationError(ex)));
+                throw ex;
+            }
+        });
+        pendingCalculation = future;
+        if (waitMillis > 0) {
+            try {
+                T result = future.get(waitMillis, TimeUnit.MILLISECONDS);
+                publish(generation, () -> publisher.accept(result));
+                return;
+            } catch (ExecutionException ex) {
+                publish(generation, () -> showCalculationError(ex.getCause()));
+                return;
+            } catch (TimeoutException ex) {
+                // Calcul long : il se poursuit en fond
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            deferringEdits = true;
+        }
+        updateExpression("Calcul en cours…");
+    }
+
+    /**
+     * Publie sur l'EDT le résultat ou l'erreur d'un calcul s'il n'est pas devenu caduc, puis
+     * applique les saisies reçues pendant le calcul. La génération est avancée : une seconde
+     * publication du même calcul (attente sur l'EDT puis thread de calcul) est ignorée.
+     *
+     * @param generation La génération du calcul.
+     * @param publication La mise à jour de l'affichage.
+     */
+    private void publish(long generation, Runnable publication) {
+        if (generation != calculationGeneration.get()) {
+            return;
+        }
+        calculationGeneration.incrementAndGet();
+        pendingCalculation = null;
+        deferringEdits = false;
+        publication.run();
+        while (!deferringEdits && !deferredEdits.isEmpty()) {
+            deferredEdits.poll().run();
+        }
+    }
+
+    /**
+     * Affiche l'erreur d'un calcul de fond.
+     *
+     * @param error L'erreur levée par le calcul.
+     */
+    private void showCalculationError(Throwable error) {
+        updateExpression("");
+        updateDisplay("Erreur: " + (error.getMessage() != null ? error.getMessage() : error.toString()));
+    }
+
+    /**
+     * Prépare une nouvelle saisie. Pendant l'évaluation de fond de « = », la saisie est mise
+     * en attente pour être appliquée après la publication du résultat ; un autre calcul de
+     * fond (résolution, intégrale...) est abandonné, la saisie le rendant caduc.
+     *
+     * @param edit La saisie à rejouer si elle est mise en attente.
+     * @return true si la saisie est mise en attente, false si elle peut être appliquée.
+     */
+    private boolean deferWhileEvaluating(Runnable edit) {
+        if (deferringEdits) {
+            deferredEdits.add(edit);
+            return true;
+        }
+        cancelCalculation();
+        return false;
+    }
+
+    /**
+     * Abandonne le calcul de fond en cours : son résultat ne sera pas publié, et la mention
+     * du calcul en cours est effacée du champ d'expression.
+     */
+    private void cancelCalculation() {
+        if (pendingCalculation != null) {
+            calculationGeneration.incrementAndGet();
+            pendingCalculation.cancel(true);
+            pendingCalculation = null;
+            deferringEdits = false;
+            updateExpression("");
+        }
+    }
+
+    /**
+     * Charge une colonne d'un fichier CSV comme jeu de données du mode statistiques.
+     * La lecture, qui peut durer plusieurs secondes pour un gros fichier, s'exécute sur
+     * un thread de fond ; l'effectif est ensuite affiché dans le champ d'expression.
+     * 
+     * @param file Le fichier CSV.
+     * @param column Le nom ou le numéro (à partir de 1) de la colonne.
+     */
+    public void loadDataset(Path file, String column) {
+        updateExpression("Chargement de " + file.getFileName() + "…");
+        Thread loader = new Thread(() -> {
+            try {
+                StreamingStatistics dataset = CsvColumnReader.read(file, column);
+                calculationExecutor.execute(() -> calculator.setDataset(dataset));
+                SwingUtilities.invokeLater(() -> {
+                    updateExpression(file.getFileName() + " : " + dataset.getCount() + " valeurs"
+                        + (dataset.getSkipped() > 0 ? ", " + dataset.getSkipped() + " ignorées" : ""));
+                });
+            } catch (CalculatorException | IOException | RuntimeException ex) {
+                String message = ex.getMessage() != null ? ex.getMessage() : ex.toString();
+                SwingUtilities.invokeLater(() -> {
+                    updateExpression("");
+                    updateDisplay("Erreur: " + message);
+                });
+            }
+        }, "calculator-dataset");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Vérifie si une commande est la touche de base d'écriture du mode programmeur.
+     * 
+     * @param command La commande à vérifier.
+     * @return true si la commande est DEC, HEX, BIN ou OCT.
+     */
+    private boolean isOutputBaseCommand(String command) {
+        for (String name : OUTPUT_BASE_NAMES) {
+            if (name.equals(command)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Passe à la base d'écriture suivante (DEC, HEX, BIN, OCT) et met à jour la touche.
+     */
+    private void handleOutputBase() {
+        outputBaseIndex = (outputBaseIndex + 1) % OUTPUT_BASES.length;
+        int selected = getOutputBase();
+        calculationExecutor.execute(() -> calculator.setOutputBase(selected));
+        if (view instanceof ScientificCalculatorUI) {
+            ((ScientificCalculatorUI) view).setOutputBaseKey(OUTPUT_BASE_NAMES[outputBaseIndex]);
+        }
+        schedulePreview();
+    }
+
+    /**
+     * Retourne la base d'écriture des résultats du mode programmeur.
+     * 
+     * @return La base courante (10, 16, 2 ou 8).
+     */
+    public int getOutputBase() {
+        return OUTPUT_BASES[outputBaseIndex];
+    }
+
+    /**
+     * Programme le calcul de l'aperçu du résultat pour l'entrée actuelle.
+     * Les frappes rapprochées sont regroupées : chaque nouvelle frappe annule l'aperçu
+     * en attente, interrompt l'aperçu en cours, et relance le délai. Le calcul s'exécute sur un thread
+     * de fond et seul le résultat de la dernière génération est publié sur l'EDT.
+     */
+    private void schedulePreview() {
+        CharSequence expression = input().snapshot();
+        long generation = previewGeneration.incrementAndGet();
+        if (pendingPreview != null) {
+            pendingPreview.cancel(true);
+        }
+        pendingPreview = previewExecutor.schedule(
+            () -> computePreview(expression, generation), PREVIEW_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Annule l'aperçu en attente. Un aperçu déjà en cours est interrompu : l'évaluation,
+     * les factorielles et les puissances exactes s'arrêtent au plus tard après le produit en cours.
+     */
+    private void cancelPreview() {
+        previewGeneration.incrementAndGet();
+        if (pendingPreview != null) {
+            pendingPreview.cancel(true);
+            pendingPreview = null;
+        }
+    }
+
+    /**
+     * Calcule l'aperçu du résultat sur le thread de fond.
+     * Une expression incomplète est tronquée de ses opérateurs finaux et ses parenthèses
+     * sont refermées ; une expression invalide efface simplement l'aperçu.
+     * 
+     * @param expression L'instantané de l'expression au moment de la frappe.
+     * @param generation La génération de la frappe ayant programmé ce calcul.
+     */
+    private void computePreview(CharSequence expression, long generation) {
+        if (generation != previewGeneration.get()) {
+            return;
+        }
+        String preview = "";
+        String text = expression.toString();
+        if (numberMode == NumberMode.MATRIX && text.indexOf('→') >= 0) {
+            // L'aperçu ne mémorise pas de variable : seule l'expression est évaluée
+            text = text.substring(0, text.lastIndexOf('→'));
+        }
+        String completed = trimIncompleteTail(text);
+        // En mode programmeur, un simple nombre est converti dans la base choisie
+        boolean converting = numberMode == NumberMode.PROGRAMMER && getOutputBase() != 10;
+        if (!isPlainNumber(completed) || (converting && !completed.isEmpty())) {
+            try {
+                previewCalculator.setAngleMode(angleMode);
+                previewCalculator.setNumberMode(numberMode);
+                previewCalculator.setPrecision(precision);
+                previewCalculator.setOutputBase(getOutputBase());
+                if (numberMode == NumberMode.MATRIX) {
+                    calculator.getVariables().forEach(previewCalculator::setVariable);
+                }
+                previewCalculator.setDataset(calculator.getDataset());
+                CalculationResult result = previewCalculator.evaluateExpression(addMissingParentheses(completed));
+                BigInteger exact = result.getExactResult();
+                Matrix matrix = result.getMatrixResult();
+                if (matrix != null && isLargeMatrix(matrix)) {
+                    preview = "= " + matrixSummary(matrix);
+                } else {
+                    preview = "= " + (exact != null && exact.bitLength() > LARGE_EXACT_BITS
+                        ? result.getFormattedResult(ResultFormatter.Notation.SCIENTIFIC)
+                        : result.getFormattedResult())
+                        + (result.getFractionResult() != null ? " ≈ " + result.getFormattedDecimal() : "");
+                }
+            } catch (CalculatorException | RuntimeException ex) {
+                preview = "";
+            }
+        }
+        if (generation != previewGeneration.get() || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        String published = preview;
+        SwingUtilities.invokeLater(() -> {
+            if (generation == previewGeneration.get()) {
+                updateExpression(published);
+            }
+        });
+    }
+
+    /**
+     * Vérifie si une matrice a trop de coefficients pour être affichée.
+     * 
+     * @param matrix La matrice.
+     * @return true si la matrice dépasse LARGE_MATRIX_ELEMENTS coefficients.
+     */
+    private boolean isLargeMatrix(Matrix matrix) {
+        return (long) matrix.getRows() * matrix.getColumns() > LARGE_MATRIX_ELEMENTS;
+    }
+
+    /**
+     * Décrit une matrice par ses dimensions, par exemple « Matrice 500×500 ».
+     * 
+     * @param matrix La matrice.
+     * @return Le résumé de la matrice.
+     */
+    private String matrixSummary(Matrix matrix) {
+        return "Matrice " + matrix.getRows() + "×" + matrix.getColumns();
+    }
+
+    /**
+     * Retire la fin incomplète d'une expression : opérateurs, parenthèses ouvrantes
+     * et noms de fonctions sans argument.
+     * 
+     * @param expression L'expression à traiter.
+     * @return L'expression sans sa fin incomplète.
+     */
+    private String trimIncompleteTail(String expression) {
+        int end = expression.length();
+        while (end > 0) {
+            char c = expression.charAt(end - 1);
+            if ("+-x÷^(@".indexOf(c) == -1 && (c < 'a' || c > 'z') && (c < 'A' || c > 'Z')) {
+                break;
+            }
+            // La constante i, seule, est complète
+            if (c == 'i' && (end == 1 || !Character.isLetter(expression.charAt(end - 2)))) {
+                break;
+            }
+            // Les chiffres A à F d'un littéral hexadécimal aussi
+            if (isHexLiteralEnd(expression, end)) {
+                break;
+            }
+            // Ainsi qu'une variable du mode matrices, une statistique ou l'inconnue X
+            if (numberMode == NumberMode.MATRIX && c >= 'A' && c <= 'Z') {
+                break;
+            }
+            if (numberMode == NumberMode.STATISTICS && endsWithStatistic(expression, end)) {
+                break;
+            }
+            if (numberMode == NumberMode.POLYNOMIAL && c == 'X') {
+                break;
+            }
+            end--;
+        }
+        return expression.substring(0, end);
+    }
+
+    /**
+     * Vérifie si une expression se termine, à la position donnée, par le nom d'une
+     * statistique du mode statistiques (count, mean, var, sd, min, max).
+     * 
+     * @param expression L'expression.
+     * @param end La position de fin.
+     * @return true si les caractères avant end forment le nom d'une statistique.
+     */
+    private boolean endsWithStatistic(String expression, int end) {
+        for (String name : new String[] {"count", "mean", "var", "sd", "min", "max"}) {
+            if (expression.startsWith(name, end - name.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si une expression se termine, à la position donnée, par un littéral
+     * hexadécimal (0x...) ; un A suivi de « ND » commence l'opérateur AND.
+     * 
+     * @param expression L'expression.
+     * @param end La position de fin.
+     * @return true si les caractères avant end forment un littéral 0x....
+     */
+    private boolean isHexLiteralEnd(String expression, int end) {
+        if (expression.startsWith("ND", end)) {
+            return false;
+        }
+        int start = end;
+        while (start > 0 && Character.digit(expression.charAt(start - 1), 16) >= 0) {
+            start--;
+        }
+        return start < end && start >= 2
+            && expression.charAt(start - 1) == 'x' && expression.charAt(start - 2) == '0';
+    }
+
+    /**
+     * Vérifie si une expression se réduit à un nombre, auquel cas l'aperçu n'apporte rien.
+     * 
+     * @param expression L'expression à vérifier.
+     * @return true si l'expression est vide ou ne contient qu'un nombre.
+     */
+    private boolean isPlainNumber(String expression) {
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (!Character.isDigit(c) && c != '.' && !(i == 0 && c == '-')) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -281,6 +1166,15 @@ public class Controller {
         }
     }
 
+    /**
+     * Retourne le tampon de saisie, partagé avec la vue.
+     * 
+     * @return Le tampon contenant l'expression en cours.
+     */
+    public InputBuffer getCurrentInput() {
+        return input();
+    }
+
     /**
      * Classe interne pour gérer les événements de clavier.
      */
@@ -299,8 +1193,17 @@ public class Controller {
     public void handleKeyPress(KeyEvent e) {
         char keyChar = e.getKeyChar();
         
-        if (Character.isDigit(keyChar) || "+-.%".indexOf(keyChar) != -1) {
+        if (e.getKeyCode() == KeyEvent.VK_V && (e.isControlDown() || e.isMetaDown())) {
+            pasteFromClipboard();
+        } else if (Character.isDigit(keyChar) || "+-.%".indexOf(keyChar) != -1) {
             simulateButtonClick(String.valueOf(keyChar));
+        } else if (numberMode == NumberMode.MATRIX
+                && ("[],;\\".indexOf(keyChar) != -1 || (keyChar >= 'A' && keyChar <= 'Z'))) {
+            // Matrices littérales et variables saisies au clavier
+            handlePaste(String.valueOf(keyChar));
+        } else if (numberMode == NumberMode.POLYNOMIAL && "X@^".indexOf(keyChar) != -1) {
+            // Inconnue, évaluation et puissance des polynômes saisies au clavier
+            handlePaste(String.valueOf(keyChar));
         } else if (e.getKeyCode() == KeyEvent.VK_DIVIDE) {
             simulateButtonClick("÷");
         } else if (e.getKeyCode() == KeyEvent.VK_MULTIPLY) {
@@ -329,26 +1232,75 @@ public class Controller {
     }
 
     /**
-     * Simule un clic sur un bouton avec le texte spécifié.
+     * Colle le texte du presse-papiers système à la fin de l'entrée actuelle.
+     */
+    public void pasteFromClipboard() {
+        try {
+            Object data = Toolkit.getDefaultToolkit().getSystemClipboard().getData(DataFlavor.stringFlavor);
+            handlePaste((String) data);
+        } catch (UnsupportedFlavorException | IOException | IllegalStateException ex) {
+            // Presse-papiers vide, indisponible ou sans texte : rien à coller
+        }
+    }
+
+    /**
+     * Ajoute un texte collé à la fin de l'entrée actuelle.
+     * Les espaces sont ignorés et les notations usuelles (*, /, ×, virgule décimale)
+     * sont converties vers celles de la calculatrice ; entre crochets, la virgule sépare
+     * les coefficients d'une matrice et est conservée. En mode polynômes, un x isolé
+     * (« 3x^4-2x+1 ») est l'inconnue X.
      * 
-     * @param buttonText Le texte du bouton à simuler.
+     * @param text Le texte collé.
      */
-    public void simulateButtonClick(String buttonText) {
-        // Simuler directement l'action sans passer par le bouton
-        handleInput(buttonText);
+    public void handlePaste(String text) {
+        if (deferWhileEvaluating(() -> handlePaste(text))) {
+            return;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean inMatrix = input().endsInsideBrackets();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '*': case '×': normalized.append('x'); break;
+                case '/': case ':': normalized.append('÷'); break;
+                case ',': normalized.append(inMatrix ? ',' : '.'); break;
+                case '[': inMatrix = true; normalized.append(c); break;
+                case ']': inMatrix = false; normalized.append(c); break;
+                case '−': normalized.append('-'); break;
+                case 'x':
+                    // x hors d'un nom de fonction (exp) : inconnue du polynôme
+                    boolean unknown = numberMode == NumberMode.POLYNOMIAL
+                        && (i == 0 || !Character.isLetter(text.charAt(i - 1)))
+                        && (i == text.length() - 1 || !Character.isLetter(text.charAt(i + 1)));
+                    normalized.append(unknown ? 'X' : c);
+                    break;
+                default:
+                    if (!Character.isWhitespace(c)) {
+                        normalized.append(c);
+                    }
+                    break;
+            }
+        }
+        if (normalized.length() == 0) {
+            return;
+        }
+        if (input().length() == 1 && input().charAt(0) == '0') {
+            input().clear();
+        }
+        input().append(normalized.toString());
+        updateDisplay(visibleInput());
+        view.setACButtonToBackspace();
+        schedulePreview();
     }
 
     /**
-     * Évalue une expression mathématique.
+     * Simule un clic sur un bouton avec le texte spécifié.
      * 
-     * @param expression L'expression à évaluer.
-     * @return Le résultat formaté de l'évaluation.
-     * @throws CalculatorException Si une erreur survient pendant l'évaluation.
+     * @param buttonText Le texte du bouton à simuler.
      */
-    private String evaluateExpression(String expression) throws CalculatorException {
-        Calculator calculator = new Calculator();
-        CalculationResult result = calculator.evaluateExpression(expression);
-        return result.getFormattedResult();
+    public void simulateButtonClick(String buttonText) {
+        // Simuler directement l'action sans passer par le bouton
+        handleInput(buttonText);
     }
 
     /**
@@ -374,42 +1326,6 @@ public class Controller {
         return balanced.toString();
     }
 
-    /**
-     * Récupère le dernier token de l'entrée actuelle.
-     * 
-     * @return Le dernier token.
-     */
-    private String getLastToken() {
-        if (currentInput.length() == 0) return "";
-        return String.valueOf(currentInput.charAt(currentInput.length() - 1));
-    }
-
-    /**
-     * Récupère le dernier token complet de l'entrée actuelle.
-     * 
-     * @return Le dernier token complet.
-     */
-    private String getLastCompleteToken() {
-        if (currentInput.length() == 0) return "";
-
-        String input = currentInput.toString();
-        Pattern tokenPattern = Calculator.TOKEN_PATTERN;
-        Matcher matcher = tokenPattern.matcher(input);
-        String lastToken = "";
-        int lastStart = -1;
-
-        while (matcher.find()) {
-            lastToken = matcher.group();
-            lastStart = matcher.start();
-        }
-
-        if (lastStart == -1 || lastStart + lastToken.length() < input.length()) {
-            return input.substring(input.length() - 1);
-        }
-
-        return lastToken;
-    }
-
     /**
      * Vérifie si un token est un opérateur.
      * 
@@ -417,7 +1333,7 @@ public class Controller {
      * @return true si le token est un opérateur, sinon false.
      */
     private boolean isOperator(String token) {
-        return OPERATORS.contains(token);
+        return token.length() == 1 && OPERATORS.contains(token);
     }
 
     /**
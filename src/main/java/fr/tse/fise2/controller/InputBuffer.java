@@ -0,0 +1,284 @@
+package fr.tse.fise2.controller;
+
+import fr.tse.fise2.model.Calculator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tampon de saisie de la calculatrice.
+ * Conserve le texte de l'expression en cours ainsi que sa liste de tokens, tenue à jour
+ * de manière incrémentale : une modification en fin de saisie ne re-tokenise que les
+ * derniers caractères au lieu de parcourir toute l'expression.
+ * Le texte est stocké dans une {@link Rope} : les modifications coûtent O(log n) et
+ * un instantané immuable peut être transmis à un autre thread sans copie.
+ * Le découpage suit le pattern du mode de calcul courant ({@link Calculator#TOKEN_PATTERN}
+ * par défaut). Les caractères non reconnus forment chacun un token, de sorte que la
+ * concaténation des tokens est toujours égale au texte.
+ */
+public class InputBuffer implements CharSequence {
+    // Longueur du plus long mot de longueur bornée des patterns ("arcsin"), qui couvre aussi
+    // le lookahead des littéraux hexadécimaux : une modification ne peut pas changer la
+    // tokenisation des caractères situés plus loin en amont. Les matrices littérales, de
+    // longueur non bornée, sont traitées à part grâce aux crochets ouvrants.
+    private static final int MAX_WORD_LENGTH = 6;
+
+    // Plus long lookbehind des patterns : un caractère devant « 0x » suivi de 64 chiffres
+    // hexadécimaux (nombres négatifs du mode programmeur)
+    private static final int LOOKBEHIND_LENGTH = 67;
+
+    private Rope text = Rope.EMPTY;
+    private final List<String> tokens = new ArrayList<>();
+    private int tokenizedLength;
+    private Pattern tokenPattern = Calculator.TOKEN_PATTERN;
+
+    // Positions des crochets ouvrants non refermés du mode matrices : une matrice littérale
+    // complète forme un seul token, un « [ » isolé est donc le début d'une matrice en cours
+    // de saisie. Seul le dernier peut encore être refermé, une matrice ne contenant pas de « [ ».
+    private final List<Integer> openBrackets = new ArrayList<>();
+
+    // Positions de tous les crochets de la saisie, quel que soit le mode
+    private final List<Integer> brackets = new ArrayList<>();
+
+    /**
+     * Change le pattern de découpage en tokens (changement de mode de calcul) ; toute la
+     * saisie est re-tokenisée.
+     *
+     * @param pattern Le pattern du nouveau mode.
+     */
+    public void setTokenPattern(Pattern pattern) {
+        if (pattern != tokenPattern) {
+            tokenPattern = pattern;
+            retokenize();
+        }
+    }
+
+    /**
+     * Ajoute du texte à la fin de la saisie.
+     *
+     * @param str Le texte à ajouter.
+     */
+    public void append(String str) {
+        dropTokensFrom(text.length());
+        addBrackets(str, text.length());
+        text = text.append(str);
+        tokenizeTail();
+    }
+
+    /**
+     * Tronque la saisie à la longueur spécifiée.
+     *
+     * @param newLength La nouvelle longueur.
+     */
+    public void setLength(int newLength) {
+        dropTokensFrom(newLength);
+        while (!brackets.isEmpty() && brackets.get(brackets.size() - 1) >= newLength) {
+            brackets.remove(brackets.size() - 1);
+        }
+        text = text.delete(newLength, text.length());
+        tokenizeTail();
+    }
+
+    /**
+     * Remplace toute la saisie par le texte spécifié.
+     *
+     * @param str Le nouveau texte.
+     */
+    public void replace(String str) {
+        clear();
+        append(str);
+    }
+
+    /**
+     * Efface toute la saisie.
+     */
+    public void clear() {
+        text = Rope.EMPTY;
+        tokens.clear();
+        openBrackets.clear();
+        brackets.clear();
+        tokenizedLength = 0;
+    }
+
+    /**
+     * Supprime le premier caractère de la saisie.
+     * Cas rare (signe d'un résultat négatif) : toute la saisie est re-tokenisée.
+     */
+    public void deleteFirstChar() {
+        if (text.length() > 0) {
+            text = text.delete(0, 1);
+            brackets.clear();
+            addBrackets(text.toString(), 0);
+            retokenize();
+        }
+    }
+
+    /**
+     * Supprime les derniers tokens de la saisie.
+     *
+     * @param count Le nombre de tokens à supprimer.
+     */
+    public void removeLastTokens(int count) {
+        int removed = 0;
+        for (int i = 0; i < count && i < tokens.size(); i++) {
+            removed += tokenFromEnd(i).length();
+        }
+        setLength(text.length() - removed);
+    }
+
+    /**
+     * Retourne un instantané immuable de la saisie, utilisable depuis un autre thread.
+     *
+     * @return Le texte actuel, sans copie.
+     */
+    public Rope snapshot() {
+        return text;
+    }
+
+    /**
+     * Retourne le dernier token de la saisie.
+     *
+     * @return Le dernier token, ou une chaîne vide si la saisie est vide.
+     */
+    public String lastToken() {
+        return tokenFromEnd(0);
+    }
+
+    /**
+     * Retourne un token en partant de la fin de la saisie.
+     *
+     * @param index La position depuis la fin (0 pour le dernier token).
+     * @return Le token, ou une chaîne vide s'il n'existe pas.
+     */
+    public String tokenFromEnd(int index) {
+        int position = tokens.size() - 1 - index;
+        return position >= 0 ? tokens.get(position) : "";
+    }
+
+    /**
+     * Retourne le nombre de tokens de la saisie.
+     */
+    public int tokenCount() {
+        return tokens.size();
+    }
+
+    /**
+     * Indique si la saisie se termine à l'intérieur d'une matrice littérale, c'est-à-dire
+     * si son dernier crochet est un crochet ouvrant. Les crochets sont suivis au fil des
+     * modifications : la saisie n'est pas parcourue.
+     *
+     * @return true si le dernier crochet de la saisie est un crochet ouvrant.
+     */
+    public boolean endsInsideBrackets() {
+        return !brackets.isEmpty() && text.charAt(brackets.get(brackets.size() - 1)) == '[';
+    }
+
+    /**
+     * Retient la position des crochets d'un texte ajouté.
+     *
+     * @param str Le texte ajouté.
+     * @param start Sa position dans la saisie.
+     */
+    private void addBrackets(String str, int start) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '[' || c == ']') {
+                brackets.add(start + i);
+            }
+        }
+    }
+
+    /**
+     * Re-tokenise toute la saisie.
+     */
+    private void retokenize() {
+        tokens.clear();
+        openBrackets.clear();
+        tokenizedLength = 0;
+        tokenizeTail();
+    }
+
+    /**
+     * Retire les tokens susceptibles d'être modifiés par un changement à la position donnée,
+     * y compris toute matrice littérale encore ouverte, qu'un « ] » pourrait refermer.
+     *
+     * @param changePosition La position du premier caractère modifié.
+     */
+    private void dropTokensFrom(int changePosition) {
+        int stableEnd = Math.max(0, changePosition - MAX_WORD_LENGTH);
+        if (!openBrackets.isEmpty()) {
+            stableEnd = Math.min(stableEnd, openBrackets.get(openBrackets.size() - 1));
+        }
+        while (!tokens.isEmpty() && tokenizedLength > stableEnd) {
+            tokenizedLength -= tokens.remove(tokens.size() - 1).length();
+        }
+        while (!openBrackets.isEmpty() && openBrackets.get(openBrackets.size() - 1) >= tokenizedLength) {
+            openBrackets.remove(openBrackets.size() - 1);
+        }
+    }
+
+    /**
+     * Tokenise la partie du texte située après les tokens conservés.
+     * Seule la fin modifiée est copiée pour l'analyse, le reste de la corde n'est pas parcouru.
+     * Les bornes transparentes permettent au lookbehind des nombres négatifs de voir
+     * le caractère précédent.
+     */
+    private void tokenizeTail() {
+        // Contexte pour les lookbehind des nombres négatifs
+        int contextStart = Math.max(0, tokenizedLength - LOOKBEHIND_LENGTH);
+        String tail = text.subSequence(contextStart, text.length()).toString();
+        int offset = tokenizedLength - contextStart;
+
+        Matcher matcher = tokenPattern.matcher(tail);
+        matcher.region(offset, tail.length());
+        matcher.useTransparentBounds(true);
+        int position = offset;
+        while (matcher.find()) {
+            for (; position < matcher.start(); position++) {
+                addUnrecognized(tail.charAt(position), contextStart + position);
+            }
+            tokens.add(matcher.group());
+            position = matcher.end();
+        }
+        for (; position < tail.length(); position++) {
+            addUnrecognized(tail.charAt(position), contextStart + position);
+        }
+        tokenizedLength = text.length();
+    }
+
+    /**
+     * Ajoute un caractère non reconnu par le pattern comme token, en retenant la position
+     * des crochets ouvrants.
+     *
+     * @param c Le caractère.
+     * @param position Sa position dans la saisie.
+     */
+    private void addUnrecognized(char c, int position) {
+        if (c == '[' && tokenPattern == Calculator.MATRIX_TOKEN_PATTERN) {
+            openBrackets.add(position);
+        }
+        tokens.add(String.valueOf(c));
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return text.charAt(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+}
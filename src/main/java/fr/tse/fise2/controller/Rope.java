@@ -0,0 +1,277 @@
+package fr.tse.fise2.controller;
+
+/**
+ * Chaîne de caractères immuable représentée par un arbre équilibré (corde).
+ * Les insertions, suppressions et concaténations créent une nouvelle corde en
+ * O(log n) en partageant les nœuds inchangés, ce qui permet d'éditer des expressions
+ * de plusieurs centaines de milliers de caractères sans les recopier.
+ * L'arbre est équilibré comme un arbre AVL : les hauteurs de deux frères diffèrent
+ * d'au plus un.
+ */
+public final class Rope implements CharSequence {
+    // Taille maximale d'une feuille : les petits ajouts sont fusionnés dans la dernière feuille
+    private static final int LEAF_SIZE = 256;
+
+    public static final Rope EMPTY = new Rope(new Leaf(""));
+
+    private final Node root;
+
+    private Rope(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Crée une corde à partir d'une séquence de caractères.
+     *
+     * @param text Le texte initial.
+     * @return La corde contenant le texte.
+     */
+    public static Rope of(CharSequence text) {
+        if (text instanceof Rope) {
+            return (Rope) text;
+        }
+        return text.length() == 0 ? EMPTY : new Rope(build(text.toString(), 0, text.length()));
+    }
+
+    /**
+     * Retourne une corde avec le texte ajouté à la fin.
+     *
+     * @param text Le texte à ajouter.
+     * @return La nouvelle corde.
+     */
+    public Rope append(CharSequence text) {
+        return insert(length(), text);
+    }
+
+    /**
+     * Retourne une corde avec le texte inséré à la position donnée.
+     *
+     * @param index La position d'insertion.
+     * @param text Le texte à insérer.
+     * @return La nouvelle corde.
+     */
+    public Rope insert(int index, CharSequence text) {
+        checkIndex(index, length());
+        if (text.length() == 0) {
+            return this;
+        }
+        Node inserted = of(text).root;
+        if (index == length()) {
+            return new Rope(join(root, inserted));
+        }
+        Node[] parts = split(root, index);
+        return new Rope(join(join(parts[0], inserted), parts[1]));
+    }
+
+    /**
+     * Retourne une corde sans les caractères compris entre deux positions.
+     *
+     * @param start La position du premier caractère supprimé.
+     * @param end La position suivant le dernier caractère supprimé.
+     * @return La nouvelle corde.
+     */
+    public Rope delete(int start, int end) {
+        checkRange(start, end);
+        if (start == end) {
+            return this;
+        }
+        Node[] head = split(root, start);
+        Node[] tail = split(head[1], end - start);
+        return new Rope(join(head[0], tail[1]));
+    }
+
+    @Override
+    public int length() {
+        return root.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + ", longueur " + length());
+        }
+        Node node = root;
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            if (index < branch.left.length) {
+                node = branch.left;
+            } else {
+                index -= branch.left.length;
+                node = branch.right;
+            }
+        }
+        return ((Leaf) node).text.charAt(index);
+    }
+
+    @Override
+    public Rope subSequence(int start, int end) {
+        checkRange(start, end);
+        if (start == 0 && end == length()) {
+            return this;
+        }
+        Node[] tail = split(root, start);
+        return new Rope(split(tail[1], end - start)[0]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        root.appendTo(builder);
+        return builder.toString();
+    }
+
+    private void checkRange(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("début " + start + ", fin " + end + ", longueur " + length());
+        }
+    }
+
+    private static void checkIndex(int index, int length) {
+        if (index < 0 || index > length) {
+            throw new IndexOutOfBoundsException("index " + index + ", longueur " + length);
+        }
+    }
+
+    /**
+     * Construit un arbre équilibré à partir d'un texte découpé en feuilles.
+     */
+    private static Node build(String text, int start, int end) {
+        if (end - start <= LEAF_SIZE) {
+            return new Leaf(text.substring(start, end));
+        }
+        int middle = (start + end) >>> 1;
+        return new Branch(build(text, start, middle), build(text, middle, end));
+    }
+
+    /**
+     * Concatène deux arbres en O(|h(a) - h(b)|) en descendant le long du plus haut.
+     */
+    private static Node join(Node a, Node b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        if (a instanceof Leaf && b instanceof Leaf && a.length + b.length <= LEAF_SIZE) {
+            return new Leaf(((Leaf) a).text + ((Leaf) b).text);
+        }
+        if (a.height > b.height + 1 || (b instanceof Leaf && fitsInLastLeaf(a, b.length))) {
+            Branch left = (Branch) a;
+            return balance(left.left, join(left.right, b));
+        }
+        if (b.height > a.height + 1) {
+            Branch right = (Branch) b;
+            return balance(join(a, right.left), right.right);
+        }
+        return new Branch(a, b);
+    }
+
+    /**
+     * Vérifie si un court texte peut être fusionné dans la dernière feuille d'un arbre.
+     */
+    private static boolean fitsInLastLeaf(Node node, int length) {
+        if (!(node instanceof Branch)) {
+            return false;
+        }
+        while (node instanceof Branch) {
+            node = ((Branch) node).right;
+        }
+        return node.length + length <= LEAF_SIZE;
+    }
+
+    /**
+     * Crée un nœud à partir de deux sous-arbres dont les hauteurs diffèrent d'au plus deux,
+     * en appliquant les rotations AVL nécessaires.
+     */
+    private static Node balance(Node left, Node right) {
+        if (left.height > right.height + 1) {
+            Branch l = (Branch) left;
+            if (l.left.height >= l.right.height) {
+                return new Branch(l.left, new Branch(l.right, right));
+            }
+            Branch lr = (Branch) l.right;
+            return new Branch(new Branch(l.left, lr.left), new Branch(lr.right, right));
+        }
+        if (right.height > left.height + 1) {
+            Branch r = (Branch) right;
+            if (r.right.height >= r.left.height) {
+                return new Branch(new Branch(left, r.left), r.right);
+            }
+            Branch rl = (Branch) r.left;
+            return new Branch(new Branch(left, rl.left), new Branch(rl.right, r.right));
+        }
+        return new Branch(left, right);
+    }
+
+    /**
+     * Coupe un arbre en deux à la position donnée.
+     *
+     * @return Un tableau contenant la partie gauche puis la partie droite.
+     */
+    private static Node[] split(Node node, int index) {
+        if (index <= 0) {
+            return new Node[] { EMPTY.root, node };
+        }
+        if (index >= node.length) {
+            return new Node[] { node, EMPTY.root };
+        }
+        if (node instanceof Leaf) {
+            String text = ((Leaf) node).text;
+            return new Node[] { new Leaf(text.substring(0, index)), new Leaf(text.substring(index)) };
+        }
+        Branch branch = (Branch) node;
+        if (index < branch.left.length) {
+            Node[] parts = split(branch.left, index);
+            return new Node[] { parts[0], join(parts[1], branch.right) };
+        }
+        Node[] parts = split(branch.right, index - branch.left.length);
+        return new Node[] { join(branch.left, parts[0]), parts[1] };
+    }
+
+    /**
+     * Nœud de l'arbre : longueur du texte couvert et hauteur du sous-arbre.
+     */
+    private abstract static class Node {
+        final int length;
+        final int height;
+
+        Node(int length, int height) {
+            this.length = length;
+            this.height = height;
+        }
+
+        abstract void appendTo(StringBuilder builder);
+    }
+
+    private static final class Leaf extends Node {
+        final String text;
+
+        Leaf(String text) {
+            super(text.length(), 0);
+            this.text = text;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(text);
+        }
+    }
+
+    private static final class Branch extends Node {
+        final Node left;
+        final Node right;
+
+        Branch(Node left, Node right) {
+            super(left.length + right.length, Math.max(left.height, right.height) + 1);
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            left.appendTo(builder);
+            right.appendTo(builder);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package fr.tse.fise2.model;
+
+/**
+ * Unité d'angle utilisée par les fonctions trigonométriques de la calculatrice.
+ */
+public enum AngleMode {
+    /** Degrés : un tour complet vaut 360. */
+    DEG,
+    /** Radians : un tour complet vaut 2π. */
+    RAD,
+    /** Grades : un tour complet vaut 400. */
+    GRAD;
+
+    /**
+     * Retourne le mode suivant, dans l'ordre DEG, RAD, GRAD.
+     *
+     * @return Le mode suivant.
+     */
+    public AngleMode next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -0,0 +1,432 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Fonctions mathématiques en précision arbitraire sur les BigDecimal.
+ * <p>
+ * Toutes les méthodes calculent avec quelques chiffres de garde et arrondissent le
+ * résultat au {@link MathContext} demandé. Les angles sont en radians.
+ * <ul>
+ *   <li>racine carrée : méthode de Newton dont la précision double à chaque itération,
+ *       à partir de l'approximation en double ;</li>
+ *   <li>exponentielle : e^x = e^n × exp(f), où n est la partie entière de x, puis
+ *       exp(f) = exp(f / 2^k)^(2^k) avec une série de Taylor courte ;</li>
+ *   <li>logarithme : méthode de Halley sur l'exponentielle (convergence cubique) ;</li>
+ *   <li>sinus : réduction modulo 2π, division de l'angle par 3^k, série de Taylor puis
+ *       formule de triplement sin 3x = 3 sin x - 4 sin³ x ;</li>
+ *   <li>arc tangente : trois réductions atan x = 2 atan(x / (1 + √(1 + x²))), puis
+ *       série de Taylor.</li>
+ * </ul>
+ * π (formule de Chudnovsky) et e (série des inverses des factorielles) sont calculés
+ * par scindage binaire en arithmétique entière, puis mémorisés : seule une précision
+ * plus grande que celle déjà calculée déclenche un nouveau calcul.
+ */
+public final class BigDecimalMath {
+    // Chiffres de garde des calculs intermédiaires
+    private static final int GUARD_DIGITS = 10;
+    // Au-delà, e^x ne serait plus représentable par un BigDecimal (échelle sur un int)
+    private static final BigDecimal MAX_EXP_ARGUMENT = BigDecimal.valueOf(1_000_000_000L);
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+    private static final BigDecimal THREE = BigDecimal.valueOf(3);
+    private static final BigDecimal FOUR = BigDecimal.valueOf(4);
+    private static final double LN2 = Math.log(2);
+    private static final double LN10 = Math.log(10);
+
+    // Constantes de la formule de Chudnovsky
+    private static final BigInteger CHUDNOVSKY_C3_OVER_24 = BigInteger.valueOf(10939058860032000L);
+    private static final BigInteger CHUDNOVSKY_A = BigInteger.valueOf(13591409);
+    private static final BigInteger CHUDNOVSKY_B = BigInteger.valueOf(545140134);
+    // Chaque terme de la série apporte un peu plus de 14 chiffres
+    private static final int CHUDNOVSKY_DIGITS_PER_TERM = 14;
+
+    // Constantes mémorisées, à la plus grande précision calculée jusqu'ici
+    private static BigDecimal cachedPi;
+    private static int cachedPiPrecision;
+    private static BigDecimal cachedE;
+    private static int cachedEPrecision;
+
+    private BigDecimalMath() {
+    }
+
+    /**
+     * Retourne π à la précision demandée.
+     *
+     * @param mc La précision du résultat.
+     * @return π arrondi.
+     */
+    public static BigDecimal pi(MathContext mc) {
+        synchronized (BigDecimalMath.class) {
+            if (cachedPiPrecision < mc.getPrecision()) {
+                int precision = mc.getPrecision() + GUARD_DIGITS;
+                cachedPi = computePi(precision);
+                cachedPiPrecision = precision;
+            }
+            return cachedPi.round(mc);
+        }
+    }
+
+    /**
+     * Retourne e à la précision demandée.
+     *
+     * @param mc La précision du résultat.
+     * @return e arrondi.
+     */
+    public static BigDecimal e(MathContext mc) {
+        synchronized (BigDecimalMath.class) {
+            if (cachedEPrecision < mc.getPrecision()) {
+                int precision = mc.getPrecision() + GUARD_DIGITS;
+                cachedE = computeE(precision);
+                cachedEPrecision = precision;
+            }
+            return cachedE.round(mc);
+        }
+    }
+
+    /**
+     * Calcule la racine carrée d'un nombre positif.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return √x
+     * @throws ArithmeticException Si x est négatif.
+     */
+    public static BigDecimal sqrt(BigDecimal x, MathContext mc) {
+        if (x.signum() < 0) {
+            throw new ArithmeticException("Square root of negative number");
+        }
+        if (x.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        // x = m × 10^(2h) avec m dans [1, 100) : √x ≈ √m × 10^h, estimé en double
+        int exponent = x.precision() - x.scale() - 1;
+        int half = Math.floorDiv(exponent, 2);
+        double mantissa = x.movePointLeft(2 * half).doubleValue();
+        BigDecimal y = new BigDecimal(Math.sqrt(mantissa)).movePointRight(half);
+
+        int target = mc.getPrecision() + GUARD_DIGITS;
+        int precision = 15;
+        while (precision < target) {
+            precision = Math.min(2 * precision, target);
+            MathContext work = new MathContext(precision + 2);
+            y = y.add(x.divide(y, work), work).divide(TWO, work);
+        }
+        return y.round(mc);
+    }
+
+    /**
+     * Calcule l'exponentielle d'un nombre.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return e^x
+     * @throws ArithmeticException Si |x| dépasse 10^9.
+     */
+    public static BigDecimal exp(BigDecimal x, MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        if (x.abs().compareTo(MAX_EXP_ARGUMENT) > 0) {
+            throw new ArithmeticException("Overflow");
+        }
+        int integerPart = x.intValue();
+        BigDecimal fraction = x.subtract(BigDecimal.valueOf(integerPart));
+        // e^n amplifie l'erreur relative de e d'un facteur n
+        int extra = integerPart == 0 ? 0 : (int) Math.log10(Math.abs(integerPart)) + 1;
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS + extra);
+
+        BigDecimal result = expSeries(fraction, work);
+        if (integerPart != 0) {
+            result = result.multiply(e(work).pow(integerPart, work), work);
+        }
+        return result.round(mc);
+    }
+
+    /**
+     * Calcule exp(f) pour |f| < 1 : exp(f / 2^k) par sa série de Taylor, puis k élévations au carré.
+     */
+    private static BigDecimal expSeries(BigDecimal f, MathContext mc) {
+        if (f.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        // k équilibre la longueur de la série (environ p / 0,3k termes) et le nombre de carrés
+        int squarings = (int) Math.sqrt(3.0 * mc.getPrecision());
+        MathContext work = new MathContext(mc.getPrecision() + squarings / 3 + 1);
+        BigDecimal r = f.divide(TWO.pow(squarings), work);
+
+        BigDecimal threshold = BigDecimal.ONE.movePointLeft(work.getPrecision());
+        BigDecimal sum = BigDecimal.ONE;
+        BigDecimal term = BigDecimal.ONE;
+        for (int i = 1; term.abs().compareTo(threshold) > 0; i++) {
+            term = term.multiply(r, work).divide(BigDecimal.valueOf(i), work);
+            sum = sum.add(term, work);
+        }
+        for (int i = 0; i < squarings; i++) {
+            sum = sum.multiply(sum, work);
+        }
+        return sum;
+    }
+
+    /**
+     * Calcule le logarithme naturel d'un nombre strictement positif.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return ln x
+     * @throws ArithmeticException Si x est négatif ou nul.
+     */
+    public static BigDecimal ln(BigDecimal x, MathContext mc) {
+        if (x.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of non-positive number");
+        }
+        BigDecimal distance = x.subtract(BigDecimal.ONE);
+        if (distance.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        // Près de 1, ln x ≈ x - 1 est petit : il faut autant de chiffres en plus que de zéros en tête
+        int leadingZeros = Math.max(0, distance.scale() - distance.precision());
+        int target = mc.getPrecision() + GUARD_DIGITS + leadingZeros;
+
+        // Estimation en double, valable même hors de l'intervalle des doubles
+        BigInteger unscaled = x.unscaledValue();
+        int shift = Math.max(0, unscaled.bitLength() - 62);
+        double estimate = Math.log(unscaled.shiftRight(shift).doubleValue()) + shift * LN2 - x.scale() * LN10;
+        BigDecimal y = new BigDecimal(estimate);
+
+        // Méthode de Halley : y ← y + 2 (x - e^y) / (x + e^y)
+        int precision = 15;
+        while (precision < target) {
+            precision = Math.min(3 * precision, target);
+            MathContext work = new MathContext(precision + 2);
+            BigDecimal ey = exp(y, work);
+            y = y.add(TWO.multiply(x.subtract(ey, work)).divide(x.add(ey, work), work), work);
+        }
+        return y.round(mc);
+    }
+
+    /**
+     * Calcule le sinus d'un angle en radians.
+     *
+     * @param x L'angle.
+     * @param mc La précision du résultat.
+     * @return sin x
+     */
+    public static BigDecimal sin(BigDecimal x, MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        int triplings = (int) Math.sqrt(mc.getPrecision());
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS + triplings / 2);
+        BigDecimal r = reduce(x, work);
+
+        BigDecimal t = r.divide(THREE.pow(triplings), work);
+        BigDecimal threshold = t.abs().movePointLeft(work.getPrecision());
+        BigDecimal square = t.multiply(t, work);
+        BigDecimal sum = t;
+        BigDecimal term = t;
+        for (int i = 1; term.abs().compareTo(threshold) > 0; i++) {
+            term = term.multiply(square, work).divide(BigDecimal.valueOf(-2L * i * (2L * i + 1)), work);
+            sum = sum.add(term, work);
+        }
+        for (int i = 0; i < triplings; i++) {
+            sum = sum.multiply(THREE.subtract(FOUR.multiply(sum.multiply(sum, work), work), work), work);
+        }
+        return sum.round(mc);
+    }
+
+    /**
+     * Calcule le cosinus d'un angle en radians.
+     *
+     * @param x L'angle.
+     * @param mc La précision du résultat.
+     * @return cos x
+     */
+    public static BigDecimal cos(BigDecimal x, MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ONE;
+        }
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS + integerDigits(x));
+        return sin(pi(work).divide(TWO, work).subtract(x, work), mc);
+    }
+
+    /**
+     * Ramène un angle dans [-π, π] ; π est calculé avec autant de chiffres en plus que
+     * la partie entière de l'angle en compte.
+     */
+    private static BigDecimal reduce(BigDecimal x, MathContext mc) {
+        MathContext work = new MathContext(mc.getPrecision() + integerDigits(x));
+        BigDecimal pi = pi(work);
+        if (x.abs().compareTo(pi) <= 0) {
+            return x;
+        }
+        BigDecimal twoPi = pi.multiply(TWO);
+        BigDecimal turns = x.divide(twoPi, 0, RoundingMode.HALF_EVEN);
+        return x.subtract(twoPi.multiply(turns), work).round(mc);
+    }
+
+    private static int integerDigits(BigDecimal x) {
+        return Math.max(0, x.precision() - x.scale());
+    }
+
+    /**
+     * Calcule l'arc tangente d'un nombre, en radians.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return atan x, dans [-π/2, π/2]
+     */
+    public static BigDecimal atan(BigDecimal x, MathContext mc) {
+        if (x.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+        if (x.abs().compareTo(BigDecimal.ONE) > 0) {
+            // atan x = ±π/2 - atan(1/x)
+            BigDecimal halfPi = pi(work).divide(TWO, work);
+            BigDecimal inverse = atan(BigDecimal.ONE.divide(x, work), work);
+            return (x.signum() > 0 ? halfPi : halfPi.negate()).subtract(inverse, work).round(mc);
+        }
+
+        // Trois réductions : |x| ≤ tan(π/32) < 0,1
+        BigDecimal r = x;
+        for (int i = 0; i < 3; i++) {
+            BigDecimal root = sqrt(BigDecimal.ONE.add(r.multiply(r, work), work), work);
+            r = r.divide(BigDecimal.ONE.add(root, work), work);
+        }
+
+        BigDecimal threshold = r.abs().movePointLeft(work.getPrecision());
+        BigDecimal square = r.multiply(r, work).negate();
+        BigDecimal sum = r;
+        BigDecimal power = r;
+        BigDecimal term = r;
+        for (int i = 1; term.abs().compareTo(threshold) > 0; i++) {
+            power = power.multiply(square, work);
+            term = power.divide(BigDecimal.valueOf(2L * i + 1), work);
+            sum = sum.add(term, work);
+        }
+        return sum.multiply(BigDecimal.valueOf(8)).round(mc);
+    }
+
+    /**
+     * Calcule l'arc sinus d'un nombre entre -1 et 1, en radians.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return asin x, dans [-π/2, π/2]
+     * @throws ArithmeticException Si |x| > 1.
+     */
+    public static BigDecimal asin(BigDecimal x, MathContext mc) {
+        int comparison = x.abs().compareTo(BigDecimal.ONE);
+        if (comparison > 0) {
+            throw new ArithmeticException("Argument out of range");
+        }
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+        if (comparison == 0) {
+            BigDecimal halfPi = pi(work).divide(TWO, work);
+            return (x.signum() > 0 ? halfPi : halfPi.negate()).round(mc);
+        }
+        // asin x = atan(x / √(1 - x²)), 1 - x² étant calculé exactement
+        BigDecimal cos = sqrt(BigDecimal.ONE.subtract(x.multiply(x)), work);
+        return atan(x.divide(cos, work), mc);
+    }
+
+    /**
+     * Calcule l'arc cosinus d'un nombre entre -1 et 1, en radians.
+     *
+     * @param x Le nombre.
+     * @param mc La précision du résultat.
+     * @return acos x, dans [0, π]
+     * @throws ArithmeticException Si |x| > 1.
+     */
+    public static BigDecimal acos(BigDecimal x, MathContext mc) {
+        if (x.abs().compareTo(BigDecimal.ONE) > 0) {
+            throw new ArithmeticException("Argument out of range");
+        }
+        if (x.compareTo(BigDecimal.ONE.negate()) == 0) {
+            return pi(mc);
+        }
+        // acos x = 2 atan √((1 - x) / (1 + x)), sans annulation près de x = 1
+        MathContext work = new MathContext(mc.getPrecision() + GUARD_DIGITS);
+        BigDecimal ratio = BigDecimal.ONE.subtract(x).divide(BigDecimal.ONE.add(x), work);
+        return atan(sqrt(ratio, work), work).multiply(TWO).round(mc);
+    }
+
+    /**
+     * Calcule π par la formule de Chudnovsky, les termes de la série étant sommés par
+     * scindage binaire en arithmétique entière.
+     */
+    private static BigDecimal computePi(int precision) {
+        MathContext mc = new MathContext(precision);
+        int terms = precision / CHUDNOVSKY_DIGITS_PER_TERM + 2;
+        BigInteger[] pqt = chudnovsky(1, terms);
+        BigInteger q = pqt[1];
+        BigDecimal numerator = new BigDecimal(q.multiply(BigInteger.valueOf(426880)))
+            .multiply(sqrt(BigDecimal.valueOf(10005), mc), mc);
+        BigDecimal denominator = new BigDecimal(q.multiply(CHUDNOVSKY_A).add(pqt[2]));
+        return numerator.divide(denominator, mc);
+    }
+
+    /**
+     * Scindage binaire de la série de Chudnovsky sur les termes [a, b).
+     *
+     * @return {P(a, b), Q(a, b), T(a, b)}
+     */
+    private static BigInteger[] chudnovsky(int a, int b) {
+        if (b - a == 1) {
+            BigInteger k = BigInteger.valueOf(a);
+            BigInteger p = BigInteger.valueOf(6L * a - 5)
+                .multiply(BigInteger.valueOf(2L * a - 1))
+                .multiply(BigInteger.valueOf(6L * a - 1))
+                .negate();
+            BigInteger q = CHUDNOVSKY_C3_OVER_24.multiply(k.pow(3));
+            BigInteger t = p.multiply(CHUDNOVSKY_A.add(CHUDNOVSKY_B.multiply(k)));
+            return new BigInteger[] { p, q, t };
+        }
+        int m = (a + b) >>> 1;
+        BigInteger[] left = chudnovsky(a, m);
+        BigInteger[] right = chudnovsky(m, b);
+        return new BigInteger[] {
+            BigIntegerMath.multiply(left[0], right[0]),
+            BigIntegerMath.multiply(left[1], right[1]),
+            BigIntegerMath.multiply(right[1], left[2]).add(BigIntegerMath.multiply(left[0], right[2]))
+        };
+    }
+
+    /**
+     * Calcule e = Σ 1/k! par scindage binaire : les termes sont réduits au même
+     * dénominateur, et une seule division est faite à la fin.
+     */
+    private static BigDecimal computeE(int precision) {
+        // Nombre de termes : le premier terme négligé, 1/n!, doit être inférieur à 10^-precision
+        int terms = 1;
+        double log10Factorial = 0;
+        while (log10Factorial <= precision) {
+            terms++;
+            log10Factorial += Math.log10(terms);
+        }
+        BigInteger[] pq = eSeries(0, terms);
+        return BigDecimal.ONE.add(new BigDecimal(pq[0]).divide(new BigDecimal(pq[1]), new MathContext(precision)));
+    }
+
+    /**
+     * Scindage binaire de Σ_{k=a+1}^{b} 1 / ((a+1)(a+2)...k).
+     *
+     * @return {P(a, b), Q(a, b)} tels que la somme vaut P / Q
+     */
+    private static BigInteger[] eSeries(int a, int b) {
+        if (b - a == 1) {
+            return new BigInteger[] { BigInteger.ONE, BigInteger.valueOf(b) };
+        }
+        int m = (a + b) >>> 1;
+        BigInteger[] left = eSeries(a, m);
+        BigInteger[] right = eSeries(m, b);
+        return new BigInteger[] {
+            BigIntegerMath.multiply(left[0], right[1]).add(right[0]),
+            BigIntegerMath.multiply(left[1], right[1])
+        };
+    }
+}
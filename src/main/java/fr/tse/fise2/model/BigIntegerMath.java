@@ -0,0 +1,293 @@
+package fr.tse.fise2.model;
+
+import java.math.BigInteger;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Calculs exacts sur les grands entiers : factorielle, combinaisons et arrangements.
+ * <p>
+ * La factorielle utilise l'algorithme « prime swing » de Luschny :
+ * n! = ((n/2)!)² × swing(n), où swing(n) = n! / ((n/2)!)² se décompose directement en
+ * facteurs premiers. Les produits sont calculés en arbre équilibré (les opérandes
+ * d'un même niveau ont des tailles voisines, ce qui profite aux multiplications
+ * Karatsuba et Toom-Cook) et les plus grands avec {@link BigInteger#parallelMultiply}.
+ * Les dernières factorielles calculées sont mémorisées.
+ * <p>
+ * Les longs calculs s'interrompent entre deux multiplications si le thread appelant est
+ * interrompu ({@link CancellationException}) : un aperçu abandonné libère ainsi son thread.
+ */
+public final class BigIntegerMath {
+    // Taille (en bits) à partir de laquelle les deux opérandes sont multipliés en parallèle
+    private static final int PARALLEL_THRESHOLD_BITS = 1 << 16;
+    // Nombre de factorielles mémorisées
+    private static final int CACHE_SIZE = 8;
+    // Écart maximal pour compléter une factorielle mémorisée plutôt que de tout recalculer
+    private static final int CACHE_REUSE_GAP = 4096;
+
+    private static final long[] SMALL_FACTORIALS = new long[21];
+    static {
+        SMALL_FACTORIALS[0] = 1;
+        for (int n = 1; n < SMALL_FACTORIALS.length; n++) {
+            SMALL_FACTORIALS[n] = SMALL_FACTORIALS[n - 1] * n;
+        }
+    }
+
+    private static final Map<Integer, BigInteger> FACTORIAL_CACHE =
+        new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, BigInteger> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+
+    private BigIntegerMath() {
+    }
+
+    /**
+     * Calcule n! exactement.
+     *
+     * @param n Un entier positif ou nul.
+     * @return n!
+     */
+    public static BigInteger factorial(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n doit être positif : " + n);
+        }
+        if (n < SMALL_FACTORIALS.length) {
+            return BigInteger.valueOf(SMALL_FACTORIALS[n]);
+        }
+
+        // Factorielle mémorisée égale ou légèrement inférieure
+        int base = -1;
+        BigInteger baseValue = null;
+        synchronized (FACTORIAL_CACHE) {
+            BigInteger cached = FACTORIAL_CACHE.get(n);
+            if (cached != null) {
+                return cached;
+            }
+            for (Map.Entry<Integer, BigInteger> entry : FACTORIAL_CACHE.entrySet()) {
+                int m = entry.getKey();
+                if (m < n && n - m <= CACHE_REUSE_GAP && m > base) {
+                    base = m;
+                    baseValue = entry.getValue();
+                }
+            }
+        }
+
+        BigInteger result;
+        if (baseValue != null) {
+            result = multiply(baseValue, productRange(base + 1, n));
+        } else {
+            BitSet composites = sieve(n);
+            result = oddFactorial(n, composites).shiftLeft(n - Integer.bitCount(n));
+        }
+        synchronized (FACTORIAL_CACHE) {
+            FACTORIAL_CACHE.put(n, result);
+        }
+        return result;
+    }
+
+    /**
+     * Calcule le nombre de combinaisons C(n, k) exactement, par décomposition en
+     * facteurs premiers (formule de Legendre) : aucune division de grands entiers.
+     *
+     * @param n Un entier positif ou nul.
+     * @param k Un entier de [0, n].
+     * @return C(n, k)
+     */
+    public static BigInteger binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("k doit être compris entre 0 et n : " + k);
+        }
+        k = Math.min(k, n - k);
+        if (k == 0) {
+            return BigInteger.ONE;
+        }
+        BitSet composites = sieve(n);
+        long[] factors = new long[primeCountBound(n)];
+        int count = 0;
+        for (int p = 2; p <= n; p = p == 2 ? 3 : p + 2) {
+            if (composites.get(p)) {
+                continue;
+            }
+            // Exposant de p dans n! / (k! (n-k)!) ; p^e <= n (théorème de Kummer)
+            long power = 1;
+            for (long q = p; q <= n; q *= p) {
+                if (n / q - k / q - (n - k) / q > 0) {
+                    power *= p;
+                }
+            }
+            if (power > 1) {
+                factors[count++] = power;
+            }
+        }
+        return product(factors, 0, count);
+    }
+
+    /**
+     * Calcule le nombre d'arrangements A(n, k) = n! / (n - k)! exactement.
+     *
+     * @param n Un entier positif ou nul.
+     * @param k Un entier de [0, n].
+     * @return A(n, k)
+     */
+    public static BigInteger permutations(int n, int k) {
+        if (k < 0 || k > n) {
+            throw new IllegalArgumentException("k doit être compris entre 0 et n : " + k);
+        }
+        return productRange(n - k + 1, n);
+    }
+
+    /**
+     * Calcule a^exponent par élévations au carré successives, interruptibles entre deux produits.
+     *
+     * @param a La base.
+     * @param exponent L'exposant, positif ou nul.
+     * @return a^exponent
+     */
+    public static BigInteger pow(BigInteger a, int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("L'exposant doit être positif : " + exponent);
+        }
+        BigInteger result = BigInteger.ONE;
+        for (int bit = 31 - Integer.numberOfLeadingZeros(exponent); bit >= 0; bit--) {
+            checkInterrupted();
+            result = multiply(result, result);
+            if ((exponent >>> bit & 1) == 1) {
+                result = multiply(result, a);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Multiplie deux entiers, en parallèle s'ils sont tous deux très grands.
+     *
+     * @param a Le premier facteur.
+     * @param b Le second facteur.
+     * @return a × b
+     */
+    public static BigInteger multiply(BigInteger a, BigInteger b) {
+        if (a.bitLength() >= PARALLEL_THRESHOLD_BITS && b.bitLength() >= PARALLEL_THRESHOLD_BITS) {
+            return a.parallelMultiply(b);
+        }
+        return a.multiply(b);
+    }
+
+    /**
+     * Partie impaire de n! : oddFactorial(n/2)² × partie impaire de swing(n).
+     */
+    private static BigInteger oddFactorial(int n, BitSet composites) {
+        if (n < 2) {
+            return BigInteger.ONE;
+        }
+        BigInteger half = oddFactorial(n / 2, composites);
+        checkInterrupted();
+        return multiply(multiply(half, half), oddSwing(n, composites));
+    }
+
+    /**
+     * Partie impaire de swing(n) = n! / ((n/2)!)², à partir de sa décomposition en facteurs premiers.
+     */
+    private static BigInteger oddSwing(int n, BitSet composites) {
+        int sqrt = (int) Math.sqrt(n);
+        long[] factors = new long[primeCountBound(n)];
+        int count = 0;
+        for (int p = 3; p <= n; p += 2) {
+            if (composites.get(p)) {
+                continue;
+            }
+            if (p <= sqrt) {
+                long power = 1;
+                for (long q = n / p; q > 0; q /= p) {
+                    if ((q & 1) == 1) {
+                        power *= p;
+                    }
+                }
+                if (power > 1) {
+                    factors[count++] = power;
+                }
+            } else if (((n / p) & 1) == 1) {
+                factors[count++] = p;
+            }
+        }
+        return product(factors, 0, count);
+    }
+
+    /**
+     * Produit des entiers de lo à hi inclus, en arbre équilibré.
+     */
+    private static BigInteger productRange(long lo, long hi) {
+        if (hi - lo < 32) {
+            checkInterrupted();
+            BigInteger result = BigInteger.ONE;
+            long run = 1;
+            for (long i = lo; i <= hi; i++) {
+                if (run > Long.MAX_VALUE / i) {
+                    result = multiply(result, BigInteger.valueOf(run));
+                    run = 1;
+                }
+                run *= i;
+            }
+            return multiply(result, BigInteger.valueOf(run));
+        }
+        long mid = (lo + hi) >>> 1;
+        return multiply(productRange(lo, mid), productRange(mid + 1, hi));
+    }
+
+    /**
+     * Produit des facteurs d'un tableau, en arbre équilibré ; les petits facteurs voisins
+     * sont d'abord regroupés dans un long.
+     */
+    private static BigInteger product(long[] factors, int from, int to) {
+        if (to - from <= 32) {
+            checkInterrupted();
+            BigInteger result = BigInteger.ONE;
+            long run = 1;
+            for (int i = from; i < to; i++) {
+                if (run > Long.MAX_VALUE / factors[i]) {
+                    result = multiply(result, BigInteger.valueOf(run));
+                    run = 1;
+                }
+                run *= factors[i];
+            }
+            return multiply(result, BigInteger.valueOf(run));
+        }
+        int mid = (from + to) >>> 1;
+        return multiply(product(factors, from, mid), product(factors, mid, to));
+    }
+
+    /**
+     * Abandonne le calcul si le thread appelant a été interrompu.
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Calcul interrompu");
+        }
+    }
+
+    /**
+     * Crible d'Ératosthène : les bits à 1 marquent les nombres composés jusqu'à n.
+     */
+    private static BitSet sieve(int n) {
+        BitSet composites = new BitSet(n + 1);
+        for (long p = 3; p * p <= n; p += 2) {
+            if (!composites.get((int) p)) {
+                for (long multiple = p * p; multiple <= n; multiple += 2 * p) {
+                    composites.set((int) multiple);
+                }
+            }
+        }
+        return composites;
+    }
+
+    /**
+     * Majorant du nombre de nombres premiers jusqu'à n (Rosser et Schoenfeld).
+     */
+    private static int primeCountBound(int n) {
+        return n < 17 ? 7 : (int) (1.25506 * n / Math.log(n)) + 1;
+    }
+}
@@ -1,13 +1,21 @@
 package fr.tse.fise2.model;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.math.BigInteger;
 
 /**
  * Classe CalculationResult qui représente le résultat d'une opération de calcul.
  */
 public class CalculationResult {
-    private final double result;
+    private final double result; // Résultat, ou sa partie réelle s'il est complexe
+    private final double imaginaryResult; // Partie imaginaire, nulle pour un résultat réel
+    private final BigInteger exactResult; // Résultat entier exact, null s'il n'est qu'approché
+    private final BigDecimal decimalResult; // Résultat décimal exact, null s'il n'est qu'approché
+    private final Rational fractionResult; // Résultat fractionnaire irréductible, null s'il n'est pas fractionnaire
+    private final int radix; // Base d'écriture du mode programmeur, 0 pour les autres modes
+    private final Matrix matrixResult; // Résultat matriciel, null s'il n'est pas une matrice
+    private final Polynomial polynomialResult; // Résultat polynomial, null s'il n'est pas un polynôme
+    private final Polynomial.Roots rootsResult; // Racines d'un polynôme, null si le résultat n'en est pas
     private final String expression; // L'expression originale
 
     /**
@@ -18,6 +26,168 @@ public class CalculationResult {
      */
     public CalculationResult(double result, String expression) {
         this.result = result;
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat entier exact.
+     * 
+     * @param exactResult Le résultat entier exact de l'opération.
+     * @param expression  L'expression mathématique originale.
+     */
+    public CalculationResult(BigInteger exactResult, String expression) {
+        this.result = exactResult.doubleValue();
+        this.exactResult = exactResult;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat décimal exact.
+     * 
+     * @param decimalResult Le résultat décimal exact de l'opération.
+     * @param expression    L'expression mathématique originale.
+     */
+    public CalculationResult(BigDecimal decimalResult, String expression) {
+        this.result = decimalResult.doubleValue();
+        this.exactResult = null;
+        this.decimalResult = decimalResult;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat fractionnaire exact.
+     * 
+     * @param fractionResult Le résultat fractionnaire irréductible de l'opération.
+     * @param expression     L'expression mathématique originale.
+     */
+    public CalculationResult(Rational fractionResult, String expression) {
+        this.result = fractionResult.doubleValue();
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = fractionResult;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat complexe.
+     * 
+     * @param real       La partie réelle du résultat.
+     * @param imaginary  La partie imaginaire du résultat.
+     * @param expression L'expression mathématique originale.
+     */
+    public CalculationResult(double real, double imaginary, String expression) {
+        this.result = real;
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = imaginary;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat du mode programmeur.
+     * 
+     * @param programmerResult Le résultat, motif de 64 bits en complément à deux.
+     * @param radix            La base d'écriture du résultat, de 2 à 36.
+     * @param expression       L'expression mathématique originale.
+     */
+    public CalculationResult(long programmerResult, int radix, String expression) {
+        this.result = programmerResult;
+        this.exactResult = BigInteger.valueOf(programmerResult);
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = radix;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat matriciel.
+     * 
+     * @param matrixResult Le résultat matriciel de l'opération.
+     * @param expression   L'expression mathématique originale.
+     */
+    public CalculationResult(Matrix matrixResult, String expression) {
+        this.result = Double.NaN;
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = matrixResult;
+        this.polynomialResult = null;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour un résultat polynomial.
+     * 
+     * @param polynomialResult Le polynôme résultat, non constant.
+     * @param expression       L'expression mathématique originale.
+     */
+    public CalculationResult(Polynomial polynomialResult, String expression) {
+        this.result = Double.NaN;
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = polynomialResult;
+        this.rootsResult = null;
+        this.expression = expression;
+    }
+
+    /**
+     * Constructeur de CalculationResult pour les racines d'un polynôme.
+     * 
+     * @param rootsResult Les racines.
+     * @param expression  L'expression mathématique originale.
+     */
+    public CalculationResult(Polynomial.Roots rootsResult, String expression) {
+        this.result = Double.NaN;
+        this.exactResult = null;
+        this.decimalResult = null;
+        this.fractionResult = null;
+        this.imaginaryResult = 0;
+        this.radix = 0;
+        this.matrixResult = null;
+        this.polynomialResult = null;
+        this.rootsResult = rootsResult;
         this.expression = expression;
     }
 
@@ -30,6 +200,108 @@ public class CalculationResult {
         return result;
     }
 
+    /**
+     * Retourne la partie imaginaire du résultat, calculée en mode {@link NumberMode#COMPLEX}.
+     * La partie réelle est donnée par {@link #getResult()}.
+     * 
+     * @return La partie imaginaire, nulle pour un résultat réel.
+     */
+    public double getImaginaryResult() {
+        return imaginaryResult;
+    }
+
+    /**
+     * Indique si le résultat est un nombre complexe de partie imaginaire non nulle.
+     * 
+     * @return true si le résultat est complexe.
+     */
+    public boolean isComplex() {
+        return imaginaryResult != 0;
+    }
+
+    /**
+     * Retourne le résultat entier exact, calculé en mode {@link NumberMode#EXACT}.
+     * 
+     * @return Le résultat exact, ou null si le résultat n'est qu'approché.
+     */
+    public BigInteger getExactResult() {
+        return exactResult;
+    }
+
+    /**
+     * Retourne le résultat décimal exact, calculé en mode {@link NumberMode#DECIMAL}.
+     * 
+     * @return Le résultat décimal, ou null si le résultat est entier ou approché.
+     */
+    public BigDecimal getDecimalResult() {
+        return decimalResult;
+    }
+
+    /**
+     * Retourne le résultat fractionnaire exact, calculé en mode {@link NumberMode#RATIONAL}.
+     * 
+     * @return La fraction irréductible, ou null si le résultat est entier ou n'est pas une fraction.
+     */
+    public Rational getFractionResult() {
+        return fractionResult;
+    }
+
+    /**
+     * Retourne le résultat matriciel, calculé en mode {@link NumberMode#MATRIX}.
+     * {@link #getResult()} vaut alors NaN.
+     * 
+     * @return La matrice, ou null si le résultat n'est pas une matrice.
+     */
+    public Matrix getMatrixResult() {
+        return matrixResult;
+    }
+
+    /**
+     * Retourne le résultat polynomial, calculé en mode {@link NumberMode#POLYNOMIAL}.
+     * {@link #getResult()} vaut alors NaN.
+     * 
+     * @return Le polynôme, ou null si le résultat n'est pas un polynôme.
+     */
+    public Polynomial getPolynomialResult() {
+        return polynomialResult;
+    }
+
+    /**
+     * Retourne les racines calculées par roots en mode {@link NumberMode#POLYNOMIAL}.
+     * {@link #getResult()} vaut alors NaN.
+     * 
+     * @return Les racines, ou null si le résultat n'est pas une liste de racines.
+     */
+    public Polynomial.Roots getRootsResult() {
+        return rootsResult;
+    }
+
+    /**
+     * Retourne la base d'écriture d'un résultat du mode {@link NumberMode#PROGRAMMER}.
+     * 
+     * @return La base, ou 0 si le résultat n'a pas été calculé dans ce mode.
+     */
+    public int getRadix() {
+        return radix;
+    }
+
+    /**
+     * Renvoie un résultat du mode programmeur écrit dans une autre base que la sienne,
+     * sans refaire le calcul.
+     * 
+     * @param radix La base, de 2 à 36.
+     * @return Le résultat écrit dans cette base.
+     * @throws IllegalStateException Si le résultat n'a pas été calculé en mode programmeur.
+     */
+    public String getFormattedResult(int radix) {
+        if (this.radix == 0) {
+            throw new IllegalStateException("Résultat calculé hors du mode programmeur");
+        }
+        StringBuilder out = new StringBuilder(24);
+        ResultFormatter.appendTo(out, exactResult.longValue(), radix);
+        return out.toString();
+    }
+
     /**
      * Retourne l'expression mathématique originale.
      * 
@@ -44,25 +316,71 @@ public class CalculationResult {
      * 
      * Cette méthode formate le résultat pour éviter les représentations en
      * virgule flottante indésirables. Elle élimine les zéros non significatifs
-     * et arrondit le résultat si nécessaire.
+     * et arrondit le résultat à 10 décimales si nécessaire (voir {@link ResultFormatter}).
+     * Un résultat entier ou décimal exact est écrit avec tous ses chiffres significatifs,
+     * une fraction sous la forme « 1÷3 », un complexe sous la forme « 3+4i », un
+     * résultat du mode programmeur dans sa base (« 0xFF »), une matrice sous la forme
+     * « [1,2;3,4] » et un polynôme sous la forme « 3X^4-2X+1 », qui peuvent être repris
+     * dans une expression ; des racines s'écrivent « {-1 ; 1} ».
      * 
      * @return Le résultat formaté en tant que chaîne de caractères.
      */
     public String getFormattedResult() {
-        // Vérifie si le résultat est un entier
-        if (result == (long) result) {
-            return String.valueOf((long) result);
-        }
-        
-        // Vérifie si le résultat est proche d'un entier
-        if (Math.abs(result - Math.round(result)) < 1e-9) {
-            return String.valueOf(Math.round(result));
+        return getFormattedResult(ResultFormatter.Notation.STANDARD);
+    }
+
+    /**
+     * Renvoie la valeur décimale du résultat en notation standard : pour une fraction,
+     * son approximation à 10 décimales (0.3333333333 pour 1÷3), sinon le résultat formaté.
+     * 
+     * @return La valeur décimale en tant que chaîne de caractères.
+     */
+    public String getFormattedDecimal() {
+        if (fractionResult == null) {
+            return getFormattedResult();
         }
+        return ResultFormatter.format(result, ResultFormatter.Notation.STANDARD);
+    }
 
-        // Utilise BigDecimal pour une meilleure précision et formatage
-        BigDecimal bd = new BigDecimal(result).setScale(10, RoundingMode.HALF_UP);
-        String formatted = bd.stripTrailingZeros().toPlainString();
+    /**
+     * Renvoie le résultat formaté dans la notation demandée.
+     * 
+     * @param notation La notation (standard, scientifique ou ingénieur).
+     * @return Le résultat formaté en tant que chaîne de caractères.
+     */
+    public String getFormattedResult(ResultFormatter.Notation notation) {
+        StringBuilder out = new StringBuilder(24);
+        appendFormattedResult(out, notation);
+        return out.toString();
+    }
 
-        return formatted;
+    /**
+     * Ajoute le résultat formaté à la fin d'un StringBuilder, sans créer de chaîne
+     * intermédiaire ; utile pour écrire une série de résultats.
+     * 
+     * @param out Le StringBuilder de destination.
+     * @param notation La notation à utiliser.
+     */
+    public void appendFormattedResult(StringBuilder out, ResultFormatter.Notation notation) {
+        if (radix != 0) {
+            // Entier de 64 bits : la notation ne s'applique pas
+            ResultFormatter.appendTo(out, exactResult.longValue(), radix);
+        } else if (matrixResult != null) {
+            ResultFormatter.appendTo(out, matrixResult, notation);
+        } else if (polynomialResult != null) {
+            ResultFormatter.appendTo(out, polynomialResult, notation);
+        } else if (rootsResult != null) {
+            ResultFormatter.appendTo(out, rootsResult, notation);
+        } else if (exactResult != null) {
+            ResultFormatter.appendTo(out, exactResult, notation);
+        } else if (decimalResult != null) {
+            ResultFormatter.appendTo(out, decimalResult, notation);
+        } else if (fractionResult != null) {
+            ResultFormatter.appendTo(out, fractionResult, notation);
+        } else if (imaginaryResult != 0) {
+            ResultFormatter.appendTo(out, result, imaginaryResult, notation);
+        } else {
+            ResultFormatter.appendTo(out, result, notation);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,15 @@
 package fr.tse.fise2.model;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -14,247 +21,2030 @@ public class Calculator {
 
     // Pattern incluant toutes les fonctions scientifiques
     public static final Pattern TOKEN_PATTERN = Pattern.compile(
-        "(?<=[^\\d\\)])-\\d+\\.?\\d*|" +    // Nombres négatifs
+        "(?<=[^\\d\\)πi])-\\d+\\.?\\d*|" +  // Nombres négatifs (pas après un nombre, ')' ou une constante)
         "\\d+\\.?\\d*|" +                   // Nombres positifs
         "[+\\-x÷%()^!]|" +                  // Opérateurs et parenthèses, y compris '%'
-        "mod|" +                            // Opérateur modulo
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
         "sin|cos|tan|" +                    // Fonctions trigo
         "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
-        "ln|exp|sqrt|π"                     // Autres fonctions
+        "ln|exp|sqrt|π|i"                   // Autres fonctions, constantes π et i
     );
 
+    // Pattern du mode programmeur : littéraux en base 16, 2 et 8, et opérateurs binaires.
+    // Un chiffre hexadécimal suivi de « ND » n'appartient pas au littéral : 0xAAND se lit 0xA AND.
+    // Un préfixe en fin de saisie forme un token, pour qu'un opérateur ne remplace pas son « x ».
+    public static final Pattern PROGRAMMER_TOKEN_PATTERN = Pattern.compile(
+        "(?<=[^\\d\\)πi])(?<!0x[0-9a-fA-F]{1,64})-(?:0x(?:[0-9a-fA-F](?!ND))+|0b[01]+|0o[0-7]+|\\d+\\.?\\d*)|" + // Nombres négatifs
+        "0x(?:[0-9a-fA-F](?!ND))+|0b[01]+|0o[0-7]+|" + // Littéraux hexadécimaux, binaires et octaux
+        "0[xbo]\\z|" +                       // Préfixe en cours de saisie
+        "\\d+\\.?\\d*|" +                   // Nombres positifs
+        "[+\\-x÷%()^!]|" +                  // Opérateurs et parenthèses, y compris '%'
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
+        "AND|OR|XOR|NOT|" +                 // Opérateurs logiques bit à bit
+        "<<|>>>|>>|ROL|ROR|" +              // Décalages et rotations
+        "sin|cos|tan|" +                    // Fonctions trigo
+        "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
+        "ln|exp|sqrt|π|i"                   // Autres fonctions, constantes π et i
+    );
+
+    // Pattern du mode matrices : matrices littérales, variables A à Z et opérateurs matriciels
+    public static final Pattern MATRIX_TOKEN_PATTERN = Pattern.compile(
+        "(?<=[^\\d\\)\\]πiA-Z])-\\d+\\.?\\d*|" + // Nombres négatifs (pas après une valeur)
+        "\\[[^\\[\\]]*\\]|" +                // Matrices littérales [1,2;3,4]
+        "\\d+\\.?\\d*|" +                   // Nombres positifs
+        "[+\\-x÷%()^!\\\\]|" +               // Opérateurs et parenthèses, y compris la résolution '\\'
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
+        "det|inv|trans|" +                  // Fonctions matricielles
+        "sin|cos|tan|" +                    // Fonctions trigo
+        "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
+        "ln|exp|sqrt|π|i|[A-Z]"             // Autres fonctions, constantes et variables
+    );
+
+    // Pattern du mode statistiques : statistiques du jeu de données chargé et centiles.
+    // Un signe moins après le nom d'une statistique est une soustraction.
+    public static final Pattern STATISTICS_TOKEN_PATTERN = Pattern.compile(
+        "(?<=[^\\d\\)πi])(?<!count|mean|var|sd|min|max)-\\d+\\.?\\d*|" + // Nombres négatifs
+        "\\d+\\.?\\d*|" +                   // Nombres positifs
+        "[+\\-x÷%()^!]|" +                  // Opérateurs et parenthèses, y compris '%'
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
+        "count|mean|var|sd|min|max|pct|" +  // Statistiques et centiles
+        "sin|cos|tan|" +                    // Fonctions trigo
+        "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
+        "ln|exp|sqrt|π|i"                   // Autres fonctions, constantes π et i
+    );
+
+    // Pattern du mode polynômes : inconnue X, évaluation P@x, racines et dérivée
+    public static final Pattern POLYNOMIAL_TOKEN_PATTERN = Pattern.compile(
+        "(?<=[^\\d\\)πiX])-\\d+\\.?\\d*|" + // Nombres négatifs (pas après un nombre, ')' ou X)
+        "\\d+\\.?\\d*|" +                   // Nombres positifs
+        "[+\\-x÷%()^!@]|" +                 // Opérateurs et parenthèses, y compris l'évaluation '@'
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
+        "roots|deriv|" +                    // Racines et dérivée
+        "sin|cos|tan|" +                    // Fonctions trigo
+        "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
+        "ln|exp|sqrt|π|i|X"                 // Autres fonctions, constantes et inconnue
+    );
+
+    // Pattern des équations compilées pour le solveur : expressions réelles d'inconnue X
+    public static final Pattern EQUATION_TOKEN_PATTERN = Pattern.compile(
+        "(?<=[^\\d\\)πX])-\\d+\\.?\\d*|" + // Nombres négatifs (pas après un nombre, ')' ou X)
+        "\\d+\\.?\\d*|" +                   // Nombres positifs
+        "[+\\-x÷%()^!]|" +                  // Opérateurs et parenthèses, y compris '%'
+        "mod|nCr|nPr|" +                    // Modulo, combinaisons et arrangements
+        "sin|cos|tan|" +                    // Fonctions trigo
+        "arcsin|arccos|arctan|" +           // Fonctions trigo inverses
+        "ln|exp|sqrt|ψ|π|X"                 // Autres fonctions (ψ : digamma), constante π et inconnue
+    );
+
+    // Évaluation incrémentale : tokens bruts de la dernière expression et points de reprise
+    private String lastExpression = "";
+    private final List<String> rawTokens = new ArrayList<>();
+    private final List<Integer> rawTokenEnds = new ArrayList<>();
+    private final List<EvaluationState> checkpoints = new ArrayList<>();
+
+    // Points de reprise : un tous les checkpointInterval tokens, au plus MAX_CHECKPOINTS
+    private static final int CHECKPOINT_INTERVAL = 16;
+    private static final int MAX_CHECKPOINTS = 64;
+    private int checkpointInterval = CHECKPOINT_INTERVAL;
+
+    // Représentation des nombres (flottants par défaut)
+    private NumberMode numberMode = NumberMode.FLOAT;
+
+    // Plus grand factoriel représentable par un long
+    private static final int MAX_LONG_FACTORIAL = 20;
+
+    // Mode décimal : échelle des produits et quotients, et mode d'arrondi
+    private int decimalScale = 10;
+    private RoundingMode decimalRounding = RoundingMode.HALF_EVEN;
+    // Plus grand exposant entier calculé exactement en mode décimal
+    private static final int MAX_DECIMAL_EXPONENT = 999;
+
+    // Mode fractions : taille maximale (en bits) d'une puissance calculée exactement
+    private static final long MAX_RATIONAL_BITS = 1L << 27;
+
+    // Mode précis : nombre de chiffres significatifs des résultats
+    private MathContext precision = new MathContext(50, RoundingMode.HALF_EVEN);
+    private static final int MAX_PRECISION = 10_000;
+
+    // Mode complexe : tableau réutilisé pour le résultat des calculs (partie réelle, partie imaginaire)
+    private final double[] complexResult = new double[2];
+
+    // Mode programmeur : base d'écriture des résultats
+    private int outputBase = 10;
+
+    // Mode matrices : variables A à Z, lues aussi par le thread de l'aperçu
+    private final Map<String, Matrix> variables = new ConcurrentHashMap<>();
+
+    // Mode statistiques : jeu de données chargé, partagé avec le thread de l'aperçu
+    private volatile StreamingStatistics dataset;
+
+    /**
+     * Constructeur de la classe Calculator.
+     */
+    public Calculator() {
+        engine = new CalculatorEngine();
+    }
+        
+    /**
+     * Retourne l'unité d'angle des fonctions trigonométriques.
+     * @return L'unité d'angle.
+     */
+    public AngleMode getAngleMode() {
+        return engine.getAngleMode();
+    }
+
+    /**
+     * Change l'unité d'angle des fonctions trigonométriques (degrés par défaut).
+     * Les points de reprise de l'évaluation incrémentale sont invalidés, car ils
+     * contiennent des valeurs calculées dans l'ancienne unité.
+     * @param angleMode La nouvelle unité d'angle.
+     */
+    public void setAngleMode(AngleMode angleMode) {
+        if (angleMode != engine.getAngleMode()) {
+            engine.setAngleMode(angleMode);
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Retourne la représentation des nombres utilisée pour l'évaluation.
+     * @return Le mode de calcul.
+     */
+    public NumberMode getNumberMode() {
+        return numberMode;
+    }
+
+    /**
+     * Change la représentation des nombres (flottants par défaut).
+     * Dans tous les modes, les entiers sont d'abord calculés exactement en long.
+     * En cas de dépassement, le calcul se poursuit en flottant, ou en grands entiers en
+     * mode {@link NumberMode#EXACT} et {@link NumberMode#RATIONAL}. Les opérations dont le
+     * résultat n'est pas entier (fonctions, division non entière, puissance négative) se
+     * poursuivent en flottant, sauf en mode {@link NumberMode#RATIONAL} où divisions et
+     * puissances entières donnent des fractions exactes, et en mode {@link NumberMode#PRECISE}
+     * où elles sont arrondies à la précision choisie.
+     * @param numberMode Le nouveau mode de calcul.
+     */
+    public void setNumberMode(NumberMode numberMode) {
+        if (numberMode != this.numberMode) {
+            this.numberMode = numberMode;
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Retourne le nombre de décimales des produits et quotients en mode décimal.
+     * @return L'échelle décimale.
+     */
+    public int getDecimalScale() {
+        return decimalScale;
+    }
+
+    /**
+     * Change le nombre de décimales des produits et quotients en mode
+     * {@link NumberMode#DECIMAL} (10 par défaut ; 2 pour des centimes).
+     * Les additions, soustractions, modulos et pourcentages restent exacts.
+     * @param decimalScale Le nombre de décimales, de 0 à {@link ScaledDecimal#MAX_SCALE}.
+     */
+    public void setDecimalScale(int decimalScale) {
+        if (decimalScale < 0 || decimalScale > ScaledDecimal.MAX_SCALE) {
+            throw new IllegalArgumentException("Échelle décimale invalide : " + decimalScale);
+        }
+        if (decimalScale != this.decimalScale) {
+            this.decimalScale = decimalScale;
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Retourne le mode d'arrondi du mode décimal.
+     * @return Le mode d'arrondi.
+     */
+    public RoundingMode getDecimalRounding() {
+        return decimalRounding;
+    }
+
+    /**
+     * Change le mode d'arrondi du mode décimal (arrondi bancaire HALF_EVEN par défaut,
+     * HALF_UP pour l'arrondi commercial).
+     * @param decimalRounding Le mode d'arrondi.
+     */
+    public void setDecimalRounding(RoundingMode decimalRounding) {
+        if (decimalRounding != this.decimalRounding) {
+            this.decimalRounding = decimalRounding;
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Retourne le nombre de chiffres significatifs du mode précis.
+     * @return La précision en chiffres.
+     */
+    public int getPrecision() {
+        return precision.getPrecision();
+    }
+
+    /**
+     * Change le nombre de chiffres significatifs des résultats en mode
+     * {@link NumberMode#PRECISE} (50 par défaut). π et e sont calculés une fois par
+     * précision puis mémorisés : le premier calcul à une précision plus grande est plus lent.
+     * @param digits Le nombre de chiffres, de 1 à 10000.
+     */
+    public void setPrecision(int digits) {
+        if (digits < 1 || digits > MAX_PRECISION) {
+            throw new IllegalArgumentException("Précision invalide : " + digits);
+        }
+        if (digits != precision.getPrecision()) {
+            precision = new MathContext(digits, RoundingMode.HALF_EVEN);
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Abaisse la taille maximale d'une puissance exacte (2^27 bits par défaut), au-delà de
+     * laquelle le résultat est une erreur. Les élévations au carré des très grands entiers ne
+     * pouvant pas être interrompues, un calcul abandonnable doit se limiter ainsi.
+     * @param bits La taille maximale, en bits.
+     */
+    public void setMaxExactBits(long bits) {
+        engine.setMaxExactBits(bits);
+        clearCheckpoints();
+    }
+
+    /**
+     * Retourne la base d'écriture des résultats du mode programmeur.
+     * @return La base, de 2 à 36.
+     */
+    public int getOutputBase() {
+        return outputBase;
+    }
+
+    /**
+     * Change la base d'écriture des résultats en mode {@link NumberMode#PROGRAMMER}
+     * (10 par défaut). En base 16, 2 et 8, le résultat est écrit avec son préfixe (0x, 0b
+     * ou 0o) comme un motif de 64 bits non signé, et peut être repris dans une expression.
+     * @param outputBase La base, de 2 à 36.
+     */
+    public void setOutputBase(int outputBase) {
+        if (outputBase < Character.MIN_RADIX || outputBase > Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Base invalide : " + outputBase);
+        }
+        this.outputBase = outputBase;
+    }
+
+    /**
+     * Retourne les variables du mode matrices.
+     * @return Une vue non modifiable des variables, par nom.
+     */
+    public Map<String, Matrix> getVariables() {
+        return Collections.unmodifiableMap(variables);
+    }
+
+    /**
+     * Donne une valeur à une variable du mode {@link NumberMode#MATRIX}, comme le fait
+     * « expression→A ». Les grandes matrices sont mémorisées ainsi, sans passer par le texte.
+     * @param name Le nom de la variable, une lettre majuscule.
+     * @param value La matrice.
+     */
+    public void setVariable(String name, Matrix value) {
+        if (!isVariable(name)) {
+            throw new IllegalArgumentException("Nom de variable invalide : " + name);
+        }
+        if (variables.put(name, value) != value) {
+            // Les points de reprise contiennent peut-être l'ancienne valeur
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Retourne le jeu de données du mode statistiques.
+     * @return Les statistiques de la colonne chargée, ou null si aucune ne l'est.
+     */
+    public StreamingStatistics getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Choisit le jeu de données dont les statistiques (count, mean, var, sd, min, max,
+     * pct) sont utilisables en mode {@link NumberMode#STATISTICS}, par exemple le résultat
+     * de {@link CsvColumnReader#read}.
+     * @param dataset Les statistiques de la colonne, ou null.
+     */
+    public void setDataset(StreamingStatistics dataset) {
+        if (this.dataset != dataset) {
+            this.dataset = dataset;
+            clearCheckpoints();
+        }
+    }
+
+    /**
+     * Oublie la dernière expression et ses points de reprise.
+     */
+    private void clearCheckpoints() {
+        lastExpression = "";
+        rawTokens.clear();
+        rawTokenEnds.clear();
+        checkpoints.clear();
+        checkpointInterval = CHECKPOINT_INTERVAL;
+    }
+
+    /**
+     * Mémorise un point de reprise. Au-delà de MAX_CHECKPOINTS, un point sur deux est
+     * abandonné et l'intervalle doublé : la mémoire reste bornée et la reprise en fin de
+     * saisie ne rejoue jamais plus d'un intervalle de tokens.
+     * @param state La copie de l'état à mémoriser.
+     */
+    private void addCheckpoint(EvaluationState state) {
+        checkpoints.add(state);
+        if (checkpoints.size() > MAX_CHECKPOINTS) {
+            checkpointInterval *= 2;
+            checkpoints.removeIf(checkpoint -> checkpoint.tokenCount % checkpointInterval != 0);
+        }
+    }
+
+    /** 
+     * Méthode pour déterminer si une chaîne est un nombre.
+     * @param str La chaîne à vérifier.
+     * @return true si la chaîne est un nombre, false sinon.
+     */
+    private boolean isNumeric(String str) {
+        if (str.endsWith("%")) {
+            str = str.substring(0, str.length() - 1);
+        }
+        if (isBasedLiteral(str)) {
+            return true;
+        }
+        try {
+            Double.parseDouble(str);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+
+    /**
+     * Vérifie si le token est une fonction unaire.
+     * @param token Le token à vérifier.
+     * @return true si le token est une fonction unaire, false sinon.
+     */
+    private boolean isUnaryFunction(String token) {
+        switch (token) {
+            case "sin": case "cos": case "tan":
+            case "arcsin": case "arccos": case "arctan":
+            case "ln": case "exp": case "sqrt": case "ψ":
+            case "NOT":
+            case "det": case "inv": case "trans":
+            case "pct":
+            case "roots": case "deriv":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Vérifie si un token est un opérateur binaire des expressions d'inconnue X, après
+     * lequel un signe moins est unaire.
+     * @param token Le token à vérifier.
+     * @return true si le token est un opérateur binaire.
+     */
+    private boolean isBinaryOperator(String token) {
+        switch (token) {
+            case "+": case "-": case "x": case "÷": case "mod": case "^": case "nCr": case "nPr":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Méthode pour déterminer la priorité d'un opérateur.
+     * @param operator L'opérateur dont on veut connaître la priorité.
+     * @return Un entier représentant la priorité de l'opérateur.
+     */
+    private int precedence(String operator) {
+        switch (operator) {
+            case "sin": case "cos": case "tan":
+            case "arcsin": case "arccos": case "arctan":
+            case "ln": case "exp": case "sqrt": case "ψ":
+            case "NOT": case "!":
+            case "det": case "inv": case "trans":
+            case "pct":
+            case "roots": case "deriv":
+                return 9; // Priorité la plus haute pour les fonctions
+            case "^":
+                return 8; // Priorité haute pour les puissances
+            case "(": case ")":
+            case "nCr": case "nPr":
+            case "neg":
+                return 7;
+            case "x": case "÷": case "mod": case "%": case "\\":
+                return 6;
+            case "+": case "-":
+                return 5;
+            // Opérateurs du mode programmeur, dans l'ordre de priorité du C
+            case "<<": case ">>": case ">>>": case "ROL": case "ROR":
+                return 4;
+            case "AND":
+                return 3;
+            case "XOR":
+                return 2;
+            case "OR":
+            case "@": // Évaluation d'un polynôme, après tout le reste : X^2+1@3
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Méthode pour exécuter une opération binaire ou unaire.
+     * @param a Premier opérande.
+     * @param b Second opérande (peut être 0 pour les opérations unaires).
+     * @param operator L'opérateur à appliquer.
+     * @return Le résultat de l'opération.
+     * @throws CalculatorException Si l'opérateur n'est pas supporté ou en cas d'erreur.
+     */
+    private double performOperation(double a, double b, String operator) throws CalculatorException {
+        switch (operator) {
+            // Opérations de base
+            case "+": return engine.add(a, b);
+            case "-": return engine.subtract(a, b);
+            case "x": return engine.multiply(a, b);
+            case "÷": return engine.divide(a, b);
+            case "%": return engine.percent(a);
+            case "mod": return engine.modulo(a, b);
+    
+            // Opérations scientifiques
+            case "^": return engine.pow(a, b);
+            case "sin": return engine.sin(a);
+            case "cos": return engine.cos(a);
+            case "tan": return engine.tan(a);
+            case "arcsin": return engine.arcsin(a);
+            case "arccos": return engine.arccos(a);
+            case "arctan": return engine.arctan(a);
+            case "ln": return engine.ln(a);
+            case "exp": return engine.exp(a);
+            case "sqrt": return engine.sqrt(a);
+            case "!": return engine.factorial(a);
+            case "nCr": return engine.combinations(a, b);
+            case "nPr": return engine.permutations(a, b);
+            default:
+                throw new CalculatorException("Opérateur non pris en charge: " + operator);
+        }
+    }
+
+    /**
+     * Exécute une opération binaire sur les deux entiers long au sommet de la pile.
+     * Les opérations sont exactes ({@link Math#addExact}, {@link Math#multiplyExact}...) :
+     * en cas de dépassement ou de résultat non entier, les opérandes restent sur la pile
+     * et le calcul est repris en grands entiers (mode exact) ou en flottant.
+     * @param values Pile des valeurs, dont les deux premières sont des long.
+     * @param operator L'opérateur à appliquer.
+     * @return true si le résultat a été empilé, false si le calcul doit être repris.
+     */
+    private boolean performLongOperation(ValueStack values, String operator) {
+        long b = values.peekLong(0);
+        long a = values.peekLong(1);
+        long result;
+        try {
+            switch (operator) {
+                case "+": result = Math.addExact(a, b); break;
+                case "-": result = Math.subtractExact(a, b); break;
+                case "x": result = Math.multiplyExact(a, b); break;
+                case "÷":
+                    if (b == 0 || a % b != 0) {
+                        return false;
+                    }
+                    result = Math.divideExact(a, b);
+                    break;
+                case "mod":
+                    if (b == 0) {
+                        return false;
+                    }
+                    result = a % b;
+                    break;
+                case "^":
+                    if (b < 0) {
+                        return false;
+                    }
+                    result = powExact(a, b);
+                    break;
+                default:
+                    return false;
+            }
+        } catch (ArithmeticException overflow) {
+            return false;
+        }
+        values.drop(2);
+        values.pushLong(result);
+        return true;
+    }
+
+    /**
+     * Exécute une opération binaire sur les deux décimaux exacts au sommet de la pile.
+     * Les mantisses long sont calculées sans allocation par {@link ScaledDecimal} ;
+     * en cas de dépassement, le calcul est repris en BigDecimal avec les mêmes règles.
+     * Additions, soustractions et modulos sont exacts ; produits et quotients sont
+     * arrondis à l'échelle décimale.
+     * @param values Pile des valeurs, dont les deux premières sont exactes.
+     * @param operator L'opérateur à appliquer.
+     * @return true si le résultat a été empilé, false si le calcul doit être repris en flottant.
+     */
+    private boolean performDecimalOperation(ValueStack values, String operator) {
+        if (values.isScaled(0) && values.isScaled(1)) {
+            long b = values.peekLong(0);
+            int scaleB = values.peekScale(0);
+            long a = values.peekLong(1);
+            int scaleA = values.peekScale(1);
+            int scale;
+            long result;
+            try {
+                switch (operator) {
+                    case "+":
+                        scale = Math.max(scaleA, scaleB);
+                        result = ScaledDecimal.add(a, scaleA, b, scaleB);
+                        break;
+                    case "-":
+                        scale = Math.max(scaleA, scaleB);
+                        result = ScaledDecimal.subtract(a, scaleA, b, scaleB);
+                        break;
+                    case "x":
+                        scale = Math.min(scaleA + scaleB, decimalScale);
+                        result = ScaledDecimal.multiply(a, scaleA, b, scaleB, scale, decimalRounding);
+                        break;
+                    case "÷":
+                        if (b == 0) {
+                            return false;
+                        }
+                        scale = decimalScale;
+                        result = ScaledDecimal.divide(a, scaleA, b, scaleB, scale, decimalRounding);
+                        break;
+                    case "mod":
+                        if (b == 0) {
+                            return false;
+                        }
+                        scale = Math.max(scaleA, scaleB);
+                        result = ScaledDecimal.remainder(a, scaleA, b, scaleB);
+                        break;
+                    default:
+                        scale = -1;
+                        result = 0;
+                        break;
+                }
+            } catch (ArithmeticException overflow) {
+                scale = -1;
+                result = 0;
+            }
+            if (scale >= 0) {
+                values.drop(2);
+                values.pushScaled(result, scale);
+                return true;
+            }
+        }
+
+        BigDecimal result = performBigDecimalOperation(values.peekDecimal(1), values.peekDecimal(0), operator);
+        if (result == null) {
+            return false;
+        }
+        values.drop(2);
+        values.pushDecimal(result);
+        return true;
+    }
+
+    /**
+     * Exécute une opération binaire en BigDecimal, avec les règles d'échelle du mode décimal.
+     * @param a Premier opérande.
+     * @param b Second opérande.
+     * @param operator L'opérateur à appliquer.
+     * @return Le résultat, ou null si l'opération doit être calculée en flottant.
+     */
+    private BigDecimal performBigDecimalOperation(BigDecimal a, BigDecimal b, String operator) {
+        switch (operator) {
+            case "+": return a.add(b);
+            case "-": return a.subtract(b);
+            case "x":
+                BigDecimal product = a.multiply(b);
+                return product.scale() > decimalScale ? product.setScale(decimalScale, decimalRounding) : product;
+            case "÷":
+                return b.signum() != 0 ? a.divide(b, decimalScale, decimalRounding) : null;
+            case "mod":
+                return b.signum() != 0 ? a.remainder(b) : null;
+            case "^":
+                // Exposant entier positif uniquement ; les autres puissances sont irrationnelles
+                if (b.signum() < 0 || b.stripTrailingZeros().scale() > 0
+                        || b.compareTo(BigDecimal.valueOf(MAX_DECIMAL_EXPONENT)) > 0) {
+                    return null;
+                }
+                BigDecimal power = a.pow(b.intValue());
+                return power.scale() > decimalScale ? power.setScale(decimalScale, decimalRounding) : power;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Exécute une opération binaire sur les deux fractions exactes au sommet de la pile
+     * (mode fractions). Les fractions de deux long sont calculées sans allocation et sans
+     * réduction ; le PGCD n'est calculé qu'en cas de dépassement, avant de reprendre le
+     * calcul, puis en dernier recours avec {@link Rational}.
+     * @param values Pile des valeurs, dont les deux premières sont exactes.
+     * @param operator L'opérateur à appliquer.
+     * @return true si le résultat a été empilé, false si le calcul doit être repris
+     *         en entiers exacts ou en flottant.
+     */
+    private boolean performRationalOperation(ValueStack values, String operator) {
+        if (values.isRational(0) && values.isRational(1)) {
+            if (performLongRationalOperation(values, operator)) {
+                return true;
+            }
+            // Réduction différée : seulement lorsqu'un calcul dépasse la capacité d'un long
+            if (reduceLongRationals(values) && performLongRationalOperation(values, operator)) {
+                return true;
+            }
+        }
+
+        Rational b = values.peekRational(0);
+        Rational a = values.peekRational(1);
+        Rational result;
+        switch (operator) {
+            case "+": result = a.add(b); break;
+            case "-": result = a.subtract(b); break;
+            case "x": result = a.multiply(b); break;
+            case "÷":
+                // La division par zéro est signalée par le calcul en flottant
+                if (b.signum() == 0) {
+                    return false;
+                }
+                result = a.divide(b);
+                break;
+            case "mod":
+                if (b.signum() == 0) {
+                    return false;
+                }
+                result = a.remainder(b);
+                break;
+            case "^":
+                // Puissance entière seulement ; un entier à une puissance positive est
+                // calculé par le mode exact, avec ses limites
+                if (!b.isInteger() || (values.isInteger(1) && b.signum() >= 0) || a.signum() == 0) {
+                    return false;
+                }
+                BigInteger exponent = b.reduce().getNumerator();
+                if (exponent.bitLength() > 31 || (long) a.bitLength() * exponent.abs().intValue() > MAX_RATIONAL_BITS) {
+                    return false;
+                }
+                result = a.pow(exponent.intValue());
+                break;
+            default:
+                return false;
+        }
+        values.drop(2);
+        values.pushRational(result);
+        return true;
+    }
+
+    /**
+     * Exécute +, -, x ou ÷ sur deux fractions de deux long, sans les réduire.
+     * @return true si le résultat a été empilé, false en cas de dépassement ou pour un autre opérateur.
+     */
+    private static boolean performLongRationalOperation(ValueStack values, String operator) {
+        long bn = values.peekLong(0);
+        long bd = values.peekDenominator(0);
+        long an = values.peekLong(1);
+        long ad = values.peekDenominator(1);
+        long numerator;
+        long denominator;
+        try {
+            switch (operator) {
+                case "+":
+                    if (ad == bd) {
+                        numerator = Math.addExact(an, bn);
+                        denominator = ad;
+                    } else {
+                        numerator = Math.addExact(Math.multiplyExact(an, bd), Math.multiplyExact(bn, ad));
+                        denominator = Math.multiplyExact(ad, bd);
+                    }
+                    break;
+                case "-":
+                    if (ad == bd) {
+                        numerator = Math.subtractExact(an, bn);
+                        denominator = ad;
+                    } else {
+                        numerator = Math.subtractExact(Math.multiplyExact(an, bd), Math.multiplyExact(bn, ad));
+                        denominator = Math.multiplyExact(ad, bd);
+                    }
+                    break;
+                case "x":
+                    numerator = Math.multiplyExact(an, bn);
+                    denominator = Math.multiplyExact(ad, bd);
+                    break;
+                case "÷":
+                    if (bn == 0) {
+                        return false;
+                    }
+                    numerator = Math.multiplyExact(an, bd);
+                    denominator = Math.multiplyExact(ad, bn);
+                    if (denominator < 0) {
+                        numerator = Math.negateExact(numerator);
+                        denominator = Math.negateExact(denominator);
+                    }
+                    break;
+                default:
+                    return false;
+            }
+        } catch (ArithmeticException overflow) {
+            return false;
+        }
+        values.drop(2);
+        values.pushRational(numerator, denominator);
+        return true;
+    }
+
+    /**
+     * Réduit les deux fractions de deux long au sommet de la pile.
+     * @return true si l'une d'elles a été réduite.
+     */
+    private static boolean reduceLongRationals(ValueStack values) {
+        long bn = values.peekLong(0);
+        long bd = values.peekDenominator(0);
+        long an = values.peekLong(1);
+        long ad = values.peekDenominator(1);
+        long gcdB = Rational.gcd(bn, bd);
+        long gcdA = Rational.gcd(an, ad);
+        if (gcdA == 1 && gcdB == 1) {
+            return false;
+        }
+        values.drop(2);
+        values.pushRational(an / gcdA, ad / gcdA);
+        values.pushRational(bn / gcdB, bd / gcdB);
+        return true;
+    }
+
+    /**
+     * Exécute une opération binaire sur les deux nombres complexes au sommet de la pile
+     * (mode complexe). Les parties réelles et imaginaires sont lues dans la pile et le
+     * résultat est calculé dans un tableau réutilisé, sans allocation.
+     * @param values Pile des valeurs.
+     * @param operator L'opérateur à appliquer.
+     * @throws CalculatorException Si l'opérateur n'est pas défini pour les complexes ou en cas d'erreur.
+     */
+    private void performComplexOperation(ValueStack values, String operator) throws CalculatorException {
+        double br = values.peekReal(0);
+        double bi = values.peekImaginary(0);
+        double ar = values.peekReal(1);
+        double ai = values.peekImaginary(1);
+        double[] result = complexResult;
+        switch (operator) {
+            case "+":
+                result[0] = ar + br;
+                result[1] = ai + bi;
+                break;
+            case "-":
+                result[0] = ar - br;
+                result[1] = ai - bi;
+                break;
+            case "x":
+                ComplexMath.multiply(ar, ai, br, bi, result);
+                break;
+            case "÷":
+                if (br == 0 && bi == 0) {
+                    throw new CalculatorException("Division par zéro non permise.");
+                }
+                ComplexMath.divide(ar, ai, br, bi, result);
+                break;
+            case "^":
+                if (ar == 0 && ai == 0) {
+                    if (bi != 0 || br <= 0) {
+                        throw new CalculatorException("Le calcul a produit un résultat invalide.");
+                    }
+                    result[0] = 0;
+                    result[1] = 0;
+                } else {
+                    ComplexMath.pow(ar, ai, br, bi, result);
+                }
+                break;
+            default:
+                throw new CalculatorException("L'opérateur " + operator + " n'est pas défini pour les nombres complexes.");
+        }
+        values.drop(2);
+        pushComplexResult(values, result);
+    }
+
+    /**
+     * Applique une fonction à la valeur au sommet de la pile en arithmétique complexe.
+     * Les fonctions trigonométriques respectent l'unité d'angle : un angle complexe en
+     * degrés est converti en radians partie par partie.
+     * @param function La fonction à appliquer.
+     * @param values Pile des valeurs.
+     * @throws CalculatorException Si la fonction n'est pas définie pour les complexes ou en cas d'erreur.
+     */
+    private void applyComplexFunction(String function, ValueStack values) throws CalculatorException {
+        double re = values.peekReal(0);
+        double im = values.peekImaginary(0);
+        double[] result = complexResult;
+        double toRadians;
+        switch (engine.getAngleMode()) {
+            case DEG: toRadians = Math.PI / 180; break;
+            case GRAD: toRadians = Math.PI / 200; break;
+            default: toRadians = 1; break;
+        }
+        switch (function) {
+            case "sqrt": ComplexMath.sqrt(re, im, result); break;
+            case "ln": ComplexMath.ln(re, im, result); break;
+            case "exp": ComplexMath.exp(re, im, result); break;
+            case "sin": ComplexMath.sin(re * toRadians, im * toRadians, result); break;
+            case "cos": ComplexMath.cos(re * toRadians, im * toRadians, result); break;
+            case "tan": ComplexMath.tan(re * toRadians, im * toRadians, result); break;
+            default:
+                throw new CalculatorException("La fonction " + function + " n'est pas définie pour les nombres complexes.");
+        }
+        values.drop(1);
+        pushComplexResult(values, result);
+    }
+
+    /**
+     * Empile le résultat d'un calcul complexe après avoir vérifié qu'il est fini.
+     */
+    private static void pushComplexResult(ValueStack values, double[] result) throws CalculatorException {
+        if (Double.isInfinite(result[0]) || Double.isInfinite(result[1])) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+        if (Double.isNaN(result[0]) || Double.isNaN(result[1])) {
+            throw new CalculatorException("Le calcul a produit un résultat invalide.");
+        }
+        values.pushComplex(result[0], result[1]);
+    }
+
+    /**
+     * Exécute une opération binaire en précision arbitraire sur les deux valeurs exactes
+     * au sommet de la pile (mode précis) : le résultat est arrondi à la précision choisie.
+     * @param values Pile des valeurs, dont les deux premières sont exactes.
+     * @param operator L'opérateur à appliquer.
+     * @return true si le résultat a été empilé, false si le calcul doit être repris en flottant.
+     * @throws CalculatorException En cas d'erreur.
+     */
+    private boolean performPreciseOperation(ValueStack values, String operator) throws CalculatorException {
+        BigDecimal b = values.peekDecimal(0);
+        BigDecimal a = values.peekDecimal(1);
+        BigDecimal result;
+        switch (operator) {
+            case "+": result = a.add(b, precision); break;
+            case "-": result = a.subtract(b, precision); break;
+            case "x": result = a.multiply(b, precision); break;
+            case "÷":
+                // La division par zéro est signalée par le calcul en flottant
+                if (b.signum() == 0) {
+                    return false;
+                }
+                result = a.divide(b, precision);
+                break;
+            case "mod":
+                if (b.signum() == 0) {
+                    return false;
+                }
+                result = a.remainder(b).round(precision);
+                break;
+            case "^": result = engine.pow(a, b, precision); break;
+            case "nCr": case "nPr":
+                if (!values.isInteger(0) || !values.isInteger(1)) {
+                    return false;
+                }
+                result = new BigDecimal(performExactOperation(values.peekExact(1), values.peekExact(0), operator));
+                break;
+            default:
+                return false;
+        }
+        values.drop(2);
+        pushDecimalResult(values, result);
+        return true;
+    }
+
+    /**
+     * Empile un résultat décimal. En mode précis, il est arrondi à la précision choisie ;
+     * un entier qui tient dans cette précision est ramené à l'échelle 0, de sorte qu'une
+     * échelle négative ne subsiste que pour un entier ayant plus de chiffres que la précision.
+     * @param values Pile des valeurs.
+     * @param value Le résultat.
+     */
+    private void pushDecimalResult(ValueStack values, BigDecimal value) {
+        if (numberMode == NumberMode.PRECISE) {
+            value = value.round(precision);
+            if (value.scale() < 0 && value.precision() - value.scale() <= precision.getPrecision()) {
+                value = value.setScale(0);
+            }
+        }
+        values.pushDecimal(value);
+    }
+
+    /**
+     * Applique une fonction en précision arbitraire (mode précis).
+     * @param a L'argument.
+     * @param function La fonction à appliquer.
+     * @return Le résultat arrondi à la précision choisie.
+     * @throws CalculatorException Si la fonction n'est pas supportée ou en cas d'erreur.
+     */
+    private BigDecimal performPreciseFunction(BigDecimal a, String function) throws CalculatorException {
+        switch (function) {
+            case "sin": return engine.sin(a, precision);
+            case "cos": return engine.cos(a, precision);
+            case "tan": return engine.tan(a, precision);
+            case "arcsin": return engine.arcsin(a, precision);
+            case "arccos": return engine.arccos(a, precision);
+            case "arctan": return engine.arctan(a, precision);
+            case "ln": return engine.ln(a, precision);
+            case "exp": return engine.exp(a, precision);
+            case "sqrt": return engine.sqrt(a, precision);
+            default:
+                throw new CalculatorException("Opérateur non pris en charge: " + function);
+        }
+    }
+
+    /**
+     * Exécute un opérateur ou une fonction du mode programmeur sur les long au sommet de
+     * la pile. Les calculs se font sur 64 bits en complément à deux, sans conversion en
+     * double : +, -, x et ^ sont calculés modulo 2^64, ÷ et mod sont des divisions entières.
+     * @param values Pile des valeurs, qui ne contient que des long dans ce mode.
+     * @param operator L'opérateur ou la fonction à appliquer.
+     * @throws CalculatorException Si l'opérateur n'est pas défini dans ce mode ou en cas d'erreur.
+     */
+    private void performProgrammerOperation(ValueStack values, String operator) throws CalculatorException {
+        if (isUnaryFunction(operator) || operator.equals("!")) {
+            if (values.isEmpty())
+                throw new CalculatorException("Pas assez d'opérandes pour l'opérateur " + operator);
+            long a = values.peekLong(0);
+            long result;
+            if (operator.equals("NOT")) {
+                result = ~a;
+            } else if (operator.equals("!")) {
+                if (a < 0) {
+                    throw new CalculatorException("Le factoriel n'est pas défini pour les entiers négatifs.");
+                }
+                if (a > MAX_LONG_FACTORIAL) {
+                    throw new CalculatorException("Le nombre est trop grand pour être calculé.");
+                }
+                result = (long) engine.factorial(a);
+            } else {
+                throw new CalculatorException("La fonction " + operator + " n'est pas définie en mode programmeur.");
+            }
+            values.drop(1);
+            values.pushLong(result);
+            return;
+        }
+        if (values.size() < 2)
+            throw new CalculatorException("Pas assez d'opérandes pour l'opérateur " + operator);
+        long b = values.peekLong(0);
+        long a = values.peekLong(1);
+        long result;
+        switch (operator) {
+            case "+": result = a + b; break;
+            case "-": result = a - b; break;
+            case "x": result = a * b; break;
+            case "÷":
+                if (b == 0) {
+                    throw new CalculatorException("Division par zéro non permise.");
+                }
+                result = a / b;
+                break;
+            case "mod":
+                if (b == 0) {
+                    throw new CalculatorException("Modulo par zéro non permis.");
+                }
+                result = a % b;
+                break;
+            case "^":
+                if (b < 0) {
+                    throw new CalculatorException("L'exposant doit être positif en mode programmeur.");
+                }
+                result = 1;
+                for (long base = a, exponent = b; exponent != 0; exponent >>= 1, base *= base) {
+                    if ((exponent & 1) == 1) {
+                        result *= base;
+                    }
+                }
+                break;
+            case "AND": result = a & b; break;
+            case "OR": result = a | b; break;
+            case "XOR": result = a ^ b; break;
+            case "<<": result = a << shiftCount(b); break;
+            case ">>": result = a >> shiftCount(b); break;
+            case ">>>": result = a >>> shiftCount(b); break;
+            // Rotations modulo 64 bits : seuls les 6 bits de poids faible du compte comptent
+            case "ROL": result = Long.rotateLeft(a, (int) b); break;
+            case "ROR": result = Long.rotateRight(a, (int) b); break;
+            default:
+                throw new CalculatorException("L'opérateur " + operator + " n'est pas défini en mode programmeur.");
+        }
+        values.drop(2);
+        values.pushLong(result);
+    }
+
+    /**
+     * Exécute un opérateur binaire dont l'un des opérandes au moins est une matrice, ou la
+     * résolution A\\B. Les calculs sont délégués au {@link CalculatorEngine}.
+     * @param values Pile des valeurs.
+     * @param operator L'opérateur à appliquer.
+     * @throws CalculatorException Si l'opérateur n'est pas défini pour ces opérandes ou en cas d'erreur.
+     */
+    private void performMatrixOperation(ValueStack values, String operator) throws CalculatorException {
+        Matrix b = values.peekMatrix(0);
+        Matrix a = values.peekMatrix(1);
+        double scalarB = values.peekReal(0);
+        double scalarA = values.peekReal(1);
+        Matrix matrix;
+        switch (operator) {
+            case "+":
+            case "-":
+                if (a == null || b == null) {
+                    throw new CalculatorException("L'opérateur " + operator + " n'est pas défini entre une matrice et un nombre.");
+                }
+                matrix = operator.equals("+") ? engine.add(a, b) : engine.subtract(a, b);
+                break;
+            case "x":
+                if (a != null && b != null) {
+                    matrix = engine.multiply(a, b);
+                } else {
+                    matrix = a != null ? engine.multiply(scalarB, a) : engine.multiply(scalarA, b);
+                }
+                break;
+            case "÷":
+                if (b != null) {
+                    throw new CalculatorException("La division par une matrice n'est pas définie : utiliser \\ ou inv.");
+                }
+                matrix = engine.multiply(engine.divide(1, scalarB), a);
+                break;
+            case "\\":
+                if (a == null) {
+                    // Nombre \\ B : B divisé par le nombre
+                    if (b == null) {
+                        double quotient = engine.divide(scalarB, scalarA);
+                        values.drop(2);
+                        values.push(quotient);
+                        return;
+                    }
+                    matrix = engine.multiply(engine.divide(1, scalarA), b);
+                } else if (b == null) {
+                    throw new CalculatorException("Le second membre de \\ doit être une matrice.");
+                } else {
+                    matrix = engine.solve(a, b);
+                }
+                break;
+            case "^":
+                if (a == null || b != null) {
+                    throw new CalculatorException("L'exposant d'une matrice doit être entier.");
+                }
+                matrix = engine.pow(a, scalarB);
+                break;
+            default:
+                throw new CalculatorException("L'opérateur " + operator + " n'est pas défini pour les matrices.");
+        }
+        values.drop(2);
+        values.pushMatrix(matrix);
+    }
+
+    /**
+     * Vérifie si une fonction est une fonction matricielle (det, inv, trans).
+     * @param function La fonction à vérifier.
+     * @return true si la fonction est matricielle.
+     */
+    private boolean isMatrixFunction(String function) {
+        return function.equals("det") || function.equals("inv") || function.equals("trans");
+    }
+
+    /**
+     * Applique une fonction à une matrice, ou une fonction matricielle à un nombre
+     * (vu comme une matrice 1 x 1 : det(x) = trans(x) = x et inv(x) = 1 ÷ x).
+     * @param function La fonction à appliquer.
+     * @param values Pile des valeurs.
+     * @throws CalculatorException Si la fonction n'est pas définie pour les matrices ou en cas d'erreur.
+     */
+    private void applyMatrixFunction(String function, ValueStack values) throws CalculatorException {
+        Matrix matrix = values.peekMatrix(0);
+        if (matrix == null) {
+            double value = values.pop();
+            values.push(function.equals("inv") ? engine.divide(1, value) : value);
+            return;
+        }
+        switch (function) {
+            case "det":
+                double determinant = engine.determinant(matrix);
+                values.drop(1);
+                values.push(determinant);
+                return;
+            case "inv":
+                matrix = engine.inverse(matrix);
+                break;
+            case "trans":
+                matrix = engine.transpose(matrix);
+                break;
+            default:
+                throw new CalculatorException("La fonction " + function + " n'est pas définie pour les matrices.");
+        }
+        values.drop(1);
+        values.pushMatrix(matrix);
+    }
+
+    /**
+     * Exécute un opérateur binaire dont l'un des opérandes au moins est un polynôme, ou
+     * l'évaluation P@x. Un nombre réel est vu comme un polynôme constant ; un résultat
+     * constant est empilé comme un nombre.
+     * @param values Pile des valeurs.
+     * @param operator L'opérateur à appliquer.
+     * @throws CalculatorException Si l'opérateur n'est pas défini pour ces opérandes ou en cas d'erreur.
+     */
+    private void performPolynomialOperation(ValueStack values, String operator) throws CalculatorException {
+        Polynomial b = requirePolynomial(values, 0);
+        Polynomial a = requirePolynomial(values, 1);
+        Polynomial result;
+        switch (operator) {
+            case "+": result = a.add(b); break;
+            case "-": result = a.subtract(b); break;
+            case "x": result = engine.multiply(a, b); break;
+            case "÷":
+                if (b.degree() > 0) {
+                    throw new CalculatorException("La division par un polynôme n'est pas définie.");
+                }
+                result = a.multiply(engine.divide(1, b.coefficient(0)));
+                break;
+            case "^":
+                if (b.degree() > 0) {
+                    throw new CalculatorException("L'exposant d'un polynôme doit être un entier positif.");
+                }
+                result = engine.pow(a, b.coefficient(0));
+                break;
+            case "@":
+                if (b.degree() > 0) {
+                    throw new CalculatorException("Un polynôme s'évalue en un nombre : P@2.");
+                }
+                double value = engine.evaluate(a, b.coefficient(0));
+                values.drop(2);
+                values.push(value);
+                return;
+            default:
+                throw new CalculatorException("L'opérateur " + operator + " n'est pas défini pour les polynômes.");
+        }
+        values.drop(2);
+        values.pushPolynomial(result);
+    }
+
+    /**
+     * Applique roots ou deriv à un polynôme ou à un nombre (polynôme constant).
+     * @param function La fonction à appliquer.
+     * @param values Pile des valeurs.
+     * @throws CalculatorException Si la fonction n'est pas définie pour les polynômes ou en cas d'erreur.
+     */
+    private void applyPolynomialFunction(String function, ValueStack values) throws CalculatorException {
+        Polynomial polynomial = requirePolynomial(values, 0);
+        switch (function) {
+            case "roots":
+                Polynomial.Roots roots = engine.roots(polynomial);
+                values.drop(1);
+                values.pushRoots(roots);
+                return;
+            case "deriv":
+                values.drop(1);
+                values.pushPolynomial(polynomial.derivative());
+                return;
+            default:
+                throw new CalculatorException("La fonction " + function + " n'est pas définie pour les polynômes.");
+        }
+    }
+
+    /**
+     * Retourne une valeur de la pile vue comme un polynôme.
+     * @param values Pile des valeurs.
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return Le polynôme.
+     * @throws CalculatorException Si la valeur est complexe ou une liste de racines.
+     */
+    private Polynomial requirePolynomial(ValueStack values, int depth) throws CalculatorException {
+        if (values.isRoots(depth)) {
+            throw new CalculatorException("Les racines d'un polynôme ne peuvent pas être utilisées dans un calcul.");
+        }
+        Polynomial polynomial = values.peekPolynomial(depth);
+        if (polynomial == null) {
+            throw new CalculatorException("Les coefficients d'un polynôme doivent être réels.");
+        }
+        return polynomial;
+    }
+
+    /**
+     * Vérifie le nombre de bits d'un décalage.
+     * @param count Le nombre de bits.
+     * @return Le nombre de bits, entre 0 et 63.
+     * @throws CalculatorException Si le décalage sort de cet intervalle.
+     */
+    private static int shiftCount(long count) throws CalculatorException {
+        if (count < 0 || count >= Long.SIZE) {
+            throw new CalculatorException("Le décalage doit être compris entre 0 et 63 bits.");
+        }
+        return (int) count;
+    }
+
+    /**
+     * Élève un long à une puissance positive par exponentiation rapide.
+     * @param base La base.
+     * @param exponent L'exposant, positif ou nul.
+     * @return base^exponent
+     * @throws ArithmeticException Si le résultat dépasse la capacité d'un long.
+     */
+    private static long powExact(long base, long exponent) {
+        if (base == 0 || base == 1) {
+            return exponent == 0 ? 1 : base;
+        }
+        if (base == -1) {
+            return (exponent & 1) == 0 ? 1 : -1;
+        }
+        if (exponent >= Long.SIZE) {
+            throw new ArithmeticException("long overflow");
+        }
+        long result = 1;
+        while (true) {
+            if ((exponent & 1) == 1) {
+                result = Math.multiplyExact(result, base);
+            }
+            exponent >>= 1;
+            if (exponent == 0) {
+                return result;
+            }
+            base = Math.multiplyExact(base, base);
+        }
+    }
+
+    /**
+     * Méthode pour exécuter une opération binaire sur deux entiers exacts.
+     * @param a Premier opérande.
+     * @param b Second opérande.
+     * @param operator L'opérateur à appliquer.
+     * @return Le résultat exact, ou null si le résultat n'est pas entier et doit être
+     *         calculé en flottant.
+     * @throws CalculatorException En cas d'erreur.
+     */
+    private BigInteger performExactOperation(BigInteger a, BigInteger b, String operator) throws CalculatorException {
+        switch (operator) {
+            case "+": return a.add(b);
+            case "-": return a.subtract(b);
+            case "x": return BigIntegerMath.multiply(a, b);
+            case "÷":
+                // Exacte seulement si la division tombe juste ; la division par zéro
+                // est signalée par le calcul en flottant
+                if (b.signum() != 0) {
+                    BigInteger[] quotientAndRemainder = a.divideAndRemainder(b);
+                    if (quotientAndRemainder[1].signum() == 0) {
+                        return quotientAndRemainder[0];
+                    }
+                }
+                return null;
+            case "mod": return b.signum() != 0 ? a.remainder(b) : null;
+            case "^": return b.signum() >= 0 ? engine.exactPow(a, b) : null;
+            case "nCr": return engine.exactCombinations(a, b);
+            case "nPr": return engine.exactPermutations(a, b);
+            default: return null;
+        }
+    }
+
+    /**
+     * Évalue l'expression mathématique donnée sous forme de chaîne.
+     * <p>
+     * L'évaluation est incrémentale : l'état des piles est mémorisé régulièrement au fil
+     * des tokens de la dernière expression évaluée. Si la nouvelle expression partage un
+     * préfixe avec la précédente (ajout ou suppression en fin de saisie), seuls les tokens
+     * situés après ce préfixe sont re-tokenisés, et l'évaluation repart du dernier point
+     * de reprise qui le précède.
+     * @param expression La chaîne d'expression à évaluer.
+     * @return Un objet CalculationResult contenant le résultat et les informations pertinentes.
+     * @throws CalculatorException Si une erreur survient pendant l'évaluation.
+     */
+    public CalculationResult evaluateExpression(String expression) throws CalculatorException {
+        int arrow = expression.lastIndexOf('→');
+        if (numberMode == NumberMode.MATRIX && arrow >= 0) {
+            return assign(expression.substring(0, arrow), expression.substring(arrow + 1));
+        }
+        int resumeIndex = findResumeIndex(expression);
+        int resumeOffset = resumeIndex == 0 ? 0 : rawTokenEnds.get(resumeIndex - 1);
+
+        rawTokens.subList(resumeIndex, rawTokens.size()).clear();
+        rawTokenEnds.subList(resumeIndex, rawTokenEnds.size()).clear();
+        while (!checkpoints.isEmpty() && checkpoints.get(checkpoints.size() - 1).tokenCount > resumeIndex) {
+            checkpoints.remove(checkpoints.size() - 1);
+        }
+        if (checkpoints.isEmpty()) {
+            checkpointInterval = CHECKPOINT_INTERVAL;
+        }
+        lastExpression = expression;
+
+        // Tokenisation du suffixe modifié uniquement
+        Matcher matcher = tokenPattern().matcher(expression);
+        matcher.region(resumeOffset, expression.length());
+        matcher.useTransparentBounds(true);
+        while (matcher.find()) {
+            rawTokens.add(matcher.group());
+            rawTokenEnds.add(matcher.end());
+        }
+
+        EvaluationState state = checkpoints.isEmpty()
+            ? new EvaluationState()
+            : checkpoints.get(checkpoints.size() - 1).copy();
+
+        for (int i = state.tokenCount; i < rawTokens.size(); i++) {
+            try {
+                checkInterrupted();
+                processToken(i, state);
+            } catch (CalculatorException | RuntimeException e) {
+                // Les tokens suivants n'ont pas de point de reprise valide
+                rawTokens.subList(i, rawTokens.size()).clear();
+                rawTokenEnds.subList(i, rawTokenEnds.size()).clear();
+                throw e;
+            }
+            state.tokenCount = i + 1;
+            if (state.tokenCount % checkpointInterval == 0) {
+                addCheckpoint(state.copy());
+            }
+        }
+
+        // Évaluer les opérations restantes ; l'état courant est distinct des points de reprise
+        ValueStack values = state.values;
+        Stack<String> operators = state.operators;
+        while (!operators.isEmpty()) {
+            checkInterrupted();
+            evaluateTopOperator(values, operators);
+        }
+
+        if (values.isEmpty()) throw new CalculatorException("Expression vide");
+        if (values.size() > 1) throw new CalculatorException("Expression invalide");
+
+        if (numberMode == NumberMode.PROGRAMMER) {
+            return new CalculationResult(values.peekLong(0), outputBase, expression);
+        }
+        if (values.isInteger(0)) {
+            return new CalculationResult(values.peekExact(0), expression);
+        }
+        if (values.isComplex(0)) {
+            return new CalculationResult(values.peekReal(0), values.peekImaginary(0), expression);
+        }
+        if (values.isMatrix(0)) {
+            return new CalculationResult(values.peekMatrix(0), expression);
+        }
+        if (values.isPolynomial(0)) {
+            return new CalculationResult(values.peekPolynomial(0), expression);
+        }
+        if (values.isRoots(0)) {
+            return new CalculationResult(values.peekRoots(0), expression);
+        }
+        if (numberMode == NumberMode.RATIONAL && values.isExact(0)) {
+            // Réduction à l'affichage seulement
+            Rational fraction = values.peekRational(0).reduce();
+            if (fraction.getDenominator().equals(BigInteger.ONE)) {
+                return new CalculationResult(fraction.getNumerator(), expression);
+            }
+            return new CalculationResult(fraction, expression);
+        }
+        if (values.isExact(0)) {
+            return new CalculationResult(values.peekDecimal(0), expression);
+        }
+        return new CalculationResult(values.pop(), expression);
+    }
+
+    /**
+     * Évalue « expression→A » en mode matrices : la matrice obtenue est mémorisée dans la variable.
+     * @param expression L'expression à évaluer.
+     * @param name Le nom de la variable.
+     * @return Le résultat de l'expression.
+     * @throws CalculatorException Si le nom est invalide, l'évaluation échoue ou le résultat n'est pas une matrice.
+     */
+    private CalculationResult assign(String expression, String name) throws CalculatorException {
+        if (!isVariable(name)) {
+            throw new CalculatorException("Nom de variable invalide : " + name);
+        }
+        CalculationResult result = evaluateExpression(expression);
+        if (result.getMatrixResult() == null) {
+            throw new CalculatorException("Seule une matrice peut être mémorisée dans une variable.");
+        }
+        setVariable(name, result.getMatrixResult());
+        return result;
+    }
+
+    /**
+     * Retourne le pattern de découpage en tokens du mode de calcul courant.
+     * @return Le pattern du mode courant.
+     */
+    private Pattern tokenPattern() {
+        return tokenPattern(numberMode);
+    }
+
+    /**
+     * Retourne le pattern de découpage en tokens d'un mode de calcul.
+     * @param mode Le mode de calcul.
+     * @return Le pattern du mode programmeur, du mode matrices, du mode statistiques, du
+     *         mode polynômes, ou le pattern commun.
+     */
+    public static Pattern tokenPattern(NumberMode mode) {
+        switch (mode) {
+            case PROGRAMMER: return PROGRAMMER_TOKEN_PATTERN;
+            case MATRIX: return MATRIX_TOKEN_PATTERN;
+            case STATISTICS: return STATISTICS_TOKEN_PATTERN;
+            case POLYNOMIAL: return POLYNOMIAL_TOKEN_PATTERN;
+            default: return TOKEN_PATTERN;
+        }
+    }
+
+    /**
+     * Abandonne l'évaluation si le thread appelant a été interrompu (aperçu remplacé par
+     * une frappe plus récente, par exemple).
+     * @throws CalculatorException Si le thread est interrompu.
+     */
+    private static void checkInterrupted() throws CalculatorException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CalculatorException("Calcul interrompu.");
+        }
+    }
+
+    /**
+     * Détermine à partir de quel token brut l'évaluation précédente peut être reprise.
+     * Un token n'est réutilisable que s'il se termine strictement avant la première
+     * différence entre les deux expressions. Deux tokens supplémentaires sont rejoués
+     * car le sens de '%' et la multiplication implicite dépendent des tokens voisins.
+     * @param expression La nouvelle expression.
+     * @return Le nombre de tokens bruts réutilisables.
+     */
+    private int findResumeIndex(String expression) {
+        int prefix = 0;
+        int max = Math.min(lastExpression.length(), expression.length());
+        while (prefix < max && lastExpression.charAt(prefix) == expression.charAt(prefix)) {
+            prefix++;
+        }
+
+        // Recherche dichotomique du premier token se terminant à ou après le préfixe commun
+        int low = 0;
+        int high = rawTokenEnds.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (rawTokenEnds.get(mid) < prefix) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return Math.max(0, low - 2);
+    }
+
+    /**
+     * Traite un token brut : choix entre pourcentage et modulo, multiplication implicite,
+     * puis évaluation du ou des tokens résultants sur les piles.
+     * @param index L'index du token brut.
+     * @param state L'état d'évaluation à faire avancer.
+     * @throws CalculatorException Si une erreur survient pendant l'évaluation.
+     */
+    private void processToken(int index, EvaluationState state) throws CalculatorException {
+        String token = rawTokens.get(index);
+
+        // Remplacement conditionnel de '%' par 'mod'
+        if (token.equals("%") && index > 0 && index < rawTokens.size() - 1
+                && isNumeric(rawTokens.get(index - 1)) && isNumeric(rawTokens.get(index + 1))) {
+            token = "mod";
+        }
+
+        // Gestion de la multiplication implicite
+        if (state.previousToken != null && isImplicitMultiplication(state.previousToken, token)) {
+            evaluateToken("x", state.values, state.operators);
+        }
+
+        evaluateToken(token, state.values, state.operators);
+        state.previousToken = token;
+    }
+
+    /**
+     * Indique si une multiplication implicite sépare deux tokens consécutifs : 2π, 3(4),
+     * (1)(2), 2sin(30), ou π2.
+     * @param previousToken Le token précédent.
+     * @param token Le token courant.
+     * @return true si un 'x' doit être inséré entre les deux tokens.
+     */
+    private boolean isImplicitMultiplication(String previousToken, String token) {
+        // 1. Après un nombre
+        if (isNumberLiteral(previousToken) || isBasedLiteral(previousToken)) {
+            return token.equals("(") || isConstant(token) || isUnaryFunction(token);
+        }
+        // 2. Après une parenthèse fermante, 3. après π, i, une matrice ou une variable
+        if (previousToken.equals(")") || isConstant(previousToken)) {
+            return isNumberLiteral(token) || isBasedLiteral(token) || isConstant(token)
+                || token.equals("(") || isUnaryFunction(token);
+        }
+        // 4. Après une fonction
+        if (isUnaryFunction(previousToken)) {
+            return !token.equals("(");
+        }
+        return false;
+    }
+
+    /**
+     * Compile une expression réelle d'inconnue X (par exemple « X^2-2 » ou « cos(X)-X »)
+     * en une {@link CompiledExpression}, évaluable de nombreuses fois sans nouveau découpage.
+     * La grammaire est celle du mode flottant (priorités, multiplication implicite, '%'
+     * entre deux nombres lu comme modulo), avec en plus le signe moins unaire en tête
+     * d'expression, après '(' ou après un opérateur : « -X^2 » vaut -(X^2), comme les
+     * dérivées écrites par {@link #differentiate(String)}. L'unité d'angle courante est
+     * fixée dans l'expression compilée.
+     * @param expression L'expression à compiler.
+     * @return L'expression compilée.
+     * @throws CalculatorException Si l'expression est vide, mal parenthésée ou invalide.
+     */
+    public CompiledExpression compile(String expression) throws CalculatorException {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = EQUATION_TOKEN_PATTERN.matcher(expression);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        // Algorithme de Shunting Yard, qui produit la notation postfixe au lieu d'évaluer
+        List<String> postfix = new ArrayList<>();
+        Stack<String> operators = new Stack<>();
+        String previousToken = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("%") && i > 0 && i < tokens.size() - 1
+                    && isNumeric(tokens.get(i - 1)) && isNumeric(tokens.get(i + 1))) {
+                token = "mod";
+            }
+            if (token.equals("-") && (previousToken == null || previousToken.equals("(")
+                    || isBinaryOperator(previousToken) || previousToken.equals("neg"))) {
+                // Signe moins unaire : opérateur préfixe, moins prioritaire que '^' et '!'
+                token = "neg";
+                operators.push(token);
+                previousToken = token;
+                continue;
+            }
+            if (previousToken != null && isImplicitMultiplication(previousToken, token)) {
+                compileOperator("x", postfix, operators);
+            }
+            if (token.equals("X") || token.equals("π") || isNumeric(token) || token.equals("%")) {
+                // '%' s'applique directement à la valeur qui le précède
+                postfix.add(token);
+            } else if (isUnaryFunction(token) || token.equals("(")) {
+                operators.push(token);
+            } else if (token.equals(")")) {
+                while (!operators.isEmpty() && !operators.peek().equals("(")) {
+                    postfix.add(operators.pop());
+                }
+                if (operators.isEmpty()) {
+                    throw new CalculatorException("Parenthèses mal équilibrées");
+                }
+                operators.pop();
+                if (!operators.isEmpty() && isUnaryFunction(operators.peek())) {
+                    postfix.add(operators.pop());
+                }
+            } else {
+                compileOperator(token, postfix, operators);
+            }
+            previousToken = token;
+        }
+        while (!operators.isEmpty()) {
+            String operator = operators.pop();
+            if (operator.equals("(")) {
+                throw new CalculatorException("Parenthèses mal équilibrées");
+            }
+            postfix.add(operator);
+        }
+        return new CompiledExpression(postfix, engine.getAngleMode(), expression);
+    }
+
+    /**
+     * Place un opérateur binaire ou '!' dans la notation postfixe, après les opérateurs
+     * de priorité supérieure ou égale, comme le fait {@link #evaluateOperators}.
+     */
+    private void compileOperator(String operator, List<String> postfix, Stack<String> operators) {
+        while (!operators.isEmpty() && !operators.peek().equals("(")
+                && precedence(operators.peek()) >= precedence(operator)) {
+            postfix.add(operators.pop());
+        }
+        operators.push(operator);
+    }
+
     /**
-     * Constructeur de la classe Calculator.
+     * Résout l'équation « expression = 0 » d'inconnue X à partir d'une valeur de départ
+     * (méthode de Newton protégée, puis de Brent dès qu'une racine est encadrée).
+     * @param expression L'expression, par exemple « cos(X)-X ».
+     * @param guess La valeur de départ.
+     * @return La solution.
+     * @throws CalculatorException Si l'expression est invalide ou si aucune solution n'est trouvée.
      */
-    public Calculator() {
-        engine = new CalculatorEngine();
+    public CalculationResult solve(String expression, double guess) throws CalculatorException {
+        return new CalculationResult(Solver.solve(compile(expression), guess), expression);
     }
-        
+
     /**
-     * Méthode pour convertir une expression mathématique en notation postfixée.
-     * @param expression L'expression mathématique à convertir.
-     * @return Une liste de tokens représentant l'expression en notation postfixée.
+     * Résout l'équation « expression = 0 » d'inconnue X dans un intervalle où l'expression
+     * change de signe (méthode de Brent).
+     * @param expression L'expression.
+     * @param lower Une borne de l'intervalle.
+     * @param upper L'autre borne.
+     * @return La solution.
+     * @throws CalculatorException Si l'expression est invalide ou ne change pas de signe.
      */
-    private List<String> tokenize(String expression) {
-        List<String> tokens = new ArrayList<>();
-        Matcher matcher = TOKEN_PATTERN.matcher(expression);
-    
-        // Tokenisation initiale
-        while (matcher.find()) {
-            tokens.add(matcher.group());
-        }
-    
-        // Remplacement conditionnel de '%' par 'mod'
-        List<String> processedTokens = new ArrayList<>();
-        for (int i = 0; i < tokens.size(); i++) {
-            String token = tokens.get(i);
-    
-            if (token.equals("%")) {
-                boolean isModulo = false;
-                if (i > 0 && i < tokens.size() - 1) {
-                    String prevToken = tokens.get(i - 1);
-                    String nextToken = tokens.get(i + 1);
-                    if (isNumeric(prevToken) && isNumeric(nextToken)) {
-                        isModulo = true;
-                    }
-                }
-    
-                if (isModulo) {
-                    processedTokens.add("mod");
-                } else {
-                    processedTokens.add("%");
-                }
+    public CalculationResult solve(String expression, double lower, double upper) throws CalculatorException {
+        return new CalculationResult(Solver.solve(compile(expression), lower, upper), expression);
+    }
+
+    /**
+     * Calcule l'intégrale de l'expression d'inconnue X entre deux bornes, par quadrature
+     * adaptative de Gauss–Kronrod répartie sur plusieurs threads ({@link Integrator}).
+     * @param expression L'expression à intégrer.
+     * @param lower La borne inférieure.
+     * @param upper La borne supérieure.
+     * @param tolerance La tolérance absolue visée.
+     * @return L'intégrale, son erreur estimée et le nombre d'évaluations de l'expression.
+     * @throws CalculatorException Si l'expression est invalide ou n'est pas définie sur l'intervalle.
+     */
+    public Integrator.Integral integrate(String expression, double lower, double upper, double tolerance)
+            throws CalculatorException {
+        return Integrator.integrate(compile(expression), lower, upper, tolerance);
+    }
+
+    /**
+     * Calcule la somme des valeurs d'un terme d'indice X, pour X allant de from à to,
+     * en parallèle et avec une somme compensée ({@link Series}).
+     * @param term Le terme, par exemple « 1÷X^2 ».
+     * @param from Le premier indice.
+     * @param to Le dernier indice.
+     * @return La somme.
+     * @throws CalculatorException Si le terme est invalide ou n'est pas défini pour un indice.
+     */
+    public CalculationResult sum(String term, long from, long to) throws CalculatorException {
+        return new CalculationResult(Series.sum(compile(term), from, to), term);
+    }
+
+    /**
+     * Calcule le produit des valeurs d'un terme d'indice X, pour X allant de from à to,
+     * en parallèle et avec un produit compensé ({@link Series}).
+     * @param term Le terme, par exemple « 1+1÷X^2 ».
+     * @param from Le premier indice.
+     * @param to Le dernier indice.
+     * @return Le produit.
+     * @throws CalculatorException Si le terme est invalide, n'est pas défini pour un indice
+     *         ou si le produit est trop grand.
+     */
+    public CalculationResult product(String term, long from, long to) throws CalculatorException {
+        return new CalculationResult(Series.product(compile(term), from, to), term);
+    }
+
+    /**
+     * Calcule la dérivée symbolique, simplifiée, de l'expression par rapport à X. Le texte
+     * de la dérivée ({@link CompiledExpression#toString()}) suit la grammaire de
+     * {@link #compile(String)} : ψ y désigne la fonction digamma, dérivée du factoriel.
+     * @param expression L'expression, par exemple « sin(X)xX^2 ».
+     * @return La dérivée compilée, dans l'unité d'angle courante.
+     * @throws CalculatorException Si l'expression est invalide ou non dérivable en X.
+     */
+    public CompiledExpression differentiate(String expression) throws CalculatorException {
+        return compile(expression).derivative();
+    }
+
+    /**
+     * Applique un token sur les piles de l'algorithme de Shunting Yard.
+     * @param token Le token à appliquer.
+     * @param values Pile des valeurs.
+     * @param operators Pile des opérateurs.
+     * @throws CalculatorException Si une erreur survient pendant l'évaluation.
+     */
+    private void evaluateToken(String token, ValueStack values, Stack<String> operators) throws CalculatorException {
+        if (numberMode == NumberMode.PROGRAMMER && (isNumberLiteral(token) || isBasedLiteral(token))) {
+            values.pushLong(parseProgrammerLiteral(token));
+        } else if (token.equals("π")) {
+            if (numberMode == NumberMode.PROGRAMMER) {
+                throw new CalculatorException("Le nombre π n'est pas défini en mode programmeur.");
+            }
+            if (numberMode == NumberMode.PRECISE) {
+                pushDecimalResult(values, BigDecimalMath.pi(precision));
             } else {
-                processedTokens.add(token);
+                values.push(Math.PI);
             }
-        }
-    
-        // Gestion de la multiplication implicite et des parenthèses
-        List<String> finalTokens = new ArrayList<>();
-        String previousToken = null;
-        for (String token : processedTokens) {
-            // Multiplication implicite dans les cas suivants :
-            if (previousToken != null) {
-                // 1. Après un nombre
-                if (previousToken.matches("-?\\d+\\.?\\d*")) {
-                    if (token.equals("(") || token.equals("π") || isUnaryFunction(token)) {
-                        finalTokens.add("x");
-                    }
-                }
-                // 2. Après une parenthèse fermante
-                else if (previousToken.equals(")")) {
-                    if (token.matches("-?\\d+\\.?\\d*") || token.equals("π") || token.equals("(") || isUnaryFunction(token)) {
-                        finalTokens.add("x");
-                    }
-                }
-                // 3. Après π
-                else if (previousToken.equals("π")) {
-                    if (token.matches("-?\\d+\\.?\\d*") || token.equals("(") || isUnaryFunction(token)) {
-                        finalTokens.add("x");
-                    }
-                }
-                // 4. Après une fonction
-                else if (isUnaryFunction(previousToken)) {
-                    if (!token.equals("(")) {
-                        finalTokens.add("x");
-                    }
+        } else if (token.startsWith("[")) {
+            try {
+                values.pushMatrix(Matrix.parse(token));
+            } catch (NumberFormatException e) {
+                throw new CalculatorException(e.getMessage());
+            }
+        } else if (numberMode == NumberMode.POLYNOMIAL && token.equals("X")) {
+            values.pushPolynomial(Polynomial.X);
+        } else if (isVariable(token)) {
+            Matrix value = variables.get(token);
+            if (value == null) {
+                throw new CalculatorException("La variable " + token + " n'est pas définie.");
+            }
+            values.pushMatrix(value);
+        } else if (token.equals("i")) {
+            if (numberMode != NumberMode.COMPLEX) {
+                throw new CalculatorException("Le nombre i n'est défini qu'en mode complexe.");
+            }
+            values.pushComplex(0, 1);
+        } else if (isStatistic(token)) {
+            pushStatistic(token, values);
+        } else if (isIntegerLiteral(token) && fitsInLong(token)) {
+            values.pushLong(Long.parseLong(token));
+        } else if (numberMode == NumberMode.EXACT && isIntegerLiteral(token)) {
+            values.pushExact(new BigInteger(token));
+        } else if (numberMode == NumberMode.RATIONAL && isNumberLiteral(token)) {
+            // 0.25 est empilé tel quel, sous la forme 25/100
+            values.pushRational(Rational.valueOf(new BigDecimal(token)));
+        } else if ((numberMode == NumberMode.DECIMAL || numberMode == NumberMode.PRECISE)
+                && isNumberLiteral(token)) {
+            pushDecimalLiteral(token, values);
+        } else if (isNumeric(token)) {
+            double value = parseNumber(token);
+            values.push(value);
+        } else if (token.equals("%")) {
+            if (values.isEmpty()) {
+                throw new CalculatorException("Pas de valeur pour le pourcentage ou le modulo");
+            }
+            if (numberMode == NumberMode.PROGRAMMER) {
+                throw new CalculatorException("Le pourcentage n'est pas défini en mode programmeur.");
+            }
+            if (values.isMatrix(0)) {
+                throw new CalculatorException("Le pourcentage n'est pas défini pour les matrices.");
+            }
+            if (values.isPolynomial(0) || values.isRoots(0)) {
+                Polynomial value = requirePolynomial(values, 0);
+                values.drop(1);
+                values.pushPolynomial(value.multiply(0.01));
+                return;
+            }
+            if ((numberMode == NumberMode.DECIMAL || numberMode == NumberMode.PRECISE) && values.isExact(0)) {
+                // Pourcentage exact : décalage de deux décimales
+                if (values.isScaled(0) && values.peekScale(0) + 2 <= ScaledDecimal.MAX_SCALE) {
+                    long unscaled = values.peekLong(0);
+                    int scale = values.peekScale(0);
+                    values.drop(1);
+                    values.pushScaled(unscaled, scale + 2);
+                } else {
+                    BigDecimal value = values.peekDecimal(0);
+                    values.drop(1);
+                    pushDecimalResult(values, engine.percent(value));
                 }
+                return;
             }
-    
-            // Gestion des nombres négatifs entre parenthèses
-            if (token.startsWith("(-") && token.endsWith(")")) {
-                finalTokens.add("(");
-                finalTokens.add(token.substring(1, token.length() - 1));
-                finalTokens.add(")");
-                previousToken = ")";
-            } else {
-                finalTokens.add(token);
-                previousToken = token;
+            if (numberMode == NumberMode.RATIONAL && values.isExact(0)) {
+                Rational value = values.peekRational(0);
+                values.drop(1);
+                values.pushRational(value.divide(Rational.valueOf(100, 1)));
+                return;
             }
+            if (values.isComplex(0)) {
+                double real = values.peekReal(0);
+                double imaginary = values.peekImaginary(0);
+                values.drop(1);
+                values.pushComplex(engine.percent(real), imaginary / 100);
+                return;
+            }
+            // Traiter comme pourcentage unaire
+            double value = values.pop();
+            value = engine.percent(value);
+            values.push(value);
+        } else if (token.equals("mod")) {
+            evaluateOperators("mod", values, operators);
+        } else if (isUnaryFunction(token) || token.equals("(")) {
+            operators.push(token);
+        } else if (token.equals(")")) {
+            evaluateParentheses(values, operators);
+        } else {
+            evaluateOperators(token, values, operators);
         }
-    
-        return finalTokens;
     }
 
-    /** 
-     * Méthode pour déterminer si une chaîne est un nombre.
-     * @param str La chaîne à vérifier.
-     * @return true si la chaîne est un nombre, false sinon.
+    /**
+     * Vérifie si le token est une valeur autre qu'un nombre : constante (π ou i),
+     * matrice littérale ou variable.
+     * @param token Le token à vérifier.
+     * @return true si le token est une constante, une matrice ou une variable, false sinon.
      */
-    private boolean isNumeric(String str) {
-        if (str.endsWith("%")) {
-            str = str.substring(0, str.length() - 1);
+    private boolean isConstant(String token) {
+        return token.equals("π") || token.equals("i") || token.startsWith("[") || isVariable(token)
+            || isStatistic(token);
+    }
+
+    /**
+     * Vérifie si le token est une statistique du jeu de données (count, mean, var, sd, min, max).
+     * @param token Le token à vérifier.
+     * @return true si le token est une statistique.
+     */
+    private static boolean isStatistic(String token) {
+        switch (token) {
+            case "count": case "mean": case "var": case "sd": case "min": case "max":
+                return true;
+            default:
+                return false;
         }
-        try {
-            Double.parseDouble(str);
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
+    }
+
+    /**
+     * Empile une statistique du jeu de données ; l'effectif est empilé comme un entier.
+     * @param token La statistique.
+     * @param values Pile des valeurs.
+     * @throws CalculatorException Si aucun jeu de données n'est chargé, s'il est vide ou
+     *         si la variance demande plus de valeurs.
+     */
+    private void pushStatistic(String token, ValueStack values) throws CalculatorException {
+        StreamingStatistics statistics = requireDataset();
+        if (token.equals("count")) {
+            values.pushLong(statistics.getCount());
+            return;
         }
+        double value;
+        switch (token) {
+            case "mean": value = statistics.getMean(); break;
+            case "min": value = statistics.getMin(); break;
+            case "max": value = statistics.getMax(); break;
+            case "var": value = statistics.getVariance(); break;
+            default: value = statistics.getStandardDeviation(); break;
+        }
+        if (Double.isNaN(value)) {
+            throw new CalculatorException(statistics.getCount() == 0
+                ? "Le jeu de données ne contient aucune valeur."
+                : "La variance demande au moins deux valeurs.");
+        }
+        values.push(value);
     }
-    
 
     /**
-     * Vérifie si le token est une fonction unaire.
+     * Retourne le jeu de données chargé.
+     * @return Les statistiques du jeu de données.
+     * @throws CalculatorException Si aucun jeu de données n'est chargé.
+     */
+    private StreamingStatistics requireDataset() throws CalculatorException {
+        StreamingStatistics statistics = dataset;
+        if (statistics == null) {
+            throw new CalculatorException("Aucun jeu de données n'est chargé.");
+        }
+        return statistics;
+    }
+
+    /**
+     * Vérifie si le token est un nom de variable du mode matrices (une lettre de A à Z).
      * @param token Le token à vérifier.
-     * @return true si le token est une fonction unaire, false sinon.
+     * @return true si le token est un nom de variable.
      */
-    private boolean isUnaryFunction(String token) {
-        return token.matches("sin|cos|tan|arcsin|arccos|arctan|ln|exp|sqrt");
+    private static boolean isVariable(String token) {
+        return token.length() == 1 && token.charAt(0) >= 'A' && token.charAt(0) <= 'Z';
     }
 
     /**
-     * Méthode pour déterminer la priorité d'un opérateur.
-     * @param operator L'opérateur dont on veut connaître la priorité.
-     * @return Un entier représentant la priorité de l'opérateur.
+     * Vérifie si un token est un littéral numérique de la forme -?\d+\.?\d*.
+     * @param token Le token à vérifier.
+     * @return true si le token est un littéral numérique, false sinon.
      */
-    private int precedence(String operator) {
-        switch (operator) {
-            case "sin": case "cos": case "tan":
-            case "arcsin": case "arccos": case "arctan":
-            case "ln": case "exp": case "sqrt":
-            case "!":
-                return 5; // Priorité la plus haute pour les fonctions
-            case "^":
-                return 4; // Priorité haute pour les puissances
-            case "(": case ")":
-                return 3;
-            case "x": case "÷": case "mod": case "%":
-                return 2;
-            case "+": case "-":
-                return 1;
-            default:
-                return 0;
+    private boolean isNumberLiteral(String token) {
+        int i = token.startsWith("-") ? 1 : 0;
+        int digits = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
         }
+        return i == token.length();
     }
 
     /**
-     * Méthode pour exécuter une opération binaire ou unaire.
-     * @param a Premier opérande.
-     * @param b Second opérande (peut être 0 pour les opérations unaires).
-     * @param operator L'opérateur à appliquer.
-     * @return Le résultat de l'opération.
-     * @throws CalculatorException Si l'opérateur n'est pas supporté ou en cas d'erreur.
+     * Vérifie si un token est un littéral du mode programmeur, de la forme -?0x..., -?0b... ou -?0o...
+     * @param token Le token à vérifier.
+     * @return true si le token est un littéral hexadécimal, binaire ou octal.
      */
-    private double performOperation(double a, double b, String operator) throws CalculatorException {
-        switch (operator) {
-            // Opérations de base
-            case "+": return engine.add(a, b);
-            case "-": return engine.subtract(a, b);
-            case "x": return engine.multiply(a, b);
-            case "÷": return engine.divide(a, b);
-            case "%": return engine.percent(a);
-            case "mod": return engine.modulo(a, b);
-    
-            // Opérations scientifiques
-            case "^": return engine.pow(a, b);
-            case "sin": return engine.sin(a);
-            case "cos": return engine.cos(a);
-            case "tan": return engine.tan(a);
-            case "arcsin": return engine.arcsin(a);
-            case "arccos": return engine.arccos(a);
-            case "arctan": return engine.arctan(a);
-            case "ln": return engine.ln(a);
-            case "exp": return engine.exp(a);
-            case "sqrt": return engine.sqrt(a);
-            case "!": return engine.factorial(a);
-            default:
-                throw new CalculatorException("Opérateur non pris en charge: " + operator);
+    private boolean isBasedLiteral(String token) {
+        int i = token.startsWith("-") ? 1 : 0;
+        if (token.length() < i + 2 || token.charAt(i) != '0') {
+            return false;
         }
+        char prefix = token.charAt(i + 1);
+        return prefix == 'x' || prefix == 'b' || prefix == 'o';
     }
 
     /**
-     * Évalue l'expression mathématique donnée sous forme de chaîne.
-     * @param expression La chaîne d'expression à évaluer.
-     * @return Un objet CalculationResult contenant le résultat et les informations pertinentes.
-     * @throws CalculatorException Si une erreur survient pendant l'évaluation.
+     * Lit un littéral entier du mode programmeur, décimal ou préfixé (0x, 0b, 0o).
+     * Les nombres sont lus modulo 2^64 : 0xFFFFFFFFFFFFFFFF et 18446744073709551615 valent -1.
+     * @param token Le littéral.
+     * @return Le motif de 64 bits du littéral.
+     * @throws CalculatorException Si le littéral n'est pas entier, se réduit à son préfixe
+     *         ou dépasse 64 bits.
      */
-    public CalculationResult evaluateExpression(String expression) throws CalculatorException {
-        List<String> tokens = tokenize(expression);
-        Stack<Double> values = new Stack<>();
-        Stack<String> operators = new Stack<>();
-    
-        // Remplacer π par sa valeur
-        for (int i = 0; i < tokens.size(); i++) {
-            if (tokens.get(i).equals("π")) {
-                tokens.set(i, String.valueOf(Math.PI));
+    private long parseProgrammerLiteral(String token) throws CalculatorException {
+        boolean negative = token.startsWith("-");
+        int start = negative ? 1 : 0;
+        int radix = 10;
+        if (isBasedLiteral(token)) {
+            char prefix = token.charAt(start + 1);
+            radix = prefix == 'x' ? 16 : prefix == 'b' ? 2 : 8;
+            start += 2;
+            if (start == token.length()) {
+                throw new CalculatorException("Littéral incomplet : " + token);
             }
+        } else if (token.indexOf('.') >= 0) {
+            throw new CalculatorException("Le mode programmeur n'accepte que des nombres entiers.");
         }
-    
-        for (int i = 0; i < tokens.size(); i++) {
-            String token = tokens.get(i);
-    
-            if (isNumeric(token)) {
-                double value = parseNumber(token);
-                values.push(value);
-            } else if (token.equals("%")) {
-                if (values.isEmpty()) {
-                    throw new CalculatorException("Pas de valeur pour le pourcentage ou le modulo");
-                }
-                // Traiter comme pourcentage unaire
-                double value = values.pop();
-                value = engine.percent(value);
-                values.push(value);
-            } else if (token.equals("mod")) {
-                evaluateOperators("mod", values, operators);
-            } else if (isUnaryFunction(token) || token.equals("(")) {
-                operators.push(token);
-            } else if (token.equals(")")) {
-                evaluateParentheses(values, operators);
-            } else {
-                evaluateOperators(token, values, operators);
+        try {
+            long value = Long.parseUnsignedLong(token, start, token.length(), radix);
+            return negative ? -value : value;
+        } catch (NumberFormatException e) {
+            throw new CalculatorException("Le nombre " + token + " dépasse 64 bits.");
+        }
+    }
+
+    /**
+     * Vérifie si un token est un littéral entier de la forme -?\d+.
+     * @param token Le token à vérifier.
+     * @return true si le token est un littéral entier, false sinon.
+     */
+    private boolean isIntegerLiteral(String token) {
+        int i = token.startsWith("-") ? 1 : 0;
+        if (i == token.length()) {
+            return false;
+        }
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        return i == token.length();
+    }
+
+    /**
+     * Empile un littéral décimal sous forme de mantisse et d'échelle, sans BigDecimal
+     * si la mantisse tient dans un long.
+     * @param token Le littéral, de la forme -?\d+\.?\d*.
+     * @param values Pile des valeurs.
+     */
+    private void pushDecimalLiteral(String token, ValueStack values) {
+        int point = token.indexOf('.');
+        if (point < 0) {
+            values.pushDecimal(new BigDecimal(token));
+            return;
+        }
+        int scale = token.length() - point - 1;
+        int digits = token.length() - 1 - (token.startsWith("-") ? 1 : 0);
+        if (digits > 18 || scale > ScaledDecimal.MAX_SCALE) {
+            values.pushDecimal(new BigDecimal(token));
+            return;
+        }
+        long unscaled = 0;
+        for (int i = token.startsWith("-") ? 1 : 0; i < token.length(); i++) {
+            if (i != point) {
+                unscaled = unscaled * 10 + (token.charAt(i) - '0');
             }
-        };
-    
-        // Évaluer les opérations restantes
-        while (!operators.isEmpty()) {
-            evaluateTopOperator(values, operators);
         }
-    
-        if (values.isEmpty()) throw new CalculatorException("Expression vide");
-        if (values.size() > 1) throw new CalculatorException("Expression invalide");
-    
-        return new CalculationResult(values.pop(), expression);
+        values.pushScaled(token.startsWith("-") ? -unscaled : unscaled, scale);
+    }
+
+    /**
+     * Vérifie si un littéral entier tient dans un long.
+     * @param token Le littéral entier.
+     * @return true si le littéral est compris entre Long.MIN_VALUE et Long.MAX_VALUE.
+     */
+    private boolean fitsInLong(String token) {
+        int digits = token.startsWith("-") ? token.length() - 1 : token.length();
+        if (digits < 19) {
+            return true;
+        }
+        try {
+            Long.parseLong(token);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * État de l'algorithme de Shunting Yard après un token : piles, dernier token traité
+     * et nombre de tokens bruts traités. Sert de point de reprise pour l'évaluation
+     * incrémentale.
+     */
+    private static class EvaluationState {
+        private final ValueStack values;
+        private final Stack<String> operators;
+        private String previousToken;
+        private int tokenCount;
+
+        EvaluationState() {
+            this(new ValueStack(), new Stack<>(), null);
+        }
+
+        private EvaluationState(ValueStack values, Stack<String> operators, String previousToken) {
+            this.values = values;
+            this.operators = operators;
+            this.previousToken = previousToken;
+        }
+
+        /**
+         * Copie l'état ; le coût est proportionnel à la profondeur des piles.
+         */
+        @SuppressWarnings("unchecked")
+        EvaluationState copy() {
+            EvaluationState copy = new EvaluationState(values.copy(), (Stack<String>) operators.clone(), previousToken);
+            copy.tokenCount = tokenCount;
+            return copy;
+        }
     }
 
     /**
@@ -287,7 +2077,7 @@ public class Calculator {
      * @param operators Pile des opérateurs.
      * @throws CalculatorException Si les parenthèses sont mal équilibrées.
      */
-    private void evaluateParentheses(Stack<Double> values, Stack<String> operators) 
+    private void evaluateParentheses(ValueStack values, Stack<String> operators) 
             throws CalculatorException {
         while (!operators.isEmpty() && !operators.peek().equals("(")) {
             evaluateTopOperator(values, operators);
@@ -296,9 +2086,7 @@ public class Calculator {
             operators.pop(); // Retirer la parenthèse ouvrante
             // Si une fonction unaire précède la parenthèse, l'évaluer
             if (!operators.isEmpty() && isUnaryFunction(operators.peek())) {
-                String func = operators.pop();
-                double value = values.pop();
-                values.push(performOperation(value, 0, func));
+                applyFunction(operators.pop(), values);
             }
         } else {
             throw new CalculatorException("Parenthèses mal équilibrées");
@@ -312,7 +2100,7 @@ public class Calculator {
      * @param operators Pile des opérateurs.
      * @throws CalculatorException Si une erreur survient pendant l'évaluation.
      */
-    private void evaluateOperators(String currentOp, Stack<Double> values, Stack<String> operators) throws CalculatorException {
+    private void evaluateOperators(String currentOp, ValueStack values, Stack<String> operators) throws CalculatorException {
         while (!operators.isEmpty() && !operators.peek().equals("(") &&
                precedence(operators.peek()) >= precedence(currentOp)) {
             evaluateTopOperator(values, operators);
@@ -326,31 +2114,141 @@ public class Calculator {
      * @param operators Pile des opérateurs.
      * @throws CalculatorException Si une erreur survient pendant l'évaluation.
      */
-    private void evaluateTopOperator(Stack<Double> values, Stack<String> operators) throws CalculatorException {
+    private void evaluateTopOperator(ValueStack values, Stack<String> operators) throws CalculatorException {
         if (operators.isEmpty())
             throw new CalculatorException("Expression invalide");
     
         String op = operators.pop();
     
-        if (isUnaryFunction(op)) {
+        if (numberMode == NumberMode.PROGRAMMER) {
+            performProgrammerOperation(values, op);
+        } else if (isUnaryFunction(op)) {
             if (values.isEmpty())
                 throw new CalculatorException("Pas assez d'opérandes pour l'opérateur unaire " + op);
-            double value = values.pop();
-            double result = performOperation(value, 0, op);
-            values.push(result);
+            applyFunction(op, values);
         } else if (op.equals("!")) {
             if (values.isEmpty())
                 throw new CalculatorException("Pas assez d'opérandes pour l'opérateur " + op);
+            if (values.isComplex(0)) {
+                throw new CalculatorException("Le factoriel n'est pas défini pour les nombres complexes.");
+            }
+            if (values.isMatrix(0)) {
+                throw new CalculatorException("Le factoriel n'est pas défini pour les matrices.");
+            }
+            if (values.isPolynomial(0) || values.isRoots(0)) {
+                throw new CalculatorException("Le factoriel n'est pas défini pour les polynômes.");
+            }
+            if (values.isLong(0) && values.peekLong(0) >= 0 && values.peekLong(0) <= MAX_LONG_FACTORIAL) {
+                // Factoriels exactement représentables par un double comme par un long
+                long factorial = (long) engine.factorial(values.peekLong(0));
+                values.drop(1);
+                values.pushLong(factorial);
+                return;
+            }
+            if (numberMode != NumberMode.FLOAT && numberMode != NumberMode.DECIMAL && values.isInteger(0)) {
+                BigInteger exact = values.peekExact(0);
+                values.drop(1);
+                values.pushExact(engine.exactFactorial(exact));
+                return;
+            }
             double value = values.pop();
             double result = performOperation(value, 0, op);
             values.push(result);
         } else { // op est un opérateur binaire (+, -, x, ÷, mod, etc.)
             if (values.size() < 2)
                 throw new CalculatorException("Pas assez d'opérandes pour l'opérateur " + op);
+            if (numberMode == NumberMode.MATRIX && (values.isMatrix(0) || values.isMatrix(1) || op.equals("\\"))) {
+                performMatrixOperation(values, op);
+                return;
+            }
+            if (numberMode == NumberMode.POLYNOMIAL && (values.isPolynomial(0) || values.isPolynomial(1)
+                    || values.isRoots(0) || values.isRoots(1) || op.equals("@"))) {
+                performPolynomialOperation(values, op);
+                return;
+            }
+            if (numberMode == NumberMode.COMPLEX && (values.isComplex(0) || values.isComplex(1)
+                    || (op.equals("^") && values.peekReal(1) < 0 && values.peekReal(0) != Math.rint(values.peekReal(0))))) {
+                // Puissance non entière d'un négatif : résultat complexe
+                performComplexOperation(values, op);
+                return;
+            }
+            if (values.isLong(0) && values.isLong(1) && performLongOperation(values, op)) {
+                return;
+            }
+            if (numberMode == NumberMode.DECIMAL && values.isExact(0) && values.isExact(1)
+                    && performDecimalOperation(values, op)) {
+                return;
+            }
+            if (numberMode == NumberMode.PRECISE && values.isExact(0) && values.isExact(1)
+                    && performPreciseOperation(values, op)) {
+                return;
+            }
+            if (numberMode == NumberMode.RATIONAL && values.isExact(0) && values.isExact(1)
+                    && performRationalOperation(values, op)) {
+                return;
+            }
+            if ((numberMode == NumberMode.EXACT || numberMode == NumberMode.RATIONAL)
+                    && values.isInteger(0) && values.isInteger(1)) {
+                BigInteger exact = performExactOperation(values.peekExact(1), values.peekExact(0), op);
+                if (exact != null) {
+                    values.drop(2);
+                    values.pushExact(exact);
+                    return;
+                }
+            }
             double b = values.pop();
             double a = values.pop();
             double result = performOperation(a, b, op);
             values.push(result);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applique une fonction unaire à la valeur au sommet de la pile : en précision
+     * arbitraire en mode précis, en flottant sinon.
+     * @param function La fonction à appliquer.
+     * @param values Pile des valeurs.
+     * @throws CalculatorException Si une erreur survient pendant le calcul.
+     */
+    private void applyFunction(String function, ValueStack values) throws CalculatorException {
+        if (numberMode == NumberMode.PROGRAMMER) {
+            performProgrammerOperation(values, function);
+            return;
+        }
+        if (numberMode == NumberMode.MATRIX && (values.isMatrix(0) || isMatrixFunction(function))) {
+            applyMatrixFunction(function, values);
+            return;
+        }
+        if (numberMode == NumberMode.POLYNOMIAL && (values.isPolynomial(0) || values.isRoots(0)
+                || function.equals("roots") || function.equals("deriv"))) {
+            applyPolynomialFunction(function, values);
+            return;
+        }
+        if (numberMode == NumberMode.COMPLEX && (values.isComplex(0)
+                || (values.peekReal(0) < 0 && (function.equals("sqrt") || function.equals("ln"))))) {
+            applyComplexFunction(function, values);
+            return;
+        }
+        if (function.equals("pct")) {
+            // Centile du jeu de données : pct(99) est le 99e centile
+            double percent = values.pop();
+            if (!(percent >= 0 && percent <= 100)) {
+                throw new CalculatorException("Le centile doit être compris entre 0 et 100.");
+            }
+            StreamingStatistics statistics = requireDataset();
+            if (statistics.getCount() == 0) {
+                throw new CalculatorException("Le jeu de données ne contient aucune valeur.");
+            }
+            values.push(statistics.getQuantile(percent / 100));
+            return;
+        }
+        if (numberMode == NumberMode.PRECISE && values.isExact(0)) {
+            BigDecimal value = values.peekDecimal(0);
+            values.drop(1);
+            pushDecimalResult(values, performPreciseFunction(value, function));
+            return;
+        }
+        double value = values.pop();
+        values.push(performOperation(value, 0, function));
+    }
+}
@@ -1,15 +1,66 @@
 package fr.tse.fise2.model;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.math.MathContext;
 
 /**
  * Classe CalculatorEngine qui gère les logiques de base de la calculatrice.
  */
 public class CalculatorEngine {
 
+    // Sinus des angles entiers de 0° à 90°, exacts ou correctement arrondis pour 0°, 30°, 45°, 60° et 90°
+    private static final double[] QUARTER_SINE = new double[91];
+    static {
+        for (int degrees = 0; degrees <= 90; degrees++) {
+            QUARTER_SINE[degrees] = Math.sin(Math.toRadians(degrees));
+        }
+        QUARTER_SINE[0] = 0;
+        QUARTER_SINE[30] = 0.5;
+        QUARTER_SINE[45] = Math.sqrt(0.5);
+        QUARTER_SINE[60] = Math.sqrt(3) / 2;
+        QUARTER_SINE[90] = 1;
+    }
+    private static final int[] EXACT_ANGLES = { 0, 30, 45, 60, 90 };
+    // Tangentes de 30° et 60° telles que calculées par tan(), pour un arc tangente exact
+    private static final double TAN_30 = QUARTER_SINE[30] / QUARTER_SINE[60];
+    private static final double TAN_60 = QUARTER_SINE[60] / QUARTER_SINE[30];
+
+    // Factoriels de 0 à 170, arrondis une seule fois depuis la valeur entière exacte
+    private static final double[] FACTORIALS = new double[171];
+    static {
+        BigInteger product = BigInteger.ONE;
+        FACTORIALS[0] = 1;
+        for (int n = 1; n < FACTORIALS.length; n++) {
+            product = product.multiply(BigInteger.valueOf(n));
+            FACTORIALS[n] = product.doubleValue();
+        }
+    }
+
+    // Coefficients de l'approximation de Lanczos de la fonction gamma
+    private static final double LANCZOS_G = 7;
+    private static final double[] LANCZOS = {
+        0.99999999999980993, 676.5203681218851, -1259.1392167224028,
+        771.32342877765313, -176.61502916214059, 12.507343278686905,
+        -0.13857109526572012, 9.9843695780195716e-6, 1.5056327351493116e-7
+    };
+    private static final double SQRT_TWO_PI = Math.sqrt(2 * Math.PI);
+
+    // Limites des calculs exacts : au-delà, le calcul prendrait plusieurs secondes
+    private static final int MAX_EXACT_FACTORIAL = 1_000_000;
+    private static final long MAX_EXACT_BITS = 1L << 27;
+    // En dessous de 2^53, un double représente exactement tous les entiers
+    private static final double TWO_POW_53 = 0x1p53;
+
     // Dernier résultat calculé.
     private double lastResult;
 
+    // Unité d'angle des fonctions trigonométriques
+    private AngleMode angleMode = AngleMode.DEG;
+
+    // Taille maximale (en bits) d'une puissance exacte
+    private long maxExactBits = MAX_EXACT_BITS;
+
     // Constructeur de la classe CalculatorEngine.
     public CalculatorEngine() {
         lastResult = 0;
@@ -89,18 +140,33 @@ public class CalculatorEngine {
     }
 
     /**
-     * Calcule le sinus d'un angle en degrés.
-     * @param a L'angle en degrés
+     * Calcule exactement le pourcentage d'un nombre décimal (mode décimal).
+     * @param a Le nombre
+     * @return Le pourcentage du nombre, décalé de deux décimales sans arrondi
+     */
+    public BigDecimal percent(BigDecimal a) {
+        BigDecimal result = a.movePointLeft(2);
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    /**
+     * Calcule le sinus d'un angle exprimé dans l'unité courante.
+     * @param a L'angle
      * @return Le sinus de l'angle
      * @throws CalculatorException Si une erreur se produit lors du calcul
      */
     public double sin(double a) throws CalculatorException {
-        lastResult = Math.sin(Math.toRadians(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.sin(a);
+        } else {
+            lastResult = sinDegrees(toDegrees(a), 0);
+        }
         return lastResult;
     }
 
     /**
-     * Calcule l'arc sinus d'un nombre.
+     * Calcule l'arc sinus d'un nombre, exprimé dans l'unité courante.
      * @param a Le nombre
      * @return L'arc sinus du nombre
      * @throws CalculatorException Si une erreur se produit lors du calcul
@@ -109,23 +175,33 @@ public class CalculatorEngine {
         if (a < -1 || a > 1) {
             throw new CalculatorException("L'arc sinus n'est défini que pour les nombres entre -1 et 1.");
         }
-        lastResult = Math.toDegrees(Math.asin(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.asin(a);
+        } else {
+            double exact = exactArcsinDegrees(a);
+            lastResult = fromDegrees(Double.isNaN(exact) ? Math.toDegrees(Math.asin(a)) : exact);
+        }
         return lastResult;
     }
 
     /**
-     * Calcule le cosinus d'un angle en degrés.
-     * @param a L'angle en degrés
+     * Calcule le cosinus d'un angle exprimé dans l'unité courante.
+     * @param a L'angle
      * @return Le cosinus de l'angle
      * @throws CalculatorException Si une erreur se produit lors du calcul
      */
     public double cos(double a) throws CalculatorException {
-        lastResult = Math.cos(Math.toRadians(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.cos(a);
+        } else {
+            // cos(x) = sin(x + 90°) : décalage d'un quadrant
+            lastResult = sinDegrees(toDegrees(a), 1);
+        }
         return lastResult;
     }
 
     /**
-     * Calcule l'arc cosinus d'un nombre.
+     * Calcule l'arc cosinus d'un nombre, exprimé dans l'unité courante.
      * @param a Le nombre
      * @return L'arc cosinus du nombre
      * @throws CalculatorException Si une erreur se produit lors du calcul
@@ -134,32 +210,168 @@ public class CalculatorEngine {
         if (a < -1 || a > 1) {
             throw new CalculatorException("L'arc cosinus n'est défini que pour les nombres entre -1 et 1.");
         }
-        lastResult = Math.toDegrees(Math.acos(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.acos(a);
+        } else {
+            double exact = exactArcsinDegrees(a);
+            lastResult = fromDegrees(Double.isNaN(exact) ? Math.toDegrees(Math.acos(a)) : 90 - exact);
+        }
         return lastResult;
     }
 
     /**
-     * Calcule la tangente d'un angle en degrés.
-     * @param a L'angle en degrés
+     * Calcule la tangente d'un angle exprimé dans l'unité courante.
+     * @param a L'angle
      * @return La tangente de l'angle
-     * @throws CalculatorException Si une erreur se produit lors du calcul
+     * @throws CalculatorException Si la tangente n'est pas définie pour cet angle
      */
     public double tan(double a) throws CalculatorException {
-        lastResult = Math.tan(Math.toRadians(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.tan(a);
+            return lastResult;
+        }
+        double degrees = toDegrees(a);
+        double cos = sinDegrees(degrees, 1);
+        if (cos == 0) {
+            throw new CalculatorException("La tangente n'est pas définie pour cet angle.");
+        }
+        lastResult = sinDegrees(degrees, 0) / cos;
         return lastResult;
     }
 
     /**
-     * Calcule l'arc tangente d'un nombre.
+     * Calcule l'arc tangente d'un nombre, exprimé dans l'unité courante.
      * @param a Le nombre
      * @return L'arc tangente du nombre
      * @throws CalculatorException Si une erreur se produit lors du calcul
      */
     public double arctan(double a) throws CalculatorException {
-        lastResult = Math.toDegrees(Math.atan(a));
+        if (angleMode == AngleMode.RAD) {
+            lastResult = Math.atan(a);
+            return lastResult;
+        }
+        double magnitude = Math.abs(a);
+        double degrees;
+        if (magnitude == 0) {
+            degrees = 0;
+        } else if (magnitude == TAN_30) {
+            degrees = 30;
+        } else if (magnitude == 1) {
+            degrees = 45;
+        } else if (magnitude == TAN_60) {
+            degrees = 60;
+        } else {
+            degrees = Math.toDegrees(Math.atan(magnitude));
+        }
+        lastResult = fromDegrees(Math.copySign(degrees, a));
         return lastResult;
     }
 
+    /**
+     * Convertit un angle de l'unité courante (degrés ou grades) en degrés.
+     * Les grades sont réduits modulo 400 avant la conversion, qui reste ainsi exacte
+     * pour les angles entiers multiples de 10 grades.
+     */
+    private double toDegrees(double a) {
+        if (angleMode == AngleMode.GRAD) {
+            return (a % 400) * 9 / 10;
+        }
+        return a;
+    }
+
+    /**
+     * Convertit un angle en degrés vers l'unité courante (degrés ou grades).
+     */
+    private double fromDegrees(double degrees) {
+        if (angleMode == AngleMode.GRAD) {
+            return degrees * 10 / 9;
+        }
+        return degrees;
+    }
+
+    /**
+     * Calcule sin(x + 90° × quadrants) pour un angle en degrés.
+     * La réduction se fait en degrés, exactement (le reste modulo 360 d'un double est exact) :
+     * les angles entiers sont lus dans la table, exacte pour les multiples de 30° et 45°,
+     * et seul le reste dans [0°, 90°) est converti en radians pour les autres angles.
+     * @param degrees L'angle en degrés
+     * @param quadrants Le décalage en quarts de tour (1 pour le cosinus)
+     * @return Le sinus de l'angle décalé
+     */
+    private static double sinDegrees(double degrees, int quadrants) {
+        if (degrees == (int) degrees) {
+            // Angle entier : réduction en arithmétique entière et lecture de la table
+            int reducedDegrees = Math.floorMod((long) degrees + 90 * quadrants, 360);
+            int index = reducedDegrees % 90;
+            double value = (reducedDegrees / 90) % 2 == 0 ? QUARTER_SINE[index] : QUARTER_SINE[90 - index];
+            return reducedDegrees >= 180 ? 0.0 - value : value;
+        }
+        double reduced = degrees % 360;
+        if (reduced < 0) {
+            reduced += 360;
+        }
+        int quadrant = (int) (reduced / 90);
+        double rest = reduced - 90 * quadrant;
+        if (rest >= 90) {
+            // reduced += 360 a pu arrondir vers 360
+            quadrant++;
+            rest -= 90;
+        }
+        quadrant = (quadrant + quadrants) & 3;
+
+        double value;
+        if (rest == (int) rest) {
+            int index = (int) rest;
+            value = quadrant % 2 == 0 ? QUARTER_SINE[index] : QUARTER_SINE[90 - index];
+        } else {
+            double radians = Math.toRadians(rest);
+            value = quadrant % 2 == 0 ? Math.sin(radians) : Math.cos(radians);
+        }
+        // 0.0 et non -0.0 pour sin(180°)
+        return quadrant >= 2 ? 0.0 - value : value;
+    }
+
+    /**
+     * Retourne l'arc sinus exact en degrés des valeurs de la table (0, 1/2, √2/2, √3/2, 1),
+     * ou NaN pour toute autre valeur.
+     */
+    private static double exactArcsinDegrees(double a) {
+        double magnitude = Math.abs(a);
+        for (int degrees : EXACT_ANGLES) {
+            if (magnitude == QUARTER_SINE[degrees]) {
+                return Math.copySign(degrees, a);
+            }
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Retourne l'unité d'angle utilisée par les fonctions trigonométriques.
+     * @return L'unité d'angle
+     */
+    public AngleMode getAngleMode() {
+        return angleMode;
+    }
+
+    /**
+     * Change l'unité d'angle utilisée par les fonctions trigonométriques.
+     * @param angleMode La nouvelle unité d'angle
+     */
+    public void setAngleMode(AngleMode angleMode) {
+        this.angleMode = angleMode;
+    }
+
+    /**
+     * Abaisse la taille maximale d'une puissance exacte. Une élévation au carré d'un très
+     * grand entier ne peut pas être interrompue : un calcul qui doit pouvoir être abandonné
+     * rapidement (l'aperçu du résultat) se limite ainsi à des produits de quelques dizaines
+     * de millisecondes.
+     * @param maxExactBits La taille maximale du résultat, en bits, au plus 2^27.
+     */
+    public void setMaxExactBits(long maxExactBits) {
+        this.maxExactBits = Math.min(maxExactBits, MAX_EXACT_BITS);
+    }
+
     /**
      * Calcule le logarithme naturel d'un nombre.
      * @param a Le nombre
@@ -231,25 +443,721 @@ public class CalculatorEngine {
 
     /**
      * Calcule le factoriel d'un nombre.
+     * Les entiers de 0 à 170 (tous ceux dont le factoriel est représentable par un double)
+     * sont lus dans une table ; pour un nombre non entier, x! = Γ(x + 1).
      * @param a Le nombre
      * @return Le factoriel du nombre
      * @throws CalculatorException Si une erreur se produit lors du calcul
      */
     public double factorial(double a) throws CalculatorException {
-        if (a < 0) {
-            throw new CalculatorException("Le factoriel n'est défini que pour les nombres positifs.");
+        if (a == Math.rint(a)) {
+            if (a < 0) {
+                throw new CalculatorException("Le factoriel n'est pas défini pour les entiers négatifs.");
+            }
+            if (a >= FACTORIALS.length) {
+                throw new CalculatorException("Le nombre est trop grand pour être calculé.");
+            }
+            lastResult = FACTORIALS[(int) a];
+            return lastResult;
         }
-        if (a > 110) { // Limite pour éviter les dépassements
+        double result = gamma(a + 1);
+        if (Double.isInfinite(result)) {
             throw new CalculatorException("Le nombre est trop grand pour être calculé.");
         }
-        BigInteger result = BigInteger.ONE;
-        for (int i = 1; i <= a; i++) {
-            result = result.multiply(BigInteger.valueOf(i));
+        if (Double.isNaN(result)) {
+            throw new CalculatorException("Le calcul a produit un résultat invalide.");
         }
-        lastResult = result.doubleValue();
+        lastResult = result;
+        return lastResult;
+    }
+
+    /**
+     * Calcule la fonction gamma par l'approximation de Lanczos (g = 7, 9 coefficients),
+     * précise à environ 1e-15 en relatif. Les arguments inférieurs à 1/2 passent par la
+     * formule de réflexion Γ(z)Γ(1 - z) = π / sin(πz).
+     * @param z L'argument, non entier négatif ou nul
+     * @return Γ(z)
+     */
+    static double gamma(double z) {
+        if (z < 0.5) {
+            return Math.PI / (Math.sin(Math.PI * z) * gamma(1 - z));
+        }
+        z -= 1;
+        double sum = LANCZOS[0];
+        for (int i = 1; i < LANCZOS.length; i++) {
+            sum += LANCZOS[i] / (z + i);
+        }
+        double t = z + LANCZOS_G + 0.5;
+        // t^(z + 1/2) en deux moitiés pour ne pas dépasser la capacité d'un double avant e^-t
+        double halfPower = Math.pow(t, (z + 0.5) / 2);
+        return SQRT_TWO_PI * halfPower * Math.exp(-t) * halfPower * sum;
+    }
+
+    /**
+     * Calcule la fonction digamma ψ = Γ'/Γ, qui donne la dérivée du factoriel :
+     * (x!)' = x! × ψ(x + 1). L'argument est ramené au-delà de 10 par ψ(x) = ψ(x + 1) - 1/x,
+     * puis la série asymptotique est précise à quelques 1e-15 ; les arguments inférieurs
+     * à 1/2 passent par la formule de réflexion ψ(1 - x) - ψ(x) = π / tan(πx).
+     * @param a Le nombre
+     * @return ψ(a)
+     * @throws CalculatorException Si a est un entier négatif ou nul
+     */
+    public double digamma(double a) throws CalculatorException {
+        if (a <= 0 && a == Math.rint(a)) {
+            throw new CalculatorException("La fonction ψ n'est pas définie pour les entiers négatifs ou nuls.");
+        }
+        double result = 0;
+        double x = a;
+        if (x < 0.5) {
+            result -= Math.PI / Math.tan(Math.PI * x);
+            x = 1 - x;
+        }
+        while (x < 10) {
+            result -= 1 / x;
+            x++;
+        }
+        double inverse = 1 / x;
+        double inverse2 = inverse * inverse;
+        // Coefficients B2n / 2n des nombres de Bernoulli
+        double series = inverse2 * (1.0 / 12 - inverse2 * (1.0 / 120 - inverse2 * (1.0 / 252
+            - inverse2 * (1.0 / 240 - inverse2 * (1.0 / 132 - inverse2 * 691.0 / 32760)))));
+        result += Math.log(x) - inverse / 2 - series;
+        if (!Double.isFinite(result)) {
+            throw new CalculatorException("Le calcul a produit un résultat invalide.");
+        }
+        lastResult = result;
+        return lastResult;
+    }
+
+    /**
+     * Calcule le nombre de combinaisons de r éléments parmi n.
+     * @param n Le nombre d'éléments
+     * @param r Le nombre d'éléments choisis
+     * @return C(n, r), nul si r > n
+     * @throws CalculatorException Si n ou r n'est pas un entier positif, ou si le résultat est trop grand
+     */
+    public double combinations(double n, double r) throws CalculatorException {
+        checkCountingArguments(n, r);
+        if (r > n) {
+            lastResult = 0;
+            return lastResult;
+        }
+        double k = Math.min(r, n - r);
+        double result = 1;
+        for (double i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+            if (Double.isInfinite(result)) {
+                throw new CalculatorException("Le nombre est trop grand pour être calculé.");
+            }
+        }
+        // Les erreurs d'arrondi des divisions successives restent inférieures à 1/2
+        lastResult = result < TWO_POW_53 ? Math.rint(result) : result;
         return lastResult;
     }
 
+    /**
+     * Calcule le nombre d'arrangements de r éléments parmi n.
+     * @param n Le nombre d'éléments
+     * @param r Le nombre d'éléments choisis
+     * @return A(n, r) = n! / (n - r)!, nul si r > n
+     * @throws CalculatorException Si n ou r n'est pas un entier positif, ou si le résultat est trop grand
+     */
+    public double permutations(double n, double r) throws CalculatorException {
+        checkCountingArguments(n, r);
+        if (r > n) {
+            lastResult = 0;
+            return lastResult;
+        }
+        double result = 1;
+        for (double i = n - r + 1; i <= n; i++) {
+            result *= i;
+            if (Double.isInfinite(result)) {
+                throw new CalculatorException("Le nombre est trop grand pour être calculé.");
+            }
+        }
+        lastResult = result;
+        return lastResult;
+    }
+
+    private void checkCountingArguments(double n, double r) throws CalculatorException {
+        if (n != Math.rint(n) || r != Math.rint(r) || n < 0 || r < 0) {
+            throw new CalculatorException("Les combinaisons et arrangements ne sont définis que pour des entiers positifs.");
+        }
+    }
+
+    /**
+     * Calcule le factoriel exact d'un entier (mode exact).
+     * @param n L'entier
+     * @return n!
+     * @throws CalculatorException Si n est négatif ou trop grand
+     */
+    public BigInteger exactFactorial(BigInteger n) throws CalculatorException {
+        if (n.signum() < 0) {
+            throw new CalculatorException("Le factoriel n'est pas défini pour les entiers négatifs.");
+        }
+        BigInteger result = BigIntegerMath.factorial(checkExactLimit(n));
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    /**
+     * Calcule le nombre exact de combinaisons de r éléments parmi n (mode exact).
+     * @param n Le nombre d'éléments
+     * @param r Le nombre d'éléments choisis
+     * @return C(n, r), nul si r > n
+     * @throws CalculatorException Si n ou r est négatif, ou si n est trop grand
+     */
+    public BigInteger exactCombinations(BigInteger n, BigInteger r) throws CalculatorException {
+        if (n.signum() < 0 || r.signum() < 0) {
+            throw new CalculatorException("Les combinaisons et arrangements ne sont définis que pour des entiers positifs.");
+        }
+        BigInteger result = r.compareTo(n) > 0
+            ? BigInteger.ZERO
+            : BigIntegerMath.binomial(checkExactLimit(n), r.intValue());
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    /**
+     * Calcule le nombre exact d'arrangements de r éléments parmi n (mode exact).
+     * @param n Le nombre d'éléments
+     * @param r Le nombre d'éléments choisis
+     * @return A(n, r), nul si r > n
+     * @throws CalculatorException Si n ou r est négatif, ou si n est trop grand
+     */
+    public BigInteger exactPermutations(BigInteger n, BigInteger r) throws CalculatorException {
+        if (n.signum() < 0 || r.signum() < 0) {
+            throw new CalculatorException("Les combinaisons et arrangements ne sont définis que pour des entiers positifs.");
+        }
+        BigInteger result = r.compareTo(n) > 0
+            ? BigInteger.ZERO
+            : BigIntegerMath.permutations(checkExactLimit(n), r.intValue());
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    /**
+     * Calcule exactement un entier élevé à une puissance entière positive (mode exact).
+     * @param a La base
+     * @param b L'exposant, positif ou nul
+     * @return a^b
+     * @throws CalculatorException Si le résultat est trop grand
+     */
+    public BigInteger exactPow(BigInteger a, BigInteger b) throws CalculatorException {
+        BigInteger result;
+        if (a.abs().compareTo(BigInteger.ONE) <= 0) {
+            // 0, 1 et -1 : pas de limite sur l'exposant
+            result = b.signum() == 0 ? BigInteger.ONE : b.testBit(0) || a.signum() >= 0 ? a : a.negate();
+        } else if (b.bitLength() > 31 || (long) a.bitLength() * b.intValue() > maxExactBits) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        } else {
+            result = BigIntegerMath.pow(a, b.intValue());
+        }
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    private int checkExactLimit(BigInteger n) throws CalculatorException {
+        if (n.compareTo(BigInteger.valueOf(MAX_EXACT_FACTORIAL)) > 0) {
+            throw new CalculatorException("Le nombre est trop grand pour être calculé.");
+        }
+        return n.intValue();
+    }
+
+    /**
+     * Calcule la racine carrée d'un nombre en précision arbitraire (mode précis).
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return La racine carrée du nombre
+     * @throws CalculatorException Si le nombre est négatif
+     */
+    public BigDecimal sqrt(BigDecimal a, MathContext mc) throws CalculatorException {
+        if (a.signum() < 0) {
+            throw new CalculatorException("La racine carrée n'est définie que pour les nombres positifs.");
+        }
+        return precise(BigDecimalMath.sqrt(a, mc));
+    }
+
+    /**
+     * Calcule l'exponentielle d'un nombre en précision arbitraire (mode précis).
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return L'exponentielle du nombre
+     * @throws CalculatorException Si le résultat est trop grand
+     */
+    public BigDecimal exp(BigDecimal a, MathContext mc) throws CalculatorException {
+        try {
+            return precise(BigDecimalMath.exp(a, mc));
+        } catch (ArithmeticException overflow) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+    }
+
+    /**
+     * Calcule le logarithme naturel d'un nombre en précision arbitraire (mode précis).
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return Le logarithme naturel du nombre
+     * @throws CalculatorException Si le nombre est négatif ou nul
+     */
+    public BigDecimal ln(BigDecimal a, MathContext mc) throws CalculatorException {
+        if (a.signum() <= 0) {
+            throw new CalculatorException("Le logarithme naturel n'est défini que pour les nombres positifs.");
+        }
+        return precise(BigDecimalMath.ln(a, mc));
+    }
+
+    /**
+     * Calcule la puissance d'un nombre en précision arbitraire (mode précis).
+     * Les exposants entiers sont calculés par exponentiation rapide, les autres par
+     * a^b = exp(b ln a).
+     * @param a La base
+     * @param b L'exposant
+     * @param mc La précision du résultat
+     * @return La puissance de la base à l'exposant
+     * @throws CalculatorException Si le résultat dépasse les limites ou est invalide
+     */
+    public BigDecimal pow(BigDecimal a, BigDecimal b, MathContext mc) throws CalculatorException {
+        try {
+            if (b.signum() == 0 || b.stripTrailingZeros().scale() <= 0) {
+                if (a.signum() == 0 && b.signum() < 0) {
+                    throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+                }
+                return precise(a.pow(b.intValueExact(), mc));
+            }
+            if (a.signum() < 0) {
+                throw new CalculatorException("Le calcul a produit un résultat invalide.");
+            }
+            if (a.signum() == 0) {
+                if (b.signum() < 0) {
+                    throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+                }
+                return precise(BigDecimal.ZERO);
+            }
+            // Chiffres supplémentaires pour la partie entière de b ln a
+            MathContext work = new MathContext(mc.getPrecision() + 20);
+            BigDecimal exponent = b.multiply(BigDecimalMath.ln(a, work), work);
+            return precise(BigDecimalMath.exp(exponent, mc));
+        } catch (ArithmeticException overflow) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+    }
+
+    /**
+     * Calcule le sinus d'un angle exprimé dans l'unité courante, en précision arbitraire
+     * (mode précis). En degrés et en grades, la réduction est exacte et les multiples de
+     * 30° et 45° sont lus dans une table, comme en double.
+     * @param a L'angle
+     * @param mc La précision du résultat
+     * @return Le sinus de l'angle
+     */
+    public BigDecimal sin(BigDecimal a, MathContext mc) {
+        if (angleMode == AngleMode.RAD) {
+            return precise(BigDecimalMath.sin(a, mc));
+        }
+        return precise(sinDegrees(toDegrees(a), 0, mc));
+    }
+
+    /**
+     * Calcule le cosinus d'un angle exprimé dans l'unité courante, en précision arbitraire.
+     * @param a L'angle
+     * @param mc La précision du résultat
+     * @return Le cosinus de l'angle
+     */
+    public BigDecimal cos(BigDecimal a, MathContext mc) {
+        if (angleMode == AngleMode.RAD) {
+            return precise(BigDecimalMath.cos(a, mc));
+        }
+        return precise(sinDegrees(toDegrees(a), 1, mc));
+    }
+
+    /**
+     * Calcule la tangente d'un angle exprimé dans l'unité courante, en précision arbitraire.
+     * @param a L'angle
+     * @param mc La précision du résultat
+     * @return La tangente de l'angle
+     * @throws CalculatorException Si la tangente n'est pas définie pour cet angle
+     */
+    public BigDecimal tan(BigDecimal a, MathContext mc) throws CalculatorException {
+        MathContext work = new MathContext(mc.getPrecision() + 5);
+        BigDecimal sin;
+        BigDecimal cos;
+        if (angleMode == AngleMode.RAD) {
+            sin = BigDecimalMath.sin(a, work);
+            cos = BigDecimalMath.cos(a, work);
+        } else {
+            BigDecimal degrees = toDegrees(a);
+            sin = sinDegrees(degrees, 0, work);
+            cos = sinDegrees(degrees, 1, work);
+        }
+        if (cos.signum() == 0) {
+            throw new CalculatorException("La tangente n'est pas définie pour cet angle.");
+        }
+        return precise(sin.divide(cos, mc));
+    }
+
+    /**
+     * Calcule l'arc sinus d'un nombre en précision arbitraire, exprimé dans l'unité courante.
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return L'arc sinus du nombre
+     * @throws CalculatorException Si le nombre n'est pas entre -1 et 1
+     */
+    public BigDecimal arcsin(BigDecimal a, MathContext mc) throws CalculatorException {
+        if (a.abs().compareTo(BigDecimal.ONE) > 0) {
+            throw new CalculatorException("L'arc sinus n'est défini que pour les nombres entre -1 et 1.");
+        }
+        if (angleMode == AngleMode.RAD) {
+            return precise(BigDecimalMath.asin(a, mc));
+        }
+        BigDecimal exact = exactArcsinDegrees(a);
+        return precise(fromDegrees(exact != null ? exact : radiansToDegrees(BigDecimalMath.asin(a, mc), mc), mc));
+    }
+
+    /**
+     * Calcule l'arc cosinus d'un nombre en précision arbitraire, exprimé dans l'unité courante.
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return L'arc cosinus du nombre
+     * @throws CalculatorException Si le nombre n'est pas entre -1 et 1
+     */
+    public BigDecimal arccos(BigDecimal a, MathContext mc) throws CalculatorException {
+        if (a.abs().compareTo(BigDecimal.ONE) > 0) {
+            throw new CalculatorException("L'arc cosinus n'est défini que pour les nombres entre -1 et 1.");
+        }
+        if (angleMode == AngleMode.RAD) {
+            return precise(BigDecimalMath.acos(a, mc));
+        }
+        BigDecimal exact = exactArcsinDegrees(a);
+        BigDecimal degrees = exact != null
+            ? BigDecimal.valueOf(90).subtract(exact)
+            : radiansToDegrees(BigDecimalMath.acos(a, mc), mc);
+        return precise(fromDegrees(degrees, mc));
+    }
+
+    /**
+     * Calcule l'arc tangente d'un nombre en précision arbitraire, exprimé dans l'unité courante.
+     * @param a Le nombre
+     * @param mc La précision du résultat
+     * @return L'arc tangente du nombre
+     */
+    public BigDecimal arctan(BigDecimal a, MathContext mc) {
+        if (angleMode == AngleMode.RAD) {
+            return precise(BigDecimalMath.atan(a, mc));
+        }
+        BigDecimal degrees;
+        if (a.signum() == 0) {
+            degrees = BigDecimal.ZERO;
+        } else if (a.abs().compareTo(BigDecimal.ONE) == 0) {
+            degrees = BigDecimal.valueOf(45L * a.signum());
+        } else {
+            degrees = radiansToDegrees(BigDecimalMath.atan(a, mc), mc);
+        }
+        return precise(fromDegrees(degrees, mc));
+    }
+
+    /**
+     * Mémorise l'approximation en double d'un résultat en précision arbitraire.
+     */
+    private BigDecimal precise(BigDecimal result) {
+        lastResult = result.doubleValue();
+        return result;
+    }
+
+    /**
+     * Convertit exactement un angle de l'unité courante (degrés ou grades) en degrés.
+     */
+    private BigDecimal toDegrees(BigDecimal a) {
+        if (angleMode == AngleMode.GRAD) {
+            return a.remainder(BigDecimal.valueOf(400)).multiply(new BigDecimal("0.9"));
+        }
+        return a;
+    }
+
+    /**
+     * Convertit un angle en degrés vers l'unité courante (degrés ou grades).
+     */
+    private BigDecimal fromDegrees(BigDecimal degrees, MathContext mc) {
+        if (angleMode == AngleMode.GRAD) {
+            return degrees.multiply(BigDecimal.TEN).divide(BigDecimal.valueOf(9), mc);
+        }
+        return degrees.round(mc);
+    }
+
+    private static BigDecimal radiansToDegrees(BigDecimal radians, MathContext mc) {
+        MathContext work = new MathContext(mc.getPrecision() + 5);
+        return radians.multiply(BigDecimal.valueOf(180)).divide(BigDecimalMath.pi(work), work);
+    }
+
+    /**
+     * Calcule sin(x + 90° × quadrants) en précision arbitraire pour un angle en degrés.
+     * La réduction modulo 360 est exacte ; seul l'angle restant, entre 0° et 90°, est
+     * converti en radians s'il n'est pas un multiple de 30° ou de 45°.
+     */
+    private static BigDecimal sinDegrees(BigDecimal degrees, int quadrants, MathContext mc) {
+        BigDecimal fullTurn = BigDecimal.valueOf(360);
+        BigDecimal reduced = degrees.add(BigDecimal.valueOf(90L * quadrants)).remainder(fullTurn);
+        if (reduced.signum() < 0) {
+            reduced = reduced.add(fullTurn);
+        }
+        int quadrant = reduced.intValue() / 90;
+        BigDecimal rest = reduced.subtract(BigDecimal.valueOf(90L * quadrant));
+        // Dans les quadrants impairs, sin(90° q + r) = ±sin(90° - r)
+        BigDecimal angle = quadrant % 2 == 0 ? rest : BigDecimal.valueOf(90).subtract(rest);
+
+        BigDecimal value = exactSineDegrees(angle, mc);
+        if (value == null) {
+            MathContext work = new MathContext(mc.getPrecision() + 5);
+            BigDecimal radians = angle.multiply(BigDecimalMath.pi(work)).divide(BigDecimal.valueOf(180), work);
+            value = BigDecimalMath.sin(radians, mc);
+        }
+        return quadrant >= 2 ? value.negate() : value;
+    }
+
+    /**
+     * Retourne le sinus des angles de la table (0°, 30°, 45°, 60°, 90°), ou null pour un autre angle.
+     */
+    private static BigDecimal exactSineDegrees(BigDecimal degrees, MathContext mc) {
+        if (degrees.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        if (degrees.stripTrailingZeros().scale() > 0) {
+            return null;
+        }
+        switch (degrees.intValue()) {
+            case 30: return new BigDecimal("0.5");
+            case 45: return BigDecimalMath.sqrt(new BigDecimal("0.5"), mc);
+            case 60: return BigDecimalMath.sqrt(new BigDecimal("0.75"), mc);
+            case 90: return BigDecimal.ONE;
+            default: return null;
+        }
+    }
+
+    /**
+     * Retourne l'arc sinus exact en degrés de 0, ±1/2 et ±1, ou null pour un autre nombre.
+     */
+    private static BigDecimal exactArcsinDegrees(BigDecimal a) {
+        BigDecimal magnitude = a.abs();
+        int degrees;
+        if (magnitude.signum() == 0) {
+            degrees = 0;
+        } else if (magnitude.compareTo(new BigDecimal("0.5")) == 0) {
+            degrees = 30;
+        } else if (magnitude.compareTo(BigDecimal.ONE) == 0) {
+            degrees = 90;
+        } else {
+            return null;
+        }
+        return BigDecimal.valueOf((long) degrees * a.signum());
+    }
+
+    /**
+     * Additionne deux matrices.
+     * @param a Première matrice
+     * @param b Deuxième matrice, de mêmes dimensions
+     * @return Somme des matrices
+     * @throws CalculatorException Si les dimensions diffèrent
+     */
+    public Matrix add(Matrix a, Matrix b) throws CalculatorException {
+        checkSameDimensions(a, b);
+        return a.add(b);
+    }
+
+    /**
+     * Soustrait deux matrices.
+     * @param a Première matrice
+     * @param b Deuxième matrice, de mêmes dimensions
+     * @return Différence des matrices
+     * @throws CalculatorException Si les dimensions diffèrent
+     */
+    public Matrix subtract(Matrix a, Matrix b) throws CalculatorException {
+        checkSameDimensions(a, b);
+        return a.subtract(b);
+    }
+
+    /**
+     * Multiplie deux matrices (produit par blocs, parallèle pour les grandes matrices).
+     * @param a Première matrice
+     * @param b Deuxième matrice, avec autant de lignes que a a de colonnes
+     * @return Produit des matrices
+     * @throws CalculatorException Si les dimensions sont incompatibles ou le résultat trop grand
+     */
+    public Matrix multiply(Matrix a, Matrix b) throws CalculatorException {
+        if (a.getColumns() != b.getRows()) {
+            throw new CalculatorException("Le nombre de colonnes de la première matrice doit être égal au nombre de lignes de la seconde.");
+        }
+        try {
+            return a.multiply(b);
+        } catch (IllegalArgumentException e) {
+            throw new CalculatorException("La matrice est trop grande pour être calculée.");
+        }
+    }
+
+    /**
+     * Multiplie une matrice par un nombre.
+     * @param factor Le nombre
+     * @param a La matrice
+     * @return La matrice dont chaque coefficient est multiplié par factor
+     */
+    public Matrix multiply(double factor, Matrix a) {
+        return a.multiply(factor);
+    }
+
+    /**
+     * Calcule la transposée d'une matrice.
+     * @param a La matrice
+     * @return La transposée
+     */
+    public Matrix transpose(Matrix a) {
+        return a.transpose();
+    }
+
+    /**
+     * Calcule le déterminant d'une matrice carrée par décomposition LU.
+     * @param a La matrice
+     * @return Le déterminant
+     * @throws CalculatorException Si la matrice n'est pas carrée ou le déterminant trop grand
+     */
+    public double determinant(Matrix a) throws CalculatorException {
+        checkSquare(a);
+        double determinant = LuDecomposition.of(a).determinant();
+        if (Double.isInfinite(determinant)) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+        return determinant;
+    }
+
+    /**
+     * Calcule l'inverse d'une matrice carrée par décomposition LU.
+     * @param a La matrice
+     * @return L'inverse
+     * @throws CalculatorException Si la matrice n'est pas carrée ou n'est pas inversible
+     */
+    public Matrix inverse(Matrix a) throws CalculatorException {
+        checkSquare(a);
+        LuDecomposition lu = LuDecomposition.of(a);
+        if (lu.isSingular()) {
+            throw new CalculatorException("La matrice n'est pas inversible.");
+        }
+        return lu.inverse();
+    }
+
+    /**
+     * Résout le système A × X = B par décomposition LU avec pivot partiel.
+     * @param a La matrice du système, carrée
+     * @param b Le second membre, avec autant de lignes que a
+     * @return La solution X
+     * @throws CalculatorException Si les dimensions sont incompatibles ou la matrice singulière
+     */
+    public Matrix solve(Matrix a, Matrix b) throws CalculatorException {
+        checkSquare(a);
+        if (b.getRows() != a.getRows()) {
+            throw new CalculatorException("Le second membre doit avoir autant de lignes que la matrice.");
+        }
+        LuDecomposition lu = LuDecomposition.of(a);
+        if (lu.isSingular()) {
+            throw new CalculatorException("Le système n'a pas de solution unique.");
+        }
+        return lu.solve(b);
+    }
+
+    /**
+     * Élève une matrice carrée à une puissance entière ; une puissance négative est
+     * celle de l'inverse.
+     * @param a La matrice
+     * @param exponent L'exposant, entier
+     * @return La puissance de la matrice
+     * @throws CalculatorException Si la matrice n'est pas carrée, l'exposant non entier
+     *         ou la matrice non inversible
+     */
+    public Matrix pow(Matrix a, double exponent) throws CalculatorException {
+        checkSquare(a);
+        if (exponent != Math.rint(exponent) || Double.isInfinite(exponent)) {
+            throw new CalculatorException("L'exposant d'une matrice doit être entier.");
+        }
+        Matrix base = exponent < 0 ? inverse(a) : a;
+        return base.pow((long) Math.abs(exponent));
+    }
+
+    /**
+     * Vérifie que deux matrices ont les mêmes dimensions.
+     */
+    private static void checkSameDimensions(Matrix a, Matrix b) throws CalculatorException {
+        if (a.getRows() != b.getRows() || a.getColumns() != b.getColumns()) {
+            throw new CalculatorException("Les matrices doivent avoir les mêmes dimensions.");
+        }
+    }
+
+    /**
+     * Vérifie qu'une matrice est carrée.
+     */
+    private static void checkSquare(Matrix a) throws CalculatorException {
+        if (!a.isSquare()) {
+            throw new CalculatorException("La matrice doit être carrée.");
+        }
+    }
+
+    /**
+     * Multiplie deux polynômes.
+     * @param a Premier polynôme
+     * @param b Deuxième polynôme
+     * @return Produit des polynômes
+     * @throws CalculatorException Si le degré du produit est trop grand
+     */
+    public Polynomial multiply(Polynomial a, Polynomial b) throws CalculatorException {
+        try {
+            return a.multiply(b);
+        } catch (ArithmeticException e) {
+            throw new CalculatorException("Le degré d'un polynôme est limité à " + Polynomial.MAX_DEGREE + ".");
+        }
+    }
+
+    /**
+     * Élève un polynôme à une puissance entière positive.
+     * @param a Le polynôme
+     * @param exponent L'exposant, entier positif
+     * @return La puissance du polynôme
+     * @throws CalculatorException Si l'exposant n'est pas un entier positif ou le degré trop grand
+     */
+    public Polynomial pow(Polynomial a, double exponent) throws CalculatorException {
+        if (exponent != Math.rint(exponent) || exponent < 0 || exponent > Integer.MAX_VALUE) {
+            throw new CalculatorException("L'exposant d'un polynôme doit être un entier positif.");
+        }
+        try {
+            return a.pow((int) exponent);
+        } catch (ArithmeticException e) {
+            throw new CalculatorException("Le degré d'un polynôme est limité à " + Polynomial.MAX_DEGREE + ".");
+        }
+    }
+
+    /**
+     * Évalue un polynôme en un point par le schéma de Horner.
+     * @param a Le polynôme
+     * @param x Le point
+     * @return La valeur du polynôme en x
+     * @throws CalculatorException Si le résultat est trop grand
+     */
+    public double evaluate(Polynomial a, double x) throws CalculatorException {
+        double value = a.evaluate(x);
+        if (Double.isInfinite(value)) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+        return value;
+    }
+
+    /**
+     * Calcule les racines réelles et complexes d'un polynôme (méthode d'Aberth-Ehrlich).
+     * @param a Le polynôme
+     * @return Les racines, comptées avec leur multiplicité
+     * @throws CalculatorException Si le polynôme est nul
+     */
+    public Polynomial.Roots roots(Polynomial a) throws CalculatorException {
+        if (a.degree() < 0) {
+            throw new CalculatorException("Le polynôme nul a une infinité de racines.");
+        }
+        return a.roots();
+    }
+
     /**
      * Retourne le dernier résultat calculé.
      * @return Dernier résultat
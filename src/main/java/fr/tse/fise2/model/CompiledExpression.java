@@ -0,0 +1,259 @@
+package fr.tse.fise2.model;
+
+import java.util.List;
+
+/**
+ * Expression réelle d'inconnue X, compilée une fois par {@link Calculator#compile(String)}
+ * pour être évaluée de nombreuses fois, par exemple à chaque itération d'un {@link Solver}.
+ * <p>
+ * L'expression est rangée en notation postfixe : un tableau d'instructions et un tableau
+ * des constantes. Une évaluation parcourt ces tableaux avec une pile de double, sans
+ * découpage en tokens ni chaîne de caractères. L'unité d'angle est fixée à la compilation :
+ * l'expression compilée ne dépend plus de l'état du {@link Calculator} et n'est jamais
+ * modifiée. Pour l'évaluer depuis plusieurs threads, chacun utilise son propre
+ * {@link Evaluator}, qui porte la pile et le moteur de calcul.
+ */
+public final class CompiledExpression {
+    // Instructions
+    private static final byte CONSTANT = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte ADD = 2;
+    private static final byte SUBTRACT = 3;
+    private static final byte MULTIPLY = 4;
+    private static final byte DIVIDE = 5;
+    private static final byte MODULO = 6;
+    private static final byte POWER = 7;
+    private static final byte COMBINATIONS = 8;
+    private static final byte PERMUTATIONS = 9;
+    private static final byte PERCENT = 10;
+    private static final byte FACTORIAL = 11;
+    private static final byte SIN = 12;
+    private static final byte COS = 13;
+    private static final byte TAN = 14;
+    private static final byte ARCSIN = 15;
+    private static final byte ARCCOS = 16;
+    private static final byte ARCTAN = 17;
+    private static final byte LN = 18;
+    private static final byte EXP = 19;
+    private static final byte SQRT = 20;
+    private static final byte DIGAMMA = 21;
+    private static final byte NEGATE = 22;
+
+    private final List<String> postfix;
+    private final byte[] program;
+    // Constante de chaque instruction CONSTANT, à la même position que l'instruction
+    private final double[] constants;
+    // Profondeur maximale de la pile pendant l'évaluation
+    private final int depth;
+    private final String expression;
+    private final AngleMode angleMode;
+
+    /**
+     * Assemble une expression à partir de sa forme postfixe.
+     *
+     * @param postfix Les tokens en notation postfixe : nombres, π, X, opérateurs et fonctions.
+     * @param angleMode L'unité d'angle des fonctions trigonométriques.
+     * @param expression L'expression d'origine.
+     * @throws CalculatorException Si un opérateur manque d'opérandes ou s'il reste plusieurs valeurs.
+     */
+    CompiledExpression(List<String> postfix, AngleMode angleMode, String expression) throws CalculatorException {
+        this.postfix = List.copyOf(postfix);
+        this.angleMode = angleMode;
+        this.expression = expression;
+        program = new byte[postfix.size()];
+        constants = new double[postfix.size()];
+        int size = 0;
+        int maxSize = 0;
+        for (int i = 0; i < program.length; i++) {
+            String token = postfix.get(i);
+            byte instruction = instruction(token);
+            program[i] = instruction;
+            int operands = operands(instruction);
+            if (size < operands) {
+                throw new CalculatorException("Pas assez d'opérandes pour l'opérateur " + token);
+            }
+            if (instruction == CONSTANT) {
+                try {
+                    constants[i] = token.equals("π") ? Math.PI : Double.parseDouble(token);
+                } catch (NumberFormatException e) {
+                    throw new CalculatorException("Nombre invalide : " + token);
+                }
+            }
+            size += 1 - operands;
+            maxSize = Math.max(maxSize, size);
+        }
+        if (size == 0) {
+            throw new CalculatorException("Expression vide");
+        }
+        if (size > 1) {
+            throw new CalculatorException("Expression invalide");
+        }
+        depth = maxSize;
+    }
+
+    /**
+     * Évalue l'expression pour une valeur de l'inconnue X. Pour de nombreuses évaluations,
+     * un {@link Evaluator} réutilisé évite d'allouer une pile à chaque appel.
+     *
+     * @param x La valeur de X.
+     * @return La valeur de l'expression.
+     * @throws CalculatorException En cas d'erreur de calcul (division par zéro, racine d'un négatif...).
+     */
+    public double evaluate(double x) throws CalculatorException {
+        return evaluator().evaluate(x);
+    }
+
+    /**
+     * Crée un évaluateur de l'expression, à réserver à un seul thread.
+     *
+     * @return Un nouvel évaluateur.
+     */
+    public Evaluator evaluator() {
+        return new Evaluator();
+    }
+
+    /**
+     * Calcule la dérivée de l'expression par rapport à X, symboliquement et simplifiée
+     * ({@link SymbolicDifferentiator}). La dérivée est elle-même une expression compilée,
+     * évaluée exactement et sans différences finies ; son texte, retourné par
+     * {@link #toString()}, peut être recompilé.
+     *
+     * @return La dérivée compilée.
+     * @throws CalculatorException Si l'expression contient une fonction non dérivable en X
+     *         (nCr, nPr ou ψ appliqués à une expression en X).
+     */
+    public CompiledExpression derivative() throws CalculatorException {
+        return SymbolicDifferentiator.differentiate(this);
+    }
+
+    /**
+     * Retourne la notation postfixe de l'expression.
+     */
+    List<String> postfix() {
+        return postfix;
+    }
+
+    /**
+     * Retourne l'unité d'angle fixée à la compilation.
+     */
+    public AngleMode getAngleMode() {
+        return angleMode;
+    }
+
+    /**
+     * Retourne l'expression d'origine.
+     */
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * Traduit un token postfixe en instruction.
+     */
+    private static byte instruction(String token) throws CalculatorException {
+        switch (token) {
+            case "X": return UNKNOWN;
+            case "+": return ADD;
+            case "-": return SUBTRACT;
+            case "x": return MULTIPLY;
+            case "÷": return DIVIDE;
+            case "mod": return MODULO;
+            case "^": return POWER;
+            case "nCr": return COMBINATIONS;
+            case "nPr": return PERMUTATIONS;
+            case "%": return PERCENT;
+            case "!": return FACTORIAL;
+            case "sin": return SIN;
+            case "cos": return COS;
+            case "tan": return TAN;
+            case "arcsin": return ARCSIN;
+            case "arccos": return ARCCOS;
+            case "arctan": return ARCTAN;
+            case "ln": return LN;
+            case "exp": return EXP;
+            case "sqrt": return SQRT;
+            case "ψ": return DIGAMMA;
+            case "neg": return NEGATE;
+            default:
+                if (token.equals("π") || isNumber(token)) {
+                    return CONSTANT;
+                }
+                throw new CalculatorException("Opérateur non pris en charge: " + token);
+        }
+    }
+
+    /**
+     * Vérifie si un token est un nombre, y compris écrit avec un point final (« 3. »).
+     */
+    private static boolean isNumber(String token) {
+        try {
+            Double.parseDouble(token);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Retourne le nombre d'opérandes consommés par une instruction.
+     */
+    private static int operands(byte instruction) {
+        if (instruction == CONSTANT || instruction == UNKNOWN) {
+            return 0;
+        }
+        return instruction <= PERMUTATIONS ? 2 : 1;
+    }
+
+    /**
+     * Évaluateur d'une expression compilée : pile et moteur de calcul propres, réutilisés
+     * d'une évaluation à l'autre. Un évaluateur ne doit être utilisé que par un thread à la fois.
+     */
+    public final class Evaluator {
+        private final double[] stack = new double[depth];
+        private final CalculatorEngine engine = new CalculatorEngine();
+
+        private Evaluator() {
+            engine.setAngleMode(angleMode);
+        }
+
+        /**
+         * Évalue l'expression pour une valeur de l'inconnue X.
+         *
+         * @param x La valeur de X.
+         * @return La valeur de l'expression.
+         * @throws CalculatorException En cas d'erreur de calcul.
+         */
+        public double evaluate(double x) throws CalculatorException {
+            int top = -1;
+            for (int i = 0; i < program.length; i++) {
+                switch (program[i]) {
+                    case CONSTANT: stack[++top] = constants[i]; break;
+                    case UNKNOWN: stack[++top] = x; break;
+                    case ADD: top--; stack[top] = engine.add(stack[top], stack[top + 1]); break;
+                    case SUBTRACT: top--; stack[top] = engine.subtract(stack[top], stack[top + 1]); break;
+                    case MULTIPLY: top--; stack[top] = engine.multiply(stack[top], stack[top + 1]); break;
+                    case DIVIDE: top--; stack[top] = engine.divide(stack[top], stack[top + 1]); break;
+                    case MODULO: top--; stack[top] = engine.modulo(stack[top], stack[top + 1]); break;
+                    case POWER: top--; stack[top] = engine.pow(stack[top], stack[top + 1]); break;
+                    case COMBINATIONS: top--; stack[top] = engine.combinations(stack[top], stack[top + 1]); break;
+                    case PERMUTATIONS: top--; stack[top] = engine.permutations(stack[top], stack[top + 1]); break;
+                    case PERCENT: stack[top] = engine.percent(stack[top]); break;
+                    case FACTORIAL: stack[top] = engine.factorial(stack[top]); break;
+                    case SIN: stack[top] = engine.sin(stack[top]); break;
+                    case COS: stack[top] = engine.cos(stack[top]); break;
+                    case TAN: stack[top] = engine.tan(stack[top]); break;
+                    case ARCSIN: stack[top] = engine.arcsin(stack[top]); break;
+                    case ARCCOS: stack[top] = engine.arccos(stack[top]); break;
+                    case ARCTAN: stack[top] = engine.arctan(stack[top]); break;
+                    case LN: stack[top] = engine.ln(stack[top]); break;
+                    case EXP: stack[top] = engine.exp(stack[top]); break;
+                    case SQRT: stack[top] = engine.sqrt(stack[top]); break;
+                    case NEGATE: stack[top] = -stack[top]; break;
+                    default: stack[top] = engine.digamma(stack[top]); break;
+                }
+            }
+            return stack[0];
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package fr.tse.fise2.model;
+
+/**
+ * Arithmétique des nombres complexes sur des double, sans allocation.
+ * Un nombre complexe est passé sous forme de deux double (partie réelle, partie
+ * imaginaire), et le résultat est écrit dans un tableau fourni par l'appelant :
+ * result[0] reçoit la partie réelle, result[1] la partie imaginaire. L'appelant
+ * réutilise le même tableau d'une opération à l'autre. Les fonctions multivaluées
+ * (racine, logarithme, puissance) retournent leur valeur principale.
+ */
+public final class ComplexMath {
+    // Au-delà, la puissance entière est calculée par exp(b ln a)
+    private static final int MAX_INTEGER_EXPONENT = 1024;
+
+    private ComplexMath() {
+    }
+
+    /**
+     * Multiplie deux nombres complexes.
+     */
+    public static void multiply(double ar, double ai, double br, double bi, double[] result) {
+        double real = ar * br - ai * bi;
+        result[1] = ar * bi + ai * br;
+        result[0] = real;
+    }
+
+    /**
+     * Divise deux nombres complexes par l'algorithme de Smith, qui évite les
+     * dépassements intermédiaires de br² + bi².
+     * Le diviseur doit être non nul.
+     */
+    public static void divide(double ar, double ai, double br, double bi, double[] result) {
+        if (Math.abs(br) >= Math.abs(bi)) {
+            double ratio = bi / br;
+            double denominator = br + bi * ratio;
+            double real = (ar + ai * ratio) / denominator;
+            result[1] = (ai - ar * ratio) / denominator;
+            result[0] = real;
+        } else {
+            double ratio = br / bi;
+            double denominator = br * ratio + bi;
+            double real = (ar * ratio + ai) / denominator;
+            result[1] = (ai * ratio - ar) / denominator;
+            result[0] = real;
+        }
+    }
+
+    /**
+     * Racine carrée principale (partie réelle positive).
+     */
+    public static void sqrt(double re, double im, double[] result) {
+        if (re == 0 && im == 0) {
+            result[0] = 0;
+            result[1] = 0;
+            return;
+        }
+        // Formule sans annulation : t = √((|re| + |z|) / 2)
+        double t = Math.sqrt((Math.abs(re) + Math.hypot(re, im)) / 2);
+        if (re >= 0) {
+            result[0] = t;
+            result[1] = im / (2 * t);
+        } else {
+            result[0] = Math.abs(im) / (2 * t);
+            result[1] = Math.copySign(t, im);
+        }
+    }
+
+    /**
+     * Logarithme principal : ln|z| + i arg(z), avec arg(z) dans ]-π, π].
+     * Le nombre doit être non nul.
+     */
+    public static void ln(double re, double im, double[] result) {
+        double real = Math.log(Math.hypot(re, im));
+        result[1] = Math.atan2(im, re);
+        result[0] = real;
+    }
+
+    /**
+     * Exponentielle : e^re (cos im + i sin im).
+     */
+    public static void exp(double re, double im, double[] result) {
+        double modulus = Math.exp(re);
+        if (im == 0) {
+            result[0] = modulus;
+            result[1] = 0;
+            return;
+        }
+        result[0] = modulus * Math.cos(im);
+        result[1] = modulus * Math.sin(im);
+    }
+
+    /**
+     * Sinus d'un angle complexe en radians : sin a cosh b + i cos a sinh b.
+     */
+    public static void sin(double re, double im, double[] result) {
+        double real = Math.sin(re) * Math.cosh(im);
+        result[1] = Math.cos(re) * Math.sinh(im);
+        result[0] = real;
+    }
+
+    /**
+     * Cosinus d'un angle complexe en radians : cos a cosh b - i sin a sinh b.
+     */
+    public static void cos(double re, double im, double[] result) {
+        double real = Math.cos(re) * Math.cosh(im);
+        result[1] = -Math.sin(re) * Math.sinh(im);
+        result[0] = real;
+    }
+
+    /**
+     * Tangente d'un angle complexe en radians, sin z / cos z.
+     */
+    public static void tan(double re, double im, double[] result) {
+        double cosRe = Math.cos(re) * Math.cosh(im);
+        double cosIm = -Math.sin(re) * Math.sinh(im);
+        sin(re, im, result);
+        divide(result[0], result[1], cosRe, cosIm, result);
+    }
+
+    /**
+     * Puissance principale a^b = exp(b ln a). Les exposants entiers sont calculés par
+     * exponentiation rapide, ce qui donne exactement i² = -1.
+     * La base doit être non nulle.
+     */
+    public static void pow(double ar, double ai, double br, double bi, double[] result) {
+        if (bi == 0 && br == Math.rint(br) && Math.abs(br) <= MAX_INTEGER_EXPONENT) {
+            int exponent = (int) Math.abs(br);
+            double baseRe = ar;
+            double baseIm = ai;
+            double re = 1;
+            double im = 0;
+            while (exponent != 0) {
+                if ((exponent & 1) != 0) {
+                    double real = re * baseRe - im * baseIm;
+                    im = re * baseIm + im * baseRe;
+                    re = real;
+                }
+                exponent >>= 1;
+                if (exponent != 0) {
+                    double real = baseRe * baseRe - baseIm * baseIm;
+                    baseIm = 2 * baseRe * baseIm;
+                    baseRe = real;
+                }
+            }
+            if (br < 0) {
+                divide(1, 0, re, im, result);
+            } else {
+                result[0] = re;
+                result[1] = im;
+            }
+            return;
+        }
+        ln(ar, ai, result);
+        multiply(result[0], result[1], br, bi, result);
+        exp(result[0], result[1], result);
+    }
+}
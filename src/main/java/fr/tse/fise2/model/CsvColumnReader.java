@@ -0,0 +1,443 @@
+package fr.tse.fise2.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lecture d'une colonne numérique d'un fichier CSV, en une passe et en mémoire constante,
+ * vers des {@link StreamingStatistics}.
+ * <p>
+ * Le fichier est découpé en morceaux d'octets traités en parallèle par le
+ * {@link ForkJoinPool} commun ; chaque morceau est lu par blocs de 1 Mio (lectures
+ * positionnelles d'un même {@link FileChannel}), sans créer de chaîne par ligne, puis
+ * les statistiques des morceaux sont fusionnées. Une ligne appartient au morceau qui
+ * contient son premier octet. Le séparateur (virgule, point-virgule ou tabulation) est
+ * celui qui apparaît le plus dans la première ligne ; avec un autre séparateur que la
+ * virgule, la virgule décimale est acceptée. Les champs entre guillemets sont reconnus,
+ * mais ne doivent pas contenir de saut de ligne. Les cellules vides ou non numériques
+ * sont ignorées et comptées.
+ */
+public final class CsvColumnReader {
+    // Taille d'un morceau traité par une seule tâche
+    static final long CHUNK_SIZE = 16L << 20;
+    private static final int BUFFER_SIZE = 1 << 20;
+    // Puissances de 10 représentées exactement par un double
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    private CsvColumnReader() {
+    }
+
+    /**
+     * Calcule les statistiques d'une colonne d'un fichier CSV.
+     *
+     * @param file Le fichier.
+     * @param column Le nom de la colonne dans la ligne d'en-tête, ou son numéro (à partir de 1).
+     *        Avec un numéro, la première ligne n'est considérée comme un en-tête que si
+     *        la cellule de cette colonne n'est pas un nombre.
+     * @return Les statistiques de la colonne.
+     * @throws IOException Si le fichier ne peut être lu.
+     * @throws CalculatorException Si la colonne est introuvable.
+     */
+    public static StreamingStatistics read(Path file, String column) throws IOException, CalculatorException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            byte[] firstLine = readFirstLine(channel);
+            // Marque d'ordre des octets UTF-8 éventuelle
+            int bom = firstLine.length >= 3 && firstLine[0] == (byte) 0xEF
+                && firstLine[1] == (byte) 0xBB && firstLine[2] == (byte) 0xBF ? 3 : 0;
+            byte separator = detectSeparator(firstLine);
+            List<String> headers = splitLine(firstLine, bom, separator);
+
+            // Un nom de colonne qui est un nombre désigne une colonne par son numéro
+            int index = headers.indexOf(column.trim());
+            boolean header = index >= 0 && Double.isNaN(parseNumber(headers.get(index), separator));
+            if (!header) {
+                try {
+                    index = Integer.parseInt(column.trim()) - 1;
+                } catch (NumberFormatException e) {
+                    index = -1;
+                }
+                if (index < 0 || index >= headers.size()) {
+                    throw new CalculatorException("La colonne " + column + " est introuvable.");
+                }
+                header = Double.isNaN(parseNumber(headers.get(index), separator));
+            }
+
+            long dataStart = header ? Math.min(size, firstLine.length + 1) : bom;
+            try {
+                return ForkJoinPool.commonPool().invoke(
+                    new ChunkTask(channel, separator, index, dataStart, dataStart, size));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Lit la première ligne du fichier, sans son « \n » final.
+     */
+    private static byte[] readFirstLine(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long position = 0;
+        while (true) {
+            int read = channel.read(buffer, position);
+            byte[] bytes = buffer.array();
+            for (int i = (int) position; i < buffer.position(); i++) {
+                if (bytes[i] == '\n') {
+                    return Arrays.copyOf(bytes, i);
+                }
+            }
+            if (read < 0) {
+                return Arrays.copyOf(bytes, buffer.position());
+            }
+            position = buffer.position();
+            if (!buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(2 * buffer.capacity());
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+    }
+
+    /**
+     * Choisit le séparateur le plus fréquent de la première ligne, hors guillemets.
+     */
+    private static byte detectSeparator(byte[] line) {
+        int commas = 0;
+        int semicolons = 0;
+        int tabs = 0;
+        boolean quoted = false;
+        for (byte b : line) {
+            if (b == '"') {
+                quoted = !quoted;
+            } else if (!quoted) {
+                if (b == ',') {
+                    commas++;
+                } else if (b == ';') {
+                    semicolons++;
+                } else if (b == '\t') {
+                    tabs++;
+                }
+            }
+        }
+        if (semicolons > commas && semicolons >= tabs) {
+            return ';';
+        }
+        return tabs > commas ? (byte) '\t' : (byte) ',';
+    }
+
+    /**
+     * Découpe une ligne en cellules, sans leurs guillemets ni leurs espaces de bord.
+     */
+    private static List<String> splitLine(byte[] line, int start, byte separator) {
+        int length = line.length > start && line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+        List<String> cells = new ArrayList<>();
+        while (true) {
+            int end = fieldEnd(line, start, length, separator);
+            int contentStart = contentStart(line, start, end);
+            int contentEnd = contentEnd(line, contentStart, end);
+            cells.add(new String(line, contentStart, contentEnd - contentStart, StandardCharsets.UTF_8));
+            if (end >= length) {
+                return cells;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Retourne la position du séparateur qui termine la cellule commençant en start
+     * (ou to s'il n'y en a pas), en sautant une cellule entre guillemets.
+     */
+    private static int fieldEnd(byte[] bytes, int start, int to, byte separator) {
+        int i = start;
+        while (i < to && bytes[i] == ' ') {
+            i++;
+        }
+        if (i < to && bytes[i] == '"') {
+            i++;
+            while (i < to) {
+                if (bytes[i] == '"') {
+                    if (i + 1 < to && bytes[i + 1] == '"') {
+                        i += 2;
+                        continue;
+                    }
+                    i++;
+                    break;
+                }
+                i++;
+            }
+        }
+        while (i < to && bytes[i] != separator) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Retourne le début du contenu d'une cellule [start, end[, après les espaces de bord
+     * et un guillemet ouvrant.
+     */
+    private static int contentStart(byte[] bytes, int start, int end) {
+        while (start < end && bytes[start] == ' ') {
+            start++;
+        }
+        return start < end && bytes[start] == '"' ? start + 1 : start;
+    }
+
+    /**
+     * Retourne la fin du contenu d'une cellule dont le contenu commence en contentStart,
+     * avant les espaces de bord et un guillemet fermant.
+     */
+    private static int contentEnd(byte[] bytes, int contentStart, int end) {
+        while (end > contentStart && bytes[end - 1] == ' ') {
+            end--;
+        }
+        boolean quoted = contentStart > 0 && bytes[contentStart - 1] == '"';
+        return quoted && end > contentStart && bytes[end - 1] == '"' ? end - 1 : end;
+    }
+
+    private static double parseNumber(String text, byte separator) {
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        return parseNumber(bytes, 0, bytes.length, separator);
+    }
+
+    /**
+     * Convertit une cellule en double, sans allocation dans le cas courant : au plus
+     * 18 chiffres significatifs et une mantisse inférieure à 2^53, multipliée ou divisée
+     * par une puissance de 10 exacte, ce qui donne le double correctement arrondi.
+     * Les autres écritures passent par {@link Double#parseDouble(String)}.
+     *
+     * @return La valeur, ou NaN si la cellule n'est pas un nombre.
+     */
+    static double parseNumber(byte[] bytes, int from, int to, byte separator) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean point = false;
+        for (; i < to; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                anyDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    // Zéro non significatif
+                    if (point) {
+                        exponent--;
+                    }
+                    continue;
+                }
+                if (digits == 18) {
+                    return parseSlow(bytes, from, to, separator);
+                }
+                mantissa = 10 * mantissa + (b - '0');
+                digits++;
+                if (point) {
+                    exponent--;
+                }
+            } else if ((b == '.' || (b == ',' && separator != ',')) && !point) {
+                point = true;
+            } else if (b == 'e' || b == 'E') {
+                break;
+            } else {
+                return parseSlow(bytes, from, to, separator);
+            }
+        }
+        if (!anyDigit) {
+            return parseSlow(bytes, from, to, separator);
+        }
+        if (i < to) {
+            // Exposant
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            if (i == to || to - i > 4) {
+                return parseSlow(bytes, from, to, separator);
+            }
+            int value = 0;
+            for (; i < to; i++) {
+                if (bytes[i] < '0' || bytes[i] > '9') {
+                    return Double.NaN;
+                }
+                value = 10 * value + (bytes[i] - '0');
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (mantissa >= 1L << 53 || exponent < -22 || exponent > 22) {
+            return parseSlow(bytes, from, to, separator);
+        }
+        double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        return negative ? -value : value;
+    }
+
+    private static double parseSlow(byte[] bytes, int from, int to, byte separator) {
+        String text = new String(bytes, from, to - from, StandardCharsets.ISO_8859_1).trim();
+        if (separator != ',') {
+            text = text.replace(',', '.');
+        }
+        // Double.parseDouble accepterait aussi « 1d » ou « Infinity »
+        for (int i = 0; i < text.length(); i++) {
+            if ("0123456789.eE+-".indexOf(text.charAt(i)) < 0) {
+                return Double.NaN;
+            }
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Statistiques des lignes dont le premier octet est dans [start, end[, calculées
+     * directement ou en deux moitiés fusionnées.
+     */
+    private static final class ChunkTask extends RecursiveTask<StreamingStatistics> {
+        private final FileChannel channel;
+        private final byte separator;
+        private final int column;
+        private final long dataStart;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, byte separator, int column, long dataStart, long start, long end) {
+            this.channel = channel;
+            this.separator = separator;
+            this.column = column;
+            this.dataStart = dataStart;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected StreamingStatistics compute() {
+            if (end - start <= CHUNK_SIZE) {
+                try {
+                    return readChunk();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            long middle = start + (end - start) / 2;
+            ChunkTask first = new ChunkTask(channel, separator, column, dataStart, start, middle);
+            first.fork();
+            StreamingStatistics statistics = new ChunkTask(channel, separator, column, dataStart, middle, end).compute();
+            StreamingStatistics firstStatistics = first.join();
+            firstStatistics.merge(statistics);
+            return firstStatistics;
+        }
+
+        private StreamingStatistics readChunk() throws IOException {
+            StreamingStatistics statistics = new StreamingStatistics();
+            if (start >= end) {
+                return statistics;
+            }
+            byte[] bytes = new byte[BUFFER_SIZE];
+            // Un octet avant le morceau : s'il ne termine pas une ligne, la première
+            // ligne du morceau appartient au morceau précédent
+            long bufferOffset = start == dataStart ? start : start - 1;
+            boolean skipFirstLine = start != dataStart;
+            int length = 0;
+            int lineStart = 0;
+            boolean endOfFile = false;
+            while (true) {
+                int read = endOfFile ? -1 : channel.read(ByteBuffer.wrap(bytes, length, bytes.length - length), bufferOffset + length);
+                if (read < 0) {
+                    endOfFile = true;
+                } else {
+                    length += read;
+                }
+                int i = lineStart;
+                while (true) {
+                    int newline = indexOf(bytes, i, length, (byte) '\n');
+                    if (newline < 0) {
+                        break;
+                    }
+                    if (skipFirstLine) {
+                        skipFirstLine = false;
+                    } else {
+                        if (bufferOffset + lineStart >= end) {
+                            return statistics;
+                        }
+                        processLine(bytes, lineStart, newline, statistics);
+                    }
+                    lineStart = newline + 1;
+                    i = lineStart;
+                }
+                if (endOfFile) {
+                    if (!skipFirstLine && lineStart < length && bufferOffset + lineStart < end) {
+                        processLine(bytes, lineStart, length, statistics);
+                    }
+                    return statistics;
+                }
+                // Ligne incomplète : ramenée au début du tampon, agrandi si elle le remplit
+                if (lineStart == 0 && length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+                } else {
+                    System.arraycopy(bytes, lineStart, bytes, 0, length - lineStart);
+                    bufferOffset += lineStart;
+                    length -= lineStart;
+                    lineStart = 0;
+                }
+            }
+        }
+
+        private void processLine(byte[] bytes, int from, int to, StreamingStatistics statistics) {
+            if (to > from && bytes[to - 1] == '\r') {
+                to--;
+            }
+            if (to == from) {
+                // Ligne vide, par exemple en fin de fichier
+                return;
+            }
+            int fieldStart = from;
+            for (int field = 0; field < column; field++) {
+                int fieldEnd = fieldEnd(bytes, fieldStart, to, separator);
+                if (fieldEnd >= to) {
+                    statistics.skip();
+                    return;
+                }
+                fieldStart = fieldEnd + 1;
+            }
+            int fieldEnd = fieldEnd(bytes, fieldStart, to, separator);
+            int contentStart = contentStart(bytes, fieldStart, fieldEnd);
+            int contentEnd = contentEnd(bytes, contentStart, fieldEnd);
+            if (contentStart == contentEnd) {
+                statistics.skip();
+                return;
+            }
+            statistics.add(parseNumber(bytes, contentStart, contentEnd, separator));
+        }
+
+        private static int indexOf(byte[] bytes, int from, int to, byte value) {
+            for (int i = from; i < to; i++) {
+                if (bytes[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package fr.tse.fise2.model;
+
+/**
+ * Transporte une {@link CalculatorException} hors des tâches d'un {@code ForkJoinPool},
+ * dont la méthode compute ne peut pas lever d'exception contrôlée. L'appelant de
+ * {@code invoke} la rattrape et relance sa cause.
+ */
+final class EvaluationException extends RuntimeException {
+    EvaluationException(CalculatorException cause) {
+        super(cause);
+    }
+
+    @Override
+    public synchronized CalculatorException getCause() {
+        return (CalculatorException) super.getCause();
+    }
+}
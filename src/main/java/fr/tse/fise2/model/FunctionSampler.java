@@ -0,0 +1,238 @@
+package fr.tse.fise2.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Échantillonnage adaptatif d'une expression compilée y = f(X), pour en tracer le graphe.
+ * <p>
+ * L'intervalle est d'abord découpé en cellules régulières, puis chaque cellule est coupée
+ * en deux tant que son milieu s'écarte de la corde de plus de la tolérance en y (forte
+ * courbure) ou que f n'est définie qu'à une partie de la cellule (bord du domaine). À la
+ * profondeur maximale, une cellule dont le milieu reste près de l'une des extrémités
+ * contient une discontinuité : un point NaN y coupe le tracé. Les cellules sont réparties entre les threads du
+ * {@link ForkJoinPool} commun, chacun évaluant f avec son propre
+ * {@link CompiledExpression.Evaluator}.
+ * <p>
+ * Les abscisses sont des multiples d'une puissance de deux, et les milieux des cellules
+ * en sont aussi : après un déplacement ou un zoom, la plupart des abscisses ont déjà été
+ * évaluées, et leurs valeurs sont lues dans un cache partagé par les échantillonnages.
+ */
+public final class FunctionSampler {
+    // Nombre minimal de cellules régulières sur l'intervalle
+    private static final int BASE_CELLS = 256;
+    // Nombre de cellules régulières échantillonnées par une tâche
+    private static final int CELLS_PER_TASK = 16;
+    // Nombre maximal de découpes d'une cellule
+    private static final int MAX_DEPTH = 12;
+    // Au-delà de ce nombre de valeurs, le cache est vidé
+    private static final int MAX_CACHED_VALUES = 1 << 18;
+
+    private final CompiledExpression f;
+    private final ThreadLocal<CompiledExpression.Evaluator> evaluators;
+    // Valeurs déjà calculées, NaN là où f n'est pas définie
+    private final Map<Double, Double> cache = new ConcurrentHashMap<>();
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Crée un échantillonneur de l'expression.
+     *
+     * @param f L'expression compilée, d'inconnue X.
+     */
+    public FunctionSampler(CompiledExpression f) {
+        this.f = f;
+        this.evaluators = ThreadLocal.withInitial(f::evaluator);
+    }
+
+    /**
+     * Échantillonne f sur [xMin, xMax].
+     *
+     * @param xMin Le début de l'intervalle.
+     * @param xMax La fin de l'intervalle.
+     * @param yTolerance L'écart maximal en y entre la courbe et ses cordes, en général un
+     *        demi-pixel.
+     * @return Les points, par abscisses croissantes, y compris un peu au-delà des bornes ;
+     *         y vaut NaN là où f n'est pas définie et aux discontinuités.
+     * @throws IllegalArgumentException Si l'intervalle est vide ou infini, ou si la tolérance
+     *         n'est pas strictement positive.
+     */
+    public Samples sample(double xMin, double xMax, double yTolerance) {
+        if (!(xMin < xMax) || !Double.isFinite(xMax - xMin) || !(yTolerance > 0)) {
+            throw new IllegalArgumentException("Intervalle ou tolérance invalide");
+        }
+        if (cache.size() > MAX_CACHED_VALUES) {
+            cache.clear();
+        }
+        double step = Math.scalb(1.0, Math.getExponent((xMax - xMin) / BASE_CELLS));
+        long first = (long) Math.floor(xMin / step);
+        long last = (long) Math.ceil(xMax / step);
+        Samples samples = ForkJoinPool.commonPool().invoke(new SampleTask(step, first, last, yTolerance));
+        double x = last * step;
+        samples.add(x, value(x));
+        return samples;
+    }
+
+    /**
+     * Retourne le nombre d'évaluations de f depuis la création, hors valeurs lues dans le cache.
+     */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Retourne l'expression échantillonnée.
+     */
+    public CompiledExpression getExpression() {
+        return f;
+    }
+
+    /**
+     * Retourne f(x), lue dans le cache si possible, ou NaN si f n'y est pas définie.
+     */
+    private double value(double x) {
+        Double cached = cache.get(x);
+        if (cached != null) {
+            return cached;
+        }
+        double y;
+        try {
+            y = evaluators.get().evaluate(x);
+        } catch (CalculatorException e) {
+            y = Double.NaN;
+        }
+        if (!Double.isFinite(y)) {
+            y = Double.NaN;
+        }
+        evaluations.increment();
+        cache.put(x, y);
+        return y;
+    }
+
+    /**
+     * Ajoute les points intérieurs de la cellule [x0, x1], découpée tant que nécessaire.
+     */
+    private void refine(double x0, double y0, double x1, double y1, double yTolerance, int depth, Samples out) {
+        double xm = (x0 + x1) / 2;
+        double ym = value(xm);
+        boolean defined0 = !Double.isNaN(y0);
+        boolean definedM = !Double.isNaN(ym);
+        boolean defined1 = !Double.isNaN(y1);
+        boolean smooth;
+        if (defined0 && definedM && defined1) {
+            smooth = Math.abs(ym - (y0 + y1) / 2) <= yTolerance;
+        } else {
+            // Entièrement définie ou entièrement hors du domaine
+            smooth = defined0 == definedM && definedM == defined1;
+        }
+        if (smooth) {
+            out.add(xm, ym);
+            return;
+        }
+        if (depth == MAX_DEPTH) {
+            // Une pente forte mais continue laisse le milieu près de la corde ; à un saut,
+            // le milieu reste près de l'une des deux extrémités
+            boolean jump = defined0 && definedM && defined1 && Math.abs(ym - (y0 + y1) / 2) > Math.abs(y1 - y0) / 4;
+            out.add(xm, jump ? Double.NaN : ym);
+            return;
+        }
+        refine(x0, y0, xm, ym, yTolerance, depth + 1, out);
+        out.add(xm, ym);
+        refine(xm, ym, x1, y1, yTolerance, depth + 1, out);
+    }
+
+    /**
+     * Points d'un échantillonnage, par abscisses croissantes.
+     */
+    public static final class Samples {
+        private double[] xs = new double[64];
+        private double[] ys = new double[64];
+        private int size;
+
+        Samples() {
+        }
+
+        void add(double x, double y) {
+            if (size == xs.length) {
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.xs[i], other.ys[i]);
+            }
+        }
+
+        /**
+         * Retourne le nombre de points.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Retourne l'abscisse du point i.
+         */
+        public double getX(int i) {
+            return xs[i];
+        }
+
+        /**
+         * Retourne l'ordonnée du point i, NaN si le tracé y est interrompu.
+         */
+        public double getY(int i) {
+            return ys[i];
+        }
+    }
+
+    /**
+     * Échantillonnage des cellules régulières d'indices first à last (exclu), découpé en
+     * deux tant qu'il en compte plus de CELLS_PER_TASK. Le point de fin n'est pas ajouté.
+     */
+    private final class SampleTask extends RecursiveTask<Samples> {
+        private final double step;
+        private final long first;
+        private final long last;
+        private final double yTolerance;
+
+        SampleTask(double step, long first, long last, double yTolerance) {
+            this.step = step;
+            this.first = first;
+            this.last = last;
+            this.yTolerance = yTolerance;
+        }
+
+        @Override
+        protected Samples compute() {
+            if (last - first > CELLS_PER_TASK) {
+                long middle = first + (last - first) / 2;
+                SampleTask left = new SampleTask(step, first, middle, yTolerance);
+                left.fork();
+                Samples right = new SampleTask(step, middle, last, yTolerance).compute();
+                Samples result = left.join();
+                result.addAll(right);
+                return result;
+            }
+            Samples result = new Samples();
+            double x0 = first * step;
+            double y0 = value(x0);
+            for (long cell = first; cell < last; cell++) {
+                double x1 = (cell + 1) * step;
+                double y1 = value(x1);
+                result.add(x0, y0);
+                refine(x0, y0, x1, y1, yTolerance, 0, result);
+                x0 = x1;
+                y0 = y1;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package fr.tse.fise2.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Intégration numérique adaptative d'une expression compilée ({@link CompiledExpression}).
+ * <p>
+ * Chaque intervalle est intégré par la règle de Gauss–Kronrod à 15 points, qui contient
+ * la règle de Gauss à 7 points : l'écart entre les deux estime l'erreur, comme dans QUADPACK.
+ * Un intervalle dont l'erreur dépasse sa part de la tolérance, proportionnelle à sa longueur,
+ * est coupé en deux moitiés traitées comme des tâches du {@link ForkJoinPool} commun : les
+ * threads inoccupés volent les moitiés en attente, ce qui répartit le travail même quand
+ * seule une petite zone (un pic, une singularité) demande beaucoup de découpes. Chaque
+ * thread évalue l'expression avec son propre {@link CompiledExpression.Evaluator}.
+ */
+public final class Integrator {
+    /** Tolérance absolue utilisée quand aucune n'est donnée. */
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+
+    private static final double EPSILON = Math.ulp(1.0);
+    // Profondeur maximale de découpe d'un intervalle
+    private static final int MAX_DEPTH = 50;
+    // Nombre maximal d'intervalles intégrés par un calcul
+    private static final int MAX_INTERVALS = 1 << 18;
+
+    // Abscisses de Kronrod sur [-1, 1] (positives) ; les indices impairs sont celles de Gauss
+    private static final double[] KRONROD_NODES = {
+        0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245, 0.0
+    };
+    private static final double[] KRONROD_WEIGHTS = {
+        0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] GAUSS_WEIGHTS = {
+        0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    private Integrator() {
+    }
+
+    /**
+     * Calcule l'intégrale de f entre a et b à la tolérance absolue donnée.
+     *
+     * @param f L'expression compilée, d'inconnue X.
+     * @param a La borne inférieure.
+     * @param b La borne supérieure ; si b &lt; a, l'intégrale change de signe.
+     * @param tolerance La tolérance absolue visée sur le résultat.
+     * @return L'intégrale, son erreur estimée et le nombre d'évaluations de f.
+     * @throws CalculatorException Si une borne n'est pas finie, si la tolérance n'est pas
+     *         strictement positive ou si f n'est pas définie sur l'intervalle.
+     */
+    public static Integral integrate(CompiledExpression f, double a, double b, double tolerance)
+            throws CalculatorException {
+        if (!Double.isFinite(a) || !Double.isFinite(b)) {
+            throw new CalculatorException("Les bornes de l'intégrale doivent être finies.");
+        }
+        if (!(tolerance > 0)) {
+            throw new CalculatorException("La tolérance doit être strictement positive.");
+        }
+        if (a == b) {
+            return new Integral(0, 0, 0);
+        }
+        ThreadLocal<CompiledExpression.Evaluator> evaluators = ThreadLocal.withInitial(f::evaluator);
+        IntervalTask task = new IntervalTask(evaluators, new AtomicInteger(), a, b, tolerance, 0);
+        try {
+            return ForkJoinPool.commonPool().invoke(task);
+        } catch (EvaluationException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Résultat d'une intégration : valeur, erreur absolue estimée et nombre d'évaluations.
+     */
+    public static final class Integral {
+        private final double value;
+        private final double errorEstimate;
+        private final long evaluations;
+
+        Integral(double value, double errorEstimate, long evaluations) {
+            this.value = value;
+            this.errorEstimate = errorEstimate;
+            this.evaluations = evaluations;
+        }
+
+        /**
+         * Retourne la valeur de l'intégrale.
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Retourne l'erreur absolue estimée, somme des estimations de chaque intervalle.
+         */
+        public double getErrorEstimate() {
+            return errorEstimate;
+        }
+
+        /**
+         * Retourne le nombre d'évaluations de l'expression.
+         */
+        public long getEvaluations() {
+            return evaluations;
+        }
+    }
+
+    /**
+     * Intégration d'un intervalle : la règle de Gauss–Kronrod est appliquée, puis, si
+     * l'erreur est trop grande, l'intervalle est coupé en deux tâches, l'une confiée
+     * au pool et l'autre calculée sur place.
+     */
+    private static final class IntervalTask extends RecursiveTask<Integral> {
+        private final ThreadLocal<CompiledExpression.Evaluator> evaluators;
+        private final AtomicInteger intervals;
+        private final double a;
+        private final double b;
+        private final double tolerance;
+        private final int depth;
+
+        IntervalTask(ThreadLocal<CompiledExpression.Evaluator> evaluators, AtomicInteger intervals,
+                double a, double b, double tolerance, int depth) {
+            this.evaluators = evaluators;
+            this.intervals = intervals;
+            this.a = a;
+            this.b = b;
+            this.tolerance = tolerance;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Integral compute() {
+            CompiledExpression.Evaluator f = evaluators.get();
+            double center = (a + b) / 2;
+            double halfLength = (b - a) / 2;
+            double fCenter = value(f, center);
+            double gauss = fCenter * GAUSS_WEIGHTS[3];
+            double kronrod = fCenter * KRONROD_WEIGHTS[7];
+            double absolute = Math.abs(kronrod);
+            double[] left = new double[7];
+            double[] right = new double[7];
+            for (int j = 0; j < 7; j++) {
+                double dx = halfLength * KRONROD_NODES[j];
+                left[j] = value(f, center - dx);
+                right[j] = value(f, center + dx);
+                double sum = left[j] + right[j];
+                kronrod += KRONROD_WEIGHTS[j] * sum;
+                absolute += KRONROD_WEIGHTS[j] * (Math.abs(left[j]) + Math.abs(right[j]));
+                if (j % 2 == 1) {
+                    gauss += GAUSS_WEIGHTS[j / 2] * sum;
+                }
+            }
+            // Écart à la moyenne de f, qui règle l'estimation de l'erreur (QUADPACK)
+            double mean = kronrod / 2;
+            double spread = KRONROD_WEIGHTS[7] * Math.abs(fCenter - mean);
+            for (int j = 0; j < 7; j++) {
+                spread += KRONROD_WEIGHTS[j] * (Math.abs(left[j] - mean) + Math.abs(right[j] - mean));
+            }
+            double length = Math.abs(halfLength);
+            absolute *= length;
+            spread *= length;
+            double error = Math.abs((kronrod - gauss) * halfLength);
+            if (spread != 0 && error != 0) {
+                error = spread * Math.min(1, Math.pow(200 * error / spread, 1.5));
+            }
+            double roundoff = 50 * EPSILON * absolute;
+            error = Math.max(error, roundoff);
+
+            // Arrêt : tolérance atteinte, erreur due aux arrondis, intervalle indivisible ou budget épuisé
+            if (error <= tolerance || error <= 2 * roundoff || depth == MAX_DEPTH
+                    || length <= 100 * EPSILON * Math.abs(center) || intervals.incrementAndGet() > MAX_INTERVALS) {
+                return new Integral(kronrod * halfLength, error, 15);
+            }
+            IntervalTask first = new IntervalTask(evaluators, intervals, a, center, tolerance / 2, depth + 1);
+            IntervalTask second = new IntervalTask(evaluators, intervals, center, b, tolerance / 2, depth + 1);
+            first.fork();
+            Integral secondResult = second.compute();
+            Integral firstResult = first.join();
+            return new Integral(firstResult.value + secondResult.value,
+                firstResult.errorEstimate + secondResult.errorEstimate,
+                firstResult.evaluations + secondResult.evaluations + 15);
+        }
+
+        /**
+         * Évalue f en x ; une erreur de calcul ou une valeur infinie interrompt l'intégration.
+         */
+        private static double value(CompiledExpression.Evaluator f, double x) {
+            double y;
+            try {
+                y = f.evaluate(x);
+            } catch (CalculatorException e) {
+                throw new EvaluationException(e);
+            }
+            if (!Double.isFinite(y)) {
+                throw new EvaluationException(new CalculatorException(
+                    "L'expression n'est pas définie pour X = " + ResultFormatter.format(x) + "."));
+            }
+            return y;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package fr.tse.fise2.model;
+
+/**
+ * Décomposition LU avec pivot partiel d'une matrice carrée : P × A = L × U.
+ * <p>
+ * L (triangulaire inférieure à diagonale unité) et U (triangulaire supérieure) sont rangés
+ * dans un seul tableau. La décomposition procède par panneaux de {@link Matrix#BLOCK}
+ * colonnes : chaque panneau est factorisé colonne par colonne, puis le reste de la matrice
+ * est mis à jour en un seul produit par blocs, parallélisé pour les grandes matrices
+ * ({@link Matrix#multiplyAdd}). La résolution de A × X = B procède elle aussi par blocs de
+ * lignes, de sorte que l'essentiel des calculs passe par ce produit.
+ */
+public final class LuDecomposition {
+    private final int n;
+    private final double[] lu;
+    // Ligne de A d'où provient chaque ligne de L × U
+    private final int[] pivots;
+    private final boolean oddPermutation;
+    private final boolean singular;
+
+    private LuDecomposition(int n, double[] lu, int[] pivots, boolean oddPermutation, boolean singular) {
+        this.n = n;
+        this.lu = lu;
+        this.pivots = pivots;
+        this.oddPermutation = oddPermutation;
+        this.singular = singular;
+    }
+
+    /**
+     * Décompose une matrice carrée. Une matrice singulière est décomposée elle aussi : son
+     * déterminant est nul mais le système ne peut être résolu. Elle est reconnue à un pivot
+     * négligeable devant ses coefficients, |pivot| ≤ n × ulp(1) × max|a_ij|, et non
+     * seulement à un pivot exactement nul, que les erreurs d'arrondi n'en laissent presque
+     * jamais ([1,2,3;4,5,6;7,8,9] laisse un pivot de l'ordre de 10^-16).
+     *
+     * @param matrix La matrice à décomposer.
+     * @return La décomposition.
+     * @throws IllegalArgumentException Si la matrice n'est pas carrée.
+     */
+    public static LuDecomposition of(Matrix matrix) {
+        if (!matrix.isSquare()) {
+            throw new IllegalArgumentException("Matrice non carrée");
+        }
+        int n = matrix.getRows();
+        double[] a = matrix.toArray();
+        int[] pivots = new int[n];
+        for (int i = 0; i < n; i++) {
+            pivots[i] = i;
+        }
+        boolean odd = false;
+        boolean singular = false;
+        double largest = 0;
+        for (double value : a) {
+            largest = Math.max(largest, Math.abs(value));
+        }
+        double threshold = n * Math.ulp(1.0) * largest;
+
+        for (int k0 = 0; k0 < n; k0 += Matrix.BLOCK) {
+            int k1 = Math.min(k0 + Matrix.BLOCK, n);
+
+            // Factorisation du panneau [k0, k1[ : pivot partiel, échange de lignes entières
+            for (int k = k0; k < k1; k++) {
+                int pivot = k;
+                double max = Math.abs(a[k * n + k]);
+                for (int i = k + 1; i < n; i++) {
+                    double candidate = Math.abs(a[i * n + k]);
+                    if (candidate > max) {
+                        max = candidate;
+                        pivot = i;
+                    }
+                }
+                if (max <= threshold) {
+                    // Colonne nulle sous la diagonale, aux erreurs d'arrondi près : rien à éliminer
+                    singular = true;
+                    for (int i = k + 1; i < n; i++) {
+                        a[i * n + k] = 0;
+                    }
+                    continue;
+                }
+                if (pivot != k) {
+                    swapRows(a, n, pivot, k);
+                    int row = pivots[pivot];
+                    pivots[pivot] = pivots[k];
+                    pivots[k] = row;
+                    odd = !odd;
+                }
+                double diagonal = a[k * n + k];
+                for (int i = k + 1; i < n; i++) {
+                    double factor = a[i * n + k] / diagonal;
+                    a[i * n + k] = factor;
+                    for (int j = k + 1; j < k1; j++) {
+                        a[i * n + j] -= factor * a[k * n + j];
+                    }
+                }
+            }
+            if (k1 == n) {
+                break;
+            }
+
+            // U12 = L11⁻¹ × A12 : substitution dans les lignes du panneau
+            for (int k = k0; k < k1; k++) {
+                for (int i = k + 1; i < k1; i++) {
+                    double factor = a[i * n + k];
+                    for (int j = k1; j < n; j++) {
+                        a[i * n + j] -= factor * a[k * n + j];
+                    }
+                }
+            }
+
+            // A22 -= L21 × U12 : produit par blocs, parallèle
+            Matrix.multiplyAdd(a, k1 * n + k0, n, a, k0 * n + k1, n, a, k1 * n + k1, n,
+                n - k1, k1 - k0, n - k1, -1);
+        }
+        return new LuDecomposition(n, a, pivots, odd, singular);
+    }
+
+    /**
+     * Indique si la matrice est singulière (un pivot négligeable devant ses coefficients).
+     */
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * Retourne le déterminant : produit des pivots, au signe de la permutation près, ou 0
+     * si la matrice est singulière. Il peut être infini si le produit dépasse la capacité
+     * d'un double.
+     */
+    public double determinant() {
+        if (singular) {
+            return 0;
+        }
+        double determinant = oddPermutation ? -1 : 1;
+        for (int i = 0; i < n; i++) {
+            determinant *= lu[i * n + i];
+        }
+        return determinant;
+    }
+
+    /**
+     * Résout A × X = B.
+     *
+     * @param b Le second membre, avec autant de lignes que A.
+     * @return La solution X, de mêmes dimensions que B.
+     * @throws IllegalArgumentException Si B n'a pas autant de lignes que A.
+     * @throws ArithmeticException Si A est singulière.
+     */
+    public Matrix solve(Matrix b) {
+        if (b.getRows() != n) {
+            throw new IllegalArgumentException("Second membre incompatible");
+        }
+        if (singular) {
+            throw new ArithmeticException("Matrice singulière");
+        }
+        int m = b.getColumns();
+        double[] source = b.data();
+        double[] x = new double[source.length];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(source, pivots[i] * m, x, i * m, m);
+        }
+
+        // L × Y = P × B, par blocs de lignes descendants
+        for (int i0 = 0; i0 < n; i0 += Matrix.BLOCK) {
+            int i1 = Math.min(i0 + Matrix.BLOCK, n);
+            Matrix.multiplyAdd(lu, i0 * n, n, x, 0, m, x, i0 * m, m, i1 - i0, i0, m, -1);
+            for (int i = i0; i < i1; i++) {
+                for (int k = i0; k < i; k++) {
+                    subtractRow(x, m, i, k, lu[i * n + k]);
+                }
+            }
+        }
+
+        // U × X = Y, par blocs de lignes montants
+        for (int i1 = n; i1 > 0; i1 -= Matrix.BLOCK) {
+            int i0 = Math.max(0, i1 - Matrix.BLOCK);
+            Matrix.multiplyAdd(lu, i0 * n + i1, n, x, i1 * m, m, x, i0 * m, m, i1 - i0, n - i1, m, -1);
+            for (int i = i1 - 1; i >= i0; i--) {
+                for (int k = i + 1; k < i1; k++) {
+                    subtractRow(x, m, i, k, lu[i * n + k]);
+                }
+                double diagonal = lu[i * n + i];
+                for (int j = i * m; j < (i + 1) * m; j++) {
+                    x[j] /= diagonal;
+                }
+            }
+        }
+        return Matrix.wrap(n, m, x);
+    }
+
+    /**
+     * Retourne l'inverse de la matrice, solution de A × X = I.
+     *
+     * @throws ArithmeticException Si la matrice est singulière.
+     */
+    public Matrix inverse() {
+        return solve(Matrix.identity(n));
+    }
+
+    /**
+     * Retranche factor × ligne k à la ligne i d'un tableau de m colonnes.
+     */
+    private static void subtractRow(double[] x, int m, int i, int k, double factor) {
+        int target = i * m;
+        int source = k * m;
+        for (int j = 0; j < m; j++) {
+            x[target + j] -= factor * x[source + j];
+        }
+    }
+
+    private static void swapRows(double[] a, int n, int first, int second) {
+        int p = first * n;
+        int q = second * n;
+        for (int j = 0; j < n; j++) {
+            double value = a[p + j];
+            a[p + j] = a[q + j];
+            a[q + j] = value;
+        }
+    }
+}
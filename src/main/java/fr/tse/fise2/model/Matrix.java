@@ -0,0 +1,434 @@
+package fr.tse.fise2.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Matrice de double, pour le mode {@link NumberMode#MATRIX}.
+ * <p>
+ * Les coefficients sont rangés ligne par ligne dans un unique tableau : le coefficient
+ * (i, j) est à l'indice i × colonnes + j. Une matrice n'est jamais modifiée après sa
+ * création, ce qui permet de la partager entre les points de reprise du {@link Calculator}.
+ * Le produit est calculé par blocs de {@value #BLOCK} × {@value #BLOCK} coefficients, qui
+ * restent dans le cache pendant leur réutilisation, et réparti sur les cœurs (fork/join)
+ * au-delà de {@value #PARALLEL_THRESHOLD} multiplications. La décomposition LU
+ * ({@link LuDecomposition}) utilise le même noyau.
+ */
+public final class Matrix {
+    // Côté des blocs : trois blocs de 64 x 64 double (96 Ko) tiennent dans le cache L2
+    static final int BLOCK = 64;
+    // Nombre de multiplications-additions à partir duquel un produit est parallélisé (128³)
+    static final long PARALLEL_THRESHOLD = 1L << 21;
+
+    private final int rows;
+    private final int columns;
+    private final double[] data;
+
+    private Matrix(double[] data, int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.data = data;
+    }
+
+    /**
+     * Crée une matrice à partir de ses coefficients, donnés ligne par ligne.
+     *
+     * @param rows Le nombre de lignes, strictement positif.
+     * @param columns Le nombre de colonnes, strictement positif.
+     * @param values Les rows × columns coefficients, copiés.
+     * @throws IllegalArgumentException Si les dimensions ne correspondent pas aux coefficients.
+     */
+    public Matrix(int rows, int columns, double... values) {
+        this(values.clone(), rows, columns);
+        if (rows <= 0 || columns <= 0 || (long) rows * columns != values.length) {
+            throw new IllegalArgumentException("Dimensions invalides : " + rows + "x" + columns);
+        }
+    }
+
+    /**
+     * Crée une matrice sur un tableau de coefficients, sans copie : l'appelant ne doit plus le modifier.
+     */
+    static Matrix wrap(int rows, int columns, double[] data) {
+        return new Matrix(data, rows, columns);
+    }
+
+    /**
+     * Retourne la matrice identité de taille n.
+     */
+    public static Matrix identity(int n) {
+        double[] data = new double[size(n, n)];
+        for (int i = 0; i < n; i++) {
+            data[i * n + i] = 1;
+        }
+        return new Matrix(data, n, n);
+    }
+
+    /**
+     * Lit une matrice écrite « [1,2;3,4] » : lignes séparées par des points-virgules,
+     * coefficients séparés par des virgules.
+     *
+     * @param text Le texte de la matrice, crochets compris.
+     * @return La matrice.
+     * @throws NumberFormatException Si le texte n'est pas une matrice valide (message en français,
+     *         qui peut être affiché tel quel).
+     */
+    public static Matrix parse(String text) {
+        int end = text.length() - 1;
+        if (end < 1 || text.charAt(0) != '[' || text.charAt(end) != ']') {
+            throw new NumberFormatException("Matrice invalide : " + text);
+        }
+        // Dimensions d'abord, pour remplir directement le tableau final
+        int rowCount = 1;
+        int separators = 0;
+        for (int i = 1; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ';') {
+                rowCount++;
+            } else if (c == ',') {
+                separators++;
+            }
+        }
+        int columnCount = separators / rowCount + 1;
+        if (separators % rowCount != 0) {
+            throw new NumberFormatException("Les lignes de la matrice n'ont pas toutes la même longueur.");
+        }
+        double[] data = new double[size(rowCount, columnCount)];
+        int index = 0;
+        int column = 0;
+        int start = 1;
+        for (int i = 1; i <= end; i++) {
+            char c = text.charAt(i);
+            if (c != ',' && c != ';' && i != end) {
+                continue;
+            }
+            if (column == columnCount) {
+                throw new NumberFormatException("Les lignes de la matrice n'ont pas toutes la même longueur.");
+            }
+            try {
+                data[index++] = Double.parseDouble(text.substring(start, i));
+            } catch (NumberFormatException e) {
+                throw new NumberFormatException("Coefficient invalide : " + text.substring(start, i));
+            }
+            column++;
+            if (c != ',') {
+                if (column != columnCount) {
+                    throw new NumberFormatException("Les lignes de la matrice n'ont pas toutes la même longueur.");
+                }
+                column = 0;
+            }
+            start = i + 1;
+        }
+        return new Matrix(data, rowCount, columnCount);
+    }
+
+    /**
+     * Retourne le nombre de lignes.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retourne le nombre de colonnes.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Indique si la matrice est carrée.
+     */
+    public boolean isSquare() {
+        return rows == columns;
+    }
+
+    /**
+     * Retourne le coefficient (row, column), indices à partir de 0.
+     */
+    public double get(int row, int column) {
+        return data[row * columns + column];
+    }
+
+    /**
+     * Retourne une copie des coefficients, ligne par ligne.
+     */
+    public double[] toArray() {
+        return data.clone();
+    }
+
+    /**
+     * Retourne les coefficients sans copie, pour les calculs du paquetage.
+     */
+    double[] data() {
+        return data;
+    }
+
+    /**
+     * Additionne deux matrices de mêmes dimensions.
+     *
+     * @throws IllegalArgumentException Si les dimensions diffèrent.
+     */
+    public Matrix add(Matrix other) {
+        checkSameDimensions(other);
+        double[] result = new double[data.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = data[i] + other.data[i];
+        }
+        return new Matrix(result, rows, columns);
+    }
+
+    /**
+     * Soustrait deux matrices de mêmes dimensions.
+     *
+     * @throws IllegalArgumentException Si les dimensions diffèrent.
+     */
+    public Matrix subtract(Matrix other) {
+        checkSameDimensions(other);
+        double[] result = new double[data.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = data[i] - other.data[i];
+        }
+        return new Matrix(result, rows, columns);
+    }
+
+    /**
+     * Multiplie tous les coefficients par un nombre.
+     */
+    public Matrix multiply(double factor) {
+        double[] result = new double[data.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = data[i] * factor;
+        }
+        return new Matrix(result, rows, columns);
+    }
+
+    /**
+     * Produit matriciel, par blocs et en parallèle pour les grandes matrices.
+     *
+     * @throws IllegalArgumentException Si le nombre de colonnes de this diffère du nombre
+     *         de lignes de other.
+     */
+    public Matrix multiply(Matrix other) {
+        if (columns != other.rows) {
+            throw new IllegalArgumentException("Dimensions incompatibles : " + rows + "x" + columns
+                + " et " + other.rows + "x" + other.columns);
+        }
+        double[] result = new double[size(rows, other.columns)];
+        multiplyAdd(data, 0, columns, other.data, 0, other.columns, result, 0, other.columns,
+            rows, columns, other.columns, 1);
+        return new Matrix(result, rows, other.columns);
+    }
+
+    /**
+     * Élève une matrice carrée à une puissance entière positive par exponentiation rapide.
+     *
+     * @throws IllegalArgumentException Si la matrice n'est pas carrée ou l'exposant négatif.
+     */
+    public Matrix pow(long exponent) {
+        if (!isSquare() || exponent < 0) {
+            throw new IllegalArgumentException("Puissance invalide");
+        }
+        Matrix result = identity(rows);
+        Matrix base = this;
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) {
+                result = result.multiply(base);
+            }
+            exponent >>= 1;
+            if (exponent != 0) {
+                base = base.multiply(base);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retourne la transposée, recopiée par blocs pour que lectures et écritures restent en cache.
+     */
+    public Matrix transpose() {
+        double[] result = new double[data.length];
+        for (int i0 = 0; i0 < rows; i0 += BLOCK) {
+            int i1 = Math.min(i0 + BLOCK, rows);
+            for (int j0 = 0; j0 < columns; j0 += BLOCK) {
+                int j1 = Math.min(j0 + BLOCK, columns);
+                for (int i = i0; i < i1; i++) {
+                    for (int j = j0; j < j1; j++) {
+                        result[j * rows + i] = data[i * columns + j];
+                    }
+                }
+            }
+        }
+        return new Matrix(result, columns, rows);
+    }
+
+    /**
+     * Retourne la matrice sous la forme « [1.0,2.0;3.0,4.0] ».
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(data.length * 4 + 2).append('[');
+        for (int i = 0; i < data.length; i++) {
+            if (i > 0) {
+                out.append(i % columns == 0 ? ';' : ',');
+            }
+            out.append(data[i]);
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * Ajoute sign × A × B à C, où A (m × n), B (n × p) et C (m × p) sont des sous-matrices de
+     * tableaux rangés ligne par ligne, données par leur premier indice et leur pas de ligne.
+     * Les trois sous-matrices peuvent appartenir au même tableau si C ne recouvre ni A ni B.
+     * Au-delà de {@link #PARALLEL_THRESHOLD} multiplications, les lignes (ou les colonnes)
+     * de C sont réparties entre les tâches du pool fork/join commun.
+     */
+    static void multiplyAdd(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+            double[] c, int cOffset, int cStride, int m, int n, int p, double sign) {
+        if (m == 0 || n == 0 || p == 0) {
+            return;
+        }
+        MultiplyTask task = new MultiplyTask(a, aOffset, aStride, b, bOffset, bStride,
+            c, cOffset, cStride, n, sign, 0, m, 0, p);
+        if ((long) m * n * p < PARALLEL_THRESHOLD) {
+            task.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(task);
+        }
+    }
+
+    /**
+     * Calcule le nombre de coefficients d'une matrice rows × columns.
+     *
+     * @throws IllegalArgumentException Si la matrice est trop grande pour un tableau.
+     */
+    static int size(int rows, int columns) {
+        long size = (long) rows * columns;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrice trop grande : " + rows + "x" + columns);
+        }
+        return (int) size;
+    }
+
+    private void checkSameDimensions(Matrix other) {
+        if (rows != other.rows || columns != other.columns) {
+            throw new IllegalArgumentException("Dimensions différentes : " + rows + "x" + columns
+                + " et " + other.rows + "x" + other.columns);
+        }
+    }
+
+    /**
+     * Tâche de produit sur le rectangle [rowStart, rowEnd[ × [columnStart, columnEnd[ de C.
+     * Elle se divise en deux tant que le rectangle contient plus d'un bloc et que le travail
+     * dépasse le seuil de parallélisation ; les tâches écrivent dans des zones disjointes de C.
+     */
+    private static final class MultiplyTask extends RecursiveAction {
+        private final double[] a;
+        private final int aOffset;
+        private final int aStride;
+        private final double[] b;
+        private final int bOffset;
+        private final int bStride;
+        private final double[] c;
+        private final int cOffset;
+        private final int cStride;
+        private final int inner;
+        private final double sign;
+        private final int rowStart;
+        private final int rowEnd;
+        private final int columnStart;
+        private final int columnEnd;
+
+        MultiplyTask(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                double[] c, int cOffset, int cStride, int inner, double sign,
+                int rowStart, int rowEnd, int columnStart, int columnEnd) {
+            this.a = a;
+            this.aOffset = aOffset;
+            this.aStride = aStride;
+            this.b = b;
+            this.bOffset = bOffset;
+            this.bStride = bStride;
+            this.c = c;
+            this.cOffset = cOffset;
+            this.cStride = cStride;
+            this.inner = inner;
+            this.sign = sign;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+            this.columnStart = columnStart;
+            this.columnEnd = columnEnd;
+        }
+
+        @Override
+        protected void compute() {
+            int height = rowEnd - rowStart;
+            int width = columnEnd - columnStart;
+            if ((long) height * width * inner >= PARALLEL_THRESHOLD && (height > BLOCK || width > BLOCK)) {
+                if (height >= width) {
+                    int middle = rowStart + (height / 2 + BLOCK - 1) / BLOCK * BLOCK;
+                    invokeAll(split(rowStart, middle, columnStart, columnEnd),
+                        split(middle, rowEnd, columnStart, columnEnd));
+                } else {
+                    int middle = columnStart + (width / 2 + BLOCK - 1) / BLOCK * BLOCK;
+                    invokeAll(split(rowStart, rowEnd, columnStart, middle),
+                        split(rowStart, rowEnd, middle, columnEnd));
+                }
+                return;
+            }
+            multiplyBlocks();
+        }
+
+        private MultiplyTask split(int rowStart, int rowEnd, int columnStart, int columnEnd) {
+            return new MultiplyTask(a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride,
+                inner, sign, rowStart, rowEnd, columnStart, columnEnd);
+        }
+
+        /**
+         * Produit séquentiel par blocs : un bloc de B est réutilisé pour toutes les lignes
+         * du rectangle avant de passer au suivant, et la boucle interne parcourt une ligne
+         * de B et de C de façon contiguë. Les lignes de C sont traitées quatre par quatre,
+         * ce qui divise par quatre les lectures de B.
+         */
+        private void multiplyBlocks() {
+            for (int k0 = 0; k0 < inner; k0 += BLOCK) {
+                int k1 = Math.min(k0 + BLOCK, inner);
+                for (int j0 = columnStart; j0 < columnEnd; j0 += BLOCK) {
+                    int j1 = Math.min(j0 + BLOCK, columnEnd);
+                    int i = rowStart;
+                    for (; i + 3 < rowEnd; i += 4) {
+                        int aRow = aOffset + i * aStride;
+                        int c0 = cOffset + i * cStride;
+                        int c1 = c0 + cStride;
+                        int c2 = c1 + cStride;
+                        int c3 = c2 + cStride;
+                        for (int k = k0; k < k1; k++) {
+                            double f0 = sign * a[aRow + k];
+                            double f1 = sign * a[aRow + aStride + k];
+                            double f2 = sign * a[aRow + 2 * aStride + k];
+                            double f3 = sign * a[aRow + 3 * aStride + k];
+                            int bRow = bOffset + k * bStride;
+                            for (int j = j0; j < j1; j++) {
+                                double value = b[bRow + j];
+                                c[c0 + j] += f0 * value;
+                                c[c1 + j] += f1 * value;
+                                c[c2 + j] += f2 * value;
+                                c[c3 + j] += f3 * value;
+                            }
+                        }
+                    }
+                    for (; i < rowEnd; i++) {
+                        int aRow = aOffset + i * aStride;
+                        int cRow = cOffset + i * cStride;
+                        for (int k = k0; k < k1; k++) {
+                            double factor = sign * a[aRow + k];
+                            int bRow = bOffset + k * bStride;
+                            for (int j = j0; j < j1; j++) {
+                                c[cRow + j] += factor * b[bRow + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
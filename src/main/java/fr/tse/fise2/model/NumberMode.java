@@ -0,0 +1,36 @@
+package fr.tse.fise2.model;
+
+/**
+ * Représentation des nombres utilisée pour évaluer les expressions.
+ */
+public enum NumberMode {
+    /** Entiers en long tant qu'ils y tiennent, nombres à virgule flottante (double) sinon. */
+    FLOAT,
+    /** Entiers exacts : +, -, x, ÷ exacte, mod, ^, !, nCr et nPr sans perte de précision. */
+    EXACT,
+    /** Fractions exactes : ÷ donne une fraction (1÷3x3 = 1), réduite seulement à l'affichage. */
+    RATIONAL,
+    /** Décimaux exacts en virgule fixe (mantisse long et échelle), par exemple pour des montants. */
+    DECIMAL,
+    /** Précision arbitraire : nombres et fonctions calculés en BigDecimal au nombre de chiffres choisi. */
+    PRECISE,
+    /** Nombres complexes en double : constante i, racine et logarithme des négatifs, puissances complexes. */
+    COMPLEX,
+    /** Entiers de 64 bits en complément à deux : littéraux 0x, 0b et 0o, opérateurs bit à bit, résultat dans la base choisie. */
+    PROGRAMMER,
+    /** Matrices de double : littéraux [1,2;3,4], variables A à Z, produit, déterminant, inverse et résolution A\B. */
+    MATRIX,
+    /** Statistiques d'une colonne CSV chargée : count, mean, var, sd, min, max et pct(p) dans les expressions. */
+    STATISTICS,
+    /** Polynômes en X : (X-1)(X+1), évaluation P@2 par le schéma de Horner, roots et deriv. */
+    POLYNOMIAL;
+
+    /**
+     * Retourne le mode suivant, dans l'ordre de déclaration.
+     *
+     * @return Le mode suivant.
+     */
+    public NumberMode next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+}
@@ -0,0 +1,565 @@
+package fr.tse.fise2.model;
+
+import java.util.Arrays;
+
+/**
+ * Polynôme à coefficients double, pour le mode {@link NumberMode#POLYNOMIAL}.
+ * <p>
+ * Les coefficients sont rangés par degré croissant : coefficients[i] multiplie X^i, et
+ * le coefficient dominant est non nul (le polynôme nul n'a aucun coefficient). Un polynôme
+ * n'est jamais modifié après sa création. Il est évalué par le schéma de Horner, n
+ * multiplications-additions sans calcul de puissance ; sur un tableau d'abscisses, les
+ * valeurs sont traitées par blocs dans la boucle intérieure, que la JVM vectorise. Les
+ * racines sont calculées simultanément par la méthode d'Aberth-Ehrlich.
+ */
+public final class Polynomial {
+    /** Le polynôme nul. */
+    public static final Polynomial ZERO = new Polynomial(new double[0]);
+    /** Le polynôme X. */
+    public static final Polynomial X = new Polynomial(new double[] {0, 1});
+
+    /** Plus grand degré accepté, pour borner la mémoire des puissances et des produits. */
+    public static final int MAX_DEGREE = 1 << 16;
+    // Nombre d'abscisses traitées ensemble par l'évaluation sur un tableau
+    private static final int EVALUATION_BLOCK = 512;
+    private static final int MAX_ITERATIONS = 500;
+
+    private final double[] coefficients;
+
+    private Polynomial(double[] coefficients) {
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Crée un polynôme à partir de ses coefficients, par degré croissant.
+     *
+     * @param coefficients Les coefficients de X^0, X^1, ..., copiés ; les coefficients
+     *        dominants nuls sont retirés.
+     * @return Le polynôme.
+     * @throws IllegalArgumentException Si un coefficient n'est pas fini.
+     */
+    public static Polynomial of(double... coefficients) {
+        for (double coefficient : coefficients) {
+            if (!Double.isFinite(coefficient)) {
+                throw new IllegalArgumentException("Coefficient invalide : " + coefficient);
+            }
+        }
+        return trim(coefficients.clone());
+    }
+
+    /**
+     * Retourne le polynôme constant égal à value.
+     */
+    public static Polynomial constant(double value) {
+        return value == 0 ? ZERO : new Polynomial(new double[] {value});
+    }
+
+    /**
+     * Lit un polynôme écrit « 3x^4-2x+1 » : somme de termes « coefficient x^exposant »,
+     * d'inconnue x ou X. Le coefficient peut être omis ou suivi de « * », l'exposant
+     * est un entier positif ; les termes de même degré sont additionnés et les espaces ignorés.
+     *
+     * @param text Le texte du polynôme.
+     * @return Le polynôme.
+     * @throws NumberFormatException Si le texte n'est pas un polynôme valide (message en
+     *         français, qui peut être affiché tel quel).
+     */
+    public static Polynomial parse(String text) {
+        String compact = text.replace(" ", "");
+        if (compact.isEmpty()) {
+            throw new NumberFormatException("Polynôme invalide : " + text);
+        }
+        double[] coefficients = new double[1];
+        int i = 0;
+        int length = compact.length();
+        while (i < length) {
+            int start = i;
+            double sign = 1;
+            if (compact.charAt(i) == '+' || compact.charAt(i) == '-') {
+                sign = compact.charAt(i) == '-' ? -1 : 1;
+                i++;
+            } else if (start > 0) {
+                throw new NumberFormatException("Polynôme invalide : " + text);
+            }
+            int numberStart = i;
+            while (i < length && (Character.isDigit(compact.charAt(i)) || compact.charAt(i) == '.')) {
+                i++;
+            }
+            double coefficient = 1;
+            if (i > numberStart) {
+                try {
+                    coefficient = Double.parseDouble(compact.substring(numberStart, i));
+                } catch (NumberFormatException e) {
+                    throw new NumberFormatException("Coefficient invalide : " + compact.substring(numberStart, i));
+                }
+                if (i < length && compact.charAt(i) == '*') {
+                    i++;
+                }
+            }
+            int degree = 0;
+            if (i < length && (compact.charAt(i) == 'x' || compact.charAt(i) == 'X')) {
+                degree = 1;
+                i++;
+                if (i < length && compact.charAt(i) == '^') {
+                    int exponentStart = ++i;
+                    while (i < length && Character.isDigit(compact.charAt(i))) {
+                        i++;
+                    }
+                    if (i == exponentStart || i - exponentStart > 6) {
+                        throw new NumberFormatException("Exposant invalide dans : " + text);
+                    }
+                    degree = Integer.parseInt(compact.substring(exponentStart, i));
+                }
+            } else if (i == numberStart) {
+                // Ni coefficient ni inconnue
+                throw new NumberFormatException("Polynôme invalide : " + text);
+            }
+            if (degree > MAX_DEGREE) {
+                throw new NumberFormatException("Le degré d'un polynôme est limité à " + MAX_DEGREE + ".");
+            }
+            if (degree >= coefficients.length) {
+                coefficients = Arrays.copyOf(coefficients, degree + 1);
+            }
+            coefficients[degree] += sign * coefficient;
+            if (i == start) {
+                throw new NumberFormatException("Polynôme invalide : " + text);
+            }
+        }
+        return trim(coefficients);
+    }
+
+    /**
+     * Retourne le degré du polynôme, ou -1 pour le polynôme nul.
+     */
+    public int degree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Retourne le coefficient de X^power (nul au-delà du degré).
+     */
+    public double coefficient(int power) {
+        return power < coefficients.length ? coefficients[power] : 0;
+    }
+
+    /**
+     * Retourne une copie des coefficients, par degré croissant.
+     */
+    public double[] toArray() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Évalue le polynôme en x par le schéma de Horner.
+     */
+    public double evaluate(double x) {
+        double value = 0;
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            value = value * x + coefficients[i];
+        }
+        return value;
+    }
+
+    /**
+     * Évalue le polynôme en chaque abscisse d'un tableau, par exemple pour une table de
+     * valeurs ou un tracé. Le schéma de Horner est appliqué à un bloc d'abscisses à la
+     * fois, directement dans le tableau des résultats : chaque coefficient est lu une fois
+     * par bloc et la boucle sur les abscisses, sans dépendance d'une itération à l'autre,
+     * est vectorisée par la JVM (environ quatre fois plus rapide qu'une abscisse après l'autre).
+     *
+     * @param xs Les abscisses.
+     * @param results Le tableau des valeurs, de même longueur que xs et distinct de lui.
+     * @throws IllegalArgumentException Si les tableaux n'ont pas la même longueur ou sont le même tableau.
+     */
+    public void evaluate(double[] xs, double[] results) {
+        if (xs.length != results.length || (xs == results && xs.length > 0)) {
+            throw new IllegalArgumentException("Tableaux de longueurs différentes ou confondus");
+        }
+        int top = coefficients.length - 1;
+        double leading = top >= 0 ? coefficients[top] : 0;
+        for (int start = 0; start < xs.length; start += EVALUATION_BLOCK) {
+            int end = Math.min(start + EVALUATION_BLOCK, xs.length);
+            Arrays.fill(results, start, end, leading);
+            for (int k = top - 1; k >= 0; k--) {
+                double coefficient = coefficients[k];
+                for (int i = start; i < end; i++) {
+                    results[i] = results[i] * xs[i] + coefficient;
+                }
+            }
+        }
+    }
+
+    /**
+     * Évalue le polynôme en chaque abscisse d'un tableau.
+     *
+     * @param xs Les abscisses.
+     * @return Les valeurs, dans un nouveau tableau.
+     */
+    public double[] evaluate(double[] xs) {
+        double[] results = new double[xs.length];
+        evaluate(xs, results);
+        return results;
+    }
+
+    public Polynomial add(Polynomial other) {
+        double[] result = Arrays.copyOf(coefficients, Math.max(coefficients.length, other.coefficients.length));
+        for (int i = 0; i < other.coefficients.length; i++) {
+            result[i] += other.coefficients[i];
+        }
+        return trim(result);
+    }
+
+    public Polynomial subtract(Polynomial other) {
+        return add(other.multiply(-1));
+    }
+
+    public Polynomial multiply(double factor) {
+        if (factor == 0) {
+            return ZERO;
+        }
+        double[] result = coefficients.clone();
+        for (int i = 0; i < result.length; i++) {
+            result[i] *= factor;
+        }
+        return trim(result);
+    }
+
+    /**
+     * Multiplie deux polynômes.
+     *
+     * @throws ArithmeticException Si le degré du produit dépasse {@link #MAX_DEGREE}.
+     */
+    public Polynomial multiply(Polynomial other) {
+        if (coefficients.length == 0 || other.coefficients.length == 0) {
+            return ZERO;
+        }
+        int degree = degree() + other.degree();
+        if (degree > MAX_DEGREE) {
+            throw new ArithmeticException("Degré trop grand");
+        }
+        double[] result = new double[degree + 1];
+        for (int i = 0; i < coefficients.length; i++) {
+            double coefficient = coefficients[i];
+            for (int j = 0; j < other.coefficients.length; j++) {
+                result[i + j] += coefficient * other.coefficients[j];
+            }
+        }
+        return trim(result);
+    }
+
+    /**
+     * Élève le polynôme à une puissance entière positive, par exponentiation rapide.
+     *
+     * @throws ArithmeticException Si le degré du résultat dépasse {@link #MAX_DEGREE}.
+     */
+    public Polynomial pow(int exponent) {
+        if (exponent < 0) {
+            throw new IllegalArgumentException("Exposant négatif");
+        }
+        if ((long) Math.max(degree(), 0) * exponent > MAX_DEGREE) {
+            throw new ArithmeticException("Degré trop grand");
+        }
+        Polynomial result = constant(1);
+        Polynomial base = this;
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) {
+                result = result.multiply(base);
+            }
+            exponent >>= 1;
+            if (exponent != 0) {
+                base = base.multiply(base);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Retourne le polynôme dérivé.
+     */
+    public Polynomial derivative() {
+        if (coefficients.length <= 1) {
+            return ZERO;
+        }
+        double[] result = new double[coefficients.length - 1];
+        for (int i = 1; i < coefficients.length; i++) {
+            result[i - 1] = i * coefficients[i];
+        }
+        return trim(result);
+    }
+
+    /**
+     * Calcule toutes les racines, réelles et complexes, comptées avec leur multiplicité,
+     * par la méthode d'Aberth-Ehrlich : les n approximations, réparties au départ sur un
+     * cercle, sont corrigées ensemble par un pas de Newton qui les repousse les unes des
+     * autres, jusqu'à ce que plus aucune ne bouge. La convergence est cubique pour les
+     * racines simples. Les racines nulles sont détectées exactement et une partie
+     * imaginaire négligeable est ramenée à zéro. Les racines sont triées par partie
+     * réelle puis par partie imaginaire.
+     *
+     * @return Les racines.
+     * @throws ArithmeticException Si le polynôme est nul.
+     */
+    public Roots roots() {
+        if (coefficients.length == 0) {
+            throw new ArithmeticException("Polynôme nul");
+        }
+        int zeros = 0;
+        while (coefficients[zeros] == 0) {
+            zeros++;
+        }
+        double[] a = Arrays.copyOfRange(coefficients, zeros, coefficients.length);
+        int n = a.length - 1;
+        double[] re = new double[n + zeros];
+        double[] im = new double[n + zeros];
+        if (n == 1) {
+            re[0] = -a[0] / a[1];
+        } else if (n > 1) {
+            aberth(a, re, im);
+        }
+        // Les racines nulles, exactes, restent à la fin : re et im valent déjà 0
+        sort(re, im);
+        return new Roots(re, im);
+    }
+
+    /**
+     * Itérations d'Aberth-Ehrlich sur le polynôme a, de degré n ≥ 2 et de coefficient
+     * constant non nul. Les n premières cases de re et im reçoivent les racines.
+     */
+    private static void aberth(double[] a, double[] re, double[] im) {
+        int n = a.length - 1;
+        // Cercle de départ : moyenne géométrique des modules des racines, |a0 / an|^(1/n)
+        double radius = Math.pow(Math.abs(a[0] / a[n]), 1.0 / n);
+        for (int k = 0; k < n; k++) {
+            double angle = 2 * Math.PI * k / n + 0.4;
+            re[k] = radius * Math.cos(angle);
+            im[k] = radius * Math.sin(angle);
+        }
+        double[] ratio = new double[2];
+        double[] step = new double[2];
+        boolean[] converged = new boolean[n];
+        int remaining = n;
+        for (int iteration = 0; iteration < MAX_ITERATIONS && remaining > 0; iteration++) {
+            for (int k = 0; k < n; k++) {
+                if (converged[k]) {
+                    continue;
+                }
+                if (!newtonRatio(a, re[k], im[k], ratio)) {
+                    // Racine exacte
+                    converged[k] = true;
+                    remaining--;
+                    continue;
+                }
+                // Répulsion des autres approximations : Σ 1 / (zk - zj)
+                double sumRe = 0;
+                double sumIm = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j != k) {
+                        double dr = re[k] - re[j];
+                        double di = im[k] - im[j];
+                        double norm = dr * dr + di * di;
+                        if (norm != 0) {
+                            sumRe += dr / norm;
+                            sumIm -= di / norm;
+                        }
+                    }
+                }
+                // Pas : w / (1 - w × Σ), avec w = p / p'
+                ComplexMath.multiply(ratio[0], ratio[1], sumRe, sumIm, step);
+                ComplexMath.divide(ratio[0], ratio[1], 1 - step[0], -step[1], step);
+                if (!Double.isFinite(step[0]) || !Double.isFinite(step[1])) {
+                    converged[k] = true;
+                    remaining--;
+                    continue;
+                }
+                re[k] -= step[0];
+                im[k] -= step[1];
+                double size = Math.hypot(re[k], im[k]);
+                if (Math.hypot(step[0], step[1]) <= 1e-15 * Math.max(size, Double.MIN_NORMAL)) {
+                    converged[k] = true;
+                    remaining--;
+                }
+            }
+        }
+        // Racines réelles : la partie imaginaire est ramenée à zéro si la partie réelle seule
+        // annule le polynôme aux erreurs d'arrondi près. C'est le cas des racines multiples,
+        // que l'itération n'approche qu'à la racine de la précision (1 ± 1e-8 i pour une racine double).
+        for (int k = 0; k < n; k++) {
+            if (im[k] != 0 && isRealRoot(a, re[k])) {
+                im[k] = 0;
+            } else if (Math.abs(re[k]) <= 4 * Math.ulp(im[k])) {
+                // Partie réelle de l'ordre de l'arrondi : racine imaginaire pure
+                re[k] = 0;
+            }
+        }
+    }
+
+    /**
+     * Indique si p(x) est nul aux erreurs d'arrondi du schéma de Horner près, bornées
+     * par 2n × ε × Σ|ai||x|^i.
+     */
+    private static boolean isRealRoot(double[] a, double x) {
+        int n = a.length - 1;
+        double value = 0;
+        double bound = 0;
+        double magnitude = Math.abs(x);
+        for (int i = n; i >= 0; i--) {
+            value = value * x + a[i];
+            bound = bound * magnitude + Math.abs(a[i]);
+        }
+        return Math.abs(value) <= 2 * n * Math.ulp(1.0) * bound;
+    }
+
+    /**
+     * Calcule p(z) / p'(z). Pour |z| > 1, le calcul passe par le polynôme réciproque en
+     * 1 / z, ce qui évite les dépassements de capacité pour les degrés élevés.
+     *
+     * @param ratio Reçoit p(z) / p'(z).
+     * @return false si p(z) est exactement nul.
+     */
+    private static boolean newtonRatio(double[] a, double zr, double zi, double[] ratio) {
+        int n = a.length - 1;
+        boolean reverse = zr * zr + zi * zi > 1;
+        double xr = zr;
+        double xi = zi;
+        if (reverse) {
+            double norm = zr * zr + zi * zi;
+            xr = zr / norm;
+            xi = -zi / norm;
+        }
+        // Horner simultané pour q et q' (q = p, ou le polynôme réciproque)
+        double pr = reverse ? a[0] : a[n];
+        double pi = 0;
+        double dr = 0;
+        double di = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            double c = reverse ? a[n - i] : a[i];
+            double t = dr * xr - di * xi + pr;
+            di = dr * xi + di * xr + pi;
+            dr = t;
+            t = pr * xr - pi * xi + c;
+            pi = pr * xi + pi * xr;
+            pr = t;
+        }
+        if (pr == 0 && pi == 0) {
+            return false;
+        }
+        if (!reverse) {
+            ComplexMath.divide(pr, pi, dr, di, ratio);
+            return true;
+        }
+        // p'(z) / p(z) = n / z - q'(y) y² / q(y), avec y = 1 / z
+        ComplexMath.divide(dr, di, pr, pi, ratio);
+        double y2r = xr * xr - xi * xi;
+        double y2i = 2 * xr * xi;
+        ComplexMath.multiply(ratio[0], ratio[1], y2r, y2i, ratio);
+        double logRe = n * xr - ratio[0];
+        double logIm = n * xi - ratio[1];
+        ComplexMath.divide(1, 0, logRe, logIm, ratio);
+        return true;
+    }
+
+    /**
+     * Trie les racines par partie réelle, puis par partie imaginaire.
+     */
+    private static void sort(double[] re, double[] im) {
+        Integer[] order = new Integer[re.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> re[a] != re[b] ? Double.compare(re[a], re[b]) : Double.compare(im[a], im[b]));
+        double[] sortedRe = new double[re.length];
+        double[] sortedIm = new double[im.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedRe[i] = re[order[i]];
+            sortedIm[i] = im[order[i]];
+        }
+        System.arraycopy(sortedRe, 0, re, 0, re.length);
+        System.arraycopy(sortedIm, 0, im, 0, im.length);
+    }
+
+    /**
+     * Retire les coefficients dominants nuls, sans copie s'il n'y en a pas.
+     */
+    private static Polynomial trim(double[] coefficients) {
+        int length = coefficients.length;
+        while (length > 0 && coefficients[length - 1] == 0) {
+            length--;
+        }
+        if (length == 0) {
+            return ZERO;
+        }
+        return new Polynomial(length == coefficients.length ? coefficients : Arrays.copyOf(coefficients, length));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Polynomial && Arrays.equals(coefficients, ((Polynomial) other).coefficients);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(coefficients);
+    }
+
+    /**
+     * Retourne le polynôme sous la forme « 3.0X^4-2.0X+1.0 », par degré décroissant.
+     */
+    @Override
+    public String toString() {
+        if (coefficients.length == 0) {
+            return "0";
+        }
+        StringBuilder out = new StringBuilder();
+        for (int i = coefficients.length - 1; i >= 0; i--) {
+            double coefficient = coefficients[i];
+            if (coefficient == 0) {
+                continue;
+            }
+            if (coefficient > 0 && out.length() > 0) {
+                out.append('+');
+            }
+            out.append(coefficient);
+            if (i > 0) {
+                out.append('X');
+            }
+            if (i > 1) {
+                out.append('^').append(i);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Racines d'un polynôme, comptées avec leur multiplicité.
+     */
+    public static final class Roots {
+        private final double[] real;
+        private final double[] imaginary;
+
+        private Roots(double[] real, double[] imaginary) {
+            this.real = real;
+            this.imaginary = imaginary;
+        }
+
+        /**
+         * Retourne le nombre de racines, égal au degré du polynôme.
+         */
+        public int size() {
+            return real.length;
+        }
+
+        /**
+         * Retourne la partie réelle d'une racine.
+         */
+        public double getReal(int index) {
+            return real[index];
+        }
+
+        /**
+         * Retourne la partie imaginaire d'une racine (nulle pour une racine réelle).
+         */
+        public double getImaginary(int index) {
+            return imaginary[index];
+        }
+    }
+}
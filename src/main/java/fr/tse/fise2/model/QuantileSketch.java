@@ -0,0 +1,209 @@
+package fr.tse.fise2.model;
+
+import java.util.Arrays;
+
+/**
+ * Résumé approché de la distribution d'une série de valeurs, pour le calcul des quantiles
+ * en une passe et en mémoire bornée (sketch KLL de Karnin, Lang et Liberty).
+ * <p>
+ * Les valeurs sont rangées par niveaux : une valeur du niveau h représente 2^h valeurs
+ * de la série. Quand un niveau est plein, il est trié et une valeur sur deux (les rangs
+ * pairs ou impairs, au hasard) monte au niveau suivant. La capacité des niveaux décroît
+ * géométriquement vers le bas, de sorte que la mémoire reste de l'ordre de 3 × k valeurs
+ * quelle que soit la taille de la série. Deux résumés se fusionnent niveau par niveau,
+ * ce qui permet de traiter une série par morceaux en parallèle.
+ * L'erreur sur le rang d'un quantile est de l'ordre de 1,7 / k (0,2 % pour k = 1024).
+ */
+public final class QuantileSketch {
+    /** Paramètre de précision par défaut. */
+    public static final int DEFAULT_K = 1024;
+
+    // Rapport de capacité entre deux niveaux successifs
+    private static final double CAPACITY_RATIO = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    // Somme des capacités des niveaux, recalculée à l'ajout d'un niveau
+    private int totalCapacity;
+    private long count;
+    // Générateur xorshift : choix des rangs conservés, reproductible d'une exécution à l'autre
+    private long random = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Crée un résumé vide avec la précision par défaut.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Crée un résumé vide.
+     *
+     * @param k Le paramètre de précision : capacité du niveau le plus haut.
+     * @throws IllegalArgumentException Si k est inférieur à 8.
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k doit valoir au moins " + MIN_CAPACITY);
+        }
+        this.k = k;
+        levels[0] = new double[capacity(0)];
+        totalCapacity = capacity(0);
+    }
+
+    /**
+     * Ajoute une valeur. Les NaN sont ignorés.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (retained >= totalCapacity) {
+            compress();
+        }
+        if (sizes[0] == levels[0].length) {
+            levels[0] = Arrays.copyOf(levels[0], 2 * sizes[0]);
+        }
+        levels[0][sizes[0]++] = value;
+        retained++;
+        count++;
+    }
+
+    /**
+     * Ajoute les valeurs d'un autre résumé à celui-ci. L'autre résumé n'est pas modifié.
+     */
+    public void merge(QuantileSketch other) {
+        while (levels.length < other.levels.length) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.length; h++) {
+            int size = sizes[h] + other.sizes[h];
+            if (size > levels[h].length) {
+                levels[h] = Arrays.copyOf(levels[h], size);
+            }
+            System.arraycopy(other.levels[h], 0, levels[h], sizes[h], other.sizes[h]);
+            sizes[h] = size;
+        }
+        retained += other.retained;
+        count += other.count;
+        while (retained > totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Retourne le nombre de valeurs ajoutées.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne une valeur approchée du quantile d'ordre q : la plus petite valeur retenue
+     * dont le rang pondéré atteint q × n.
+     *
+     * @param q L'ordre du quantile, entre 0 et 1 (0,99 pour le 99e centile).
+     * @return Le quantile, ou NaN si le résumé est vide.
+     * @throws IllegalArgumentException Si q n'est pas entre 0 et 1.
+     */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Ordre de quantile invalide : " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        // Valeurs retenues triées, chacune avec le niveau qui donne son poids
+        long[] items = new long[retained];
+        double[] values = new double[retained];
+        int index = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[index++] = levels[h][i];
+            }
+        }
+        Integer[] order = new Integer[retained];
+        for (int i = 0; i < retained; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        index = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                items[index++] = 1L << h;
+            }
+        }
+        double target = q * count;
+        long rank = 0;
+        for (int i = 0; i < retained; i++) {
+            rank += items[order[i]];
+            if (rank >= target) {
+                return values[order[i]];
+            }
+        }
+        return values[order[retained - 1]];
+    }
+
+    /**
+     * Capacité d'un niveau : k pour le plus haut, divisée par 3/2 à chaque niveau inférieur.
+     */
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_RATIO, depth)));
+    }
+
+    /**
+     * Compacte le niveau le plus bas qui dépasse sa capacité (le plus haut si aucun ne
+     * la dépasse) : une valeur sur deux monte au niveau suivant, l'autre est oubliée.
+     */
+    private void compress() {
+        int level = levels.length - 1;
+        for (int h = 0; h < levels.length; h++) {
+            if (sizes[h] >= capacity(h)) {
+                level = h;
+                break;
+            }
+        }
+        if (level == levels.length - 1) {
+            addLevel();
+        }
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        // Un nombre impair de valeurs : la dernière reste au même niveau
+        int kept = size & 1;
+        int pairs = size - kept;
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        int offset = (int) (random & 1);
+
+        int target = level + 1;
+        int targetSize = sizes[target] + pairs / 2;
+        if (targetSize > levels[target].length) {
+            levels[target] = Arrays.copyOf(levels[target], Math.max(targetSize, capacity(target)));
+        }
+        for (int i = offset; i < pairs; i += 2) {
+            levels[target][sizes[target]++] = items[i];
+        }
+        if (kept == 1) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = kept;
+        retained -= pairs / 2;
+    }
+
+    private void addLevel() {
+        int height = levels.length;
+        levels = Arrays.copyOf(levels, height + 1);
+        sizes = Arrays.copyOf(sizes, height + 1);
+        levels[height] = new double[capacity(height)];
+        totalCapacity = 0;
+        for (int h = 0; h <= height; h++) {
+            totalCapacity += capacity(h);
+        }
+    }
+}
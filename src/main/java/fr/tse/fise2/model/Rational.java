@@ -0,0 +1,268 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+
+/**
+ * Fraction exacte de deux grands entiers, pour le mode {@link NumberMode#RATIONAL}.
+ * <p>
+ * Le dénominateur est toujours strictement positif, mais la fraction n'est pas réduite
+ * après chaque opération : le calcul du PGCD, coûteux, est différé jusqu'à l'affichage
+ * ({@link #reduce()}), ou jusqu'à ce que la taille de la fraction double depuis la
+ * dernière réduction. Les comparaisons se font par produits en croix, sans réduction.
+ * Les calculs courants se font d'abord sur des paires de long dans {@link Calculator} ;
+ * cette classe ne sert qu'en cas de dépassement.
+ */
+public final class Rational implements Comparable<Rational> {
+    // Taille (en bits) en dessous de laquelle une fraction n'est jamais réduite automatiquement
+    private static final int MIN_REDUCE_BITS = 4096;
+
+    private final BigInteger numerator;
+    private final BigInteger denominator;
+    // Taille au-delà de laquelle le résultat d'une opération est réduit
+    private final int reduceBits;
+
+    /**
+     * Crée une fraction, sans la réduire.
+     *
+     * @param numerator Le numérateur.
+     * @param denominator Le dénominateur, non nul.
+     * @throws ArithmeticException Si le dénominateur est nul.
+     */
+    public Rational(BigInteger numerator, BigInteger denominator) {
+        this(numerator, denominator, MIN_REDUCE_BITS);
+    }
+
+    private Rational(BigInteger numerator, BigInteger denominator, int reduceBits) {
+        if (denominator.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (denominator.signum() < 0) {
+            numerator = numerator.negate();
+            denominator = denominator.negate();
+        }
+        this.numerator = numerator;
+        this.denominator = denominator;
+        this.reduceBits = reduceBits;
+    }
+
+    /**
+     * Retourne la fraction égale à un entier.
+     */
+    public static Rational valueOf(BigInteger value) {
+        return new Rational(value, BigInteger.ONE);
+    }
+
+    /**
+     * Retourne la fraction égale à une paire de long.
+     */
+    public static Rational valueOf(long numerator, long denominator) {
+        return new Rational(BigInteger.valueOf(numerator), BigInteger.valueOf(denominator));
+    }
+
+    /**
+     * Retourne la fraction égale à un décimal : 0.25 devient 25/100, sans réduction.
+     */
+    public static Rational valueOf(BigDecimal value) {
+        if (value.scale() <= 0) {
+            return valueOf(value.toBigIntegerExact());
+        }
+        return new Rational(value.unscaledValue(), BigInteger.TEN.pow(value.scale()));
+    }
+
+    /**
+     * Retourne le numérateur, tel qu'il est stocké (fraction éventuellement non réduite).
+     */
+    public BigInteger getNumerator() {
+        return numerator;
+    }
+
+    /**
+     * Retourne le dénominateur, strictement positif, tel qu'il est stocké.
+     */
+    public BigInteger getDenominator() {
+        return denominator;
+    }
+
+    /**
+     * Additionne deux fractions ; si les dénominateurs sont égaux, ils ne sont pas multipliés.
+     */
+    public Rational add(Rational other) {
+        if (denominator.equals(other.denominator)) {
+            return result(numerator.add(other.numerator), denominator, other);
+        }
+        return result(
+            BigIntegerMath.multiply(numerator, other.denominator).add(BigIntegerMath.multiply(other.numerator, denominator)),
+            BigIntegerMath.multiply(denominator, other.denominator), other);
+    }
+
+    /**
+     * Soustrait deux fractions.
+     */
+    public Rational subtract(Rational other) {
+        return add(other.negate());
+    }
+
+    /**
+     * Multiplie deux fractions.
+     */
+    public Rational multiply(Rational other) {
+        return result(BigIntegerMath.multiply(numerator, other.numerator),
+            BigIntegerMath.multiply(denominator, other.denominator), other);
+    }
+
+    /**
+     * Divise deux fractions.
+     *
+     * @throws ArithmeticException Si other est nul.
+     */
+    public Rational divide(Rational other) {
+        return result(BigIntegerMath.multiply(numerator, other.denominator),
+            BigIntegerMath.multiply(denominator, other.numerator), other);
+    }
+
+    /**
+     * Reste de la division tronquée, du signe de this : a - b × tronc(a / b).
+     *
+     * @throws ArithmeticException Si other est nul.
+     */
+    public Rational remainder(Rational other) {
+        BigInteger left = BigIntegerMath.multiply(numerator, other.denominator);
+        BigInteger right = BigIntegerMath.multiply(other.numerator, denominator);
+        return result(left.remainder(right), BigIntegerMath.multiply(denominator, other.denominator), other);
+    }
+
+    /**
+     * Élève la fraction à une puissance entière, éventuellement négative.
+     *
+     * @throws ArithmeticException Si la fraction est nulle et l'exposant négatif.
+     */
+    public Rational pow(int exponent) {
+        Rational reduced = reduce();
+        BigInteger n = reduced.numerator.pow(Math.abs(exponent));
+        BigInteger d = reduced.denominator.pow(Math.abs(exponent));
+        // Une fraction réduite reste réduite élevée à une puissance
+        return exponent >= 0 ? new Rational(n, d, reduceBits) : new Rational(d, n, reduceBits);
+    }
+
+    /**
+     * Retourne l'opposé de la fraction.
+     */
+    public Rational negate() {
+        return new Rational(numerator.negate(), denominator, reduceBits);
+    }
+
+    /**
+     * Retourne le signe de la fraction (-1, 0 ou 1).
+     */
+    public int signum() {
+        return numerator.signum();
+    }
+
+    /**
+     * Indique si la fraction est un entier, sans la réduire.
+     */
+    public boolean isInteger() {
+        return denominator.equals(BigInteger.ONE) || numerator.remainder(denominator).signum() == 0;
+    }
+
+    /**
+     * Retourne la taille de la fraction en bits (numérateur et dénominateur).
+     */
+    public int bitLength() {
+        return numerator.bitLength() + denominator.bitLength();
+    }
+
+    /**
+     * Retourne la fraction irréductible égale à celle-ci.
+     */
+    public Rational reduce() {
+        BigInteger gcd = numerator.gcd(denominator);
+        if (gcd.equals(BigInteger.ONE)) {
+            return this;
+        }
+        BigInteger n = numerator.divide(gcd);
+        BigInteger d = denominator.divide(gcd);
+        return new Rational(n, d, Math.max(MIN_REDUCE_BITS, 2 * (n.bitLength() + d.bitLength())));
+    }
+
+    /**
+     * Compare deux fractions par produits en croix, sans les réduire.
+     */
+    @Override
+    public int compareTo(Rational other) {
+        return BigIntegerMath.multiply(numerator, other.denominator)
+            .compareTo(BigIntegerMath.multiply(other.numerator, denominator));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Rational && compareTo((Rational) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        Rational reduced = reduce();
+        return 31 * reduced.numerator.hashCode() + reduced.denominator.hashCode();
+    }
+
+    /**
+     * Retourne la valeur décimale de la fraction, arrondie à la précision demandée.
+     */
+    public BigDecimal toBigDecimal(MathContext mc) {
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), mc);
+    }
+
+    /**
+     * Retourne l'approximation en double de la fraction.
+     */
+    public double doubleValue() {
+        return toBigDecimal(MathContext.DECIMAL128).doubleValue();
+    }
+
+    /**
+     * Retourne la fraction sous la forme « numérateur/dénominateur », telle qu'elle est stockée.
+     */
+    @Override
+    public String toString() {
+        return numerator + "/" + denominator;
+    }
+
+    /**
+     * PGCD de deux long, par l'algorithme binaire de Stein (sans division).
+     *
+     * @return Le PGCD positif, ou 0 si les deux valeurs sont nulles.
+     * @throws ArithmeticException Si le PGCD vaut 2^63.
+     */
+    public static long gcd(long a, long b) {
+        if (a == 0 || b == 0) {
+            return Math.absExact(a | b);
+        }
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a = Math.abs(a >> Long.numberOfTrailingZeros(a));
+        b = Math.abs(b >> Long.numberOfTrailingZeros(b));
+        while (a != b) {
+            if (a > b) {
+                a -= b;
+                a >>= Long.numberOfTrailingZeros(a);
+            } else {
+                b -= a;
+                b >>= Long.numberOfTrailingZeros(b);
+            }
+        }
+        long gcd = a << shift;
+        if (gcd < 0) {
+            throw new ArithmeticException("long overflow");
+        }
+        return gcd;
+    }
+
+    /**
+     * Résultat d'une opération : réduit seulement si sa taille dépasse le seuil des opérandes.
+     */
+    private Rational result(BigInteger n, BigInteger d, Rational other) {
+        Rational result = new Rational(n, d, Math.max(reduceBits, other.reduceBits));
+        return result.bitLength() > result.reduceBits ? result.reduce() : result;
+    }
+}
@@ -0,0 +1,493 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Formatage des résultats de calcul sans passer par BigDecimal.
+ * La notation standard reproduit exactement les règles historiques de
+ * {@link CalculationResult#getFormattedResult()} : entiers affichés sans décimale,
+ * valeurs à moins de 1e-9 d'un entier ramenées à cet entier, sinon arrondi au plus
+ * proche (égalité vers le haut) de la valeur binaire exacte à 10 décimales, sans
+ * zéros finaux. L'arrondi est calculé sur 128 bits à partir de la mantisse, sans
+ * allocation intermédiaire, et le texte est écrit directement dans un StringBuilder.
+ * Les notations scientifique et ingénieur utilisent les chiffres de la plus courte
+ * représentation relisible du double (celle de {@link Double#toString(double)}).
+ * Les entiers et décimaux exacts sont écrits avec tous leurs chiffres significatifs en
+ * notation standard, et arrondis à 17 chiffres significatifs dans les autres notations ;
+ * les fractions sont écrites « 1÷3 » en notation standard, et les complexes « 3+4i ».
+ * Les entiers du mode programmeur sont écrits dans une base de 2 à 36, et les matrices
+ * « [1,2;3,4] ».
+ */
+public final class ResultFormatter {
+    /**
+     * Notation utilisée pour écrire un résultat.
+     */
+    public enum Notation {
+        /** Écriture décimale, 10 décimales au plus. */
+        STANDARD,
+        /** Un chiffre avant la virgule et un exposant, par exemple 1.2345E-7. */
+        SCIENTIFIC,
+        /** Exposant multiple de trois, par exemple 123.45E-9. */
+        ENGINEERING
+    }
+
+    private static final int DECIMALS = 10;
+    private static final long DECIMAL_SCALE = 10_000_000_000L;
+    private static final double NEAR_INTEGER = 1e-9;
+    // À partir de 2^52, tout double est entier
+    private static final double TWO_POW_52 = 0x1p52;
+    // Chiffres significatifs d'un nombre exact en notation scientifique ou ingénieur
+    private static final MathContext EXACT_SIGNIFICANT = new MathContext(17, RoundingMode.HALF_EVEN);
+
+    private ResultFormatter() {
+    }
+
+    /**
+     * Formate une valeur en notation standard.
+     *
+     * @param value La valeur à formater.
+     * @return Le texte de la valeur.
+     */
+    public static String format(double value) {
+        return format(value, Notation.STANDARD);
+    }
+
+    /**
+     * Formate une valeur dans la notation demandée.
+     *
+     * @param value La valeur à formater.
+     * @param notation La notation à utiliser.
+     * @return Le texte de la valeur.
+     */
+    public static String format(double value, Notation notation) {
+        StringBuilder out = new StringBuilder(24);
+        appendTo(out, value, notation);
+        return out.toString();
+    }
+
+    /**
+     * Écrit une valeur à la fin d'un StringBuilder, qui peut être réutilisé d'un appel
+     * à l'autre pour formater une série de résultats sans allocation.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value La valeur à formater.
+     * @param notation La notation à utiliser.
+     * @throws NumberFormatException Si la valeur est infinie ou NaN.
+     */
+    public static void appendTo(StringBuilder out, double value, Notation notation) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("Infinite or NaN");
+        }
+        if (notation == Notation.STANDARD) {
+            appendStandard(out, value);
+        } else {
+            appendExponential(out, snapToInteger(value), notation == Notation.ENGINEERING);
+        }
+    }
+
+    /**
+     * Écrit un entier exact à la fin d'un StringBuilder.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value L'entier à formater.
+     * @param notation La notation à utiliser.
+     */
+    public static void appendTo(StringBuilder out, BigInteger value, Notation notation) {
+        if (notation == Notation.STANDARD) {
+            out.append(value);
+        } else {
+            appendExponential(out, new BigDecimal(value), notation == Notation.ENGINEERING);
+        }
+    }
+
+    /**
+     * Écrit un décimal exact à la fin d'un StringBuilder, sans zéros finaux. Une échelle
+     * négative signale un entier arrondi à moins de chiffres qu'il n'en compte (mode précis) :
+     * il est écrit en notation scientifique plutôt qu'avec des zéros inventés.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value Le décimal à formater.
+     * @param notation La notation à utiliser.
+     */
+    public static void appendTo(StringBuilder out, BigDecimal value, Notation notation) {
+        if (notation == Notation.STANDARD && value.scale() < 0 && value.signum() != 0) {
+            appendExponential(out, value, false, MathContext.UNLIMITED);
+        } else if (notation == Notation.STANDARD) {
+            out.append(value.stripTrailingZeros().toPlainString());
+        } else {
+            appendExponential(out, value, notation == Notation.ENGINEERING);
+        }
+    }
+
+    /**
+     * Écrit un nombre complexe à la fin d'un StringBuilder, sous la forme « 3+4i » :
+     * chaque partie est formatée comme un double, et une partie qui s'écrit 0 est omise.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param real La partie réelle.
+     * @param imaginary La partie imaginaire.
+     * @param notation La notation à utiliser.
+     */
+    public static void appendTo(StringBuilder out, double real, double imaginary, Notation notation) {
+        int realStart = out.length();
+        appendTo(out, real, notation);
+        boolean realIsZero = isZero(out, realStart);
+        if (realIsZero) {
+            out.setLength(realStart);
+        }
+        int imaginaryStart = out.length();
+        appendTo(out, imaginary, notation);
+        if (isZero(out, imaginaryStart)) {
+            out.setLength(imaginaryStart);
+            if (realIsZero) {
+                out.append('0');
+            }
+            return;
+        }
+        // « i » plutôt que « 1i »
+        if (out.length() - imaginaryStart <= 2 && out.charAt(out.length() - 1) == '1'
+                && (out.length() - imaginaryStart == 1 || out.charAt(imaginaryStart) == '-')) {
+            out.setLength(out.length() - 1);
+        }
+        if (!realIsZero && (out.length() == imaginaryStart || out.charAt(imaginaryStart) != '-')) {
+            out.insert(imaginaryStart, '+');
+        }
+        out.append('i');
+    }
+
+    /**
+     * Indique si le texte écrit depuis start est « 0 » ou « -0 ».
+     */
+    private static boolean isZero(StringBuilder out, int start) {
+        int length = out.length() - start;
+        return out.charAt(out.length() - 1) == '0'
+            && (length == 1 || (length == 2 && out.charAt(start) == '-'));
+    }
+
+    /**
+     * Écrit un entier de 64 bits dans une base donnée. En base 10, il est écrit signé ;
+     * dans les autres bases, comme un motif de bits non signé (-1 s'écrit 0xFFFFFFFFFFFFFFFF),
+     * précédé de 0x, 0b ou 0o en base 16, 2 et 8. Les chiffres sont écrits directement dans
+     * le StringBuilder, sans chaîne intermédiaire.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value L'entier à formater.
+     * @param radix La base, de 2 à 36.
+     */
+    public static void appendTo(StringBuilder out, long value, int radix) {
+        if (radix == 10) {
+            out.append(value);
+            return;
+        }
+        switch (radix) {
+            case 16: out.append("0x"); break;
+            case 2: out.append("0b"); break;
+            case 8: out.append("0o"); break;
+            default: break;
+        }
+        // Chiffres de poids faible en premier, puis retournement
+        int start = out.length();
+        do {
+            int digit = (int) Long.remainderUnsigned(value, radix);
+            out.append(Character.toUpperCase(Character.forDigit(digit, radix)));
+            value = Long.divideUnsigned(value, radix);
+        } while (value != 0);
+        for (int i = start, j = out.length() - 1; i < j; i++, j--) {
+            char c = out.charAt(i);
+            out.setCharAt(i, out.charAt(j));
+            out.setCharAt(j, c);
+        }
+    }
+
+    /**
+     * Écrit une matrice à la fin d'un StringBuilder, sous la forme « [1,2;3,4] » relisible
+     * par {@link Matrix#parse(String)} : lignes séparées par des points-virgules, coefficients
+     * écrits comme des double dans la notation demandée.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value La matrice à formater.
+     * @param notation La notation des coefficients.
+     */
+    public static void appendTo(StringBuilder out, Matrix value, Notation notation) {
+        out.append('[');
+        for (int i = 0; i < value.getRows(); i++) {
+            if (i > 0) {
+                out.append(';');
+            }
+            for (int j = 0; j < value.getColumns(); j++) {
+                if (j > 0) {
+                    out.append(',');
+                }
+                appendTo(out, value.get(i, j), notation);
+            }
+        }
+        out.append(']');
+    }
+
+    /**
+     * Écrit un polynôme à la fin d'un StringBuilder, sous la forme « 3X^4-2X+1 » relisible
+     * en mode polynômes : termes par degré décroissant, coefficients écrits comme des double
+     * dans la notation demandée, coefficient 1 omis et termes qui s'écrivent 0 omis.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value Le polynôme à formater.
+     * @param notation La notation des coefficients.
+     */
+    public static void appendTo(StringBuilder out, Polynomial value, Notation notation) {
+        int start = out.length();
+        for (int power = value.degree(); power >= 0; power--) {
+            double coefficient = value.coefficient(power);
+            if (coefficient == 0) {
+                continue;
+            }
+            int termStart = out.length();
+            appendTo(out, coefficient, notation);
+            if (isZero(out, termStart)) {
+                out.setLength(termStart);
+                continue;
+            }
+            if (power > 0 && out.charAt(out.length() - 1) == '1'
+                    && (out.length() - termStart == 1 || (out.length() - termStart == 2 && out.charAt(termStart) == '-'))) {
+                // « X » plutôt que « 1X »
+                out.setLength(out.length() - 1);
+            }
+            if (termStart > start && (out.length() == termStart || out.charAt(termStart) != '-')) {
+                out.insert(termStart, '+');
+            }
+            if (power > 0) {
+                out.append('X');
+            }
+            if (power > 1) {
+                out.append('^').append(power);
+            }
+        }
+        if (out.length() == start) {
+            out.append('0');
+        }
+    }
+
+    /**
+     * Écrit les racines d'un polynôme à la fin d'un StringBuilder, sous la forme
+     * « {1 ; 2-i ; 2+i} », chaque racine écrite comme un nombre complexe ; « {} » s'il n'y
+     * en a aucune.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value Les racines à formater.
+     * @param notation La notation à utiliser.
+     */
+    public static void appendTo(StringBuilder out, Polynomial.Roots value, Notation notation) {
+        out.append('{');
+        for (int i = 0; i < value.size(); i++) {
+            if (i > 0) {
+                out.append(" ; ");
+            }
+            appendTo(out, value.getReal(i), value.getImaginary(i), notation);
+        }
+        out.append('}');
+    }
+
+    /**
+     * Écrit une fraction à la fin d'un StringBuilder : « numérateur÷dénominateur » en
+     * notation standard, valeur décimale à 17 chiffres significatifs sinon.
+     *
+     * @param out Le StringBuilder de destination.
+     * @param value La fraction à formater, déjà réduite.
+     * @param notation La notation à utiliser.
+     */
+    public static void appendTo(StringBuilder out, Rational value, Notation notation) {
+        if (notation == Notation.STANDARD) {
+            out.append(value.getNumerator()).append('÷').append(value.getDenominator());
+        } else {
+            appendExponential(out, value.toBigDecimal(MathContext.DECIMAL128), notation == Notation.ENGINEERING);
+        }
+    }
+
+    /**
+     * Notations scientifique et ingénieur d'un nombre exact, à 17 chiffres significatifs.
+     */
+    private static void appendExponential(StringBuilder out, BigDecimal value, boolean engineering) {
+        appendExponential(out, value, engineering, EXACT_SIGNIFICANT);
+    }
+
+    /**
+     * Notations scientifique et ingénieur d'un nombre exact, arrondi au nombre de chiffres
+     * significatifs donné (tous ses chiffres avec {@link MathContext#UNLIMITED}).
+     */
+    private static void appendExponential(StringBuilder out, BigDecimal value, boolean engineering,
+            MathContext significantDigits) {
+        if (value.signum() == 0) {
+            out.append('0');
+            return;
+        }
+        if (value.signum() < 0) {
+            out.append('-');
+        }
+        BigDecimal rounded = value.abs().round(significantDigits).stripTrailingZeros();
+        String significant = rounded.unscaledValue().toString();
+        int exponent = significant.length() - 1 - rounded.scale();
+        appendDigits(out, significant.toCharArray(), significant.length(), exponent, engineering);
+    }
+
+    /**
+     * Retourne l'entier le plus proche si la valeur en est à moins de 1e-9, la valeur sinon.
+     */
+    private static double snapToInteger(double value) {
+        long rounded = Math.round(value);
+        return Math.abs(value - rounded) < NEAR_INTEGER ? rounded : value;
+    }
+
+    /**
+     * Notation standard, identique aux règles historiques.
+     */
+    private static void appendStandard(StringBuilder out, double value) {
+        // Vérifie si le résultat est un entier
+        if (value == (long) value) {
+            out.append((long) value);
+            return;
+        }
+
+        // Vérifie si le résultat est proche d'un entier
+        long rounded = Math.round(value);
+        if (Math.abs(value - rounded) < NEAR_INTEGER) {
+            out.append(rounded);
+            return;
+        }
+
+        // Entier au-delà de la capacité d'un long : cas rare, écriture exacte par BigDecimal
+        if (Math.abs(value) >= TWO_POW_52) {
+            out.append(new BigDecimal(value).setScale(DECIMALS, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString());
+            return;
+        }
+
+        double magnitude = Math.abs(value);
+        long integerPart = (long) magnitude;
+        // La soustraction est exacte : la partie fractionnaire d'un double est représentable
+        long fraction = roundFraction(magnitude - integerPart);
+        if (fraction == DECIMAL_SCALE) {
+            integerPart++;
+            fraction = 0;
+        }
+
+        if (value < 0 && (integerPart != 0 || fraction != 0)) {
+            out.append('-');
+        }
+        out.append(integerPart);
+        if (fraction != 0) {
+            int digits = DECIMALS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            out.append('.');
+            int start = out.length();
+            for (int i = 0; i < digits; i++) {
+                out.append('0');
+            }
+            for (int i = start + digits - 1; fraction != 0; i--) {
+                out.setCharAt(i, (char) ('0' + fraction % 10));
+                fraction /= 10;
+            }
+        }
+    }
+
+    /**
+     * Arrondit exactement une partie fractionnaire à 10 décimales.
+     * La fraction vaut mantisse / 2^décalage ; le produit mantisse × 10^10 tient sur
+     * 128 bits et le décalage est appliqué sur ces 128 bits.
+     *
+     * @param fraction Une valeur de [0, 1).
+     * @return La fraction × 10^10 arrondie au plus proche, égalité vers le haut.
+     */
+    static long roundFraction(double fraction) {
+        if (fraction == 0) {
+            return 0;
+        }
+        long bits = Double.doubleToRawLongBits(fraction);
+        int exponent = (int) (bits >>> 52) & 0x7ff;
+        long mantissa = bits & 0xfffffffffffffL;
+        if (exponent == 0) {
+            exponent = 1;
+        } else {
+            mantissa |= 1L << 52;
+        }
+        // fraction < 1 donc décalage >= 53
+        int shift = 1075 - exponent;
+        if (shift >= 128) {
+            // Le produit est inférieur à 2^87 : le quotient et le bit d'arrondi sont nuls
+            return 0;
+        }
+
+        long high = Math.multiplyHigh(mantissa, DECIMAL_SCALE);
+        long low = mantissa * DECIMAL_SCALE;
+        long quotient;
+        long roundBit;
+        if (shift >= 64) {
+            quotient = high >>> (shift - 64);
+            roundBit = shift == 64 ? low >>> 63 : (high >>> (shift - 65)) & 1;
+        } else {
+            quotient = (low >>> shift) | (high << (64 - shift));
+            roundBit = (low >>> (shift - 1)) & 1;
+        }
+        return quotient + roundBit;
+    }
+
+    /**
+     * Notations scientifique et ingénieur à partir de la plus courte représentation du double.
+     */
+    private static void appendExponential(StringBuilder out, double value, boolean engineering) {
+        if (value == 0) {
+            out.append('0');
+            return;
+        }
+        if (value < 0) {
+            out.append('-');
+        }
+
+        // Chiffres significatifs et exposant décimal du premier chiffre
+        String shortest = Double.toString(Math.abs(value));
+        char[] digits = new char[shortest.length()];
+        int count = 0;
+        int integerDigits = -1;
+        int leadingZeros = 0;
+        int exponent = 0;
+        for (int i = 0; i < shortest.length(); i++) {
+            char c = shortest.charAt(i);
+            if (c == '.') {
+                integerDigits = i;
+            } else if (c == 'E') {
+                exponent = Integer.parseInt(shortest, i + 1, shortest.length(), 10);
+                break;
+            } else if (c == '0' && count == 0) {
+                leadingZeros++;
+            } else {
+                digits[count++] = c;
+            }
+        }
+        while (count > 1 && digits[count - 1] == '0') {
+            count--;
+        }
+        exponent += integerDigits - 1 - leadingZeros;
+        appendDigits(out, digits, count, exponent, engineering);
+    }
+
+    /**
+     * Écrit des chiffres significatifs (sans zéros finaux) avec leur exposant décimal,
+     * celui du premier chiffre.
+     */
+    private static void appendDigits(StringBuilder out, char[] digits, int count, int exponent, boolean engineering) {
+        int exponentShown = engineering ? Math.floorDiv(exponent, 3) * 3 : exponent;
+        int beforePoint = exponent - exponentShown + 1;
+        for (int i = 0; i < beforePoint; i++) {
+            out.append(i < count ? digits[i] : '0');
+        }
+        if (count > beforePoint) {
+            out.append('.').append(digits, beforePoint, count - beforePoint);
+        }
+        if (exponentShown != 0) {
+            out.append('E').append(exponentShown);
+        }
+    }
+}
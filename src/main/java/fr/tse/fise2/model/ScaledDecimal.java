@@ -0,0 +1,157 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Arithmétique décimale en virgule fixe sur des long, sans allocation.
+ * Une valeur est représentée par une mantisse entière et une échelle : la mantisse
+ * 12345 à l'échelle 2 vaut 123,45. Les méthodes retournent la mantisse du résultat,
+ * dont l'échelle est fixée par l'appelant, et lèvent une {@link ArithmeticException}
+ * en cas de dépassement de capacité : l'appelant reprend alors le calcul en
+ * {@link BigDecimal}.
+ */
+public final class ScaledDecimal {
+    /** Plus grande échelle utilisable : 10^18 est la plus grande puissance de 10 dans un long. */
+    public static final int MAX_SCALE = 18;
+
+    private static final long[] POW10 = new long[MAX_SCALE + 1];
+    private static final double[] DOUBLE_POW10 = new double[23];
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+        DOUBLE_POW10[0] = 1;
+        for (int i = 1; i < DOUBLE_POW10.length; i++) {
+            DOUBLE_POW10[i] = DOUBLE_POW10[i - 1] * 10;
+        }
+    }
+    // En dessous de 2^53, un long est exactement représentable par un double
+    private static final long TWO_POW_53 = 1L << 53;
+
+    private ScaledDecimal() {
+    }
+
+    /**
+     * Change l'échelle d'une valeur, en arrondissant si l'échelle diminue.
+     *
+     * @param unscaled La mantisse.
+     * @param scale L'échelle de la mantisse.
+     * @param newScale L'échelle du résultat.
+     * @param rounding Le mode d'arrondi.
+     * @return La mantisse à la nouvelle échelle.
+     * @throws ArithmeticException En cas de dépassement.
+     */
+    public static long rescale(long unscaled, int scale, int newScale, RoundingMode rounding) {
+        if (newScale >= scale) {
+            return Math.multiplyExact(unscaled, pow10(newScale - scale));
+        }
+        return divide(unscaled, pow10(scale - newScale), rounding);
+    }
+
+    /**
+     * Additionne deux valeurs ; le résultat est à la plus grande des deux échelles.
+     */
+    public static long add(long a, int scaleA, long b, int scaleB) {
+        int scale = Math.max(scaleA, scaleB);
+        return Math.addExact(rescale(a, scaleA, scale, RoundingMode.UNNECESSARY),
+            rescale(b, scaleB, scale, RoundingMode.UNNECESSARY));
+    }
+
+    /**
+     * Soustrait deux valeurs ; le résultat est à la plus grande des deux échelles.
+     */
+    public static long subtract(long a, int scaleA, long b, int scaleB) {
+        int scale = Math.max(scaleA, scaleB);
+        return Math.subtractExact(rescale(a, scaleA, scale, RoundingMode.UNNECESSARY),
+            rescale(b, scaleB, scale, RoundingMode.UNNECESSARY));
+    }
+
+    /**
+     * Reste de la division de a par b (du signe de a) ; le résultat est à la plus
+     * grande des deux échelles.
+     *
+     * @throws ArithmeticException Si b est nul ou en cas de dépassement.
+     */
+    public static long remainder(long a, int scaleA, long b, int scaleB) {
+        int scale = Math.max(scaleA, scaleB);
+        return rescale(a, scaleA, scale, RoundingMode.UNNECESSARY)
+            % rescale(b, scaleB, scale, RoundingMode.UNNECESSARY);
+    }
+
+    /**
+     * Multiplie deux valeurs ; le produit exact, à l'échelle scaleA + scaleB, est
+     * arrondi à l'échelle demandée.
+     */
+    public static long multiply(long a, int scaleA, long b, int scaleB, int scale, RoundingMode rounding) {
+        return rescale(Math.multiplyExact(a, b), scaleA + scaleB, scale, rounding);
+    }
+
+    /**
+     * Divise deux valeurs ; le quotient est arrondi à l'échelle demandée.
+     *
+     * @throws ArithmeticException Si b est nul ou en cas de dépassement.
+     */
+    public static long divide(long a, int scaleA, long b, int scaleB, int scale, RoundingMode rounding) {
+        // a / b = (a × 10^shift / b) / 10^scale
+        int shift = scale + scaleB - scaleA;
+        if (shift >= 0) {
+            return divide(Math.multiplyExact(a, pow10(shift)), b, rounding);
+        }
+        return divide(a, Math.multiplyExact(b, pow10(-shift)), rounding);
+    }
+
+    /**
+     * Division entière arrondie selon le mode demandé.
+     *
+     * @throws ArithmeticException Si le diviseur est nul, en cas de dépassement, ou si
+     *         le mode est UNNECESSARY et que la division ne tombe pas juste.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode rounding) {
+        if (divisor == Long.MIN_VALUE) {
+            throw new ArithmeticException("long overflow");
+        }
+        long quotient = Math.divideExact(dividend, divisor);
+        long remainder = dividend - quotient * divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        // Signe du quotient exact, et comparaison du reste à la moitié du diviseur
+        // sans calculer 2 × reste, qui pourrait dépasser
+        int sign = (dividend ^ divisor) < 0 ? -1 : 1;
+        long absRemainder = Math.abs(remainder);
+        long otherPart = Math.abs(divisor) - absRemainder;
+        int half = Long.compare(absRemainder, otherPart);
+        boolean awayFromZero;
+        switch (rounding) {
+            case UP: awayFromZero = true; break;
+            case DOWN: awayFromZero = false; break;
+            case CEILING: awayFromZero = sign > 0; break;
+            case FLOOR: awayFromZero = sign < 0; break;
+            case HALF_UP: awayFromZero = half >= 0; break;
+            case HALF_DOWN: awayFromZero = half > 0; break;
+            case HALF_EVEN: awayFromZero = half > 0 || (half == 0 && (quotient & 1) != 0); break;
+            default: throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? Math.addExact(quotient, sign) : quotient;
+    }
+
+    /**
+     * Retourne l'approximation en double d'une valeur.
+     */
+    public static double toDouble(long unscaled, int scale) {
+        if (Math.abs(unscaled) <= TWO_POW_53 && scale < DOUBLE_POW10.length) {
+            // Deux opérandes exacts : la division est correctement arrondie
+            return unscaled / DOUBLE_POW10[scale];
+        }
+        return BigDecimal.valueOf(unscaled, scale).doubleValue();
+    }
+
+    private static long pow10(int exponent) {
+        if (exponent > MAX_SCALE) {
+            throw new ArithmeticException("long overflow");
+        }
+        return POW10[exponent];
+    }
+}
@@ -0,0 +1,286 @@
+package fr.tse.fise2.model;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sommes et produits d'un terme compilé ({@link CompiledExpression}) sur une plage d'indices
+ * entiers : X prend successivement les valeurs de from à to.
+ * <p>
+ * La plage est coupée en tranches traitées comme des tâches du {@link ForkJoinPool} commun,
+ * chaque thread évaluant le terme avec son propre {@link CompiledExpression.Evaluator}. Les
+ * sommes sont compensées par l'algorithme de Kahan–Neumaier, dans chaque tranche comme à
+ * la réunion des tranches : l'erreur reste de l'ordre d'un arrondi, quel que soit le nombre
+ * de termes. Les produits sont compensés de même grâce à l'erreur exacte de chaque produit
+ * (Math.fma), et l'exposant binaire est mis de côté pour qu'un produit partiel ne dépasse
+ * pas la capacité d'un double.
+ * <p>
+ * Un calcul peut être interrompu : le thread appelant attend le résultat de façon
+ * interruptible, et les tranches qui n'ont pas encore commencé sont alors abandonnées.
+ */
+public final class Series {
+    // Nombre de termes calculés par une tâche sans nouvelle découpe
+    private static final int TERMS_PER_TASK = 1 << 14;
+    // Au-delà de 2^53, les indices ne sont plus tous représentables par un double
+    private static final long MAX_INDEX = 1L << 53;
+    // Bornes du produit partiel avant mise à l'échelle
+    private static final double SCALE_UP = 0x1p-500;
+    private static final double SCALE_DOWN = 0x1p500;
+
+    private Series() {
+    }
+
+    /**
+     * Calcule la somme des valeurs du terme pour X allant de from à to.
+     *
+     * @param term Le terme, d'inconnue X.
+     * @param from Le premier indice.
+     * @param to Le dernier indice ; la somme est nulle si to &lt; from.
+     * @return La somme.
+     * @throws CalculatorException Si un indice dépasse 2^53 ou si un terme n'est pas défini.
+     */
+    public static double sum(CompiledExpression term, long from, long to) throws CalculatorException {
+        checkRange(from, to);
+        if (to < from) {
+            return 0;
+        }
+        ThreadLocal<CompiledExpression.Evaluator> evaluators = ThreadLocal.withInitial(term::evaluator);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        return run(new SumTask(evaluators, cancelled, from, to), cancelled).value();
+    }
+
+    /**
+     * Calcule le produit des valeurs du terme pour X allant de from à to.
+     *
+     * @param term Le terme, d'inconnue X.
+     * @param from Le premier indice.
+     * @param to Le dernier indice ; le produit vaut 1 si to &lt; from.
+     * @return Le produit.
+     * @throws CalculatorException Si un indice dépasse 2^53, si un terme n'est pas défini
+     *         ou si le produit est trop grand pour être représenté.
+     */
+    public static double product(CompiledExpression term, long from, long to) throws CalculatorException {
+        checkRange(from, to);
+        if (to < from) {
+            return 1;
+        }
+        ThreadLocal<CompiledExpression.Evaluator> evaluators = ThreadLocal.withInitial(term::evaluator);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        double result = run(new ProductTask(evaluators, cancelled, from, to), cancelled).value();
+        if (Double.isInfinite(result)) {
+            throw new CalculatorException("Le résultat est trop grand pour être représenté.");
+        }
+        return result;
+    }
+
+    private static void checkRange(long from, long to) throws CalculatorException {
+        if (Math.abs(from) > MAX_INDEX || Math.abs(to) > MAX_INDEX) {
+            throw new CalculatorException("Les indices doivent être compris entre -2^53 et 2^53.");
+        }
+    }
+
+    /**
+     * Évalue le terme d'indice k ; une erreur de calcul ou une valeur infinie interrompt le calcul.
+     */
+    private static double term(CompiledExpression.Evaluator evaluator, long k) {
+        double value;
+        try {
+            value = evaluator.evaluate(k);
+        } catch (CalculatorException e) {
+            throw new EvaluationException(e);
+        }
+        if (!Double.isFinite(value)) {
+            throw new EvaluationException(new CalculatorException("Le terme n'est pas défini pour X = " + k + "."));
+        }
+        return value;
+    }
+
+    /**
+     * Confie la tâche au pool commun et attend son résultat. Si le thread appelant est
+     * interrompu pendant l'attente, les tranches qui n'ont pas commencé sont abandonnées.
+     */
+    private static <T> T run(RecursiveTask<T> task, AtomicBoolean cancelled) throws CalculatorException {
+        ForkJoinPool.commonPool().execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+            throw new CalculatorException("Calcul interrompu.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EvaluationException) {
+                throw ((EvaluationException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * Abandonne une tranche, sans la découper ni l'évaluer, si le calcul a été interrompu.
+     */
+    private static void checkCancelled(AtomicBoolean cancelled) {
+        if (cancelled.get()) {
+            throw new EvaluationException(new CalculatorException("Calcul interrompu."));
+        }
+    }
+
+    /**
+     * Somme partielle compensée : la somme arrondie et la somme des erreurs d'arrondi.
+     */
+    private static final class CompensatedSum {
+        private double sum;
+        private double compensation;
+
+        /**
+         * Ajoute une valeur (algorithme de Neumaier).
+         */
+        void add(double value) {
+            double total = sum + value;
+            if (Math.abs(sum) >= Math.abs(value)) {
+                compensation += (sum - total) + value;
+            } else {
+                compensation += (value - total) + sum;
+            }
+            sum = total;
+        }
+
+        /**
+         * Ajoute une autre somme partielle, sa valeur puis sa compensation.
+         */
+        void merge(CompensatedSum other) {
+            add(other.sum);
+            compensation += other.compensation;
+        }
+
+        double value() {
+            return sum + compensation;
+        }
+    }
+
+    /**
+     * Produit partiel compensé : produit × 2^exponent, corrigé de la somme des erreurs
+     * exactes de chaque multiplication (algorithme de Graillat).
+     */
+    private static final class CompensatedProduct {
+        private double product = 1;
+        private double compensation;
+        private long exponent;
+
+        void multiply(double value) {
+            double result = product * value;
+            compensation = Math.fma(product, value, -result) + compensation * value;
+            product = result;
+            rescale();
+        }
+
+        void merge(CompensatedProduct other) {
+            double result = product * other.product;
+            compensation = Math.fma(product, other.product, -result)
+                + product * other.compensation + compensation * other.product;
+            product = result;
+            exponent += other.exponent;
+            rescale();
+        }
+
+        /**
+         * Ramène le produit vers 1 quand il s'en éloigne, l'écart étant reporté dans l'exposant.
+         */
+        private void rescale() {
+            double magnitude = Math.abs(product);
+            if (magnitude != 0 && (magnitude < SCALE_UP || magnitude > SCALE_DOWN)) {
+                int shift = Math.getExponent(product);
+                product = Math.scalb(product, -shift);
+                compensation = Math.scalb(compensation, -shift);
+                exponent += shift;
+            }
+        }
+
+        double value() {
+            double value = product + compensation;
+            if (value == 0) {
+                return value;
+            }
+            int shift = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, exponent));
+            return Math.scalb(value, shift);
+        }
+    }
+
+    /**
+     * Somme d'une tranche d'indices, découpée en deux tant qu'elle dépasse TERMS_PER_TASK termes.
+     */
+    private static final class SumTask extends RecursiveTask<CompensatedSum> {
+        private final ThreadLocal<CompiledExpression.Evaluator> evaluators;
+        private final AtomicBoolean cancelled;
+        private final long from;
+        private final long to;
+
+        SumTask(ThreadLocal<CompiledExpression.Evaluator> evaluators, AtomicBoolean cancelled, long from, long to) {
+            this.evaluators = evaluators;
+            this.cancelled = cancelled;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CompensatedSum compute() {
+            checkCancelled(cancelled);
+            if (to - from >= TERMS_PER_TASK) {
+                long middle = from + (to - from) / 2;
+                SumTask first = new SumTask(evaluators, cancelled, from, middle);
+                first.fork();
+                CompensatedSum second = new SumTask(evaluators, cancelled, middle + 1, to).compute();
+                CompensatedSum result = first.join();
+                result.merge(second);
+                return result;
+            }
+            CompiledExpression.Evaluator evaluator = evaluators.get();
+            CompensatedSum result = new CompensatedSum();
+            for (long k = from; k <= to; k++) {
+                result.add(term(evaluator, k));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Produit d'une tranche d'indices, découpée comme pour {@link SumTask}.
+     */
+    private static final class ProductTask extends RecursiveTask<CompensatedProduct> {
+        private final ThreadLocal<CompiledExpression.Evaluator> evaluators;
+        private final AtomicBoolean cancelled;
+        private final long from;
+        private final long to;
+
+        ProductTask(ThreadLocal<CompiledExpression.Evaluator> evaluators, AtomicBoolean cancelled, long from, long to) {
+            this.evaluators = evaluators;
+            this.cancelled = cancelled;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected CompensatedProduct compute() {
+            checkCancelled(cancelled);
+            if (to - from >= TERMS_PER_TASK) {
+                long middle = from + (to - from) / 2;
+                ProductTask first = new ProductTask(evaluators, cancelled, from, middle);
+                first.fork();
+                CompensatedProduct second = new ProductTask(evaluators, cancelled, middle + 1, to).compute();
+                CompensatedProduct result = first.join();
+                result.merge(second);
+                return result;
+            }
+            CompiledExpression.Evaluator evaluator = evaluators.get();
+            CompensatedProduct result = new CompensatedProduct();
+            for (long k = from; k <= to; k++) {
+                result.multiply(term(evaluator, k));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package fr.tse.fise2.model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Résolution d'équations f(X) = 0 sur des expressions compilées ({@link CompiledExpression}).
+ * <p>
+ * À partir d'une valeur de départ, la méthode de Newton est protégée : la dérivée est
+ * estimée par différences centrées, un pas qui n'améliore pas |f| est divisé par deux,
+ * et dès que deux itérés encadrent un changement de signe, la fin du calcul est confiée
+ * à la méthode de Brent sur cet intervalle, dont la convergence est garantie. Sur un
+ * intervalle [a, b] où f change de signe, la méthode de Brent est utilisée directement.
+ * Chaque itération évalue l'expression compilée, sans découpage de la chaîne.
+ */
+public final class Solver {
+    private static final int MAX_ITERATIONS = 200;
+    private static final int MAX_HALVINGS = 60;
+    private static final double EPSILON = Math.ulp(1.0);
+    // Pas relatif des différences centrées : racine cubique de ε, au moins racine carrée de ε
+    private static final double DERIVATIVE_STEP = Math.cbrt(EPSILON);
+    private static final double MIN_DERIVATIVE_STEP = Math.sqrt(EPSILON);
+    // Nombre d'équations résolues par tâche de solveAll
+    private static final int EQUATIONS_PER_TASK = 16;
+
+    private Solver() {
+    }
+
+    /**
+     * Cherche une solution de f(X) = 0 à partir d'une valeur de départ.
+     *
+     * @param f L'expression compilée.
+     * @param guess La valeur de départ.
+     * @return Une solution.
+     * @throws CalculatorException Si f n'est pas définie en guess ou si aucune solution
+     *         n'est trouvée.
+     */
+    public static double solve(CompiledExpression f, double guess) throws CalculatorException {
+        CompiledExpression.Evaluator evaluator = f.evaluator();
+        double x = guess;
+        double fx = evaluator.evaluate(x);
+        double lastStep = Double.POSITIVE_INFINITY;
+        if (!Double.isFinite(fx)) {
+            throw new CalculatorException("L'équation n'est pas définie pour X = " + ResultFormatter.format(guess) + ".");
+        }
+        for (int iteration = 0; iteration < MAX_ITERATIONS && fx != 0; iteration++) {
+            // Le pas des différences suit celui de Newton, pour les racines multiples
+            double scale = Math.max(1, Math.abs(x));
+            double h = Math.max(Math.min(DERIVATIVE_STEP * scale, Math.abs(lastStep)), MIN_DERIVATIVE_STEP * scale);
+            double derivative = (value(evaluator, x + h) - value(evaluator, x - h)) / (2 * h);
+            double step = fx / derivative;
+            if (!Double.isFinite(step)) {
+                throw new CalculatorException("La dérivée s'annule : essayer une autre valeur de départ.");
+            }
+            // Pas réduit tant que f n'est pas définie ou que |f| ne diminue pas
+            double next = x - step;
+            double fNext = value(evaluator, next);
+            int halvings = 0;
+            while (!(Math.abs(fNext) < Math.abs(fx)) && Math.signum(fNext) != -Math.signum(fx)
+                    && halvings++ < MAX_HALVINGS) {
+                step /= 2;
+                next = x - step;
+                fNext = value(evaluator, next);
+            }
+            if (!Double.isFinite(fNext)) {
+                break;
+            }
+            if (Math.signum(fNext) == -Math.signum(fx)) {
+                // Changement de signe : racine encadrée
+                return brent(evaluator, x, fx, next, fNext);
+            }
+            if (!(Math.abs(fNext) < Math.abs(fx))) {
+                break;
+            }
+            boolean converged = Math.abs(next - x) <= 4 * EPSILON * Math.max(1, Math.abs(next));
+            lastStep = next - x;
+            x = next;
+            fx = fNext;
+            if (converged) {
+                return x;
+            }
+        }
+        // Racine multiple : les pas ne sont plus que de l'ordre de √ε
+        if (fx == 0 || Math.abs(lastStep) <= MIN_DERIVATIVE_STEP * Math.max(1, Math.abs(x))) {
+            return x;
+        }
+        throw new CalculatorException("Aucune solution trouvée à partir de X = " + ResultFormatter.format(guess) + ".");
+    }
+
+    /**
+     * Cherche une solution de f(X) = 0 dans un intervalle par la méthode de Brent.
+     *
+     * @param f L'expression compilée.
+     * @param lower Une borne de l'intervalle.
+     * @param upper L'autre borne.
+     * @return Une solution comprise entre les deux bornes.
+     * @throws CalculatorException Si f ne change pas de signe entre les bornes ou n'est pas
+     *         définie sur l'intervalle.
+     */
+    public static double solve(CompiledExpression f, double lower, double upper) throws CalculatorException {
+        CompiledExpression.Evaluator evaluator = f.evaluator();
+        double fLower = evaluator.evaluate(lower);
+        double fUpper = evaluator.evaluate(upper);
+        if (fLower == 0) {
+            return lower;
+        }
+        if (fUpper == 0) {
+            return upper;
+        }
+        if (!(Math.signum(fLower) == -Math.signum(fUpper))) {
+            throw new CalculatorException("L'expression doit changer de signe entre les bornes de l'intervalle.");
+        }
+        return brent(evaluator, lower, fLower, upper, fUpper);
+    }
+
+    /**
+     * Résout des équations indépendantes en parallèle, sur le {@link ForkJoinPool} commun.
+     *
+     * @param equations Les expressions compilées.
+     * @param guesses La valeur de départ de chaque équation.
+     * @return La solution de chaque équation, ou NaN si elle n'a pas été trouvée.
+     * @throws IllegalArgumentException Si les tableaux n'ont pas la même longueur.
+     */
+    public static double[] solveAll(CompiledExpression[] equations, double[] guesses) {
+        if (equations.length != guesses.length) {
+            throw new IllegalArgumentException("Tableaux de longueurs différentes");
+        }
+        double[] roots = new double[equations.length];
+        ForkJoinPool.commonPool().invoke(new SolveTask(equations, guesses, roots, 0, equations.length));
+        return roots;
+    }
+
+    /**
+     * Méthode de Brent : interpolation quadratique inverse ou sécante quand elles restent
+     * dans l'intervalle et réduisent assez sa longueur, dichotomie sinon.
+     * Les valeurs f(a) et f(b) sont de signes opposés.
+     */
+    private static double brent(CompiledExpression.Evaluator f, double a, double fa, double b, double fb)
+            throws CalculatorException {
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            if (Math.signum(fb) == Math.signum(fc)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * EPSILON * Math.abs(b) + Double.MIN_NORMAL;
+            double middle = (c - b) / 2;
+            if (Math.abs(middle) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    // Sécante
+                    p = 2 * middle * s;
+                    q = 1 - s;
+                } else {
+                    // Interpolation quadratique inverse
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * middle * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * middle * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = middle;
+                    e = d;
+                }
+            } else {
+                d = middle;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, middle);
+            fb = f.evaluate(b);
+            if (Double.isNaN(fb)) {
+                throw new CalculatorException("L'équation n'est pas définie sur tout l'intervalle.");
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Évalue f en x, ou retourne NaN si f n'y est pas définie.
+     */
+    private static double value(CompiledExpression.Evaluator f, double x) {
+        try {
+            return f.evaluate(x);
+        } catch (CalculatorException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Tâche de résolution d'une tranche d'équations, découpée en deux tant qu'elle en
+     * contient plus de EQUATIONS_PER_TASK.
+     */
+    private static final class SolveTask extends RecursiveAction {
+        private final CompiledExpression[] equations;
+        private final double[] guesses;
+        private final double[] roots;
+        private final int start;
+        private final int end;
+
+        SolveTask(CompiledExpression[] equations, double[] guesses, double[] roots, int start, int end) {
+            this.equations = equations;
+            this.guesses = guesses;
+            this.roots = roots;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > EQUATIONS_PER_TASK) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new SolveTask(equations, guesses, roots, start, middle),
+                    new SolveTask(equations, guesses, roots, middle, end));
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                try {
+                    roots[i] = solve(equations[i], guesses[i]);
+                } catch (CalculatorException e) {
+                    roots[i] = Double.NaN;
+                }
+            }
+        }
+    }
+}
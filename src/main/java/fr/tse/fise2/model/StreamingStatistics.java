@@ -0,0 +1,136 @@
+package fr.tse.fise2.model;
+
+/**
+ * Statistiques d'une série de valeurs calculées en une passe et en mémoire constante :
+ * effectif, moyenne et variance par l'algorithme de Welford, minimum, maximum et
+ * quantiles approchés ({@link QuantileSketch}).
+ * <p>
+ * La moyenne est mise à jour à chaque valeur par son écart à la moyenne courante, ce qui
+ * évite l'annulation catastrophique de la formule Σx² - n × moyenne². Deux séries traitées
+ * séparément, par exemple deux morceaux d'un fichier lus en parallèle, se fusionnent par
+ * la formule de Chan, Golub et LeVeque.
+ */
+public final class StreamingStatistics {
+    private long count;
+    private double mean;
+    // Somme des carrés des écarts à la moyenne
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    // Cellules non numériques rencontrées à la lecture, ignorées
+    private long skipped;
+    private final QuantileSketch sketch = new QuantileSketch();
+
+    /**
+     * Ajoute une valeur à la série. Les valeurs NaN sont comptées comme ignorées.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            skipped++;
+            return;
+        }
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        sketch.add(value);
+    }
+
+    /**
+     * Compte une cellule ignorée (vide ou non numérique).
+     */
+    public void skip() {
+        skipped++;
+    }
+
+    /**
+     * Ajoute les valeurs d'une autre série à celle-ci. L'autre série n'est pas modifiée.
+     */
+    public void merge(StreamingStatistics other) {
+        if (other.count > 0) {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            squaredDeviations += other.squaredDeviations + delta * delta * ((double) count * other.count / total);
+            count = total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            sketch.merge(other.sketch);
+        }
+        skipped += other.skipped;
+    }
+
+    /**
+     * Retourne le nombre de valeurs de la série.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Retourne le nombre de cellules ignorées.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Retourne la moyenne, ou NaN si la série est vide.
+     */
+    public double getMean() {
+        return count > 0 ? mean : Double.NaN;
+    }
+
+    /**
+     * Retourne la variance de l'échantillon (divisée par n - 1), ou NaN s'il y a moins
+     * de deux valeurs.
+     */
+    public double getVariance() {
+        return count > 1 ? squaredDeviations / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * Retourne l'écart type de l'échantillon, racine de {@link #getVariance()}.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Retourne la plus petite valeur, ou NaN si la série est vide.
+     */
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Retourne la plus grande valeur, ou NaN si la série est vide.
+     */
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * Retourne une valeur approchée du quantile d'ordre q ; les ordres 0 et 1 donnent
+     * exactement le minimum et le maximum.
+     *
+     * @param q L'ordre du quantile, entre 0 et 1.
+     * @return Le quantile, ou NaN si la série est vide.
+     * @throws IllegalArgumentException Si q n'est pas entre 0 et 1.
+     */
+    public double getQuantile(double q) {
+        if (q == 0) {
+            return getMin();
+        }
+        if (q == 1) {
+            return getMax();
+        }
+        return sketch.quantile(q);
+    }
+}
@@ -0,0 +1,543 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * Dérivation symbolique par rapport à X d'une {@link CompiledExpression}.
+ * <p>
+ * La notation postfixe de l'expression est lue en arbre, l'arbre est dérivé par les règles
+ * usuelles (somme, produit, quotient, puissance, fonctions composées), puis la dérivée est
+ * recompilée. Les nœuds sont construits par des méthodes qui simplifient au passage : les
+ * éléments neutres et absorbants disparaissent, les opérations entre nombres sont calculées,
+ * la différence de deux sous-arbres identiques vaut 0 et leur quotient 1 (u ÷ u,
+ * u × (1 ÷ u)), et le produit d'un sous-arbre par lui-même devient une puissance. Les
+ * facteurs constants sont regroupés en tête des produits, et un produit par -1 devient
+ * une négation, écrite « - » puis absorbée par les sommes et différences voisines.
+ * Les fonctions trigonométriques portent le facteur de l'unité d'angle de l'expression
+ * (π/180 en degrés, π/200 en grades), et le factoriel, Γ(x + 1), se dérive par la fonction
+ * digamma ψ : (x!)' = x! × ψ(x + 1).
+ */
+final class SymbolicDifferentiator {
+    private static final Node ZERO = number(0);
+    private static final Node ONE = number(1);
+    private static final Node TWO = number(2);
+    private static final Node PI = new Node("π", null, null);
+    private static final Node UNKNOWN = new Node("X", null, null);
+
+    // Priorité d'affichage des nombres, de X, de π, des fonctions et de '%'
+    private static final int ATOM = 10;
+
+    private final AngleMode angleMode;
+    // Moteur de calcul des opérations entre nombres
+    private final CalculatorEngine engine = new CalculatorEngine();
+
+    private SymbolicDifferentiator(AngleMode angleMode) {
+        this.angleMode = angleMode;
+        engine.setAngleMode(angleMode);
+    }
+
+    /**
+     * Calcule la dérivée simplifiée d'une expression compilée.
+     *
+     * @param f L'expression.
+     * @return La dérivée, compilée dans la même unité d'angle.
+     * @throws CalculatorException Si une fonction de l'expression n'est pas dérivable en X.
+     */
+    static CompiledExpression differentiate(CompiledExpression f) throws CalculatorException {
+        SymbolicDifferentiator differentiator = new SymbolicDifferentiator(f.getAngleMode());
+        Node derivative = differentiator.derive(differentiator.parse(f.postfix()));
+        List<String> postfix = new ArrayList<>();
+        derivative.appendPostfix(postfix);
+        return new CompiledExpression(postfix, f.getAngleMode(), derivative.toString());
+    }
+
+    /**
+     * Construit l'arbre d'une notation postfixe déjà validée par {@link CompiledExpression}, en
+     * le simplifiant comme les dérivées : une dérivée relue se dérive comme la fonction d'origine.
+     */
+    private Node parse(List<String> postfix) throws CalculatorException {
+        Stack<Node> nodes = new Stack<>();
+        for (String token : postfix) {
+            switch (token) {
+                case "X": nodes.push(UNKNOWN); break;
+                case "π": nodes.push(PI); break;
+                case "+": case "-": case "x": case "÷": case "mod": case "^": case "nCr": case "nPr": {
+                    Node right = nodes.pop();
+                    Node left = nodes.pop();
+                    nodes.push(operation(token, left, right));
+                    break;
+                }
+                case "neg":
+                    nodes.push(negate(nodes.pop()));
+                    break;
+                case "%": case "!": case "sin": case "cos": case "tan":
+                case "arcsin": case "arccos": case "arctan": case "ln": case "exp": case "sqrt": case "ψ":
+                    nodes.push(unary(token, nodes.pop()));
+                    break;
+                default:
+                    nodes.push(number(Double.parseDouble(token)));
+                    break;
+            }
+        }
+        return nodes.pop();
+    }
+
+    /**
+     * Dérive un nœud par rapport à X.
+     */
+    private Node derive(Node node) throws CalculatorException {
+        if (!node.variable) {
+            return ZERO;
+        }
+        if (node == UNKNOWN) {
+            return ONE;
+        }
+        Node u = node.left;
+        Node v = node.right;
+        switch (node.token) {
+            case "+":
+                return add(derive(u), derive(v));
+            case "-":
+                return subtract(derive(u), derive(v));
+            case "neg":
+                return negate(derive(u));
+            case "x":
+                return add(multiply(derive(u), v), multiply(u, derive(v)));
+            case "÷":
+                if (!v.variable) {
+                    return divide(derive(u), v);
+                }
+                return divide(subtract(multiply(derive(u), v), multiply(u, derive(v))), power(v, TWO));
+            case "mod":
+                // u mod v = u - v × ent(u / v), ent(u / v) = (u - u mod v) / v
+                if (!v.variable) {
+                    return derive(u);
+                }
+                return subtract(derive(u), multiply(divide(subtract(u, node), v), derive(v)));
+            case "^":
+                if (!v.variable) {
+                    return multiply(multiply(v, power(u, subtract(v, ONE))), derive(u));
+                }
+                if (!u.variable) {
+                    return multiply(multiply(node, unary("ln", u)), derive(v));
+                }
+                return multiply(node, add(multiply(derive(v), unary("ln", u)), divide(multiply(v, derive(u)), u)));
+            case "%":
+                return unary("%", derive(u));
+            case "!":
+                return chain(multiply(node, unary("ψ", add(u, ONE))), u);
+            case "sin":
+                return chain(multiply(angleFactor(), unary("cos", u)), u);
+            case "cos":
+                return chain(negate(multiply(angleFactor(), unary("sin", u))), u);
+            case "tan":
+                return chain(divide(angleFactor(), power(unary("cos", u), TWO)), u);
+            case "arcsin":
+                return chain(divide(inverseAngleFactor(), unary("sqrt", subtract(ONE, power(u, TWO)))), u);
+            case "arccos":
+                return chain(negate(divide(inverseAngleFactor(),
+                    unary("sqrt", subtract(ONE, power(u, TWO))))), u);
+            case "arctan":
+                return chain(divide(inverseAngleFactor(), add(ONE, power(u, TWO))), u);
+            case "ln":
+                return divide(derive(u), u);
+            case "exp":
+                return chain(node, u);
+            case "sqrt":
+                return divide(derive(u), multiply(TWO, node));
+            case "ψ":
+                throw new CalculatorException("La dérivée de ψ n'est pas prise en charge.");
+            default:
+                throw new CalculatorException("Les combinaisons et arrangements ne sont définis que pour des entiers : "
+                    + node.token + " n'est pas dérivable en X.");
+        }
+    }
+
+    /**
+     * Règle de dérivation des fonctions composées : f'(u) × u'.
+     */
+    private Node chain(Node outerDerivative, Node u) throws CalculatorException {
+        return multiply(outerDerivative, derive(u));
+    }
+
+    /**
+     * Retourne la dérivée en radians d'un angle exprimé dans l'unité de l'expression.
+     */
+    private Node angleFactor() {
+        switch (angleMode) {
+            case DEG: return divide(PI, number(180));
+            case GRAD: return divide(PI, number(200));
+            default: return ONE;
+        }
+    }
+
+    /**
+     * Retourne l'inverse de {@link #angleFactor()}, facteur des fonctions trigonométriques inverses.
+     */
+    private Node inverseAngleFactor() {
+        switch (angleMode) {
+            case DEG: return divide(number(180), PI);
+            case GRAD: return divide(number(200), PI);
+            default: return ONE;
+        }
+    }
+
+    /**
+     * Construit une opération binaire par la méthode qui la simplifie, s'il y en a une.
+     */
+    private Node operation(String operator, Node a, Node b) {
+        switch (operator) {
+            case "+": return add(a, b);
+            case "-": return subtract(a, b);
+            case "x": return multiply(a, b);
+            case "÷": return divide(a, b);
+            case "^": return power(a, b);
+            default: return binary(operator, a, b);
+        }
+    }
+
+    private Node add(Node a, Node b) {
+        if (a.isNumber(0)) {
+            return b;
+        }
+        if (b.isNumber(0)) {
+            return a;
+        }
+        if ((b.isNumber() && b.value < 0) || b.isNegation()) {
+            return subtract(a, negate(b));
+        }
+        if (a.isNegation()) {
+            return subtract(b, a.left);
+        }
+        if (a.sameAs(b)) {
+            return multiply(TWO, a);
+        }
+        return binary("+", a, b);
+    }
+
+    private Node subtract(Node a, Node b) {
+        if (b.isNumber(0)) {
+            return a;
+        }
+        if (a.isNumber(0)) {
+            return negate(b);
+        }
+        if (a.sameAs(b)) {
+            return ZERO;
+        }
+        if (b.isNegation()) {
+            return add(a, b.left);
+        }
+        if (a.isNegation()) {
+            return negate(add(a.left, b));
+        }
+        return binary("-", a, b);
+    }
+
+    /**
+     * Construit l'opposé d'un nœud : un nombre négatif, le nœud d'origine pour une double
+     * négation, v - u pour u - v, ou un nœud de négation.
+     */
+    private Node negate(Node a) {
+        if (a.isNumber()) {
+            return number(-a.value);
+        }
+        if (a.isNegation()) {
+            return a.left;
+        }
+        if (a.token.equals("-")) {
+            return subtract(a.right, a.left);
+        }
+        return new Node("neg", a, null);
+    }
+
+    private Node multiply(Node a, Node b) {
+        if (a.isNumber(0) || b.isNumber(0)) {
+            return ZERO;
+        }
+        if (a.isNumber(1)) {
+            return b;
+        }
+        if (b.isNumber(1)) {
+            return a;
+        }
+        if (a.isNumber(-1)) {
+            return negate(b);
+        }
+        if (b.isNumber(-1)) {
+            return negate(a);
+        }
+        if (a.isNegation() || (a.isNumber() && a.value < 0 && !b.isNumber())) {
+            return negate(multiply(negate(a), b));
+        }
+        if (b.isNegation() || (b.isNumber() && b.value < 0 && !a.isNumber())) {
+            return negate(multiply(a, negate(b)));
+        }
+        if (a.token.equals("x")) {
+            // Produits associés à droite, pour que les facteurs constants remontent en tête
+            return multiply(a.left, multiply(a.right, b));
+        }
+        if ((b.isNumber() && !a.isNumber()) || (!b.variable && a.variable)) {
+            // Nombres, puis autres facteurs constants, en tête du produit
+            return multiply(b, a);
+        }
+        if (a.sameAs(b)) {
+            return power(a, TWO);
+        }
+        if (!a.variable) {
+            // Regroupement des facteurs constants, même imbriqués dans le produit
+            if (b.token.equals("x") && !b.left.variable) {
+                return multiply(multiply(a, b.left), b.right);
+            }
+            if (b.token.equals("÷") && !b.left.variable) {
+                return divide(multiply(a, b.left), b.right);
+            }
+            if (a.token.equals("÷") && !b.variable) {
+                return divide(multiply(a.left, b), a.right);
+            }
+        }
+        if (b.token.equals("^") && b.left.sameAs(a)) {
+            return power(a, add(b.right, ONE));
+        }
+        if (a.token.equals("^") && a.left.sameAs(b)) {
+            return power(b, add(a.right, ONE));
+        }
+        if (a.token.equals("^") && b.token.equals("^") && a.left.sameAs(b.left)) {
+            return power(a.left, add(a.right, b.right));
+        }
+        if (a.token.equals("÷") && a.left.isNumber(1)) {
+            return divide(b, a.right);
+        }
+        if (b.token.equals("÷") && b.left.isNumber(1)) {
+            return divide(a, b.right);
+        }
+        return binary("x", a, b);
+    }
+
+    private Node divide(Node a, Node b) {
+        if (a.isNumber(0)) {
+            return ZERO;
+        }
+        if (b.isNumber(1)) {
+            return a;
+        }
+        if (a.sameAs(b)) {
+            return ONE;
+        }
+        if (a.isNegation() || (a.isNumber() && a.value < 0 && !b.isNumber())) {
+            return negate(divide(negate(a), b));
+        }
+        if (b.isNegation() || (b.isNumber() && b.value < 0 && !a.isNumber())) {
+            return negate(divide(a, negate(b)));
+        }
+        return binary("÷", a, b);
+    }
+
+    private Node power(Node a, Node b) {
+        if (b.isNumber(0) || a.isNumber(1)) {
+            return ONE;
+        }
+        if (b.isNumber(1)) {
+            return a;
+        }
+        if (a.token.equals("^") && b.isNumber() && b.value == Math.rint(b.value)) {
+            // (u^m)^n = u^(m × n) pour n entier
+            return power(a.left, multiply(a.right, b));
+        }
+        return binary("^", a, b);
+    }
+
+    /**
+     * Construit une opération binaire, calculée si ses deux opérandes sont des nombres.
+     */
+    private Node binary(String operator, Node a, Node b) {
+        if (a.isNumber() && b.isNumber()) {
+            try {
+                double value;
+                switch (operator) {
+                    case "+": value = engine.add(a.value, b.value); break;
+                    case "-": value = engine.subtract(a.value, b.value); break;
+                    case "x": value = engine.multiply(a.value, b.value); break;
+                    case "÷": value = engine.divide(a.value, b.value); break;
+                    case "mod": value = engine.modulo(a.value, b.value); break;
+                    case "^": value = engine.pow(a.value, b.value); break;
+                    case "nCr": value = engine.combinations(a.value, b.value); break;
+                    default: value = engine.permutations(a.value, b.value); break;
+                }
+                if (Double.isFinite(value)) {
+                    return number(value);
+                }
+            } catch (CalculatorException e) {
+                // Erreur laissée à l'évaluation de la dérivée
+            }
+        }
+        return new Node(operator, a, b);
+    }
+
+    /**
+     * Construit une fonction ou un opérateur unaire, calculé si son opérande est un nombre.
+     */
+    private Node unary(String function, Node a) {
+        if (a.isNumber()) {
+            try {
+                double value;
+                switch (function) {
+                    case "%": value = engine.percent(a.value); break;
+                    case "!": value = engine.factorial(a.value); break;
+                    case "sin": value = engine.sin(a.value); break;
+                    case "cos": value = engine.cos(a.value); break;
+                    case "tan": value = engine.tan(a.value); break;
+                    case "arcsin": value = engine.arcsin(a.value); break;
+                    case "arccos": value = engine.arccos(a.value); break;
+                    case "arctan": value = engine.arctan(a.value); break;
+                    case "ln": value = engine.ln(a.value); break;
+                    case "exp": value = engine.exp(a.value); break;
+                    case "sqrt": value = engine.sqrt(a.value); break;
+                    default: value = engine.digamma(a.value); break;
+                }
+                if (Double.isFinite(value)) {
+                    return number(value);
+                }
+            } catch (CalculatorException e) {
+                // Erreur laissée à l'évaluation de la dérivée
+            }
+        }
+        return new Node(function, a, null);
+    }
+
+    private static Node number(double value) {
+        // Écriture décimale sans exposant, que le découpage des expressions sait relire
+        String text = BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        return new Node(text, null, null, value == 0 ? 0 : value);
+    }
+
+    /**
+     * Nœud de l'arbre : nombre, X, π, opérateur binaire (left, right) ou fonction (left).
+     */
+    private static final class Node {
+        final String token;
+        final Node left;
+        final Node right;
+        final double value;
+        // Vrai si le nœud dépend de X
+        final boolean variable;
+
+        Node(String token, Node left, Node right) {
+            this(token, left, right, Double.NaN);
+        }
+
+        Node(String token, Node left, Node right, double value) {
+            this.token = token;
+            this.left = left;
+            this.right = right;
+            this.value = value;
+            this.variable = token.equals("X") || (left != null && left.variable) || (right != null && right.variable);
+        }
+
+        boolean isNumber() {
+            return !Double.isNaN(value);
+        }
+
+        boolean isNumber(double expected) {
+            return value == expected;
+        }
+
+        boolean isNegation() {
+            return token.equals("neg");
+        }
+
+        /**
+         * Indique si deux sous-arbres sont identiques, nœud à nœud.
+         */
+        boolean sameAs(Node other) {
+            if (this == other) {
+                return true;
+            }
+            return token.equals(other.token)
+                && (left == null ? other.left == null : other.left != null && left.sameAs(other.left))
+                && (right == null ? other.right == null : other.right != null && right.sameAs(other.right));
+        }
+
+        /**
+         * Retourne la priorité d'affichage du nœud, celle de {@link Calculator#compile(String)}.
+         */
+        int precedence() {
+            if (left == null || token.equals("%")) {
+                return ATOM;
+            }
+            if (right == null) {
+                return token.equals("!") ? 9 : isNegation() ? 7 : ATOM;
+            }
+            switch (token) {
+                case "^": return 8;
+                case "nCr": case "nPr": return 7;
+                case "x": case "÷": case "mod": return 6;
+                default: return 5;
+            }
+        }
+
+        void appendPostfix(List<String> postfix) {
+            if (left != null) {
+                left.appendPostfix(postfix);
+            }
+            if (right != null) {
+                right.appendPostfix(postfix);
+            }
+            postfix.add(token);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            appendTo(builder);
+            return builder.toString();
+        }
+
+        /**
+         * Écrit le nœud en notation infixe. Les opérations s'évaluant de gauche à droite,
+         * un opérande droit de même priorité est parenthésé pour être relu à l'identique.
+         */
+        private void appendTo(StringBuilder builder) {
+            if (left == null) {
+                if (value < 0) {
+                    // Parenthèses : un nombre négatif n'est reconnu qu'après un opérateur ou '('
+                    builder.append('(').append(token).append(')');
+                } else {
+                    builder.append(token);
+                }
+            } else if (right != null) {
+                appendOperand(builder, left, left.precedence() < precedence());
+                builder.append(token);
+                // Une négation n'est écrite sans parenthèses qu'en tête d'opérande gauche
+                appendOperand(builder, right, right.precedence() <= precedence() || right.isNegation());
+            } else if (isNegation()) {
+                // (-u)xv = -(uxv) : seuls les produits, quotients, puissances et factoriels
+                // s'écrivent sans parenthèses après le signe moins unaire
+                builder.append('-');
+                appendOperand(builder, left, left.precedence() < 8
+                    && !left.token.equals("x") && !left.token.equals("÷"));
+            } else if (token.equals("%") || token.equals("!")) {
+                int required = token.equals("%") ? ATOM : 9;
+                appendOperand(builder, left, left.precedence() < required);
+                builder.append(token);
+            } else {
+                builder.append(token).append('(');
+                left.appendTo(builder);
+                builder.append(')');
+            }
+        }
+
+        private static void appendOperand(StringBuilder builder, Node operand, boolean parentheses) {
+            if (parentheses) {
+                builder.append('(');
+            }
+            operand.appendTo(builder);
+            if (parentheses) {
+                builder.append(')');
+            }
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package fr.tse.fise2.model;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * Pile des valeurs de l'algorithme de Shunting Yard.
+ * Les valeurs sont stockées dans des tableaux primitifs, sans boxing. Chaque valeur
+ * est d'un des types suivants : un double, un entier exact tenant dans un long, un
+ * grand entier exact (mode {@link NumberMode#EXACT}), ou un décimal exact (mode
+ * {@link NumberMode#DECIMAL}) sous forme d'une mantisse long et d'une échelle, ou d'un
+ * BigDecimal si la mantisse ne tient pas dans un long, ou une fraction exacte (mode
+ * {@link NumberMode#RATIONAL}) sous forme d'une paire de long non réduite, ou d'un
+ * {@link Rational} si elle ne tient pas dans des long, ou un nombre complexe (mode
+ * {@link NumberMode#COMPLEX}) dont la partie imaginaire est rangée dans un tableau
+ * parallèle, sans objet intermédiaire, ou une {@link Matrix} (mode {@link NumberMode#MATRIX}),
+ * ou un {@link Polynomial} ou ses racines (mode {@link NumberMode#POLYNOMIAL}).
+ * L'approximation en double est
+ * conservée pour toutes les valeurs (la partie réelle pour un complexe), ce qui permet de poursuivre le calcul en
+ * flottant sans conversion.
+ */
+final class ValueStack {
+    private static final byte DOUBLE = 0;
+    private static final byte LONG = 1;
+    private static final byte BIG = 2;
+    private static final byte SCALED = 3;
+    private static final byte BIG_DECIMAL = 4;
+    private static final byte RATIONAL = 5;
+    private static final byte BIG_RATIONAL = 6;
+    private static final byte COMPLEX = 7;
+    private static final byte MATRIX = 8;
+    private static final byte POLYNOMIAL = 9;
+    private static final byte ROOTS = 10;
+
+    private double[] values;
+    private long[] longs;
+    private int[] scales;
+    private long[] denominators;
+    private double[] imaginaries;
+    private Object[] bigs;
+    private byte[] kinds;
+    private int size;
+
+    ValueStack() {
+        this(new double[8], new long[8], new int[8], new long[8], new double[8], new Object[8], new byte[8], 0);
+    }
+
+    private ValueStack(double[] values, long[] longs, int[] scales, long[] denominators, double[] imaginaries,
+            Object[] bigs, byte[] kinds, int size) {
+        this.values = values;
+        this.longs = longs;
+        this.scales = scales;
+        this.denominators = denominators;
+        this.imaginaries = imaginaries;
+        this.bigs = bigs;
+        this.kinds = kinds;
+        this.size = size;
+    }
+
+    /**
+     * Empile une valeur approchée.
+     */
+    void push(double value) {
+        ensureCapacity();
+        values[size] = value;
+        kinds[size] = DOUBLE;
+        size++;
+    }
+
+    /**
+     * Empile un entier exact tenant dans un long.
+     */
+    void pushLong(long value) {
+        ensureCapacity();
+        values[size] = value;
+        longs[size] = value;
+        kinds[size] = LONG;
+        size++;
+    }
+
+    /**
+     * Empile un entier exact ; il est stocké dans un long s'il y tient.
+     */
+    void pushExact(BigInteger value) {
+        if (value.bitLength() < Long.SIZE) {
+            pushLong(value.longValue());
+            return;
+        }
+        ensureCapacity();
+        values[size] = value.doubleValue();
+        bigs[size] = value;
+        kinds[size] = BIG;
+        size++;
+    }
+
+    /**
+     * Empile un décimal exact donné par sa mantisse et son échelle.
+     */
+    void pushScaled(long unscaled, int scale) {
+        if (scale == 0) {
+            pushLong(unscaled);
+            return;
+        }
+        ensureCapacity();
+        values[size] = ScaledDecimal.toDouble(unscaled, scale);
+        longs[size] = unscaled;
+        scales[size] = scale;
+        kinds[size] = SCALED;
+        size++;
+    }
+
+    /**
+     * Empile un décimal exact ; il est stocké sous forme de mantisse long si elle y tient.
+     * Seul un entier tenant dans un long devient un entier exact : un grand résultat
+     * arrondi du mode précis (1.5E+400) garde sa mantisse et son exposant, sans que
+     * ses chiffres soient développés.
+     */
+    void pushDecimal(BigDecimal value) {
+        if (value.scale() <= 0 && value.precision() - value.scale() < 19) {
+            pushLong(value.longValueExact());
+            return;
+        }
+        if (value.scale() > 0 && value.unscaledValue().bitLength() < Long.SIZE) {
+            pushScaled(value.unscaledValue().longValue(), value.scale());
+            return;
+        }
+        ensureCapacity();
+        values[size] = value.doubleValue();
+        bigs[size] = value;
+        kinds[size] = BIG_DECIMAL;
+        size++;
+    }
+
+    /**
+     * Empile une fraction exacte, sans la réduire.
+     *
+     * @param numerator Le numérateur.
+     * @param denominator Le dénominateur, strictement positif.
+     */
+    void pushRational(long numerator, long denominator) {
+        if (denominator == 1) {
+            pushLong(numerator);
+            return;
+        }
+        ensureCapacity();
+        values[size] = (double) numerator / denominator;
+        longs[size] = numerator;
+        denominators[size] = denominator;
+        kinds[size] = RATIONAL;
+        size++;
+    }
+
+    /**
+     * Empile une fraction exacte ; elle est stockée sous forme de paire de long si elle y tient.
+     */
+    void pushRational(Rational value) {
+        if (value.getDenominator().equals(BigInteger.ONE)) {
+            pushExact(value.getNumerator());
+            return;
+        }
+        if (value.getNumerator().bitLength() < Long.SIZE && value.getDenominator().bitLength() < Long.SIZE) {
+            pushRational(value.getNumerator().longValue(), value.getDenominator().longValue());
+            return;
+        }
+        ensureCapacity();
+        values[size] = value.doubleValue();
+        bigs[size] = value;
+        kinds[size] = BIG_RATIONAL;
+        size++;
+    }
+
+    /**
+     * Empile un nombre complexe ; il est stocké comme un double si sa partie imaginaire est nulle.
+     */
+    void pushComplex(double real, double imaginary) {
+        if (imaginary == 0) {
+            push(real);
+            return;
+        }
+        ensureCapacity();
+        values[size] = real;
+        imaginaries[size] = imaginary;
+        kinds[size] = COMPLEX;
+        size++;
+    }
+
+    /**
+     * Empile une matrice ; son approximation en double est NaN.
+     */
+    void pushMatrix(Matrix value) {
+        ensureCapacity();
+        values[size] = Double.NaN;
+        bigs[size] = value;
+        kinds[size] = MATRIX;
+        size++;
+    }
+
+    /**
+     * Empile un polynôme ; il est stocké comme un double s'il est constant, sinon son
+     * approximation en double est NaN.
+     */
+    void pushPolynomial(Polynomial value) {
+        if (value.degree() <= 0) {
+            push(value.coefficient(0));
+            return;
+        }
+        ensureCapacity();
+        values[size] = Double.NaN;
+        bigs[size] = value;
+        kinds[size] = POLYNOMIAL;
+        size++;
+    }
+
+    /**
+     * Empile les racines d'un polynôme ; leur approximation en double est NaN.
+     */
+    void pushRoots(Polynomial.Roots value) {
+        ensureCapacity();
+        values[size] = Double.NaN;
+        bigs[size] = value;
+        kinds[size] = ROOTS;
+        size++;
+    }
+
+    /**
+     * Dépile une valeur et retourne son approximation en double.
+     *
+     * @throws EmptyStackException Si la pile est vide.
+     */
+    double pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        size--;
+        bigs[size] = null;
+        return values[size];
+    }
+
+    /**
+     * Indique si une valeur est un entier exact tenant dans un long.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isLong(int depth) {
+        return kinds[size - 1 - depth] == LONG;
+    }
+
+    /**
+     * Indique si une valeur est un entier exact, quelle que soit sa taille.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isInteger(int depth) {
+        byte kind = kinds[size - 1 - depth];
+        return kind == LONG || kind == BIG;
+    }
+
+    /**
+     * Indique si une valeur est exacte (entière, décimale ou fractionnaire).
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isExact(int depth) {
+        byte kind = kinds[size - 1 - depth];
+        return kind != DOUBLE && kind != COMPLEX && kind != MATRIX && kind != POLYNOMIAL && kind != ROOTS;
+    }
+
+    /**
+     * Indique si une valeur est un décimal exact dont la mantisse tient dans un long
+     * (les entiers long sont des décimaux d'échelle 0).
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isScaled(int depth) {
+        byte kind = kinds[size - 1 - depth];
+        return kind == LONG || kind == SCALED;
+    }
+
+    /**
+     * Indique si une valeur est un nombre complexe de partie imaginaire non nulle.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isComplex(int depth) {
+        return kinds[size - 1 - depth] == COMPLEX;
+    }
+
+    /**
+     * Indique si une valeur est une matrice.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isMatrix(int depth) {
+        return kinds[size - 1 - depth] == MATRIX;
+    }
+
+    /**
+     * Retourne une matrice sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return La matrice, ou null si la valeur n'est pas une matrice.
+     */
+    Matrix peekMatrix(int depth) {
+        int index = size - 1 - depth;
+        return kinds[index] == MATRIX ? (Matrix) bigs[index] : null;
+    }
+
+    /**
+     * Indique si une valeur est un polynôme non constant.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isPolynomial(int depth) {
+        return kinds[size - 1 - depth] == POLYNOMIAL;
+    }
+
+    /**
+     * Retourne un polynôme sans le dépiler ; un nombre réel est vu comme un polynôme constant.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return Le polynôme, ou null si la valeur n'est ni un polynôme ni un nombre réel.
+     */
+    Polynomial peekPolynomial(int depth) {
+        int index = size - 1 - depth;
+        switch (kinds[index]) {
+            case POLYNOMIAL: return (Polynomial) bigs[index];
+            case COMPLEX: case MATRIX: case ROOTS: return null;
+            default: return Polynomial.constant(values[index]);
+        }
+    }
+
+    /**
+     * Indique si une valeur est la liste des racines d'un polynôme.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isRoots(int depth) {
+        return kinds[size - 1 - depth] == ROOTS;
+    }
+
+    /**
+     * Retourne les racines d'un polynôme sans les dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return Les racines, ou null si la valeur n'en est pas.
+     */
+    Polynomial.Roots peekRoots(int depth) {
+        int index = size - 1 - depth;
+        return kinds[index] == ROOTS ? (Polynomial.Roots) bigs[index] : null;
+    }
+
+    /**
+     * Retourne l'approximation en double d'une valeur, ou la partie réelle d'un
+     * complexe, sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    double peekReal(int depth) {
+        return values[size - 1 - depth];
+    }
+
+    /**
+     * Retourne la partie imaginaire d'une valeur (nulle si elle n'est pas complexe).
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    double peekImaginary(int depth) {
+        int index = size - 1 - depth;
+        return kinds[index] == COMPLEX ? imaginaries[index] : 0;
+    }
+
+    /**
+     * Indique si une valeur est un entier long ou une fraction de deux long.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    boolean isRational(int depth) {
+        byte kind = kinds[size - 1 - depth];
+        return kind == LONG || kind == RATIONAL;
+    }
+
+    /**
+     * Retourne le dénominateur d'un entier long (1) ou d'une fraction de deux long.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    long peekDenominator(int depth) {
+        int index = size - 1 - depth;
+        return kinds[index] == RATIONAL ? denominators[index] : 1;
+    }
+
+    /**
+     * Retourne l'échelle d'une valeur de type long ou décimal à mantisse long.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    int peekScale(int depth) {
+        int index = size - 1 - depth;
+        return kinds[index] == SCALED ? scales[index] : 0;
+    }
+
+    /**
+     * Retourne une valeur entière tenant dans un long, la mantisse d'un décimal ou le
+     * numérateur d'une fraction, sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     */
+    long peekLong(int depth) {
+        return longs[size - 1 - depth];
+    }
+
+    /**
+     * Retourne la forme exacte d'une valeur sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return L'entier exact, ou null si la valeur n'est qu'approchée.
+     */
+    BigInteger peekExact(int depth) {
+        int index = size - 1 - depth;
+        switch (kinds[index]) {
+            case LONG: return BigInteger.valueOf(longs[index]);
+            case BIG: return (BigInteger) bigs[index];
+            default: return null;
+        }
+    }
+
+    /**
+     * Retourne la forme décimale exacte d'une valeur sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return Le décimal exact, ou null si la valeur n'est qu'approchée ou est une fraction.
+     */
+    BigDecimal peekDecimal(int depth) {
+        int index = size - 1 - depth;
+        switch (kinds[index]) {
+            case LONG: return BigDecimal.valueOf(longs[index]);
+            case SCALED: return BigDecimal.valueOf(longs[index], scales[index]);
+            case BIG: return new BigDecimal((BigInteger) bigs[index]);
+            case BIG_DECIMAL: return (BigDecimal) bigs[index];
+            default: return null;
+        }
+    }
+
+    /**
+     * Retourne la forme fractionnaire exacte d'une valeur sans la dépiler.
+     *
+     * @param depth La position depuis le sommet (0 pour le sommet).
+     * @return La fraction, ou null si la valeur n'est qu'approchée.
+     */
+    Rational peekRational(int depth) {
+        int index = size - 1 - depth;
+        switch (kinds[index]) {
+            case RATIONAL: return Rational.valueOf(longs[index], denominators[index]);
+            case BIG_RATIONAL: return (Rational) bigs[index];
+            case DOUBLE: case COMPLEX: case MATRIX: case POLYNOMIAL: case ROOTS: return null;
+            case BIG: return Rational.valueOf((BigInteger) bigs[index]);
+            default: return Rational.valueOf(peekDecimal(depth));
+        }
+    }
+
+    /**
+     * Retire des valeurs du sommet de la pile.
+     */
+    void drop(int count) {
+        for (int i = 0; i < count; i++) {
+            pop();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Copie la pile ; le coût est proportionnel à sa profondeur.
+     */
+    ValueStack copy() {
+        int capacity = Math.max(8, size);
+        return new ValueStack(Arrays.copyOf(values, capacity), Arrays.copyOf(longs, capacity),
+            Arrays.copyOf(scales, capacity), Arrays.copyOf(denominators, capacity),
+            Arrays.copyOf(imaginaries, capacity), Arrays.copyOf(bigs, capacity), Arrays.copyOf(kinds, capacity), size);
+    }
+
+    private void ensureCapacity() {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            longs = Arrays.copyOf(longs, size * 2);
+            scales = Arrays.copyOf(scales, size * 2);
+            denominators = Arrays.copyOf(denominators, size * 2);
+            imaginaries = Arrays.copyOf(imaginaries, size * 2);
+            bigs = Arrays.copyOf(bigs, size * 2);
+            kinds = Arrays.copyOf(kinds, size * 2);
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package fr.tse.fise2.ui;
 
 import fr.tse.fise2.controller.Controller;
+import fr.tse.fise2.controller.InputBuffer;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.math.BigInteger;
 
 /**
  * La classe CalculatorUI gère l'interface utilisateur graphique de la calculatrice.
- * Elle est responsable de la création des composants de l'interface utilisateur et de la gestion des événements des boutons.
+ * Elle est responsable de la création des composants de l'interface utilisateur et de la gestion des événements du clavier.
  * Cette classe peut être étendue par ScientificCalculatorUI pour ajouter des fonctionnalités supplémentaires.
  */
 public class CalculatorUI {
@@ -24,22 +26,32 @@ public class CalculatorUI {
         "Sci", "0", ".", "="
     };
     private static final String OPERATORS = "+-x÷";
+    private static final int AC_KEY_INDEX = 0;
+
+    // Délai minimal entre deux rafraîchissements de l'affichage (une image à 60 Hz)
+    private static final int FRAME_DELAY_MS = 16;
 
     // Composants de l'interface utilisateur
-    private JTextField display;
+    private NumberDisplay display;
     private JTextField expressionDisplay;
     private JPanel panel;
+    private Keypad keypad;
+
+    // Vues de compatibilité de l'ancienne API (champ texte et bouton AC), créées à la demande
+    private JTextField displayField;
     private JButton acButton;
 
-    // Stockage de l'entrée utilisateur
-    private StringBuilder currentInput;
+    // Mises à jour d'affichage en attente : seule la dernière valeur est appliquée
+    private Timer displayTimer;
+    private CharSequence pendingDisplay;
+    private String pendingExpression;
+    private final DisplayUpdateStats displayStats = new DisplayUpdateStats();
 
     /**
      * Constructeur de la classe CalculatorUI.
      * Initialise le contrôleur et les composants de l'interface utilisateur.
      */
     public CalculatorUI() {
-        currentInput = new StringBuilder();
         controller = new Controller(this);
         initComponents();
     }
@@ -50,67 +62,55 @@ public class CalculatorUI {
      */
     private void initComponents() {
         // Initialiser les champs d'affichage
-        display = new JTextField();
+        display = new NumberDisplay();
         display.setName("display");
-        display.setEditable(false);
         display.setText("0");
 
         expressionDisplay = new JTextField();
         expressionDisplay.setName("expressionDisplay");
         expressionDisplay.setEditable(false);
 
+        // Rafraîchissement regroupé des champs d'affichage
+        displayTimer = new Timer(FRAME_DELAY_MS, e -> flushDisplay());
+        displayTimer.setRepeats(false);
+
         // Appliquer les styles
-        UIStyle.styleTextField(display, Color.BLACK, Color.WHITE, UIStyle.getUIFont(), 50);
+        UIStyle.styleDisplay(display, Color.BLACK, Color.WHITE, UIStyle.getUIFont(), 50);
         UIStyle.styleTextField(expressionDisplay, Color.BLACK, Color.LIGHT_GRAY, new Font(UIStyle.getUIFont().getName(), Font.BOLD, 14), 50);
 
         // Initialiser le panneau des boutons
         panel = new JPanel();
-        panel.setLayout(new GridLayout(5, 4, 5, 5));
+        panel.setLayout(new BorderLayout());
         UIStyle.stylePanel(panel, Color.BLACK);
 
         initializeButtons();
     }
 
     /**
-     * Initialise les boutons de l'interface utilisateur.
-     * Crée chaque bouton à partir des labels définis et les ajoute au panneau.
+     * Initialise le clavier de l'interface utilisateur.
+     * Un seul composant dessine toutes les touches définies dans les labels.
      */
     private void initializeButtons() {
-        for (String text : BUTTON_LABELS) {
-            JButton button = createButton(text);
-            panel.add(button);
-            if ("AC".equals(text)) {
-                acButton = button;
-            }
-        }
-    }
-
-    /**
-     * Crée un bouton avec le texte spécifié et ajoute un gestionnaire d'événements.
-     * 
-     * @param text Le texte du bouton.
-     * @return Le bouton créé.
-     */
-    private JButton createButton(String text) {
-        JButton button = new JButton(text);
-        styleButton(button, text);
-        button.addActionListener(new ButtonClickListener());
-        return button;
+        keypad = new Keypad(BUTTON_LABELS, 5, 4, this::keyColor);
+        keypad.setName("keypad");
+        UIStyle.styleKeypad(keypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        keypad.addActionListener(new ButtonClickListener());
+        panel.add(keypad, BorderLayout.CENTER);
     }
 
     /**
-     * Applique le style approprié en fonction du texte du bouton.
+     * Retourne la couleur de fond d'une touche en fonction de son texte.
      * 
-     * @param button Le bouton à styliser.
-     * @param text Le texte du bouton.
+     * @param text Le texte de la touche.
+     * @return La couleur de fond de la touche.
      */
-    private void styleButton(JButton button, String text) {
+    private Color keyColor(String text) {
         if (OPERATORS.contains(text) || "=".equals(text)) {
-            UIStyle.styleButton(button, Color.ORANGE, Color.WHITE, UIStyle.getUIFont());
-        } else if ("AC±%".contains(text)) {
-            UIStyle.styleButton(button, Color.LIGHT_GRAY, Color.WHITE, UIStyle.getUIFont());
+            return Color.ORANGE;
+        } else if ("AC".equals(text) || "←".equals(text) || "±%".contains(text)) {
+            return Color.LIGHT_GRAY;
         } else {
-            UIStyle.styleButton(button, Color.DARK_GRAY, Color.WHITE, UIStyle.getUIFont());
+            return Color.DARK_GRAY;
         }
     }
 
@@ -159,7 +159,7 @@ public class CalculatorUI {
     }
 
     /**
-     * Classe interne pour gérer les clics sur les boutons.
+     * Classe interne pour gérer les appuis sur les touches du clavier.
      */
     private class ButtonClickListener implements ActionListener {
         @Override
@@ -181,21 +181,72 @@ public class CalculatorUI {
     /**
      * Retourne le champ d'affichage principal.
      */
-    public JTextField getDisplay() {
+    public NumberDisplay getNumberDisplay() {
         return display;
     }
 
     /**
-     * Retourne l'entrée utilisateur actuelle.
+     * Retourne un champ texte relié à l'affichage principal, pour le code écrit avant
+     * l'affichage virtualisé : getText() lit l'affichage, mise à jour en attente comprise,
+     * et setText(String) le remplace. Le champ n'est pas ajouté à la fenêtre.
+     *
+     * @deprecated Utiliser {@link #getNumberDisplay()} ou {@link #getDisplayText()}.
+     */
+    @Deprecated
+    public JTextField getDisplay() {
+        if (displayField == null) {
+            displayField = new JTextField() {
+                @Override
+                public String getText() {
+                    return getDisplayText();
+                }
+
+                @Override
+                public void setText(String text) {
+                    setDisplay(text);
+                    flushDisplay();
+                }
+            };
+        }
+        return displayField;
+    }
+
+    /**
+     * Retourne l'entrée utilisateur actuelle, détenue par le contrôleur.
+     */
+    public InputBuffer getCurrentInput() {
+        return controller.getCurrentInput();
+    }
+
+    /**
+     * Retourne le clavier de la calculatrice.
      */
-    public StringBuilder getCurrentInput() {
-        return currentInput;
+    public Keypad getKeypad() {
+        return keypad;
     }
 
     /**
-     * Retourne le bouton AC.
+     * Retourne un bouton relié à la touche AC du clavier, pour le code écrit avant le
+     * clavier dessiné : getText() donne le libellé courant (« AC » ou « ← ») et doClick()
+     * presse la touche. Le bouton n'est pas ajouté à la fenêtre.
+     *
+     * @deprecated Utiliser {@link #getKeypad()} et {@link Keypad#clickKey(String)}.
      */
+    @Deprecated
     public JButton getAcButton() {
+        if (acButton == null) {
+            acButton = new JButton() {
+                @Override
+                public String getText() {
+                    return keypad.getKeyLabel(AC_KEY_INDEX);
+                }
+
+                @Override
+                public void doClick(int pressTime) {
+                    keypad.clickKey(getText());
+                }
+            };
+        }
         return acButton;
     }
 
@@ -208,11 +259,36 @@ public class CalculatorUI {
 
     /**
      * Met à jour le champ d'affichage principal avec le texte spécifié.
+     * Le texte n'est pas copié : seuls ses caractères visibles sont lus.
+     * La mise à jour est appliquée à la prochaine image ; si plusieurs valeurs se
+     * succèdent d'ici là, seule la dernière est affichée.
      * 
      * @param text Le texte à afficher.
      */
-    public void setDisplay(String text) {
-        display.setText(text);
+    public void setDisplay(CharSequence text) {
+        if (pendingDisplay != null) {
+            displayStats.coalesced++;
+        }
+        displayStats.requested++;
+        pendingDisplay = text;
+        scheduleDisplayFlush();
+    }
+
+    /**
+     * Affiche un grand entier dont les chiffres ne sont convertis qu'à mesure
+     * qu'ils deviennent visibles.
+     * 
+     * @param value L'entier à afficher.
+     */
+    public void setDisplay(BigInteger value) {
+        setDisplay(new LazyDecimalDigits(value));
+    }
+
+    /**
+     * Retourne le texte du champ d'affichage principal, mise à jour en attente comprise.
+     */
+    public String getDisplayText() {
+        return pendingDisplay != null ? pendingDisplay.toString() : display.getText();
     }
 
     /**
@@ -221,8 +297,7 @@ public class CalculatorUI {
      * @param text Le texte à définir.
      */
     public void setCurrentInput(String text) {
-        currentInput.setLength(0);
-        currentInput.append(text);
+        controller.getCurrentInput().replace(text);
     }
 
     /**
@@ -231,28 +306,120 @@ public class CalculatorUI {
      * @param text Le texte de l'expression à afficher.
      */
     public void setExpressionDisplay(String text) {
-        expressionDisplay.setText(text);
+        if (pendingExpression != null) {
+            displayStats.coalesced++;
+        }
+        displayStats.requested++;
+        pendingExpression = text;
+        scheduleDisplayFlush();
+    }
+
+    /**
+     * Programme l'application des mises à jour en attente à la prochaine image.
+     */
+    private void scheduleDisplayFlush() {
+        if (!displayTimer.isRunning()) {
+            displayTimer.start();
+        }
+    }
+
+    /**
+     * Applique immédiatement les mises à jour d'affichage en attente.
+     * Une valeur identique à celle déjà affichée est ignorée sans redessiner le champ.
+     */
+    public void flushDisplay() {
+        displayTimer.stop();
+        if (pendingDisplay != null) {
+            if (pendingDisplay == display.getValue()
+                    || (pendingDisplay instanceof String && pendingDisplay.equals(display.getValue()))) {
+                displayStats.dropped++;
+            } else {
+                display.setText(pendingDisplay);
+            }
+            pendingDisplay = null;
+        }
+        if (pendingExpression != null) {
+            if (pendingExpression.equals(expressionDisplay.getText())) {
+                displayStats.dropped++;
+            } else {
+                expressionDisplay.setText(pendingExpression);
+            }
+            pendingExpression = null;
+        }
+        displayStats.flushes++;
+    }
+
+    /**
+     * Retourne les compteurs de mises à jour de l'affichage.
+     */
+    public DisplayUpdateStats getDisplayUpdateStats() {
+        return displayStats;
+    }
+
+    /**
+     * Compteurs des mises à jour de l'affichage, pour vérifier le regroupement
+     * sous une forte cadence de saisie (répétition de touches, saisie scriptée).
+     */
+    public static final class DisplayUpdateStats {
+        private long requested;
+        private long coalesced;
+        private long dropped;
+        private long flushes;
+
+        /**
+         * Retourne le nombre de mises à jour demandées.
+         */
+        public long getRequested() {
+            return requested;
+        }
+
+        /**
+         * Retourne le nombre de mises à jour remplacées par une plus récente avant d'être affichées.
+         */
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        /**
+         * Retourne le nombre de mises à jour ignorées car identiques à la valeur affichée.
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Retourne le nombre de rafraîchissements effectués.
+         */
+        public long getFlushes() {
+            return flushes;
+        }
+
+        @Override
+        public String toString() {
+            return "demandées=" + requested + ", regroupées=" + coalesced
+                + ", ignorées=" + dropped + ", rafraîchissements=" + flushes;
+        }
     }
 
     /**
      * Change le texte du bouton AC en un bouton de retour arrière.
      */
     public void setACButtonToBackspace() {
-        acButton.setText("←");
+        keypad.setKeyLabel(AC_KEY_INDEX, "←");
     }
 
     /**
      * Change le texte du bouton AC en "AC".
      */
     public void setACButtonToAC() {
-        acButton.setText("AC");
+        keypad.setKeyLabel(AC_KEY_INDEX, "AC");
     }
 
     /**
      * Efface l'entrée utilisateur actuelle.
      */
     public void clearCurrentInput() {
-        currentInput.setLength(0);
+        controller.getCurrentInput().clear();
     }
 
     /**
@@ -261,6 +428,6 @@ public class CalculatorUI {
      * @param text Le texte à ajouter.
      */
     public void appendToCurrentInput(String text) {
-        currentInput.append(text);
+        controller.getCurrentInput().append(text);
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package fr.tse.fise2.ui;
+
+import fr.tse.fise2.model.CompiledExpression;
+import fr.tse.fise2.model.FunctionSampler;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Graphe d'une expression y = f(X), déplaçable au glisser et zoomable à la molette.
+ * <p>
+ * L'image est calculée hors de l'EDT : un thread de fond échantillonne f
+ * ({@link FunctionSampler}, dont les échantillons sont répartis entre plusieurs threads
+ * et gardés en cache d'une vue à l'autre), puis dessine la courbe dans une
+ * {@link BufferedImage}. L'EDT se contente de copier la dernière image ; pendant un
+ * déplacement ou un zoom, elle est décalée et mise à l'échelle en attendant la suivante.
+ * Une image dont la vue a changé entre-temps est abandonnée.
+ */
+public class GraphPanel extends JComponent {
+    private static final double INITIAL_HALF_RANGE = 10;
+    private static final double ZOOM_FACTOR = 1.25;
+    private static final Color CURVE_COLOR = Color.ORANGE;
+    private static final Color AXIS_COLOR = Color.LIGHT_GRAY;
+    private static final Color GRID_COLOR = new Color(40, 40, 40);
+
+    // Rendu : un seul thread de fond, jamais l'EDT
+    private final ExecutorService renderer;
+    private final AtomicLong renderGeneration = new AtomicLong();
+
+    // Vue courante, lue et modifiée sur l'EDT
+    private FunctionSampler sampler;
+    private double xMin = -INITIAL_HALF_RANGE;
+    private double xMax = INITIAL_HALF_RANGE;
+    private double yMin = -INITIAL_HALF_RANGE;
+    private double yMax = INITIAL_HALF_RANGE;
+
+    // Dernière image calculée et vue qu'elle représente
+    private BufferedImage image;
+    private double imageXMin;
+    private double imageXMax;
+    private double imageYMin;
+    private double imageYMax;
+
+    private Point dragStart;
+    private double dragXMin;
+    private double dragYMin;
+
+    /**
+     * Constructeur du graphe, vide jusqu'au premier appel de {@link #plot(CompiledExpression)}.
+     */
+    public GraphPanel() {
+        setOpaque(true);
+        setBackground(Color.BLACK);
+        setPreferredSize(new Dimension(500, 500));
+        renderer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "graph-renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragStart = e.getPoint();
+                dragXMin = xMin;
+                dragYMin = yMin;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (dragStart == null || getWidth() == 0 || getHeight() == 0) {
+                    return;
+                }
+                double width = xMax - xMin;
+                double height = yMax - yMin;
+                xMin = dragXMin - (e.getX() - dragStart.x) * width / getWidth();
+                xMax = xMin + width;
+                yMin = dragYMin + (e.getY() - dragStart.y) * height / getHeight();
+                yMax = yMin + height;
+                viewChanged();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                if (getWidth() == 0 || getHeight() == 0) {
+                    return;
+                }
+                // Zoom autour du point sous le curseur
+                double factor = Math.pow(ZOOM_FACTOR, e.getPreciseWheelRotation());
+                double x = xMin + e.getX() * (xMax - xMin) / getWidth();
+                double y = yMax - e.getY() * (yMax - yMin) / getHeight();
+                xMin = x - (x - xMin) * factor;
+                xMax = x + (xMax - x) * factor;
+                yMin = y - (y - yMin) * factor;
+                yMax = y + (yMax - y) * factor;
+                viewChanged();
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        addMouseWheelListener(mouseHandler);
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                scheduleRender(false);
+            }
+        });
+    }
+
+    /**
+     * Trace une nouvelle expression : la vue revient à X dans [-10, 10] et l'échelle
+     * en y est choisie d'après les valeurs de f.
+     *
+     * @param f L'expression compilée, d'inconnue X.
+     */
+    public void plot(CompiledExpression f) {
+        sampler = new FunctionSampler(f);
+        xMin = -INITIAL_HALF_RANGE;
+        xMax = INITIAL_HALF_RANGE;
+        image = null;
+        scheduleRender(true);
+        repaint();
+    }
+
+    /**
+     * Arrête le thread de rendu.
+     */
+    public void dispose() {
+        renderer.shutdownNow();
+    }
+
+    private void viewChanged() {
+        repaint();
+        scheduleRender(false);
+    }
+
+    /**
+     * Demande le calcul d'une image pour la vue courante. Les demandes plus anciennes
+     * encore en attente sont ignorées par le thread de rendu.
+     *
+     * @param autoscale true pour choisir l'échelle en y d'après les valeurs de f.
+     */
+    private void scheduleRender(boolean autoscale) {
+        int width = getWidth();
+        int height = getHeight();
+        if (sampler == null || width == 0 || height == 0) {
+            return;
+        }
+        long generation = renderGeneration.incrementAndGet();
+        FunctionSampler currentSampler = sampler;
+        double x0 = xMin;
+        double x1 = xMax;
+        double y0 = yMin;
+        double y1 = yMax;
+        renderer.execute(() -> {
+            if (generation != renderGeneration.get()) {
+                return;
+            }
+            double bottom = y0;
+            double top = y1;
+            if (autoscale) {
+                double[] range = valueRange(currentSampler.sample(x0, x1, (x1 - x0) / width));
+                bottom = range[0];
+                top = range[1];
+            }
+            // Tolérance d'un demi-pixel en y
+            FunctionSampler.Samples samples = currentSampler.sample(x0, x1, (top - bottom) / height / 2);
+            BufferedImage rendered = render(samples, width, height, x0, x1, bottom, top);
+            double finalBottom = bottom;
+            double finalTop = top;
+            SwingUtilities.invokeLater(() -> {
+                if (generation != renderGeneration.get()) {
+                    return;
+                }
+                if (autoscale) {
+                    yMin = finalBottom;
+                    yMax = finalTop;
+                }
+                image = rendered;
+                imageXMin = x0;
+                imageXMax = x1;
+                imageYMin = finalBottom;
+                imageYMax = finalTop;
+                repaint();
+            });
+        });
+    }
+
+    /**
+     * Choisit l'échelle en y : du 2e au 98e centile des valeurs définies, élargi de 10 %,
+     * pour qu'une asymptote n'écrase pas le reste de la courbe.
+     */
+    private static double[] valueRange(FunctionSampler.Samples samples) {
+        double[] values = new double[samples.size()];
+        int count = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            if (!Double.isNaN(samples.getY(i))) {
+                values[count++] = samples.getY(i);
+            }
+        }
+        if (count == 0) {
+            return new double[] {-INITIAL_HALF_RANGE, INITIAL_HALF_RANGE};
+        }
+        Arrays.sort(values, 0, count);
+        double low = values[(int) (0.02 * (count - 1))];
+        double high = values[(int) Math.ceil(0.98 * (count - 1))];
+        double margin = Math.max((high - low) / 10, 1e-9 * Math.max(1, Math.abs(high)));
+        if (high - low < 1e-9 * Math.max(1, Math.abs(high))) {
+            // Fonction constante : une unité de part et d'autre
+            margin = Math.max(1, Math.abs(high) / 10);
+        }
+        return new double[] {low - margin, high + margin};
+    }
+
+    /**
+     * Dessine la grille, les axes et la courbe dans une nouvelle image. Exécuté sur le thread de rendu.
+     */
+    private static BufferedImage render(FunctionSampler.Samples samples, int width, int height,
+            double x0, double x1, double y0, double y1) {
+        BufferedImage rendered = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rendered.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            double scaleX = width / (x1 - x0);
+            double scaleY = height / (y1 - y0);
+
+            // Grille : un pas de 1, 2 ou 5 × 10^n, environ tous les 80 pixels
+            g.setColor(GRID_COLOR);
+            double stepX = gridStep(80 / scaleX);
+            for (double x = Math.ceil(x0 / stepX) * stepX; x <= x1; x += stepX) {
+                int px = (int) Math.round((x - x0) * scaleX);
+                g.drawLine(px, 0, px, height);
+            }
+            double stepY = gridStep(80 / scaleY);
+            for (double y = Math.ceil(y0 / stepY) * stepY; y <= y1; y += stepY) {
+                int py = (int) Math.round((y1 - y) * scaleY);
+                g.drawLine(0, py, width, py);
+            }
+            g.setColor(AXIS_COLOR);
+            if (x0 <= 0 && 0 <= x1) {
+                int px = (int) Math.round(-x0 * scaleX);
+                g.drawLine(px, 0, px, height);
+            }
+            if (y0 <= 0 && 0 <= y1) {
+                int py = (int) Math.round(y1 * scaleY);
+                g.drawLine(0, py, width, py);
+            }
+
+            // Courbe, interrompue aux points NaN ; les ordonnées sont bornées pour le tracé
+            Path2D.Double path = new Path2D.Double();
+            boolean drawing = false;
+            for (int i = 0; i < samples.size(); i++) {
+                double y = samples.getY(i);
+                if (Double.isNaN(y)) {
+                    drawing = false;
+                    continue;
+                }
+                double px = (samples.getX(i) - x0) * scaleX;
+                double py = Math.max(-height, Math.min(2 * height, (y1 - y) * scaleY));
+                if (drawing) {
+                    path.lineTo(px, py);
+                } else {
+                    path.moveTo(px, py);
+                    drawing = true;
+                }
+            }
+            g.setColor(CURVE_COLOR);
+            g.setStroke(new BasicStroke(2f));
+            g.draw(path);
+        } finally {
+            g.dispose();
+        }
+        return rendered;
+    }
+
+    /**
+     * Retourne le plus petit pas de la forme 1, 2 ou 5 × 10^n supérieur ou égal à minimum.
+     */
+    private static double gridStep(double minimum) {
+        double power = Math.pow(10, Math.floor(Math.log10(minimum)));
+        for (int factor : new int[] {1, 2, 5}) {
+            if (factor * power >= minimum) {
+                return factor * power;
+            }
+        }
+        return 10 * power;
+    }
+
+    /**
+     * Copie la dernière image, décalée et mise à l'échelle si la vue a changé depuis son calcul.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
+        if (image == null) {
+            return;
+        }
+        double scaleX = getWidth() / (xMax - xMin);
+        double scaleY = getHeight() / (yMax - yMin);
+        int left = (int) Math.round((imageXMin - xMin) * scaleX);
+        int right = (int) Math.round((imageXMax - xMin) * scaleX);
+        int top = (int) Math.round((yMax - imageYMax) * scaleY);
+        int bottom = (int) Math.round((yMax - imageYMin) * scaleY);
+        g.drawImage(image, left, top, right, bottom, 0, 0, image.getWidth(), image.getHeight(), null);
+    }
+}
@@ -0,0 +1,373 @@
+package fr.tse.fise2.ui;
+
+import javax.accessibility.Accessible;
+import javax.accessibility.AccessibleAction;
+import javax.accessibility.AccessibleContext;
+import javax.accessibility.AccessibleRole;
+import javax.accessibility.AccessibleStateSet;
+import javax.swing.JComponent;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Clavier de la calculatrice dessiné par un seul composant léger.
+ * Remplace une grille de JButton : les touches sont peintes directement à partir de
+ * glyphes mis en cache, le composant effectue lui-même la détection des clics et
+ * notifie ses écouteurs avec le libellé de la touche comme commande.
+ * Chaque touche est exposée comme enfant accessible portant son libellé.
+ */
+public class Keypad extends JComponent implements Accessible {
+    private static final int GAP = 5;
+
+    private final String[] labels;
+    private final int rows;
+    private final int columns;
+    private final Function<String, Color> keyColors;
+
+    // Glyphes mis en cache par libellé, invalidés si la police ou le contexte de rendu change
+    private final Map<String, GlyphVector> glyphCache = new HashMap<>();
+    private FontRenderContext cachedContext;
+
+    private int pressedIndex = -1;
+
+    /**
+     * Constructeur du clavier.
+     *
+     * @param labels Les libellés des touches, ligne par ligne ; null pour une case vide.
+     * @param rows Le nombre de lignes.
+     * @param columns Le nombre de colonnes.
+     * @param keyColors Fonction donnant la couleur de fond d'une touche selon son libellé.
+     */
+    public Keypad(String[] labels, int rows, int columns, Function<String, Color> keyColors) {
+        this.labels = labels.clone();
+        this.rows = rows;
+        this.columns = columns;
+        this.keyColors = keyColors;
+        setOpaque(true);
+        setFocusable(false);
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                setPressedIndex(keyIndexAt(e.getPoint()));
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                int index = pressedIndex;
+                setPressedIndex(-1);
+                if (index != -1 && index == keyIndexAt(e.getPoint())) {
+                    fireKey(index);
+                }
+            }
+        };
+        addMouseListener(mouseHandler);
+    }
+
+    /**
+     * Ajoute un écouteur notifié à chaque touche pressée.
+     *
+     * @param listener L'écouteur ; la commande de l'événement est le libellé de la touche.
+     */
+    public void addActionListener(ActionListener listener) {
+        listenerList.add(ActionListener.class, listener);
+    }
+
+    /**
+     * Retire un écouteur de touches.
+     *
+     * @param listener L'écouteur à retirer.
+     */
+    public void removeActionListener(ActionListener listener) {
+        listenerList.remove(ActionListener.class, listener);
+    }
+
+    /**
+     * Modifie le libellé d'une touche et ne redessine que cette touche.
+     *
+     * @param index L'index de la touche.
+     * @param label Le nouveau libellé.
+     */
+    public void setKeyLabel(int index, String label) {
+        if (!label.equals(labels[index])) {
+            labels[index] = label;
+            repaint(keyBounds(index));
+        }
+    }
+
+    /**
+     * Retourne le libellé d'une touche.
+     *
+     * @param index L'index de la touche.
+     * @return Le libellé de la touche.
+     */
+    public String getKeyLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * Retourne le nombre de touches (cases vides comprises).
+     */
+    public int getKeyCount() {
+        return labels.length;
+    }
+
+    /**
+     * Simule l'appui sur la touche portant le libellé spécifié.
+     *
+     * @param label Le libellé de la touche.
+     * @return true si la touche existe, false sinon.
+     */
+    public boolean clickKey(String label) {
+        int index = indexOf(label);
+        if (index == -1) {
+            return false;
+        }
+        fireKey(index);
+        return true;
+    }
+
+    /**
+     * Retourne la zone occupée par une touche, en coordonnées du composant.
+     *
+     * @param index L'index de la touche.
+     * @return Le rectangle de la touche.
+     */
+    public Rectangle keyBounds(int index) {
+        int row = index / columns;
+        int column = index % columns;
+        int x0 = column * (getWidth() + GAP) / columns;
+        int x1 = (column + 1) * (getWidth() + GAP) / columns - GAP;
+        int y0 = row * (getHeight() + GAP) / rows;
+        int y1 = (row + 1) * (getHeight() + GAP) / rows - GAP;
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    /**
+     * Retourne l'index de la touche située sous un point, ou -1 (espacement, case vide).
+     *
+     * @param point Le point en coordonnées du composant.
+     * @return L'index de la touche.
+     */
+    public int keyIndexAt(Point point) {
+        if (point.x < 0 || point.y < 0 || point.x >= getWidth() || point.y >= getHeight()) {
+            return -1;
+        }
+        int column = Math.min(columns - 1, point.x * columns / (getWidth() + GAP));
+        int row = Math.min(rows - 1, point.y * rows / (getHeight() + GAP));
+        int index = row * columns + column;
+        if (index >= labels.length || labels[index] == null || !keyBounds(index).contains(point)) {
+            return -1;
+        }
+        return index;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        return new Dimension(columns * 90, rows * 90);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            Rectangle clip = g2.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            g2.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+            FontRenderContext context = g2.getFontRenderContext();
+            if (!context.equals(cachedContext)) {
+                glyphCache.clear();
+                cachedContext = context;
+            }
+
+            for (int i = 0; i < labels.length; i++) {
+                Rectangle bounds = keyBounds(i);
+                if (labels[i] != null && bounds.intersects(clip)) {
+                    paintKey(g2, i, bounds);
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        glyphCache.clear();
+        repaint();
+    }
+
+    /**
+     * Dessine une touche : fond plein puis libellé centré.
+     */
+    private void paintKey(Graphics2D g2, int index, Rectangle bounds) {
+        Color background = keyColors.apply(labels[index]);
+        g2.setColor(index == pressedIndex ? background.darker() : background);
+        g2.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+
+        GlyphVector glyphs = glyphCache.computeIfAbsent(labels[index],
+            label -> getFont().createGlyphVector(cachedContext, label));
+        Rectangle2D text = glyphs.getLogicalBounds();
+        float x = (float) (bounds.x + (bounds.width - text.getWidth()) / 2 - text.getX());
+        float y = (float) (bounds.y + (bounds.height - text.getHeight()) / 2 - text.getY());
+        g2.setColor(getForeground());
+        g2.drawGlyphVector(glyphs, x, y);
+    }
+
+    private void setPressedIndex(int index) {
+        if (index != pressedIndex) {
+            if (pressedIndex != -1) {
+                repaint(keyBounds(pressedIndex));
+            }
+            pressedIndex = index;
+            if (index != -1) {
+                repaint(keyBounds(index));
+            }
+        }
+    }
+
+    private int indexOf(String label) {
+        for (int i = 0; i < labels.length; i++) {
+            if (label.equals(labels[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Notifie les écouteurs de l'appui sur une touche.
+     */
+    private void fireKey(int index) {
+        ActionEvent event = new ActionEvent(this, ActionEvent.ACTION_PERFORMED, labels[index]);
+        for (ActionListener listener : listenerList.getListeners(ActionListener.class)) {
+            listener.actionPerformed(event);
+        }
+    }
+
+    @Override
+    public AccessibleContext getAccessibleContext() {
+        if (accessibleContext == null) {
+            accessibleContext = new AccessibleKeypad();
+        }
+        return accessibleContext;
+    }
+
+    /**
+     * Contexte accessible du clavier : un panneau dont chaque touche est un enfant.
+     */
+    protected class AccessibleKeypad extends AccessibleJComponent {
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PANEL;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return labels.length;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int index) {
+            if (index < 0 || index >= labels.length || labels[index] == null) {
+                return null;
+            }
+            return new AccessibleKey(index);
+        }
+    }
+
+    /**
+     * Touche accessible : porte le libellé comme nom et expose l'action d'appui.
+     */
+    private class AccessibleKey extends AccessibleContext implements Accessible, AccessibleAction {
+        private final int index;
+
+        AccessibleKey(int index) {
+            this.index = index;
+            setAccessibleParent(Keypad.this);
+        }
+
+        @Override
+        public AccessibleContext getAccessibleContext() {
+            return this;
+        }
+
+        @Override
+        public String getAccessibleName() {
+            return labels[index];
+        }
+
+        @Override
+        public AccessibleRole getAccessibleRole() {
+            return AccessibleRole.PUSH_BUTTON;
+        }
+
+        @Override
+        public AccessibleStateSet getAccessibleStateSet() {
+            return new AccessibleStateSet();
+        }
+
+        @Override
+        public int getAccessibleIndexInParent() {
+            return index;
+        }
+
+        @Override
+        public int getAccessibleChildrenCount() {
+            return 0;
+        }
+
+        @Override
+        public Accessible getAccessibleChild(int i) {
+            return null;
+        }
+
+        @Override
+        public Locale getLocale() {
+            return Keypad.this.getLocale();
+        }
+
+        @Override
+        public AccessibleAction getAccessibleAction() {
+            return this;
+        }
+
+        @Override
+        public int getAccessibleActionCount() {
+            return 1;
+        }
+
+        @Override
+        public String getAccessibleActionDescription(int i) {
+            return i == 0 ? "click" : null;
+        }
+
+        @Override
+        public boolean doAccessibleAction(int i) {
+            if (i != 0) {
+                return false;
+            }
+            fireKey(index);
+            return true;
+        }
+    }
+}
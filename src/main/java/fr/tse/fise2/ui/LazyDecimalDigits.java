@@ -0,0 +1,121 @@
+package fr.tse.fise2.ui;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Écriture décimale d'un grand entier, convertie à la demande par blocs de chiffres.
+ * Afficher les derniers chiffres d'un entier de 100 000 chiffres ne nécessite ainsi que
+ * la conversion de quelques blocs, et non celle de l'entier complet.
+ */
+public class LazyDecimalDigits implements CharSequence {
+    // Nombre de chiffres par bloc converti
+    private static final int BLOCK = 1024;
+    // Nombre de blocs conservés en cache
+    private static final int CACHED_BLOCKS = 16;
+    private static final BigInteger BLOCK_POWER = BigInteger.TEN.pow(BLOCK);
+
+    private final BigInteger magnitude;
+    private final boolean negative;
+    private final int digitCount;
+    private final Map<Integer, String> blocks = new LinkedHashMap<>(CACHED_BLOCKS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+    private final Map<Integer, BigInteger> powers = new LinkedHashMap<>();
+
+    /**
+     * Constructeur.
+     *
+     * @param value L'entier à représenter.
+     */
+    public LazyDecimalDigits(BigInteger value) {
+        this.negative = value.signum() < 0;
+        this.magnitude = value.abs();
+        this.digitCount = countDigits(magnitude);
+    }
+
+    /**
+     * Compte les chiffres décimaux à partir de la taille binaire, sans conversion.
+     */
+    private static int countDigits(BigInteger magnitude) {
+        if (magnitude.signum() == 0) {
+            return 1;
+        }
+        // log10 à partir des 62 bits de poids fort : exact sauf tout près d'une puissance de dix
+        int shift = Math.max(0, magnitude.bitLength() - 62);
+        double log10 = Math.log10(magnitude.shiftRight(shift).longValue()) + shift * Math.log10(2);
+        double fraction = log10 - Math.floor(log10);
+        if (fraction > 1e-9 && fraction < 1 - 1e-9) {
+            return (int) Math.floor(log10) + 1;
+        }
+        int estimate = (int) Math.round(log10) + 1;
+        return magnitude.compareTo(BigInteger.TEN.pow(estimate - 1)) < 0 ? estimate - 1 : estimate;
+    }
+
+    @Override
+    public int length() {
+        return digitCount + (negative ? 1 : 0);
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("index " + index + ", longueur " + length());
+        }
+        if (negative) {
+            if (index == 0) {
+                return '-';
+            }
+            index--;
+        }
+        // Les blocs sont numérotés depuis les chiffres de poids faible
+        int fromRight = digitCount - 1 - index;
+        String block = block(fromRight / BLOCK);
+        return block.charAt(block.length() - 1 - fromRight % BLOCK);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            builder.append(charAt(i));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return (negative ? "-" : "") + magnitude.toString();
+    }
+
+    /**
+     * Retourne le bloc de chiffres demandé, complété par des zéros à gauche.
+     */
+    private String block(int index) {
+        String block = blocks.get(index);
+        if (block == null) {
+            BigInteger value = index == 0 ? magnitude : magnitude.divide(power(index));
+            if ((long) (index + 1) * BLOCK < digitCount) {
+                value = value.mod(BLOCK_POWER);
+            }
+            String digits = value.toString();
+            if ((long) (index + 1) * BLOCK <= digitCount && digits.length() < BLOCK) {
+                digits = "0".repeat(BLOCK - digits.length()) + digits;
+            }
+            block = digits;
+            blocks.put(index, block);
+        }
+        return block;
+    }
+
+    /**
+     * Retourne 10^(BLOCK × index), mémorisé.
+     */
+    private BigInteger power(int index) {
+        return powers.computeIfAbsent(index, i -> BLOCK_POWER.pow(i));
+    }
+}
@@ -0,0 +1,349 @@
+package fr.tse.fise2.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.ClipboardOwner;
+import java.awt.datatransfer.DataFlavor;
+import java.awt.datatransfer.Transferable;
+import java.awt.datatransfer.UnsupportedFlavorException;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.io.Reader;
+
+/**
+ * Champ d'affichage principal de la calculatrice, virtualisé.
+ * La valeur complète est conservée sous forme de {@link CharSequence} (chaîne, corde,
+ * chiffres d'un grand entier convertis à la demande) et seuls les caractères visibles
+ * sont lus et dessinés : afficher un résultat de 100 000 chiffres ne coûte pas plus
+ * qu'afficher un nombre court.
+ * Les chiffres de la partie entière sont groupés par trois, la molette, le glisser et
+ * les touches Début/Fin/flèches font défiler la valeur, et la copie vers le presse-papiers
+ * transmet la valeur par morceaux au moment du collage.
+ */
+public class NumberDisplay extends JComponent {
+    // Espace supplémentaire entre deux groupes de trois chiffres, en pixels
+    private static final int GROUP_GAP = 4;
+    // Au-delà de cette longueur, une valeur quelconque n'est pas parcourue pour le groupement
+    private static final int GROUPING_SCAN_LIMIT = 4096;
+    private static final String ELLIPSIS = "…";
+
+    private CharSequence text = "0";
+    // Fin de la partie entière à grouper, ou -1 si la valeur n'est pas un nombre
+    private int integerEnd = -1;
+    // Nombre de caractères masqués à droite (0 : la fin de la valeur est visible)
+    private int scrollOffset;
+
+    private int dragX;
+    private int dragOffset;
+
+    /**
+     * Constructeur du champ d'affichage.
+     */
+    public NumberDisplay() {
+        setOpaque(true);
+        setFocusable(true);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                dragX = e.getX();
+                dragOffset = scrollOffset;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                setScrollOffset(dragOffset + (e.getX() - dragX) / digitWidth());
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                setScrollOffset(scrollOffset - 3 * e.getWheelRotation());
+            }
+        };
+        addMouseListener(mouseHandler);
+        addMouseMotionListener(mouseHandler);
+        addMouseWheelListener(mouseHandler);
+
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0), "scrollLeft", () -> setScrollOffset(scrollOffset + 1));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0), "scrollRight", () -> setScrollOffset(scrollOffset - 1));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, 0), "scrollStart", () -> setScrollOffset(Integer.MAX_VALUE));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_END, 0), "scrollEnd", () -> setScrollOffset(0));
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK), "copy", this::copyToClipboard);
+        bindKey(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.META_DOWN_MASK), "copy", this::copyToClipboard);
+
+        JPopupMenu menu = new JPopupMenu();
+        JMenuItem copy = new JMenuItem("Copier");
+        copy.addActionListener(e -> copyToClipboard());
+        menu.add(copy);
+        setComponentPopupMenu(menu);
+    }
+
+    private void bindKey(KeyStroke key, String name, Runnable action) {
+        getInputMap(WHEN_FOCUSED).put(key, name);
+        getActionMap().put(name, new AbstractAction(name) {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Remplace la valeur affichée. La séquence n'est pas copiée : elle doit rester
+     * inchangée tant qu'elle est affichée.
+     *
+     * @param text La nouvelle valeur.
+     */
+    public void setText(CharSequence text) {
+        this.text = text;
+        this.integerEnd = integerPartEnd(text);
+        this.scrollOffset = 0;
+        repaint();
+    }
+
+    /**
+     * Retourne la valeur complète sous forme de chaîne.
+     * Pour une très grande valeur, préférer {@link #getValue()} qui ne convertit rien.
+     */
+    public String getText() {
+        return text.toString();
+    }
+
+    /**
+     * Retourne la valeur affichée, sans conversion.
+     */
+    public CharSequence getValue() {
+        return text;
+    }
+
+    /**
+     * Retourne le nombre de caractères masqués à droite de la valeur.
+     */
+    public int getScrollOffset() {
+        return scrollOffset;
+    }
+
+    /**
+     * Fait défiler la valeur ; la position est bornée pour que le début de la valeur
+     * reste atteignable sans faire disparaître tout le texte.
+     *
+     * @param offset Le nombre de caractères à masquer à droite.
+     */
+    public void setScrollOffset(int offset) {
+        Insets insets = getInsets();
+        // Estimation prudente du nombre de caractères visibles, espaces de groupement compris
+        int visible = Math.max(1, (getWidth() - insets.left - insets.right) / (digitWidth() + GROUP_GAP));
+        int clamped = Math.max(0, Math.min(offset, text.length() - visible));
+        if (clamped != scrollOffset) {
+            scrollOffset = clamped;
+            repaint();
+        }
+    }
+
+    /**
+     * Copie la valeur dans le presse-papiers système.
+     * La valeur n'est convertie en texte qu'au moment où une application la colle.
+     */
+    public void copyToClipboard() {
+        try {
+            Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+            CharSequenceTransferable contents = new CharSequenceTransferable(text);
+            clipboard.setContents(contents, contents);
+        } catch (HeadlessException | IllegalStateException ex) {
+            // Presse-papiers indisponible : rien à copier
+        }
+    }
+
+    /**
+     * Détermine la fin de la partie entière si la valeur est un nombre décimal.
+     *
+     * @return La position du point décimal ou la longueur, -1 si la valeur n'est pas un nombre.
+     */
+    private static int integerPartEnd(CharSequence value) {
+        if (value instanceof LazyDecimalDigits) {
+            return value.length();
+        }
+        if (value.length() > GROUPING_SCAN_LIMIT) {
+            return -1;
+        }
+        int end = -1;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && end == -1) {
+                end = i;
+            } else if (!Character.isDigit(c) && !(c == '-' && i == 0)) {
+                return -1;
+            }
+        }
+        return end == -1 ? value.length() : end;
+    }
+
+    /**
+     * Indique si un espace de groupement précède le caractère à la position donnée.
+     */
+    private boolean gapBefore(int index) {
+        int firstDigit = text.length() > 0 && text.charAt(0) == '-' ? 1 : 0;
+        return index > firstDigit && index < integerEnd && (integerEnd - index) % 3 == 0;
+    }
+
+    private int digitWidth() {
+        return Math.max(1, getFontMetrics(getFont()).charWidth('0'));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Insets insets = getInsets();
+        FontMetrics metrics = getFontMetrics(getFont());
+        return new Dimension(metrics.charWidth('0') * 16 + insets.left + insets.right,
+            metrics.getHeight() + insets.top + insets.bottom);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setFont(getFont());
+            g2.setColor(getForeground());
+            paintVisibleText(g2, g2.getFontMetrics());
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Dessine les caractères visibles en partant de la droite.
+     * Seuls les caractères qui tiennent dans la largeur du champ sont lus.
+     */
+    private void paintVisibleText(Graphics2D g2, FontMetrics metrics) {
+        Insets insets = getInsets();
+        int ellipsisWidth = metrics.stringWidth(ELLIPSIS);
+        int right = getWidth() - insets.right - (scrollOffset > 0 ? ellipsisWidth : 0);
+        int available = right - insets.left;
+        int baseline = insets.top + (getHeight() - insets.top - insets.bottom - metrics.getHeight()) / 2
+            + metrics.getAscent();
+
+        int end = text.length() - scrollOffset;
+        int start = end;
+        int width = 0;
+        while (start > 0) {
+            int charWidth = metrics.charWidth(text.charAt(start - 1)) + (gapBefore(start) ? GROUP_GAP : 0);
+            int reserved = start > 1 ? ellipsisWidth : 0;
+            if (width + charWidth + reserved > available) {
+                break;
+            }
+            width += charWidth;
+            start--;
+        }
+
+        if (start > 0) {
+            g2.drawString(ELLIPSIS, right - width - ellipsisWidth, baseline);
+        }
+        if (scrollOffset > 0) {
+            g2.drawString(ELLIPSIS, right, baseline);
+        }
+
+        // Dessiner groupe par groupe pour insérer les espaces de groupement
+        int x = right - width;
+        StringBuilder segment = new StringBuilder();
+        int segmentWidth = 0;
+        for (int i = start; i < end; i++) {
+            if (gapBefore(i) && i > start) {
+                g2.drawString(segment.toString(), x, baseline);
+                x += segmentWidth + GROUP_GAP;
+                segment.setLength(0);
+                segmentWidth = 0;
+            } else if (gapBefore(i)) {
+                x += GROUP_GAP;
+            }
+            char c = text.charAt(i);
+            segment.append(c);
+            segmentWidth += metrics.charWidth(c);
+        }
+        g2.drawString(segment.toString(), x, baseline);
+    }
+
+    /**
+     * Contenu du presse-papiers transmettant une séquence de caractères à la demande.
+     * Le format lecteur ({@link Reader}) parcourt la séquence par morceaux sans jamais
+     * construire la chaîne complète.
+     */
+    private static class CharSequenceTransferable implements Transferable, ClipboardOwner {
+        private static final DataFlavor READER_FLAVOR =
+            new DataFlavor("text/plain; charset=unicode; class=java.io.Reader", "Texte");
+
+        private final CharSequence value;
+
+        CharSequenceTransferable(CharSequence value) {
+            this.value = value;
+        }
+
+        @Override
+        public DataFlavor[] getTransferDataFlavors() {
+            return new DataFlavor[] { READER_FLAVOR, DataFlavor.stringFlavor };
+        }
+
+        @Override
+        public boolean isDataFlavorSupported(DataFlavor flavor) {
+            return READER_FLAVOR.equals(flavor) || DataFlavor.stringFlavor.equals(flavor);
+        }
+
+        @Override
+        public Object getTransferData(DataFlavor flavor) throws UnsupportedFlavorException {
+            if (READER_FLAVOR.equals(flavor)) {
+                return new CharSequenceReader(value);
+            }
+            if (DataFlavor.stringFlavor.equals(flavor)) {
+                return value.toString();
+            }
+            throw new UnsupportedFlavorException(flavor);
+        }
+
+        @Override
+        public void lostOwnership(Clipboard clipboard, Transferable contents) {
+            // Rien à libérer : la séquence est immuable
+        }
+    }
+
+    /**
+     * Lecteur parcourant une séquence de caractères sans la recopier entièrement.
+     */
+    private static class CharSequenceReader extends Reader {
+        private final CharSequence value;
+        private int position;
+
+        CharSequenceReader(CharSequence value) {
+            this.value = value;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= value.length()) {
+                return -1;
+            }
+            int count = Math.min(length, value.length() - position);
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = value.charAt(position + i);
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            position = value.length();
+        }
+    }
+}
@@ -4,14 +4,33 @@ import java.awt.*;
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import fr.tse.fise2.model.CompiledExpression;
 
 /**
  * Classe ScientificCalculatorUI qui étend CalculatorUI pour ajouter des fonctionnalités scientifiques.
- * Gère l'affichage et les interactions des boutons scientifiques supplémentaires.
+ * Gère l'affichage et les interactions des boutons scientifiques supplémentaires,
+ * ainsi que des claviers affichés en mode {@code PRECISE}, {@code PROGRAMMER}, {@code STATISTICS}
+ * et {@code POLYNOMIAL}.
  */
 public class ScientificCalculatorUI extends CalculatorUI {
     private JPanel scientificPanel;
+    private Keypad scientificKeypad;
     private boolean isScientificMode = false;
+    private JPanel programmerPanel;
+    private Keypad programmerKeypad;
+    private boolean isProgrammerMode = false;
+    private JPanel statisticsPanel;
+    private Keypad statisticsKeypad;
+    private boolean isStatisticsMode = false;
+    private JPanel polynomialPanel;
+    private Keypad polynomialKeypad;
+    private boolean isPolynomialMode = false;
+    private JPanel precisePanel;
+    private Keypad preciseKeypad;
+    private boolean isPreciseMode = false;
+    private JDialog graphDialog;
+    private GraphPanel graphPanel;
 
     // Boutons scientifiques supplémentaires
     private static final String[] SCIENTIFIC_BUTTONS = {
@@ -20,6 +39,57 @@ public class ScientificCalculatorUI extends CalculatorUI {
         "ln", "exp", "n!",
         "√", "x²", "xʸ",
         "π", "(", ")",
+        "DEG", "nCr", "nPr",
+        "FLOAT", "i", "→",
+    };
+    private static final int ANGLE_MODE_KEY_INDEX = 15;
+    private static final int NUMBER_MODE_KEY_INDEX = 18;
+
+    // Clavier du mode précis : choix du nombre de chiffres significatifs, saisi ou prédéfini
+    private static final String[] PRECISE_BUTTONS = {
+        "digits", "16", "50",
+        "100", "1000", "10000",
+        null, null, null,
+        null, null, null,
+        null, null, null,
+        null, null, null,
+        null, null, null,
+    };
+
+    // Clavier du mode programmeur : chiffres hexadécimaux, préfixes et opérateurs bit à bit
+    private static final String[] PROGRAMMER_BUTTONS = {
+        "A", "B", "C",
+        "D", "E", "F",
+        "0x", "0b", "0o",
+        "AND", "OR", "XOR",
+        "NOT", "<<", ">>",
+        ">>>", "ROL", "ROR",
+        "DEC", null, null,
+    };
+    private static final int OUTPUT_BASE_KEY_INDEX = 18;
+
+    // Clavier du mode statistiques : chargement d'une colonne CSV et statistiques
+    private static final String[] STATISTICS_BUTTONS = {
+        "CSV", "count", "pct",
+        "mean", "var", "sd",
+        "min", "max", null,
+        null, null, null,
+        null, null, null,
+        null, null, null,
+        null, null, null,
+    };
+
+    // Clavier du mode polynômes : inconnue, évaluation en un point, racines, dérivée,
+    // résolution d'une équation quelconque en X, intégrale sur un intervalle, dérivée
+    // symbolique, somme et produit d'un terme d'indice X, graphe de l'expression
+    private static final String[] POLYNOMIAL_BUTTONS = {
+        "X", "@", "roots",
+        "deriv", "solve", "∫",
+        "d/dX", "Σ", "Π",
+        "plot", null, null,
+        null, null, null,
+        null, null, null,
+        null, null, null,
     };
 
     /**
@@ -29,6 +99,10 @@ public class ScientificCalculatorUI extends CalculatorUI {
     public ScientificCalculatorUI() {
         super();
         initializeScientificPanel();
+        initializeProgrammerPanel();
+        initializeStatisticsPanel();
+        initializePolynomialPanel();
+        initializePrecisePanel();
     }
 
     /**
@@ -37,33 +111,139 @@ public class ScientificCalculatorUI extends CalculatorUI {
      */
     private void initializeScientificPanel() {
         scientificPanel = new JPanel();
-        scientificPanel.setLayout(new GridLayout(5, 3, 5, 5));
+        scientificPanel.setLayout(new BorderLayout());
 
         // Style du panneau scientifique
         UIStyle.stylePanel(scientificPanel, Color.BLACK);
         scientificPanel.setPreferredSize(new Dimension(300, 600));
 
-        // Ajouter les boutons scientifiques
-        for (String text : SCIENTIFIC_BUTTONS) {
-            JButton button = new JButton(text);
-            applyButtonStyle(button, text);
-            button.addActionListener(new ScientificButtonClickListener());
-            scientificPanel.add(button);
-        }
+        // Ajouter le clavier scientifique
+        scientificKeypad = new Keypad(SCIENTIFIC_BUTTONS, 7, 3, this::keyColor);
+        scientificKeypad.setName("scientificKeypad");
+        UIStyle.styleKeypad(scientificKeypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        scientificKeypad.addActionListener(new ScientificButtonClickListener());
+        scientificPanel.add(scientificKeypad, BorderLayout.CENTER);
         scientificPanel.setVisible(false);
     }
 
     /**
-     * Applique le style approprié à un bouton en fonction de son texte.
+     * Initialise le panneau du clavier programmeur, masqué hors du mode programmeur.
+     */
+    private void initializeProgrammerPanel() {
+        programmerPanel = new JPanel();
+        programmerPanel.setLayout(new BorderLayout());
+        UIStyle.stylePanel(programmerPanel, Color.BLACK);
+        programmerPanel.setPreferredSize(new Dimension(300, 600));
+
+        programmerKeypad = new Keypad(PROGRAMMER_BUTTONS, 7, 3, this::programmerKeyColor);
+        programmerKeypad.setName("programmerKeypad");
+        UIStyle.styleKeypad(programmerKeypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        programmerKeypad.addActionListener(new ProgrammerButtonClickListener());
+        programmerPanel.add(programmerKeypad, BorderLayout.CENTER);
+        programmerPanel.setVisible(false);
+    }
+
+    /**
+     * Initialise le panneau du clavier statistiques, masqué hors du mode statistiques.
+     */
+    private void initializeStatisticsPanel() {
+        statisticsPanel = new JPanel();
+        statisticsPanel.setLayout(new BorderLayout());
+        UIStyle.stylePanel(statisticsPanel, Color.BLACK);
+        statisticsPanel.setPreferredSize(new Dimension(300, 600));
+
+        statisticsKeypad = new Keypad(STATISTICS_BUTTONS, 7, 3,
+            text -> text.equals("CSV") ? Color.LIGHT_GRAY : Color.DARK_GRAY);
+        statisticsKeypad.setName("statisticsKeypad");
+        UIStyle.styleKeypad(statisticsKeypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        statisticsKeypad.addActionListener(new StatisticsButtonClickListener());
+        statisticsPanel.add(statisticsKeypad, BorderLayout.CENTER);
+        statisticsPanel.setVisible(false);
+    }
+
+    /**
+     * Initialise le panneau du clavier polynômes, masqué hors du mode polynômes.
+     */
+    private void initializePolynomialPanel() {
+        polynomialPanel = new JPanel();
+        polynomialPanel.setLayout(new BorderLayout());
+        UIStyle.stylePanel(polynomialPanel, Color.BLACK);
+        polynomialPanel.setPreferredSize(new Dimension(300, 600));
+
+        polynomialKeypad = new Keypad(POLYNOMIAL_BUTTONS, 7, 3,
+            text -> text.equals("@") ? Color.ORANGE
+                : text.equals("X") || text.equals("roots") || text.equals("deriv") ? Color.DARK_GRAY : Color.LIGHT_GRAY);
+        polynomialKeypad.setName("polynomialKeypad");
+        UIStyle.styleKeypad(polynomialKeypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        polynomialKeypad.addActionListener(new PolynomialButtonClickListener());
+        polynomialPanel.add(polynomialKeypad, BorderLayout.CENTER);
+        polynomialPanel.setVisible(false);
+    }
+
+    /**
+     * Initialise le panneau du clavier précis, masqué hors du mode précis.
+     */
+    private void initializePrecisePanel() {
+        precisePanel = new JPanel();
+        precisePanel.setLayout(new BorderLayout());
+        UIStyle.stylePanel(precisePanel, Color.BLACK);
+        precisePanel.setPreferredSize(new Dimension(300, 600));
+
+        preciseKeypad = new Keypad(PRECISE_BUTTONS, 7, 3,
+            text -> text.equals("digits") ? Color.LIGHT_GRAY : Color.DARK_GRAY);
+        preciseKeypad.setName("preciseKeypad");
+        UIStyle.styleKeypad(preciseKeypad, Color.BLACK, Color.WHITE, UIStyle.getUIFont());
+        preciseKeypad.addActionListener(new PreciseButtonClickListener());
+        precisePanel.add(preciseKeypad, BorderLayout.CENTER);
+        precisePanel.setVisible(false);
+    }
+
+    /**
+     * Retourne la couleur de fond d'une touche du clavier programmeur : opérateurs
+     * bit à bit en orange, touche de base en gris clair, chiffres et préfixes en gris foncé.
      * 
-     * @param button Le bouton à styliser.
-     * @param text Le texte du bouton.
+     * @param text Le texte de la touche.
+     * @return La couleur de fond de la touche.
+     */
+    private Color programmerKeyColor(String text) {
+        switch (text) {
+            case "DEC": case "HEX": case "BIN": case "OCT":
+                return Color.LIGHT_GRAY;
+            case "AND": case "OR": case "XOR": case "NOT":
+            case "<<": case ">>": case ">>>": case "ROL": case "ROR":
+                return Color.ORANGE;
+            default:
+                return Color.DARK_GRAY;
+        }
+    }
+
+    /**
+     * Retourne la couleur de fond d'une touche scientifique en fonction de son texte.
+     * 
+     * @param text Le texte de la touche.
+     * @return La couleur de fond de la touche.
      */
-    private void applyButtonStyle(JButton button, String text) {
+    private Color keyColor(String text) {
         if (isTrigoButton(text)) {
-            UIStyle.styleButton(button, Color.ORANGE, Color.WHITE, UIStyle.getUIFont());
-        } else {
-            UIStyle.styleButton(button, Color.DARK_GRAY, Color.WHITE, UIStyle.getUIFont());
+            return Color.ORANGE;
+        }
+        return isModeKey(text) ? Color.LIGHT_GRAY : Color.DARK_GRAY;
+    }
+
+    /**
+     * Détermine si un bouton est une touche de mode, dont le libellé change à chaque appui.
+     * 
+     * @param text Le texte du bouton.
+     * @return true pour les touches d'unité d'angle et de mode de calcul.
+     */
+    private boolean isModeKey(String text) {
+        switch (text) {
+            case "DEG": case "RAD": case "GRAD":
+            case "FLOAT": case "EXACT": case "RATIONAL": case "DECIMAL": case "PRECISE": case "COMPLEX":
+            case "PROGRAMMER": case "MATRIX": case "STATISTICS": case "POLYNOMIAL":
+                return true;
+            default:
+                return false;
         }
     }
 
@@ -74,7 +254,13 @@ public class ScientificCalculatorUI extends CalculatorUI {
      * @return true si le bouton est une fonction trigonométrique, false sinon.
      */
     private boolean isTrigoButton(String text) {
-        return text.matches("sin|cos|tan|asin|acos|atan");
+        switch (text) {
+            case "sin": case "cos": case "tan":
+            case "asin": case "acos": case "atan":
+                return true;
+            default:
+                return false;
+        }
     }
 
     /**
@@ -101,12 +287,24 @@ public class ScientificCalculatorUI extends CalculatorUI {
             // Ajouter les panneaux au conteneur principal
             mainContainer.add(scientificPanel, BorderLayout.WEST);
             mainContainer.add(getPanel(), BorderLayout.CENTER);
+            // Claviers des modes précis, programmeur, statistiques et polynômes, un seul visible à la fois
+            JPanel sidePanel = new JPanel(new BorderLayout());
+            UIStyle.stylePanel(sidePanel, Color.BLACK);
+            sidePanel.add(programmerPanel, BorderLayout.WEST);
+            sidePanel.add(statisticsPanel, BorderLayout.EAST);
+            sidePanel.add(polynomialPanel, BorderLayout.CENTER);
+            sidePanel.add(precisePanel, BorderLayout.NORTH);
+            mainContainer.add(sidePanel, BorderLayout.EAST);
 
             // Ajouter le conteneur principal à la frame
             parent.add(mainContainer);
 
             // Initialiser en mode non-scientifique
             scientificPanel.setVisible(false);
+            programmerPanel.setVisible(false);
+            statisticsPanel.setVisible(false);
+            polynomialPanel.setVisible(false);
+            precisePanel.setVisible(false);
         }
     }
 
@@ -114,7 +312,7 @@ public class ScientificCalculatorUI extends CalculatorUI {
      * Retourne le texte actuellement affiché dans le champ principal.
      */
     protected String getCurrentDisplayText() {
-        return getDisplay().getText();
+        return getDisplayText();
     }
 
     /**
@@ -134,11 +332,67 @@ public class ScientificCalculatorUI extends CalculatorUI {
     public void toggleScientificMode() {
         isScientificMode = !isScientificMode;
         scientificPanel.setVisible(isScientificMode);
+        updatePanelsLayout();
+    }
+
+    /**
+     * Affiche ou masque le clavier programmeur, à droite du clavier principal.
+     * Il n'est visible qu'en mode scientifique, où se trouve la touche de mode de calcul.
+     * 
+     * @param programmerMode true si le mode de calcul est le mode programmeur.
+     */
+    public void setProgrammerMode(boolean programmerMode) {
+        isProgrammerMode = programmerMode;
+        updatePanelsLayout();
+    }
+
+    /**
+     * Affiche ou masque le clavier statistiques, à droite du clavier principal.
+     * 
+     * @param statisticsMode true si le mode de calcul est le mode statistiques.
+     */
+    public void setStatisticsMode(boolean statisticsMode) {
+        isStatisticsMode = statisticsMode;
+        updatePanelsLayout();
+    }
+
+    /**
+     * Affiche ou masque le clavier polynômes, à droite du clavier principal.
+     * 
+     * @param polynomialMode true si le mode de calcul est le mode polynômes.
+     */
+    public void setPolynomialMode(boolean polynomialMode) {
+        isPolynomialMode = polynomialMode;
+        updatePanelsLayout();
+    }
+
+    /**
+     * Affiche ou masque le clavier précis, à droite du clavier principal.
+     * 
+     * @param preciseMode true si le mode de calcul est le mode précis.
+     */
+    public void setPreciseMode(boolean preciseMode) {
+        isPreciseMode = preciseMode;
+        updatePanelsLayout();
+    }
+
+    /**
+     * Ajuste la visibilité des panneaux et la largeur de la fenêtre à leur nombre.
+     */
+    private void updatePanelsLayout() {
+        boolean showProgrammer = isScientificMode && isProgrammerMode;
+        boolean showStatistics = isScientificMode && isStatisticsMode;
+        boolean showPolynomial = isScientificMode && isPolynomialMode;
+        boolean showPrecise = isScientificMode && isPreciseMode;
+        programmerPanel.setVisible(showProgrammer);
+        statisticsPanel.setVisible(showStatistics);
+        polynomialPanel.setVisible(showPolynomial);
+        precisePanel.setVisible(showPrecise);
 
         Window window = SwingUtilities.getWindowAncestor(getPanel());
         if (window instanceof JFrame) {
             JFrame frame = (JFrame) window;
-            frame.setSize(isScientificMode ? 700 : 400, 600);
+            frame.setSize(400 + (isScientificMode ? 300 : 0) + (showProgrammer || showStatistics || showPolynomial || showPrecise ? 300 : 0), 600);
 
             // Forcer la mise à jour de la disposition de la fenêtre
             frame.setLocationRelativeTo(null);
@@ -148,7 +402,154 @@ public class ScientificCalculatorUI extends CalculatorUI {
     }
 
     /**
-     * Classe interne pour gérer les clics sur les boutons scientifiques.
+     * Affiche l'unité d'angle courante sur sa touche.
+     * 
+     * @param label Le nom de l'unité (DEG, RAD ou GRAD).
+     */
+    public void setAngleModeKey(String label) {
+        scientificKeypad.setKeyLabel(ANGLE_MODE_KEY_INDEX, label);
+    }
+
+    /**
+     * Affiche le mode de calcul courant sur sa touche.
+     * 
+     * @param label Le nom du mode (FLOAT, EXACT, RATIONAL, DECIMAL, PRECISE, COMPLEX, PROGRAMMER,
+     *              MATRIX, STATISTICS ou POLYNOMIAL).
+     */
+    public void setNumberModeKey(String label) {
+        scientificKeypad.setKeyLabel(NUMBER_MODE_KEY_INDEX, label);
+    }
+
+    /**
+     * Affiche la base d'écriture des résultats sur sa touche du clavier programmeur.
+     * 
+     * @param label Le nom de la base (DEC, HEX, BIN ou OCT).
+     */
+    public void setOutputBaseKey(String label) {
+        programmerKeypad.setKeyLabel(OUTPUT_BASE_KEY_INDEX, label);
+    }
+
+    /**
+     * Retourne le clavier scientifique.
+     */
+    public Keypad getScientificKeypad() {
+        return scientificKeypad;
+    }
+
+    /**
+     * Retourne le clavier programmeur.
+     */
+    public Keypad getProgrammerKeypad() {
+        return programmerKeypad;
+    }
+
+    /**
+     * Retourne le clavier statistiques.
+     */
+    public Keypad getStatisticsKeypad() {
+        return statisticsKeypad;
+    }
+
+    /**
+     * Retourne le clavier polynômes.
+     */
+    public Keypad getPolynomialKeypad() {
+        return polynomialKeypad;
+    }
+
+    /**
+     * Retourne le clavier précis.
+     */
+    public Keypad getPreciseKeypad() {
+        return preciseKeypad;
+    }
+
+    /**
+     * Demande le nombre de chiffres significatifs du mode précis et en confie le changement
+     * au contrôleur. Rien n'est fait si l'utilisateur annule.
+     */
+    private void choosePrecision() {
+        String digits = JOptionPane.showInputDialog(getPanel(), "Nombre de chiffres significatifs (1 à 10000) :",
+            String.valueOf(getController().getPrecision()));
+        if (digits != null && !digits.isBlank()) {
+            getController().setPrecision(digits);
+        }
+    }
+
+    /**
+     * Demande un fichier CSV puis la colonne à analyser, et en confie le chargement
+     * au contrôleur. Rien n'est chargé si l'utilisateur annule l'un des deux choix.
+     */
+    private void chooseDataset() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setFileFilter(new FileNameExtensionFilter("Fichiers CSV", "csv", "tsv", "txt"));
+        if (chooser.showOpenDialog(getPanel()) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        String column = JOptionPane.showInputDialog(getPanel(), "Colonne (nom ou numéro) :", "1");
+        if (column != null && !column.isBlank()) {
+            getController().loadDataset(chooser.getSelectedFile().toPath(), column);
+        }
+    }
+
+    /**
+     * Demande la valeur de départ de la résolution, ou un intervalle « a;b », et confie
+     * la résolution de l'expression saisie au contrôleur. Rien n'est fait si l'utilisateur annule.
+     */
+    private void chooseSolveStart() {
+        String start = JOptionPane.showInputDialog(getPanel(), "Valeur de départ, ou intervalle a;b :", "1");
+        if (start != null && !start.isBlank()) {
+            getController().solveEquation(start);
+        }
+    }
+
+    /**
+     * Demande les bornes de l'intégrale, « a;b » ou « a;b;tolérance », et confie le calcul
+     * au contrôleur. Rien n'est fait si l'utilisateur annule.
+     */
+    private void chooseIntegrationBounds() {
+        String bounds = JOptionPane.showInputDialog(getPanel(), "Bornes a;b, et tolérance facultative :", "0;1");
+        if (bounds != null && !bounds.isBlank()) {
+            getController().integrateExpression(bounds);
+        }
+    }
+
+    /**
+     * Demande la plage d'indices « début;fin » de la somme (Σ) ou du produit (Π), et confie
+     * le calcul au contrôleur. Rien n'est fait si l'utilisateur annule.
+     *
+     * @param operator « Σ » ou « Π ».
+     */
+    private void chooseSeriesRange(String operator) {
+        String range = JOptionPane.showInputDialog(getPanel(), "Indices X de début;fin :", "1;1000000");
+        if (range != null && !range.isBlank()) {
+            getController().computeSeries(operator, range);
+        }
+    }
+
+    /**
+     * Affiche le graphe de l'expression dans une fenêtre placée à droite de la calculatrice,
+     * créée au premier tracé puis réutilisée.
+     *
+     * @param f L'expression compilée, d'inconnue X.
+     */
+    public void showGraph(CompiledExpression f) {
+        if (graphDialog == null) {
+            Window window = SwingUtilities.getWindowAncestor(getPanel());
+            graphDialog = new JDialog(window, "Graphe", Dialog.ModalityType.MODELESS);
+            graphPanel = new GraphPanel();
+            graphDialog.add(graphPanel);
+            graphDialog.pack();
+            if (window != null) {
+                graphDialog.setLocation(window.getX() + window.getWidth(), window.getY());
+            }
+        }
+        graphPanel.plot(f);
+        graphDialog.setVisible(true);
+    }
+
+    /**
+     * Classe interne pour gérer les appuis sur les touches scientifiques.
      * Envoie la commande au contrôleur pour traitement.
      */
     private class ScientificButtonClickListener implements ActionListener {
@@ -158,4 +559,64 @@ public class ScientificCalculatorUI extends CalculatorUI {
             getController().handleScientificInput(command);
         }
     }
+
+    /**
+     * Classe interne pour gérer les appuis sur les touches du clavier programmeur.
+     */
+    private class ProgrammerButtonClickListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            getController().handleProgrammerInput(e.getActionCommand());
+        }
+    }
+
+    /**
+     * Classe interne pour gérer les appuis sur les touches du clavier précis.
+     */
+    private class PreciseButtonClickListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (e.getActionCommand().equals("digits")) {
+                choosePrecision();
+            } else {
+                getController().setPrecision(e.getActionCommand());
+            }
+        }
+    }
+
+    /**
+     * Classe interne pour gérer les appuis sur les touches du clavier statistiques.
+     */
+    private class StatisticsButtonClickListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (e.getActionCommand().equals("CSV")) {
+                chooseDataset();
+            } else {
+                getController().handleStatisticsInput(e.getActionCommand());
+            }
+        }
+    }
+
+    /**
+     * Classe interne pour gérer les appuis sur les touches du clavier polynômes.
+     */
+    private class PolynomialButtonClickListener implements ActionListener {
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            if (e.getActionCommand().equals("solve")) {
+                chooseSolveStart();
+            } else if (e.getActionCommand().equals("∫")) {
+                chooseIntegrationBounds();
+            } else if (e.getActionCommand().equals("d/dX")) {
+                getController().differentiateExpression();
+            } else if (e.getActionCommand().equals("Σ") || e.getActionCommand().equals("Π")) {
+                chooseSeriesRange(e.getActionCommand());
+            } else if (e.getActionCommand().equals("plot")) {
+                getController().plotExpression();
+            } else {
+                getController().handlePolynomialInput(e.getActionCommand());
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -26,6 +26,21 @@ public class UIStyle {
         button.setOpaque(true);
     }
 
+    /**
+     * Applique un style personnalisé à un clavier.
+     * Les couleurs de fond des touches sont fournies par le clavier lui-même.
+     * 
+     * @param keypad Clavier à styliser.
+     * @param background Couleur visible entre les touches.
+     * @param foreground Couleur du texte des touches.
+     * @param font Police utilisée pour le texte des touches.
+     */
+    public static void styleKeypad(Keypad keypad, Color background, Color foreground, Font font) {
+        keypad.setBackground(background);
+        keypad.setForeground(foreground);
+        keypad.setFont(font);
+    }
+
     /**
      * Applique un style personnalisé à un champ de texte.
      * 
@@ -45,6 +60,22 @@ public class UIStyle {
         textField.setPreferredSize(new Dimension(textField.getPreferredSize().width, height)); // Définir la hauteur
     }
 
+    /**
+     * Applique un style personnalisé au champ d'affichage principal.
+     * 
+     * @param display Champ d'affichage à styliser.
+     * @param background Couleur de fond du champ.
+     * @param foreground Couleur du texte du champ.
+     * @param font Police utilisée pour le texte du champ.
+     * @param height Hauteur préférée du champ.
+     */
+    public static void styleDisplay(NumberDisplay display, Color background, Color foreground, Font font, int height) {
+        display.setBackground(background);
+        display.setForeground(foreground);
+        display.setFont(font);
+        display.setPreferredSize(new Dimension(display.getPreferredSize().width, height)); // Définir la hauteur
+    }
+
     /**
      * Retourne la police de caractère prédéfinie pour l'interface utilisateur.
      * 
@@ -0,0 +1,200 @@
+package fr.tse.fise2.controller;
+
+import fr.tse.fise2.model.Calculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputBufferTest {
+
+    // Morceaux saisis : mots de plusieurs lettres, nombres, opérateurs et caractères isolés
+    private static final String[] PIECES = {
+        "arcsin", "arccos", "arctan", "sin", "cos", "tan", "ln", "exp", "sqrt",
+        "nCr", "nPr", "mod", "π", "i", "(", ")", "(-", "+", "-", "x", "÷", "^", "%", "!",
+        "0", "1", "7", "42", "3.14", "123456789", ".", "a", "r", "c", "s", "n",
+    };
+
+    // Morceaux du mode programmeur : littéraux en base 16, 2 et 8, opérateurs binaires
+    private static final String[] PROGRAMMER_PIECES = {
+        "0x", "0b", "0o", "A", "F", "N", "D", "AND", "OR", "XOR", "NOT", "<<", ">>", ">>>",
+        "ROL", "(", ")", "(-", "-", "+", "x", "0", "1", "7", "42", "3.14",
+    };
+
+    // Morceaux du mode matrices : crochets, séparateurs, variables et fonctions matricielles
+    private static final String[] MATRIX_PIECES = {
+        "[", "]", ",", ";", "[1,2;3,4]", "A", "B", "det", "inv", "trans", "\\", "(", ")", "(-",
+        "-", "+", "x", "0", "1", "42", "3.14",
+    };
+
+    @Test
+    public void testRandomEditsMatchFullTokenization() {
+        randomEdits(new InputBuffer(), Calculator.TOKEN_PATTERN, PIECES, 7);
+    }
+
+    @Test
+    public void testRandomEditsInProgrammerAndMatrixModes() {
+        InputBuffer buffer = new InputBuffer();
+        buffer.setTokenPattern(Calculator.PROGRAMMER_TOKEN_PATTERN);
+        randomEdits(buffer, Calculator.PROGRAMMER_TOKEN_PATTERN, PROGRAMMER_PIECES, 11);
+        buffer.setTokenPattern(Calculator.MATRIX_TOKEN_PATTERN);
+        randomEdits(buffer, Calculator.MATRIX_TOKEN_PATTERN, MATRIX_PIECES, 13);
+    }
+
+    @Test
+    public void testModeChangeRetokenizes() {
+        InputBuffer buffer = new InputBuffer();
+        buffer.append("0x");
+        assertEquals("x", buffer.lastToken());
+        // En mode programmeur, « 0x » est le début d'un littéral hexadécimal
+        buffer.setTokenPattern(Calculator.PROGRAMMER_TOKEN_PATTERN);
+        assertEquals("0x", buffer.lastToken());
+        buffer.append("FF-0xA-3");
+        assertTokens("0xFF-0xA-3", buffer, Calculator.PROGRAMMER_TOKEN_PATTERN);
+        assertEquals("-", buffer.tokenFromEnd(1));
+        // Une matrice refermée longtemps après son crochet ouvrant forme un seul token
+        buffer.replace("2x[1,2,3,4,5,6,7,8;9,10,11,12,13,14,15,16");
+        buffer.setTokenPattern(Calculator.MATRIX_TOKEN_PATTERN);
+        buffer.append("]");
+        assertEquals("[1,2,3,4,5,6,7,8;9,10,11,12,13,14,15,16]", buffer.lastToken());
+        assertEquals(3, buffer.tokenCount());
+        buffer.setLength(buffer.length() - 1);
+        assertTokens("2x[1,2,3,4,5,6,7,8;9,10,11,12,13,14,15,16", buffer, Calculator.MATRIX_TOKEN_PATTERN);
+    }
+
+    /**
+     * Applique des modifications aléatoires au tampon et vérifie ses tokens après chacune.
+     */
+    private static void randomEdits(InputBuffer buffer, Pattern pattern, String[] pieces, long seed) {
+        Random random = new Random(seed);
+        buffer.clear();
+        StringBuilder expected = new StringBuilder();
+        for (int step = 0; step < 20000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || expected.length() == 0) {
+                String piece = pieces[random.nextInt(pieces.length)];
+                buffer.append(piece);
+                expected.append(piece);
+            } else if (operation < 7) {
+                // Retour arrière d'un ou plusieurs caractères, souvent au milieu d'un mot
+                int length = Math.max(0, expected.length() - 1 - random.nextInt(4));
+                buffer.setLength(length);
+                expected.setLength(length);
+            } else if (operation == 7) {
+                int count = 1 + random.nextInt(3);
+                List<String> tokens = tokenize(expected.toString(), pattern);
+                int removed = 0;
+                for (int i = 0; i < count && i < tokens.size(); i++) {
+                    removed += tokens.get(tokens.size() - 1 - i).length();
+                }
+                buffer.removeLastTokens(count);
+                expected.setLength(expected.length() - removed);
+            } else if (operation == 8) {
+                // Collage de plusieurs centaines de caractères
+                StringBuilder paste = new StringBuilder();
+                while (paste.length() <= 300) {
+                    paste.append(pieces[random.nextInt(pieces.length)]);
+                }
+                buffer.append(paste.toString());
+                expected.append(paste);
+            } else {
+                buffer.deleteFirstChar();
+                expected.deleteCharAt(0);
+            }
+            assertTokens(expected.toString(), buffer, pattern);
+            if (expected.length() > 5000) {
+                buffer.clear();
+                expected.setLength(0);
+            }
+        }
+    }
+
+    @Test
+    public void testDeletionInsideWords() {
+        InputBuffer buffer = new InputBuffer();
+        buffer.append("2x3arcsin");
+        assertEquals("arcsin", buffer.lastToken());
+        // « arcsi » : le mot est défait, le « i » final redevient la constante i
+        buffer.setLength(buffer.length() - 1);
+        assertTokens("2x3arcsi", buffer);
+        assertEquals("i", buffer.lastToken());
+        buffer.append("n(1)+5sqr");
+        assertTokens("2x3arcsin(1)+5sqr", buffer);
+        buffer.append("t");
+        assertEquals("sqrt", buffer.lastToken());
+        buffer.setLength(buffer.length() - 2);
+        buffer.append("mo");
+        assertTokens("2x3arcsin(1)+5sqmo", buffer);
+        buffer.append("d");
+        assertEquals("mod", buffer.lastToken());
+        assertEquals("q", buffer.tokenFromEnd(1));
+        buffer.removeLastTokens(3);
+        assertTokens("2x3arcsin(1)+5", buffer);
+        assertEquals("5", buffer.lastToken());
+    }
+
+    @Test
+    public void testNegativeNumbersAndReplace() {
+        InputBuffer buffer = new InputBuffer();
+        buffer.append("3-2");
+        assertEquals("2", buffer.lastToken());
+        buffer.replace("(-25");
+        assertEquals("-25", buffer.lastToken());
+        // En tête de saisie, le signe moins n'appartient pas au nombre
+        buffer.deleteFirstChar();
+        assertTokens("-25", buffer);
+        assertEquals("25", buffer.lastToken());
+        assertEquals("-", buffer.tokenFromEnd(1));
+        assertEquals("", buffer.tokenFromEnd(2));
+        buffer.clear();
+        assertEquals(0, buffer.tokenCount());
+        assertEquals("", buffer.lastToken());
+    }
+
+    /**
+     * Vérifie le texte et les tokens du tampon contre une tokenisation complète du texte attendu.
+     */
+    private static void assertTokens(String text, InputBuffer buffer) {
+        assertTokens(text, buffer, Calculator.TOKEN_PATTERN);
+    }
+
+    /**
+     * Vérifie le texte, les tokens et les crochets du tampon contre une tokenisation
+     * complète par le pattern.
+     */
+    private static void assertTokens(String text, InputBuffer buffer, Pattern pattern) {
+        assertEquals(text, buffer.toString());
+        assertEquals(text.lastIndexOf('[') > text.lastIndexOf(']'), buffer.endsInsideBrackets(), "crochets de « " + text + " »");
+        List<String> tokens = tokenize(text, pattern);
+        assertEquals(tokens.size(), buffer.tokenCount(), "tokens de « " + text + " »");
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(tokens.get(tokens.size() - 1 - i), buffer.tokenFromEnd(i), "token de « " + text + " »");
+        }
+    }
+
+    /**
+     * Tokenisation de référence : le pattern sur tout le texte, chaque caractère non
+     * reconnu formant un token.
+     */
+    private static List<String> tokenize(String text, Pattern pattern) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = pattern.matcher(text);
+        int position = 0;
+        while (matcher.find()) {
+            for (; position < matcher.start(); position++) {
+                tokens.add(String.valueOf(text.charAt(position)));
+            }
+            tokens.add(matcher.group());
+            position = matcher.end();
+        }
+        for (; position < text.length(); position++) {
+            tokens.add(String.valueOf(text.charAt(position)));
+        }
+        return tokens;
+    }
+}
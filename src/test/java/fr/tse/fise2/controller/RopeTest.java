@@ -0,0 +1,95 @@
+package fr.tse.fise2.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RopeTest {
+
+    @Test
+    public void testEditsMatchStringBuilder() {
+        Random random = new Random(42);
+        Rope rope = Rope.EMPTY;
+        StringBuilder expected = new StringBuilder();
+        for (int step = 0; step < 5000; step++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || expected.length() == 0) {
+                String text = randomText(random, random.nextInt(8) == 0 ? 300 + random.nextInt(1000) : 1 + random.nextInt(5));
+                rope = rope.append(text);
+                expected.append(text);
+            } else if (operation == 1) {
+                // Collage plus long qu'une feuille, à une position quelconque
+                int index = random.nextInt(expected.length() + 1);
+                String text = randomText(random, random.nextInt(3) == 0 ? 257 + random.nextInt(800) : 1 + random.nextInt(20));
+                rope = rope.insert(index, text);
+                expected.insert(index, text);
+            } else if (operation == 2) {
+                int start = random.nextInt(expected.length() + 1);
+                int end = start + random.nextInt(Math.min(expected.length() - start, 600) + 1);
+                rope = rope.delete(start, end);
+                expected.delete(start, end);
+            } else {
+                int end = random.nextInt(expected.length() + 1);
+                rope = rope.delete(end, expected.length());
+                expected.setLength(end);
+            }
+            assertEquals(expected.length(), rope.length());
+            if (step % 50 == 0) {
+                assertEquals(expected.toString(), rope.toString());
+                for (int probe = 0; probe < 20 && expected.length() > 0; probe++) {
+                    int index = random.nextInt(expected.length());
+                    assertEquals(expected.charAt(index), rope.charAt(index));
+                }
+                int start = random.nextInt(expected.length() + 1);
+                int end = start + random.nextInt(expected.length() - start + 1);
+                assertEquals(expected.substring(start, end), rope.subSequence(start, end).toString());
+            }
+        }
+        assertEquals(expected.toString(), rope.toString());
+    }
+
+    @Test
+    public void testImmutableSnapshots() {
+        Rope original = Rope.of("12+34");
+        Rope edited = original.insert(2, "x5").delete(0, 1);
+        assertEquals("12+34", original.toString());
+        assertEquals("2x5+34", edited.toString());
+        assertSame(original, original.append(""));
+        assertSame(original, Rope.of(original));
+    }
+
+    @Test
+    public void testBalancedAfterManyFrontInserts() {
+        // Une corde déséquilibrée ferait déborder la pile de split et de toString
+        Rope rope = Rope.EMPTY;
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            char c = (char) ('0' + i % 10);
+            rope = rope.insert(0, String.valueOf(c));
+            expected.insert(0, c);
+        }
+        assertEquals(expected.toString(), rope.toString());
+        assertEquals(expected.charAt(54321), rope.charAt(54321));
+        assertEquals(expected.substring(1000, 70000), rope.subSequence(1000, 70000).toString());
+    }
+
+    @Test
+    public void testOutOfRange() {
+        Rope rope = Rope.of("sin(30)");
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.charAt(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.insert(8, "1"));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.delete(3, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> rope.subSequence(-1, 2));
+    }
+
+    private static String randomText(Random random, int length) {
+        String alphabet = "0123456789+-x÷().%^πsincoartlg!";
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -16,4 +16,25 @@ public class CalculationResultTest {
         CalculationResult result = new CalculationResult(3.5, "7 / 2");
         assertEquals("3.5", result.getFormattedResult());
     }
+
+    @Test
+    public void testRoundedFormattedResult() {
+        assertEquals("0.3333333333", new CalculationResult(1.0 / 3, "1 / 3").getFormattedResult());
+        assertEquals("-0.6666666667", new CalculationResult(-2.0 / 3, "-2 / 3").getFormattedResult());
+        assertEquals("0.3", new CalculationResult(0.1 + 0.2, "0.1 + 0.2").getFormattedResult());
+    }
+
+    @Test
+    public void testNearIntegerFormattedResult() {
+        assertEquals("3", new CalculationResult(2.9999999999, "2.9999999999").getFormattedResult());
+        assertEquals("0", new CalculationResult(-1e-12, "-1e-12").getFormattedResult());
+    }
+
+    @Test
+    public void testScientificFormattedResult() {
+        CalculationResult result = new CalculationResult(0.00012, "0.00012");
+        assertEquals("1.2E-4", result.getFormattedResult(ResultFormatter.Notation.SCIENTIFIC));
+        assertEquals("120E-6", result.getFormattedResult(ResultFormatter.Notation.ENGINEERING));
+        assertEquals("-12.345E3", new CalculationResult(-12345, "-12345").getFormattedResult(ResultFormatter.Notation.ENGINEERING));
+    }
 }
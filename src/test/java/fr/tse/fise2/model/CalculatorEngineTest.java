@@ -1,6 +1,9 @@
 package fr.tse.fise2.model;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -66,6 +69,30 @@ public class CalculatorEngineTest {
         assertEquals(1, engine.tan(45), DELTA);
     }
 
+    @Test
+    void testExactDegreeTrigonometry() throws CalculatorException {
+        assertEquals(0, engine.sin(180));
+        assertEquals(0.5, engine.cos(60));
+        assertEquals(-0.5, engine.sin(-30));
+        assertEquals(1, engine.tan(225));
+        assertEquals(0, engine.cos(3.6e9 + 90));
+        assertEquals(30, engine.arcsin(0.5));
+        assertEquals(60, engine.arctan(engine.tan(60)));
+        assertThrows(CalculatorException.class, () -> engine.tan(90));
+    }
+
+    @Test
+    void testAngleModes() throws CalculatorException {
+        engine.setAngleMode(AngleMode.RAD);
+        assertEquals(1, engine.sin(Math.PI / 2), DELTA);
+        assertEquals(Math.PI, engine.arccos(-1), DELTA);
+
+        engine.setAngleMode(AngleMode.GRAD);
+        assertEquals(1, engine.sin(100));
+        assertEquals(-1, engine.cos(200));
+        assertEquals(50, engine.arctan(1));
+    }
+
     @Test
     void testLogarithms() throws CalculatorException {
         // Test ln
@@ -103,6 +130,32 @@ public class CalculatorEngineTest {
         assertThrows(CalculatorException.class, () -> engine.factorial(-1));
     }
 
+    @Test
+    void testFactorialTableAndGamma() throws CalculatorException {
+        assertEquals(7.257415615307999E306, engine.factorial(170));
+        assertThrows(CalculatorException.class, () -> engine.factorial(171));
+
+        // x! = Γ(x + 1) pour les non-entiers
+        assertEquals(Math.sqrt(Math.PI) / 2, engine.factorial(0.5), 1e-14);
+        assertEquals(Math.sqrt(Math.PI), engine.factorial(-0.5), 1e-14);
+        assertEquals(-2 * Math.sqrt(Math.PI), engine.factorial(-1.5), 1e-14);
+        assertEquals(287.88527781504433, engine.factorial(5.5), 1e-10);
+    }
+
+    @Test
+    void testCombinationsAndPermutations() throws CalculatorException {
+        assertEquals(252, engine.combinations(10, 5));
+        assertEquals(5586853480.0, engine.combinations(40, 12));
+        assertEquals(5040, engine.permutations(10, 4));
+        assertThrows(CalculatorException.class, () -> engine.combinations(5.5, 2));
+        assertThrows(CalculatorException.class, () -> engine.permutations(-3, 2));
+
+        BigInteger binomial = engine.exactCombinations(BigInteger.valueOf(1000), BigInteger.valueOf(500));
+        assertEquals(300, binomial.toString().length());
+        assertEquals(engine.exactFactorial(BigInteger.valueOf(1000)),
+            binomial.multiply(engine.exactFactorial(BigInteger.valueOf(500)).pow(2)));
+    }
+
     @Test
     void testLastResult() throws CalculatorException {
         engine.sin(90);
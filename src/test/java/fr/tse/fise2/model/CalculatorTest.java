@@ -2,6 +2,9 @@ package fr.tse.fise2.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
 import org.junit.jupiter.api.BeforeEach;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,4 +69,493 @@ public class CalculatorTest {
         CalculationResult result = calculator.evaluateExpression("(2-3)x4");
         assertEquals(-4, result.getResult());
     }
+
+    @Test
+    public void testIncrementalAppend() throws CalculatorException {
+        // Ajouts successifs en fin d'expression, comme une saisie de cumul
+        assertEquals(6, calculator.evaluateExpression("1+2+3").getResult());
+        assertEquals(10, calculator.evaluateExpression("1+2+3+4").getResult());
+        assertEquals(42, calculator.evaluateExpression("1+2+3+4x9").getResult());
+        assertEquals(3, calculator.evaluateExpression("1+2").getResult());
+    }
+
+    @Test
+    public void testIncrementalModuloBecomesPercentage() throws CalculatorException {
+        // Le sens de '%' dépend du token suivant et doit être réévalué
+        assertEquals(2, calculator.evaluateExpression("8%3").getResult());
+        assertEquals(0.08, calculator.evaluateExpression("8%").getResult());
+        assertEquals(2, calculator.evaluateExpression("8%3").getResult());
+    }
+
+    @Test
+    public void testIncrementalAfterError() throws CalculatorException {
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("10÷0"));
+        assertEquals(5, calculator.evaluateExpression("10÷2").getResult());
+        assertEquals(50, calculator.evaluateExpression("10÷2x10").getResult());
+    }
+
+    @Test
+    public void testIncrementalLongExpression() throws CalculatorException {
+        // Expression bien plus longue que l'intervalle entre points de reprise, modifiée
+        // en fin, au milieu et raccourcie : le résultat ne dépend pas des points conservés
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            expression.append("(1+");
+        }
+        expression.append('1');
+        for (int i = 0; i < 5000; i++) {
+            expression.append(')');
+        }
+        assertEquals(5001, calculator.evaluateExpression(expression.toString()).getResult());
+        assertEquals(5003, calculator.evaluateExpression(expression + "+2").getResult());
+        expression.setCharAt(7999, '2');
+        assertEquals(5002, calculator.evaluateExpression(expression.toString()).getResult());
+        assertEquals(2333, calculator.evaluateExpression(expression.substring(0, 7000) + "0" + ")".repeat(2334)).getResult());
+    }
+
+    @Test
+    public void testInterruptedEvaluation() throws CalculatorException {
+        // Un thread interrompu (aperçu remplacé) abandonne l'évaluation
+        calculator.setNumberMode(NumberMode.EXACT);
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1+2"));
+            assertThrows(java.util.concurrent.CancellationException.class, () -> BigIntegerMath.factorial(50000));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(3, calculator.evaluateExpression("1+2").getResult());
+
+        calculator.setMaxExactBits(1 << 20);
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("3^1000000"));
+        assertEquals(500001, calculator.evaluateExpression("2^500000").getExactResult().bitLength());
+    }
+
+    @Test
+    public void testAngleModeChangeInvalidatesCheckpoints() throws CalculatorException {
+        assertEquals(1, calculator.evaluateExpression("sin(90)").getResult());
+        calculator.setAngleMode(AngleMode.RAD);
+        assertEquals(Math.sin(90), calculator.evaluateExpression("sin(90)").getResult(), 1e-12);
+    }
+
+    @Test
+    public void testCombinationsAndPermutations() throws CalculatorException {
+        assertEquals(10, calculator.evaluateExpression("5nCr2").getResult());
+        assertEquals(20, calculator.evaluateExpression("5nPr2").getResult());
+        assertEquals(11, calculator.evaluateExpression("1+5nCr2").getResult());
+        assertEquals(0, calculator.evaluateExpression("2nCr5").getResult());
+    }
+
+    @Test
+    public void testLongArithmetic() throws CalculatorException {
+        // Entiers calculés en long : aucun arrondi au-delà de 2^53
+        assertEquals("9007199254740993", calculator.evaluateExpression("9007199254740992+1").getFormattedResult());
+        assertEquals("4611686018427387904", calculator.evaluateExpression("2^62").getFormattedResult());
+        assertEquals("2432902008176640000", calculator.evaluateExpression("20!").getFormattedResult());
+        assertEquals(-25, calculator.evaluateExpression("5x(3-8)").getExactResult().longValue());
+        // Dépassement : poursuite en flottant
+        assertNull(calculator.evaluateExpression("2^64").getExactResult());
+        assertEquals(0x1p64, calculator.evaluateExpression("2^64").getResult());
+        assertEquals(2.5, calculator.evaluateExpression("10÷4").getResult());
+    }
+
+    @Test
+    public void testDecimalMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.DECIMAL);
+        assertEquals("0.3", calculator.evaluateExpression("0.1+0.2").getFormattedResult());
+        assertEquals("59.97", calculator.evaluateExpression("19.99x3").getFormattedResult());
+        assertEquals("12.5", calculator.evaluateExpression("100x12.5%").getFormattedResult());
+        assertEquals("0.3333333333", calculator.evaluateExpression("1÷3").getFormattedResult());
+        // Dépassement de la mantisse long : poursuite en BigDecimal
+        assertEquals("123456789012345679.5", calculator.evaluateExpression("123456789012345678.5+1").getFormattedResult());
+
+        // Centimes, arrondi bancaire puis commercial
+        calculator.setDecimalScale(2);
+        assertEquals("0.12", calculator.evaluateExpression("0.125x1").getFormattedResult());
+        calculator.setDecimalRounding(RoundingMode.HALF_UP);
+        assertEquals("0.13", calculator.evaluateExpression("0.125x1").getFormattedResult());
+        assertEquals("3.33", calculator.evaluateExpression("10÷3").getFormattedResult());
+    }
+
+    @Test
+    public void testRationalMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.RATIONAL);
+        assertEquals("1", calculator.evaluateExpression("1÷3x3").getFormattedResult());
+        CalculationResult third = calculator.evaluateExpression("1÷3");
+        assertEquals("1÷3", third.getFormattedResult());
+        assertEquals("0.3333333333", third.getFormattedDecimal());
+        assertEquals(BigInteger.valueOf(3), third.getFractionResult().getDenominator());
+        assertEquals("1÷2", calculator.evaluateExpression("1÷3+1÷6").getFormattedResult());
+        assertEquals("3÷4", calculator.evaluateExpression("0.25+0.5").getFormattedResult());
+        assertEquals("9÷4", calculator.evaluateExpression("(2÷3)^-2").getFormattedResult());
+        // Dénominateurs au-delà d'un long : poursuite en BigInteger
+        assertEquals("1÷2432902008176640000", calculator.evaluateExpression("1÷2÷3÷4÷5÷6÷7÷8÷9÷10÷11÷12÷13÷14÷15÷16÷17÷18÷19÷20").getFormattedResult());
+        assertEquals("1÷51090942171709440000", calculator.evaluateExpression("1÷2÷3÷4÷5÷6÷7÷8÷9÷10÷11÷12÷13÷14÷15÷16÷17÷18÷19÷20÷21").getFormattedResult());
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1÷0"));
+    }
+
+    @Test
+    public void testComplexMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.COMPLEX);
+        assertEquals("-1", calculator.evaluateExpression("i^2").getFormattedResult());
+        assertEquals("2i", calculator.evaluateExpression("sqrt(-4)").getFormattedResult());
+        assertEquals("23+2i", calculator.evaluateExpression("(2+3i)x(4-5i)").getFormattedResult());
+        assertEquals("4i", calculator.evaluateExpression("3+4i-3").getFormattedResult());
+        assertEquals("2+i", calculator.evaluateExpression("sqrt(3+4i)").getFormattedResult());
+        CalculationResult log = calculator.evaluateExpression("ln(-1)");
+        assertEquals(0, log.getResult());
+        assertEquals(Math.PI, log.getImaginaryResult(), 1e-15);
+        assertEquals(Math.exp(-Math.PI / 2), calculator.evaluateExpression("i^i").getResult(), 1e-15);
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1÷(0i)"));
+
+        // En dehors du mode complexe, i n'est pas défini
+        calculator.setNumberMode(NumberMode.FLOAT);
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("2i"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("sqrt(-4)"));
+    }
+
+    @Test
+    public void testProgrammerMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.PROGRAMMER);
+        assertEquals("15", calculator.evaluateExpression("0xFFAND0x0F").getFormattedResult());
+        assertEquals("2", calculator.evaluateExpression("0xAAND0x3").getFormattedResult());
+        assertEquals("25", calculator.evaluateExpression("0b1010+0o17").getFormattedResult());
+        assertEquals("3", calculator.evaluateExpression("1OR2XOR3AND4").getFormattedResult());
+        assertEquals("254", calculator.evaluateExpression("0xff-1").getFormattedResult());
+        // Entiers de 64 bits en complément à deux, sans passage par double
+        assertEquals("-1", calculator.evaluateExpression("0xFFFFFFFFFFFFFFFF").getFormattedResult());
+        assertEquals("-9223372036854775808", calculator.evaluateExpression("1<<63").getFormattedResult());
+        assertEquals("15", calculator.evaluateExpression("(-1)>>>60").getFormattedResult());
+        assertEquals("-9223372036854775807", calculator.evaluateExpression("0x8000000000000000+1").getFormattedResult());
+
+        calculator.setOutputBase(16);
+        CalculationResult rotated = calculator.evaluateExpression("0x80000000ROL1");
+        assertEquals("0x100000000", rotated.getFormattedResult());
+        assertEquals("0b1" + "0".repeat(63), calculator.evaluateExpression("1ROR1").getFormattedResult(2));
+        assertEquals("0xFFFFFFFFFFFFFFF0", calculator.evaluateExpression("NOT(0xF)").getFormattedResult());
+        assertEquals("4294967296", rotated.getFormattedResult(10));
+
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1.5"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1<<64"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("sin(1)"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("0x10000000000000000"));
+        // Préfixe sans chiffres en fin de saisie : littéral incomplet, pas une multiplication
+        assertEquals("Littéral incomplet : 0x",
+            assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("0x")).getMessage());
+
+        // Hors du mode programmeur, 0x5 reste le produit 0 x 5
+        calculator.setNumberMode(NumberMode.FLOAT);
+        assertEquals(0, calculator.evaluateExpression("0x5").getResult());
+    }
+
+    @Test
+    public void testMatrixMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.MATRIX);
+        assertEquals(-2, calculator.evaluateExpression("det([1,2;3,4])").getResult(), 1e-12);
+        assertEquals("[17;39]", calculator.evaluateExpression("[1,2;3,4]x[5;6]").getFormattedResult());
+        assertEquals("[-2,1;1.5,-0.5]", calculator.evaluateExpression("inv([1,2;3,4])").getFormattedResult());
+        assertEquals("[0.8;1.4]", calculator.evaluateExpression("[2,1;1,3]\\[3;5]").getFormattedResult());
+        assertEquals("[1,3;2,4]", calculator.evaluateExpression("trans([1,2;3,4])").getFormattedResult());
+
+        // Variables : affectation par → et multiplication implicite
+        calculator.evaluateExpression("[1,2;3,4]→A");
+        assertEquals("[7,10;15,22]", calculator.evaluateExpression("A^2").getFormattedResult());
+        assertEquals("[2,4;6,8]", calculator.evaluateExpression("2A").getFormattedResult());
+
+        // Grande matrice : produit et décomposition LU par blocs, en parallèle
+        int n = 200;
+        java.util.Random random = new java.util.Random(42);
+        double[] values = new double[n * n];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() - 0.5;
+        }
+        calculator.setVariable("M", new Matrix(n, n, values));
+        Matrix identity = calculator.evaluateExpression("Mxinv(M)").getMatrixResult();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                assertEquals(i == j ? 1 : 0, identity.get(i, j), 1e-9);
+            }
+        }
+
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("[1,2;3,4]+[1;2]"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("inv([1,2;2,4])"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("inv([1,2,3;4,5,6;7,8,9])"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("[1,2,3;4,5,6;7,8,9]\\[1;2;3]"));
+        assertEquals(0, calculator.evaluateExpression("det([1,2,3;4,5,6;7,8,9])").getResult(), 0);
+        assertEquals(1e-200, calculator.evaluateExpression("det([1E-100,0;0,1E-100])").getResult(), 1e-210);
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("[1,2;3]"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("Z"));
+    }
+
+    @Test
+    public void testStatisticsMode() throws Exception {
+        calculator.setNumberMode(NumberMode.STATISTICS);
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("mean"));
+
+        // Point-virgule et virgule décimale, cellules vides ou non numériques ignorées
+        java.nio.file.Path file = java.nio.file.Files.createTempFile("statistiques", ".csv");
+        try {
+            java.nio.file.Files.writeString(file, "id;prix\n1;2\n2;4,5\n3;\n4;n/a\n5;\"4\"\n6;5\n7;7\n8;9\n");
+            StreamingStatistics dataset = CsvColumnReader.read(file, "prix");
+            assertEquals(2, dataset.getSkipped());
+            calculator.setDataset(dataset);
+        } finally {
+            java.nio.file.Files.delete(file);
+        }
+        assertEquals("6", calculator.evaluateExpression("count").getFormattedResult());
+        assertEquals(5.25, calculator.evaluateExpression("mean").getResult(), 1e-12);
+        assertEquals(5.975, calculator.evaluateExpression("var").getResult(), 1e-12);
+        assertEquals(Math.sqrt(5.975), calculator.evaluateExpression("sd").getResult(), 1e-12);
+        assertEquals("7", calculator.evaluateExpression("max-min").getFormattedResult());
+        assertEquals("4.5", calculator.evaluateExpression("pct(50)").getFormattedResult());
+        assertEquals("9", calculator.evaluateExpression("pct(100)").getFormattedResult());
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("pct(101)"));
+    }
+
+    @Test
+    public void testPolynomialMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.POLYNOMIAL);
+        assertEquals("X^2-1", calculator.evaluateExpression("(X-1)(X+1)").getFormattedResult());
+        assertEquals("12X^3-2", calculator.evaluateExpression("deriv(3X^4-2X+1)").getFormattedResult());
+        assertEquals(45, calculator.evaluateExpression("(3X^4-2X+1)@2").getResult());
+        assertEquals("{1 ; 2 ; 3}", calculator.evaluateExpression("roots(X^3-6X^2+11X-6)").getFormattedResult());
+        assertEquals("{-i ; i}", calculator.evaluateExpression("roots(X^2+1)").getFormattedResult());
+        assertEquals("{1 ; 1}", calculator.evaluateExpression("roots(X^2-2X+1)").getFormattedResult());
+
+        // Évaluation sur un tableau d'abscisses, par blocs
+        Polynomial polynomial = Polynomial.parse("3x^4-2x+1");
+        assertArrayEquals(new double[] {1, 2, 45, 6}, polynomial.evaluate(new double[] {0, 1, 2, -1}));
+
+        // Racines d'un polynôme de degré élevé : |P(z)| de l'ordre de l'arrondi
+        java.util.Random random = new java.util.Random(42);
+        double[] coefficients = new double[101];
+        for (int i = 0; i < coefficients.length; i++) {
+            coefficients[i] = random.nextGaussian();
+        }
+        Polynomial.Roots roots = Polynomial.of(coefficients).roots();
+        assertEquals(100, roots.size());
+        double[] value = new double[2];
+        for (int k = 0; k < roots.size(); k++) {
+            double re = roots.getReal(k);
+            double im = roots.getImaginary(k);
+            double pr = 0;
+            double pi = 0;
+            double bound = 0;
+            for (int i = coefficients.length - 1; i >= 0; i--) {
+                ComplexMath.multiply(pr, pi, re, im, value);
+                pr = value[0] + coefficients[i];
+                pi = value[1];
+                bound = bound * Math.hypot(re, im) + Math.abs(coefficients[i]);
+            }
+            assertTrue(Math.hypot(pr, pi) <= 1e-12 * bound);
+        }
+
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("1÷X"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("X^0.5"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("roots(X-X)"));
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("roots(X)+1"));
+    }
+
+    @Test
+    public void testSolve() throws CalculatorException {
+        assertEquals(Math.sqrt(2), calculator.solve("X^2-2", 1).getResult(), 1e-15);
+        assertEquals(-Math.sqrt(2), calculator.solve("X^2-2", -1).getResult(), 1e-15);
+        assertEquals(Math.E, calculator.solve("ln(X)-1", 0.5).getResult(), 1e-15);
+        assertEquals(1.324717957244746, calculator.solve("X^3-X-1", 1, 2).getResult(), 1e-15);
+        assertEquals(1, calculator.solve("(X-1)^3", 5).getResult(), 1e-7);
+        // Nombre saisi avec un point final, comme à l'évaluation directe
+        assertEquals(3, calculator.solve("X-3.", 0).getResult(), 1e-15);
+        assertEquals(-4.5, calculator.integrate("X-3.", 0, 3, 1e-10).getValue(), 1e-14);
+
+        // Unité d'angle fixée à la compilation
+        CompiledExpression degrees = calculator.compile("sin(X)-0.5");
+        calculator.setAngleMode(AngleMode.RAD);
+        assertEquals(30, Solver.solve(degrees, 10), 1e-12);
+        assertEquals(0.739085133215161, calculator.solve("cos(X)-X", 0).getResult(), 1e-15);
+
+        // Équations indépendantes résolues en parallèle
+        CompiledExpression[] equations = new CompiledExpression[100];
+        double[] guesses = new double[equations.length];
+        for (int i = 0; i < equations.length; i++) {
+            equations[i] = calculator.compile("X^3-" + (i + 1));
+            guesses[i] = 1;
+        }
+        double[] roots = Solver.solveAll(equations, guesses);
+        for (int i = 0; i < roots.length; i++) {
+            assertEquals(Math.cbrt(i + 1), roots[i], 1e-14);
+        }
+
+        assertThrows(CalculatorException.class, () -> calculator.solve("X^2+1", 1));
+        assertThrows(CalculatorException.class, () -> calculator.solve("X^2+1", -1, 1));
+        assertThrows(CalculatorException.class, () -> calculator.compile("(X+1"));
+    }
+
+    @Test
+    public void testIntegrate() throws CalculatorException {
+        Integrator.Integral square = calculator.integrate("X^2", 0, 1, 1e-10);
+        assertEquals(1.0 / 3, square.getValue(), 1e-15);
+        assertEquals(15, square.getEvaluations());
+        assertTrue(square.getErrorEstimate() <= 1e-10);
+        assertEquals(-1.0 / 3, calculator.integrate("X^2", 1, 0, 1e-10).getValue(), 1e-15);
+        assertEquals(Math.PI, calculator.integrate("4÷(1+X^2)", 0, 1, 1e-12).getValue(), 1e-14);
+
+        calculator.setAngleMode(AngleMode.RAD);
+        assertEquals(2, calculator.integrate("sin(X)", 0, Math.PI, 1e-10).getValue(), 1e-14);
+        // Intégrande oscillante : de nombreux intervalles répartis entre les threads
+        Integrator.Integral oscillating = calculator.integrate("sin(100X)^2", 0, 10, 1e-10);
+        assertEquals(5 - Math.sin(2000) / 400, oscillating.getValue(), 1e-10);
+        assertTrue(oscillating.getEvaluations() > 1000);
+        // Singularité intégrable en 0 : valeur approchée, erreur estimée supérieure à l'erreur réelle
+        Integrator.Integral singular = calculator.integrate("1÷sqrt(X)", 0, 1, 1e-10);
+        assertTrue(Math.abs(singular.getValue() - 2) <= singular.getErrorEstimate());
+
+        assertThrows(CalculatorException.class, () -> calculator.integrate("ln(X)", -1, 1, 1e-10));
+        assertThrows(CalculatorException.class, () -> calculator.integrate("X", 0, 1, 0));
+        assertThrows(CalculatorException.class, () -> calculator.integrate("X", 0, Double.POSITIVE_INFINITY, 1e-10));
+    }
+
+    @Test
+    public void testSeries() throws CalculatorException {
+        assertEquals(5050, calculator.sum("X", 1, 100).getResult());
+        assertEquals(0, calculator.sum("X", 1, 0).getResult());
+        // Somme compensée : un million de termes 0.1 sans dérive d'arrondi
+        assertEquals(100000, calculator.sum("0.1", 1, 1000000).getResult());
+        double tail = 1e-6 - 0.5e-12 + 1e-18 / 6;
+        assertEquals(Math.PI * Math.PI / 6 - tail, calculator.sum("1÷X^2", 1, 1000000).getResult(), 5e-16);
+
+        assertEquals(calculator.evaluateExpression("170!").getResult(), calculator.product("X", 1, 170).getResult());
+        assertEquals(1, calculator.product("X", 1, 0).getResult());
+        // Produits partiels hors de la capacité d'un double, produit final représentable
+        assertEquals(1, calculator.product("2^((-1)^X)", 1, 4000).getResult());
+        assertEquals(Math.scalb(1.0, -1000), calculator.product("0.5", 1, 1000).getResult());
+        assertThrows(CalculatorException.class, () -> calculator.product("2", 1, 2000));
+        assertThrows(CalculatorException.class, () -> calculator.sum("1÷(X-500)", 1, 1000));
+
+        // Thread appelant interrompu : la somme est abandonnée
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CalculatorException.class, () -> calculator.sum("X", 1, 1L << 40));
+        } finally {
+            Thread.interrupted();
+        }
+        assertEquals(5050, calculator.sum("X", 1, 100).getResult());
+    }
+
+    @Test
+    public void testDifferentiate() throws CalculatorException {
+        assertEquals("3xX^2-2", calculator.differentiate("X^3-2X+1").toString());
+        // Facteur π/180 des fonctions trigonométriques en degrés
+        CompiledExpression sine = calculator.differentiate("sin(X)");
+        assertEquals("π÷180xcos(X)", sine.toString());
+        assertEquals(Math.PI / 360, sine.evaluate(60), 1e-17);
+        // Les facteurs constants de la dérivée seconde sont regroupés en tête du produit
+        assertEquals("-(π÷180)^2xsin(X)", calculator.differentiate(sine.toString()).toString());
+
+        calculator.setAngleMode(AngleMode.RAD);
+        assertEquals("cos(X)xX^2+sin(X)x(2xX)", calculator.differentiate("sin(X)xX^2").toString());
+        assertEquals("1÷(1+X^2)", calculator.differentiate("arctan(X)").toString());
+        double x = 0.7;
+        assertEquals(Math.pow(x, x) * (Math.log(x) + 1), calculator.differentiate("X^X").evaluate(x), 1e-15);
+        // u÷u et u×(1÷u) valent 1
+        assertEquals("X^Xx(ln(X)+1)", calculator.differentiate("X^X").toString());
+        assertEquals("ln(X)+1", calculator.differentiate("Xxln(X)").toString());
+        assertEquals(-1 / Math.sqrt(1 - x * x), calculator.differentiate("arccos(X)").evaluate(x), 1e-15);
+        // u-u vaut 0, et un produit par -1 s'écrit comme une négation
+        assertEquals("0", calculator.differentiate("X÷X").toString());
+        assertEquals("0", calculator.differentiate("(X+1)÷(X+1)").toString());
+        assertEquals("-sin(X)", calculator.differentiate("cos(X)").toString());
+        assertEquals("-1÷X^2", calculator.differentiate("1÷X").toString());
+        assertEquals("12xX", calculator.differentiate("3xXx2xX").toString());
+        assertEquals(-9, calculator.compile("-X^2").evaluate(3));
+        assertEquals(-2, calculator.compile("2x-X").evaluate(1));
+        // Factoriel : Γ'(2) = 1 - γ
+        assertEquals("X!xψ(X+1)", calculator.differentiate("X!").toString());
+        assertEquals(0.42278433509846713, calculator.differentiate("X!").evaluate(1), 1e-14);
+        // Le texte de la dérivée se recompile, et se dérive à nouveau
+        CompiledExpression quotient = calculator.differentiate("(X+1)÷(X-1)");
+        assertEquals(quotient.evaluate(3), calculator.compile(quotient.toString()).evaluate(3));
+        assertEquals(-0.5, quotient.evaluate(3), 1e-15);
+        assertEquals(0.5, quotient.derivative().evaluate(3), 1e-15);
+
+        assertThrows(CalculatorException.class, () -> calculator.differentiate("Xx(XnCr2)"));
+        assertThrows(CalculatorException.class, () -> calculator.differentiate("X!").derivative());
+    }
+
+    @Test
+    public void testPreciseMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.PRECISE);
+        calculator.setPrecision(40);
+        assertEquals("3.141592653589793238462643383279502884197", calculator.evaluateExpression("π").getFormattedResult());
+        assertEquals("1.41421356237309504880168872420969807857", calculator.evaluateExpression("sqrt(2)").getFormattedResult());
+        assertEquals("0.6931471805599453094172321214581765680755", calculator.evaluateExpression("ln(2)").getFormattedResult());
+        assertEquals("2.718281828459045235360287471352662497757", calculator.evaluateExpression("exp(1)").getFormattedResult());
+        assertEquals("0.5", calculator.evaluateExpression("sin(30)").getFormattedResult());
+        assertEquals("30", calculator.evaluateExpression("arcsin(0.5)").getFormattedResult());
+
+        calculator.setAngleMode(AngleMode.RAD);
+        assertEquals("0.8414709848078965066525023216302989996226", calculator.evaluateExpression("sin(1)").getFormattedResult());
+        assertEquals("3.141592653589793238462643383279502884197", calculator.evaluateExpression("4xarctan(1)").getFormattedResult());
+        assertThrows(CalculatorException.class, () -> calculator.evaluateExpression("ln(0)"));
+
+        // Grands entiers arrondis à la précision : notation scientifique, sans développer les chiffres
+        assertEquals("1.5E400", calculator.evaluateExpression("1.5x10^400").getFormattedResult());
+        assertEquals("1E2000000", calculator.evaluateExpression("10^2000000").getFormattedResult());
+        assertNull(calculator.evaluateExpression("10^2000000").getExactResult());
+        assertEquals("1.274574592490302535935069243601802101816E16984971",
+            calculator.evaluateExpression("5^24300000").getFormattedResult());
+        assertEquals("100000", calculator.evaluateExpression("10^60÷10^55").getFormattedResult());
+        assertEquals("1267650600228229401496703205376", calculator.evaluateExpression("2^100").getFormattedResult());
+    }
+
+    @Test
+    public void testExactMode() throws CalculatorException {
+        calculator.setNumberMode(NumberMode.EXACT);
+        assertEquals("15511210043330985984000000", calculator.evaluateExpression("25!").getFormattedResult());
+        assertEquals("100891344545564193334812497256", calculator.evaluateExpression("100nCr50").getFormattedResult());
+        assertEquals("1267650600228229401496703205376", calculator.evaluateExpression("2^100").getFormattedResult());
+        assertEquals("9007199254740993", calculator.evaluateExpression("9007199254740992+1").getFormattedResult());
+        // Division non entière et fonctions : retour aux flottants
+        assertNull(calculator.evaluateExpression("7÷2").getExactResult());
+        assertEquals(3.5, calculator.evaluateExpression("7÷2").getResult());
+        assertEquals(3, calculator.evaluateExpression("6÷2").getExactResult().intValue());
+
+        BigInteger factorial = calculator.evaluateExpression("100000!").getExactResult();
+        assertEquals(1516705, factorial.bitLength());
+        assertEquals(100000 - Integer.bitCount(100000), factorial.getLowestSetBit());
+    }
+
+    @Test
+    public void testFunctionSampler() throws CalculatorException {
+        calculator.setAngleMode(AngleMode.RAD);
+        FunctionSampler sine = new FunctionSampler(calculator.compile("sin(X)"));
+        FunctionSampler.Samples samples = sine.sample(-10, 10, 1e-3);
+        assertTrue(samples.getX(0) <= -10 && samples.getX(samples.size() - 1) >= 10);
+        for (int i = 0; i < samples.size(); i++) {
+            assertEquals(Math.sin(samples.getX(i)), samples.getY(i), 1e-15);
+            if (i > 0) {
+                assertTrue(samples.getX(i - 1) < samples.getX(i));
+            }
+        }
+        // Mêmes abscisses d'une vue à l'autre : rien n'est réévalué, un déplacement
+        // n'évalue que les nouveaux points
+        long evaluations = sine.getEvaluations();
+        sine.sample(-10, 10, 1e-3);
+        assertEquals(evaluations, sine.getEvaluations());
+        sine.sample(-8, 12, 1e-3);
+        assertTrue(sine.getEvaluations() - evaluations < evaluations / 2);
+
+        // Pôle en 0 : le tracé y est coupé, et seulement là
+        FunctionSampler.Samples inverse = new FunctionSampler(calculator.compile("1÷X")).sample(-10, 10, 1e-2);
+        int breaks = 0;
+        for (int i = 0; i < inverse.size(); i++) {
+            if (Double.isNaN(inverse.getY(i))) {
+                breaks++;
+                assertEquals(0, inverse.getX(i), 1e-3);
+            }
+        }
+        assertEquals(1, breaks);
+
+        assertThrows(IllegalArgumentException.class, () -> sine.sample(1, 1, 1e-3));
+        assertThrows(IllegalArgumentException.class, () -> sine.sample(0, 1, 0));
+    }
 }